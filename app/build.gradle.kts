@@ -44,13 +44,36 @@ android {
         viewBinding = true
     }
 
-    // Cấu hình cho TensorFlow Lite
+    // Cấu hình cho TensorFlow Lite; chỉ mục địa điểm và đồ thị đường đi bộ (.bin) cũng không nén để ánh xạ bộ nhớ
     androidResources {
-        noCompress += listOf("tflite", "lite")
+        noCompress += listOf("tflite", "lite", "bin")
+    }
+
+    // Chỉ mục địa điểm ngoại tuyến do :poiindex dựng khi có -PpoiSource,
+    // đồ thị đường đi bộ do :walkgraph dựng khi có -PwalkGraphSource
+    sourceSets {
+        getByName("main") {
+            assets.srcDir(layout.buildDirectory.dir("generated/poi"))
+            assets.srcDir(layout.buildDirectory.dir("generated/routing"))
+        }
+    }
+}
+
+if (findProperty("poiSource") != null) {
+    tasks.named("preBuild") {
+        dependsOn(":poiindex:poiIndex")
+    }
+}
+if (findProperty("walkGraphSource") != null) {
+    tasks.named("preBuild") {
+        dependsOn(":walkgraph:walkGraph")
     }
 }
 
 dependencies {
+    // Thuật toán xử lý frame thuần Java
+    implementation(project(":core"))
+
     // Existing dependencies
     implementation(libs.appcompat)
     implementation(libs.material)
@@ -58,6 +81,7 @@ dependencies {
     implementation(libs.constraintlayout)
     implementation("com.google.android.material:material:1.9.0")
     implementation("androidx.cardview:cardview:1.0.0")
+    implementation("androidx.recyclerview:recyclerview:1.3.2")
     implementation("androidx.gridlayout:gridlayout:1.0.0")
 
     // CameraX dependencies
@@ -80,6 +104,8 @@ dependencies {
     implementation("org.tensorflow:tensorflow-lite-gpu:2.14.0")
     implementation("org.tensorflow:tensorflow-lite-gpu-delegate-plugin:0.4.4")
     implementation("com.squareup.okhttp3:okhttp:4.9.3")
+    // ListenableFuture cho ModelRepository
+    implementation("androidx.concurrent:concurrent-futures:1.2.0")
     // Lifecycle components
     implementation("androidx.lifecycle:lifecycle-viewmodel-ktx:2.7.0")
     implementation("androidx.lifecycle:lifecycle-livedata-ktx:2.7.0")
@@ -6,6 +6,7 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.fragment.app.Fragment;
 
 import com.example.blindwayapp.ui.home.HomeFragment;
+import com.example.blindwayapp.ui.navigation.ModelRepository;
 import com.example.blindwayapp.ui.profile.ProfileFragment;
 import com.example.blindwayapp.ui.settings.SettingsFragment;
 import com.google.android.material.bottomnavigation.BottomNavigationView;
@@ -19,6 +20,12 @@ public class MainActivity extends AppCompatActivity {
 
         BottomNavigationView bottomNav = findViewById(R.id.bottom_navigation); //Tạo bottom menu
 
+        // Tải và warm-up model ở nền ngay từ đầu để màn hình Điều hướng mở là dùng được
+        ModelRepository modelRepository = ModelRepository.getInstance(this);
+        if (modelRepository.isModelAvailable()) {
+            modelRepository.preload();
+        }
+
         // Load mặc định Home
         if (savedInstanceState == null) {
             getSupportFragmentManager().beginTransaction()
@@ -46,5 +53,8 @@ public class MainActivity extends AppCompatActivity {
 
             return true;
         });
+        // Chạm lại mục đang mở thì giữ nguyên màn hình thay vì tạo lại fragment
+        bottomNav.setOnItemReselectedListener(item -> {
+        });
     }
 }
@@ -0,0 +1,36 @@
+package com.example.blindwayapp.data;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Ghi cả file qua file tạm rồi đổi tên, để file cũ không bị hỏng nếu ứng dụng bị tắt giữa chừng.
+ * Dùng cho các file nhỏ ghi lại toàn bộ mỗi lần đổi (địa điểm đã lưu, cache địa chỉ).
+ */
+public final class AtomicFileWriter {
+
+    public interface Content {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    private AtomicFileWriter() {
+    }
+
+    /** @return false nếu không ghi được; file cũ (nếu có) vẫn nguyên và file tạm đã bị xóa */
+    public static boolean write(File file, Content content) {
+        File temp = new File(file.getPath() + ".tmp");
+        try (OutputStream out = new FileOutputStream(temp)) {
+            content.writeTo(out);
+        } catch (IOException e) {
+            temp.delete();
+            return false;
+        }
+        if (!temp.renameTo(file)) {
+            temp.delete();
+            return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.blindwayapp.data;
+
+import java.io.IOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Chạy các lần tra cứu trên một tài nguyên mở chậm (file ánh xạ bộ nhớ) ở luồng nền, chỉ trả
+ * kết quả của lần gửi mới nhất.
+ *
+ * Tài nguyên được mở ở lần chạy đầu tiên; mở lỗi thì đánh dấu không dùng được và không thử lại.
+ * Lần gửi cũ chưa chạy thì bỏ, đã chạy xong nhưng chưa kịp trả thì bỏ kết quả. Worker phải chạy
+ * tuần tự (một luồng) vì tài nguyên và trạng thái mở không được đồng bộ.
+ *
+ * @param <T> tài nguyên, ví dụ chỉ mục địa điểm hoặc bộ tìm đường
+ */
+public final class LatestRequestWorker<T> {
+
+    /** Mở tài nguyên; chạy trên worker. */
+    public interface Opener<T> {
+        T open() throws IOException;
+    }
+
+    public interface Task<T, R> {
+        /** @param resource null nếu không mở được tài nguyên */
+        R run(T resource);
+    }
+
+    public interface Callback<R> {
+        void onResult(R result);
+    }
+
+    private final Opener<T> opener;
+    private final Executor worker;
+    private final Executor callbackExecutor;
+    private final AtomicInteger latestRequest = new AtomicInteger();
+    private T resource;
+    private volatile boolean unavailable;
+
+    public LatestRequestWorker(Opener<T> opener, Executor worker, Executor callbackExecutor) {
+        this.opener = opener;
+        this.worker = worker;
+        this.callbackExecutor = callbackExecutor;
+    }
+
+    /** false nếu đã thử mở tài nguyên và không được (thiếu asset hoặc file hỏng). */
+    public boolean isAvailable() {
+        return !unavailable;
+    }
+
+    /** Chạy task trên worker rồi gọi callback trên callbackExecutor, trừ khi đã có lần gửi mới hơn. */
+    public <R> void submit(Task<T, R> task, Callback<R> callback) {
+        int request = latestRequest.incrementAndGet();
+        worker.execute(() -> {
+            if (request != latestRequest.get()) {
+                return;
+            }
+            R result = task.run(open());
+            callbackExecutor.execute(() -> {
+                if (request == latestRequest.get()) {
+                    callback.onResult(result);
+                }
+            });
+        });
+    }
+
+    /** Bỏ kết quả của các lần gửi chưa trả về. */
+    public void cancel() {
+        latestRequest.incrementAndGet();
+    }
+
+    private T open() {
+        if (resource == null && !unavailable) {
+            try {
+                resource = opener.open();
+            } catch (IOException e) {
+                unavailable = true;
+            }
+        }
+        return resource;
+    }
+}
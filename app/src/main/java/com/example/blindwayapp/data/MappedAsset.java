@@ -0,0 +1,28 @@
+package com.example.blindwayapp.data;
+
+import android.content.Context;
+import android.content.res.AssetFileDescriptor;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Ánh xạ bộ nhớ một asset không nén (model, chỉ mục địa điểm, đồ thị đường đi bộ) thay vì đọc
+ * cả file vào heap. Asset phải nằm trong noCompress của app/build.gradle.kts, nếu không openFd
+ * ném FileNotFoundException.
+ */
+public final class MappedAsset {
+
+    private MappedAsset() {
+    }
+
+    public static MappedByteBuffer map(Context context, String name) throws IOException {
+        try (AssetFileDescriptor fd = context.getAssets().openFd(name);
+             FileInputStream inputStream = new FileInputStream(fd.getFileDescriptor());
+             FileChannel fileChannel = inputStream.getChannel()) {
+            return fileChannel.map(FileChannel.MapMode.READ_ONLY, fd.getStartOffset(), fd.getDeclaredLength());
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.blindwayapp.location;
+
+import android.content.Context;
+import android.location.Address;
+import android.location.Geocoder;
+import android.util.Log;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+
+/** Backend của GeocodingService dùng android.location.Geocoder, tạo một lần cho cả process. */
+final class AndroidGeocoderBackend implements GeocodingService.Backend {
+
+    private static final String TAG = "GeocodingService";
+
+    private final Geocoder geocoder;
+
+    AndroidGeocoderBackend(Context context, Locale locale) {
+        geocoder = Geocoder.isPresent() ? new Geocoder(context, locale) : null;
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public String reverseGeocode(double latitude, double longitude) throws IOException {
+        if (geocoder == null) {
+            throw new IOException("Thiết bị không có dịch vụ Geocoder");
+        }
+        try {
+            // Bản chặn luồng, chỉ gọi trên worker của GeocodingService
+            List<Address> addresses = geocoder.getFromLocation(latitude, longitude, 1);
+            if (addresses == null || addresses.isEmpty()) {
+                return null;
+            }
+            return addresses.get(0).getAddressLine(0);
+        } catch (IOException e) {
+            Log.w(TAG, "Không tra được địa chỉ: " + e.getMessage());
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.blindwayapp.location;
+
+import android.Manifest;
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.content.pm.PackageManager;
+import android.location.Location;
+import android.os.Looper;
+import android.os.PowerManager;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.core.content.ContextCompat;
+
+import com.google.android.gms.location.FusedLocationProviderClient;
+import com.google.android.gms.location.LocationCallback;
+import com.google.android.gms.location.LocationRequest;
+import com.google.android.gms.location.LocationResult;
+import com.google.android.gms.location.LocationServices;
+import com.google.android.gms.location.Priority;
+
+/**
+ * Backend của LocationEngine dùng FusedLocationProviderClient, kèm theo dõi bật/tắt màn hình
+ * trong lúc yêu cầu đang chạy.
+ */
+final class FusedLocationBackend implements LocationEngine.Backend {
+
+    private static final String TAG = "LocationEngine";
+    // Vị trí cũ hơn mức này từ getLastLocation không dùng làm điểm bắt đầu
+    private static final long MAX_SEED_AGE_MS = 120_000;
+
+    private final Context appContext;
+    private final FusedLocationProviderClient client;
+    private LocationEngine engine;
+    private boolean running;
+
+    private final LocationCallback callback = new LocationCallback() {
+        @Override
+        public void onLocationResult(LocationResult result) {
+            for (Location location : result.getLocations()) {
+                deliver(location);
+            }
+        }
+    };
+
+    private final BroadcastReceiver screenReceiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            engine.setScreenOn(Intent.ACTION_SCREEN_ON.equals(intent.getAction()));
+        }
+    };
+
+    FusedLocationBackend(Context context) {
+        appContext = context.getApplicationContext();
+        client = LocationServices.getFusedLocationProviderClient(appContext);
+    }
+
+    void attach(LocationEngine engine) {
+        this.engine = engine;
+    }
+
+    @Override
+    public void start(LocationRequestPolicy.Request request) {
+        if (!hasPermission()) {
+            Log.w(TAG, "Chưa có quyền vị trí, chưa bật cập nhật");
+            return;
+        }
+        LocationRequest locationRequest = new LocationRequest.Builder(priorityOf(request.accuracy), request.intervalMillis)
+                .setMinUpdateIntervalMillis(request.minIntervalMillis)
+                .setMaxUpdateDelayMillis(request.maxDelayMillis)
+                .build();
+        try {
+            // Cùng một callback: yêu cầu mới thay yêu cầu cũ
+            client.requestLocationUpdates(locationRequest, callback, Looper.getMainLooper());
+        } catch (SecurityException e) {
+            Log.w(TAG, "Bị từ chối quyền vị trí: " + e.getMessage());
+            return;
+        }
+        Log.d(TAG, "Yêu cầu vị trí: " + request);
+        if (!running) {
+            running = true;
+            IntentFilter filter = new IntentFilter(Intent.ACTION_SCREEN_ON);
+            filter.addAction(Intent.ACTION_SCREEN_OFF);
+            ContextCompat.registerReceiver(appContext, screenReceiver, filter, ContextCompat.RECEIVER_NOT_EXPORTED);
+            PowerManager powerManager = (PowerManager) appContext.getSystemService(Context.POWER_SERVICE);
+            if (powerManager != null && !powerManager.isInteractive()) {
+                engine.setScreenOn(false);
+            }
+            client.getLastLocation().addOnSuccessListener(location -> {
+                if (location != null && running && ageMillis(location) <= MAX_SEED_AGE_MS) {
+                    deliver(location);
+                }
+            });
+        }
+    }
+
+    @Override
+    public void stop() {
+        client.removeLocationUpdates(callback);
+        if (running) {
+            running = false;
+            appContext.unregisterReceiver(screenReceiver);
+        }
+        Log.d(TAG, "Dừng cập nhật vị trí");
+    }
+
+    /** Vị trí trong một lần gom có thể cũ tới maxDelayMillis nên không lọc theo tuổi ở đây. */
+    private void deliver(Location location) {
+        engine.onRawLocation(location.getLatitude(), location.getLongitude(),
+                location.hasAccuracy() ? location.getAccuracy() : 0f,
+                location.getElapsedRealtimeNanos() / 1_000_000L);
+    }
+
+    private static long ageMillis(Location location) {
+        return SystemClock.elapsedRealtime() - location.getElapsedRealtimeNanos() / 1_000_000L;
+    }
+
+    private boolean hasPermission() {
+        return ContextCompat.checkSelfPermission(appContext, Manifest.permission.ACCESS_FINE_LOCATION)
+                == PackageManager.PERMISSION_GRANTED
+                || ContextCompat.checkSelfPermission(appContext, Manifest.permission.ACCESS_COARSE_LOCATION)
+                == PackageManager.PERMISSION_GRANTED;
+    }
+
+    private static int priorityOf(LocationRequestPolicy.Accuracy accuracy) {
+        switch (accuracy) {
+            case HIGH:
+                return Priority.PRIORITY_HIGH_ACCURACY;
+            case BALANCED:
+                return Priority.PRIORITY_BALANCED_POWER_ACCURACY;
+            default:
+                return Priority.PRIORITY_LOW_POWER;
+        }
+    }
+}
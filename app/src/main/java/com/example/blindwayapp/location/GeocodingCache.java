@@ -0,0 +1,118 @@
+package com.example.blindwayapp.location;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache LRU địa chỉ theo ô geohash. Mục quá TTL không được trả như kết quả mới nhưng vẫn giữ lại
+ * để dùng khi không tra được (mất mạng).
+ *
+ * Không thread-safe; GeocodingService khóa khi dùng.
+ */
+public class GeocodingCache {
+
+    private static final int MAGIC = 0x42574743; // "BWGC"
+    private static final int VERSION = 1;
+
+    private static final class Entry {
+        final String address;
+        final long storedAtMillis;
+
+        Entry(String address, long storedAtMillis) {
+            this.address = address;
+            this.storedAtMillis = storedAtMillis;
+        }
+    }
+
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final LinkedHashMap<String, Entry> entries;
+
+    public GeocodingCache(int maxEntries, long ttlMillis) {
+        if (maxEntries <= 0 || ttlMillis <= 0) {
+            throw new IllegalArgumentException("Tham số cache không hợp lệ: " + maxEntries + ", " + ttlMillis);
+        }
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+        entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > GeocodingCache.this.maxEntries;
+            }
+        };
+    }
+
+    /** Địa chỉ còn hạn của ô, null nếu chưa có hoặc đã quá TTL. */
+    public String get(String cell, long nowMillis) {
+        Entry entry = entries.get(cell);
+        return entry != null && nowMillis - entry.storedAtMillis < ttlMillis ? entry.address : null;
+    }
+
+    /** Địa chỉ của ô kể cả khi đã quá TTL. */
+    public String getStale(String cell) {
+        Entry entry = entries.get(cell);
+        return entry != null ? entry.address : null;
+    }
+
+    public void put(String cell, String address, long nowMillis) {
+        entries.put(cell, new Entry(address, nowMillis));
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Ghi toàn bộ cache, mục cũ nhất trước để đọc lại giữ nguyên thứ tự LRU.
+     *
+     * @param locale ngôn ngữ của địa chỉ; đọc với ngôn ngữ khác thì bỏ cả file
+     */
+    public void writeTo(OutputStream stream, String locale) throws IOException {
+        DataOutputStream out = new DataOutputStream(stream);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeUTF(locale);
+        out.writeInt(entries.size());
+        for (Map.Entry<String, Entry> item : entries.entrySet()) {
+            out.writeUTF(item.getKey());
+            out.writeUTF(item.getValue().address);
+            out.writeLong(item.getValue().storedAtMillis);
+        }
+        out.flush();
+    }
+
+    /**
+     * Nạp các mục từ file do {@link #writeTo} ghi, giữ nguyên các mục đang có nếu trùng ô.
+     *
+     * @return số mục đã nạp, 0 nếu file khác định dạng hoặc khác ngôn ngữ
+     */
+    public int readFrom(InputStream stream, String locale) throws IOException {
+        DataInputStream in = new DataInputStream(stream);
+        if (in.readInt() != MAGIC || in.readInt() != VERSION || !locale.equals(in.readUTF())) {
+            return 0;
+        }
+        int count = in.readInt();
+        LinkedHashMap<String, Entry> loaded = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            String cell = in.readUTF();
+            String address = in.readUTF();
+            long storedAt = in.readLong();
+            loaded.put(cell, new Entry(address, storedAt));
+        }
+        // Mục vừa tra trong lúc đang nạp file mới hơn nên được giữ và xếp sau cùng
+        LinkedHashMap<String, Entry> current = new LinkedHashMap<>(entries);
+        entries.clear();
+        for (Map.Entry<String, Entry> item : loaded.entrySet()) {
+            if (!current.containsKey(item.getKey())) {
+                entries.put(item.getKey(), item.getValue());
+            }
+        }
+        entries.putAll(current);
+        return loaded.size();
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.blindwayapp.location;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.core.content.ContextCompat;
+
+import com.example.blindwayapp.data.AtomicFileWriter;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Đổi tọa độ thành địa chỉ trên luồng nền, dùng chung cho cả process.
+ *
+ * Kết quả được nhớ theo ô geohash (GeocodingCache) và lưu xuống file, nên mở lại màn hình ở
+ * cùng chỗ có địa chỉ ngay, kể cả khi không có mạng. Nhiều yêu cầu cùng ô trong lúc đang tra chỉ
+ * gọi backend một lần. Tra thất bại thì dùng địa chỉ cũ đã quá hạn nếu có.
+ *
+ * Geocoder của Android nằm sau Backend (AndroidGeocoderBackend), thời gian lấy qua Clock.
+ */
+public class GeocodingService {
+
+    private static final String CACHE_FILE = "geocode_cache.bin";
+    static final int GEOHASH_PRECISION = 8;
+    static final int MAX_ENTRIES = 512;
+    static final long TTL_MILLIS = 7L * 24 * 60 * 60 * 1000;
+
+    private static volatile GeocodingService instance;
+
+    /** Tra địa chỉ thật (chặn luồng), ví dụ android.location.Geocoder. */
+    public interface Backend {
+        /** @return dòng địa chỉ, null nếu không có kết quả */
+        String reverseGeocode(double latitude, double longitude) throws IOException;
+    }
+
+    public interface Callback {
+        /** @param address null nếu không tra được và chưa từng có địa chỉ cho ô này */
+        void onAddress(String address);
+    }
+
+    public interface Clock {
+        long nowMillis();
+    }
+
+    private final Backend backend;
+    private final Executor worker;
+    private final Executor callbackExecutor;
+    private final Clock clock;
+    private final File cacheFile;
+    private final String locale;
+    private final GeocodingCache cache = new GeocodingCache(MAX_ENTRIES, TTL_MILLIS);
+    private final Map<String, List<Callback>> inFlight = new HashMap<>();
+    private int backendCalls;
+
+    /**
+     * @param worker           luồng tra địa chỉ và đọc/ghi file; nên là một luồng duy nhất
+     * @param callbackExecutor nơi gọi Callback, thường là main thread
+     * @param cacheFile        file lưu cache, null nếu chỉ giữ trong bộ nhớ
+     */
+    public GeocodingService(Backend backend, Executor worker, Executor callbackExecutor, Clock clock,
+                            File cacheFile, Locale locale) {
+        this.backend = backend;
+        this.worker = worker;
+        this.callbackExecutor = callbackExecutor;
+        this.clock = clock;
+        this.cacheFile = cacheFile;
+        this.locale = locale.toString();
+        if (cacheFile != null) {
+            worker.execute(this::loadCache);
+        }
+    }
+
+    public static GeocodingService getInstance(@NonNull Context context) {
+        if (instance == null) {
+            synchronized (GeocodingService.class) {
+                if (instance == null) {
+                    Context appContext = context.getApplicationContext();
+                    Locale locale = Locale.getDefault();
+                    instance = new GeocodingService(new AndroidGeocoderBackend(appContext, locale),
+                            Executors.newSingleThreadExecutor(), ContextCompat.getMainExecutor(appContext),
+                            System::currentTimeMillis, new File(appContext.getFilesDir(), CACHE_FILE), locale);
+                }
+            }
+        }
+        return instance;
+    }
+
+    /** Tra địa chỉ; callback được gọi đúng một lần trên callbackExecutor. */
+    public void lookup(double latitude, double longitude, Callback callback) {
+        String cell = Geohash.encode(latitude, longitude, GEOHASH_PRECISION);
+        String cached;
+        synchronized (this) {
+            cached = cache.get(cell, clock.nowMillis());
+            if (cached == null) {
+                List<Callback> waiting = inFlight.get(cell);
+                if (waiting != null) {
+                    waiting.add(callback);
+                    return;
+                }
+                waiting = new ArrayList<>();
+                waiting.add(callback);
+                inFlight.put(cell, waiting);
+            }
+        }
+        if (cached != null) {
+            String address = cached;
+            callbackExecutor.execute(() -> callback.onAddress(address));
+            return;
+        }
+        worker.execute(() -> resolve(cell, latitude, longitude));
+    }
+
+    /** Số lần đã gọi backend. */
+    public synchronized int getBackendCalls() {
+        return backendCalls;
+    }
+
+    private void resolve(String cell, double latitude, double longitude) {
+        String address;
+        synchronized (this) {
+            // File cache có thể vừa nạp xong sau lúc kiểm tra ở lookup()
+            address = cache.get(cell, clock.nowMillis());
+        }
+        if (address == null) {
+            boolean stored = false;
+            try {
+                synchronized (this) {
+                    backendCalls++;
+                }
+                address = backend.reverseGeocode(latitude, longitude);
+                if (address != null) {
+                    synchronized (this) {
+                        cache.put(cell, address, clock.nowMillis());
+                    }
+                    stored = true;
+                }
+            } catch (IOException | RuntimeException e) {
+                // Mất mạng hoặc dịch vụ lỗi: dùng địa chỉ cũ bên dưới; backend tự ghi log
+            }
+            if (address == null) {
+                synchronized (this) {
+                    address = cache.getStale(cell);
+                }
+            }
+            if (stored) {
+                saveCache();
+            }
+        }
+
+        List<Callback> waiting;
+        synchronized (this) {
+            waiting = inFlight.remove(cell);
+        }
+        String result = address;
+        for (Callback callback : waiting) {
+            callbackExecutor.execute(() -> callback.onAddress(result));
+        }
+    }
+
+    private void loadCache() {
+        try (InputStream in = new FileInputStream(cacheFile)) {
+            synchronized (this) {
+                cache.readFrom(in, locale);
+            }
+        } catch (FileNotFoundException e) {
+            // Lần chạy đầu tiên
+        } catch (IOException e) {
+            // File hỏng: bắt đầu lại với cache rỗng, lần lưu sau sẽ ghi đè
+        }
+    }
+
+    private void saveCache() {
+        if (cacheFile == null) {
+            return;
+        }
+        // Không lưu được lần này thì lần tra sau lưu lại; cache trong bộ nhớ vẫn đúng
+        AtomicFileWriter.write(cacheFile, out -> {
+            synchronized (this) {
+                cache.writeTo(out, locale);
+            }
+        });
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.blindwayapp.location;
+
+/**
+ * Mã geohash (base32) của một tọa độ: các điểm gần nhau có chung tiền tố nên mã dùng làm khóa ô
+ * lưới cho cache. Độ chính xác 8 ký tự là ô khoảng 38 x 19 m.
+ */
+public final class Geohash {
+
+    private static final char[] BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz".toCharArray();
+
+    private Geohash() {
+    }
+
+    public static String encode(double latitude, double longitude, int precision) {
+        if (precision < 1 || precision > 12) {
+            throw new IllegalArgumentException("Độ chính xác geohash không hợp lệ: " + precision);
+        }
+        if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+            throw new IllegalArgumentException("Tọa độ không hợp lệ: " + latitude + ", " + longitude);
+        }
+        double minLat = -90, maxLat = 90;
+        double minLon = -180, maxLon = 180;
+        char[] hash = new char[precision];
+        boolean evenBit = true;
+        int bit = 0;
+        int value = 0;
+        int length = 0;
+        while (length < precision) {
+            // Bit chẵn chia kinh độ, bit lẻ chia vĩ độ
+            if (evenBit) {
+                double mid = (minLon + maxLon) / 2;
+                if (longitude >= mid) {
+                    value = (value << 1) | 1;
+                    minLon = mid;
+                } else {
+                    value <<= 1;
+                    maxLon = mid;
+                }
+            } else {
+                double mid = (minLat + maxLat) / 2;
+                if (latitude >= mid) {
+                    value = (value << 1) | 1;
+                    minLat = mid;
+                } else {
+                    value <<= 1;
+                    maxLat = mid;
+                }
+            }
+            evenBit = !evenBit;
+            if (++bit == 5) {
+                hash[length++] = BASE32[value];
+                bit = 0;
+                value = 0;
+            }
+        }
+        return new String(hash);
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.blindwayapp.location;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Luồng vị trí dùng chung cho cả ứng dụng: mọi màn hình đăng ký cùng một yêu cầu vị trí thay vì
+ * mỗi màn hình tự mở một yêu cầu riêng.
+ *
+ * Yêu cầu được bật khi có người nghe đầu tiên, tắt khi người cuối cùng hủy, và đổi cấu hình
+ * (LocationRequestPolicy) theo tốc độ đi, phiên điều hướng và trạng thái màn hình. Vị trí thô
+ * được làm mượt bằng LocationSmoother trước khi gửi đi.
+ *
+ * Mọi hàm chạy trên main thread. Nguồn vị trí thật (FusedLocationProviderClient) nằm sau Backend,
+ * ở FusedLocationBackend.
+ */
+public class LocationEngine {
+
+    private static volatile LocationEngine instance;
+
+    public interface Listener {
+        void onLocation(LocationFix fix);
+    }
+
+    /** Nguồn vị trí thật; gọi lại start() với cấu hình mới để thay yêu cầu đang chạy. */
+    public interface Backend {
+        void start(LocationRequestPolicy.Request request);
+
+        void stop();
+    }
+
+    private final Backend backend;
+    private final LocationSmoother smoother = new LocationSmoother();
+    private final LocationRequestPolicy policy = new LocationRequestPolicy();
+    private final List<Listener> listeners = new ArrayList<>();
+    private int navigationSessions;
+    private boolean screenOn = true;
+    private LocationRequestPolicy.Request currentRequest;
+    private LocationFix lastFix;
+
+    public LocationEngine(Backend backend) {
+        this.backend = backend;
+    }
+
+    public static LocationEngine getInstance(@NonNull Context context) {
+        if (instance == null) {
+            synchronized (LocationEngine.class) {
+                if (instance == null) {
+                    FusedLocationBackend backend = new FusedLocationBackend(context);
+                    instance = new LocationEngine(backend);
+                    backend.attach(instance);
+                }
+            }
+        }
+        return instance;
+    }
+
+    /** Nhận vị trí; người nghe mới được gửi ngay vị trí gần nhất nếu có. */
+    public void addListener(Listener listener) {
+        if (listeners.contains(listener)) {
+            return;
+        }
+        listeners.add(listener);
+        if (lastFix != null) {
+            listener.onLocation(lastFix);
+        }
+        updateRequest();
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+        updateRequest();
+    }
+
+    /** Phiên điều hướng cần vị trí chính xác; mỗi lần gọi phải đi kèm một lần endNavigation(). */
+    public void beginNavigation() {
+        navigationSessions++;
+        updateRequest();
+    }
+
+    public void endNavigation() {
+        if (navigationSessions > 0) {
+            navigationSessions--;
+            updateRequest();
+        }
+    }
+
+    public void setScreenOn(boolean screenOn) {
+        this.screenOn = screenOn;
+        updateRequest();
+    }
+
+    /** Gửi lại yêu cầu, ví dụ sau khi người dùng vừa cấp quyền vị trí. */
+    public void restart() {
+        currentRequest = null;
+        updateRequest();
+    }
+
+    /** Vị trí thô từ backend; nhiều vị trí gom lại được gửi lần lượt theo thời gian. */
+    public void onRawLocation(double latitude, double longitude, float accuracyMeters, long elapsedMillis) {
+        if (lastFix != null && elapsedMillis <= lastFix.elapsedMillis) {
+            return;
+        }
+        LocationFix fix = smoother.update(latitude, longitude, accuracyMeters, elapsedMillis);
+        lastFix = fix;
+        for (Listener listener : new ArrayList<>(listeners)) {
+            listener.onLocation(fix);
+        }
+        updateRequest();
+    }
+
+    public LocationFix getLastFix() {
+        return lastFix;
+    }
+
+    /** Cấu hình đang chạy, null nếu không có ai nghe. */
+    public LocationRequestPolicy.Request getCurrentRequest() {
+        return currentRequest;
+    }
+
+    private void updateRequest() {
+        if (listeners.isEmpty()) {
+            if (currentRequest != null) {
+                currentRequest = null;
+                backend.stop();
+            }
+            return;
+        }
+        LocationRequestPolicy.Request request = policy.choose(navigationSessions > 0, screenOn,
+                lastFix != null ? lastFix.speedMetersPerSecond : -1f);
+        if (request != currentRequest) {
+            currentRequest = request;
+            backend.start(request);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.blindwayapp.location;
+
+import java.util.Locale;
+
+/** Một vị trí đã làm mượt. */
+public final class LocationFix {
+
+    public final double latitude;
+    public final double longitude;
+    /** Độ lệch chuẩn ước lượng của vị trí (mét). */
+    public final float accuracyMeters;
+    /** Tốc độ di chuyển ước lượng (m/s). */
+    public final float speedMetersPerSecond;
+    /** Thời điểm theo SystemClock.elapsedRealtime(). */
+    public final long elapsedMillis;
+
+    public LocationFix(double latitude, double longitude, float accuracyMeters, float speedMetersPerSecond,
+                       long elapsedMillis) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.accuracyMeters = accuracyMeters;
+        this.speedMetersPerSecond = speedMetersPerSecond;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "%.6f,%.6f ±%.0f m, %.1f m/s",
+                latitude, longitude, accuracyMeters, speedMetersPerSecond);
+    }
+}
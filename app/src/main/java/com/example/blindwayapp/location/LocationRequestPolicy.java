@@ -0,0 +1,75 @@
+package com.example.blindwayapp.location;
+
+import java.util.Locale;
+
+/**
+ * Chọn độ chính xác, chu kỳ cập nhật và mức gom (batch) vị trí theo tình huống.
+ *
+ * Khi đang điều hướng luôn lấy vị trí chính xác và không gom, kể cả khi tắt màn hình vì người
+ * khiếm thị thường đi với màn hình tắt. Ngoài điều hướng thì chu kỳ dài hơn khi đứng yên, và khi
+ * tắt màn hình thì các vị trí được gom lại để máy ít phải thức dậy. Hiện chưa màn hình nào nghe
+ * vị trí khi tắt màn hình ngoài phiên điều hướng, nên hai mức BACKGROUND_* chưa được dùng.
+ *
+ * Trạng thái đi/đứng có trễ (hysteresis) để tốc độ dao động quanh ngưỡng không làm đổi yêu cầu liên tục.
+ */
+public class LocationRequestPolicy {
+
+    public enum Accuracy {
+        HIGH, BALANCED, LOW_POWER
+    }
+
+    /** Một cấu hình yêu cầu vị trí. */
+    public static final class Request {
+        public final Accuracy accuracy;
+        public final long intervalMillis;
+        public final long minIntervalMillis;
+        /** Thời gian tối đa vị trí được giữ lại để gửi gộp, 0 là gửi ngay. */
+        public final long maxDelayMillis;
+
+        Request(Accuracy accuracy, long intervalMillis, long minIntervalMillis, long maxDelayMillis) {
+            this.accuracy = accuracy;
+            this.intervalMillis = intervalMillis;
+            this.minIntervalMillis = minIntervalMillis;
+            this.maxDelayMillis = maxDelayMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%s mỗi %d ms, gom %d ms", accuracy, intervalMillis, maxDelayMillis);
+        }
+    }
+
+    public static final Request NAVIGATION_WALKING = new Request(Accuracy.HIGH, 1_000, 500, 0);
+    public static final Request NAVIGATION_STATIONARY = new Request(Accuracy.HIGH, 3_000, 1_000, 0);
+    public static final Request FOREGROUND_WALKING = new Request(Accuracy.BALANCED, 5_000, 2_000, 0);
+    public static final Request FOREGROUND_STATIONARY = new Request(Accuracy.BALANCED, 15_000, 5_000, 0);
+    public static final Request BACKGROUND_WALKING = new Request(Accuracy.BALANCED, 10_000, 5_000, 60_000);
+    public static final Request BACKGROUND_STATIONARY = new Request(Accuracy.LOW_POWER, 60_000, 30_000, 300_000);
+
+    static final float WALKING_SPEED = 0.6f;
+    static final float STATIONARY_SPEED = 0.3f;
+
+    private boolean walking;
+
+    /**
+     * @param speedMetersPerSecond tốc độ ước lượng gần nhất, âm nếu chưa có vị trí
+     */
+    public Request choose(boolean navigating, boolean screenOn, float speedMetersPerSecond) {
+        if (speedMetersPerSecond >= WALKING_SPEED) {
+            walking = true;
+        } else if (speedMetersPerSecond >= 0f && speedMetersPerSecond <= STATIONARY_SPEED) {
+            walking = false;
+        }
+        if (navigating) {
+            return walking ? NAVIGATION_WALKING : NAVIGATION_STATIONARY;
+        }
+        if (screenOn) {
+            return walking ? FOREGROUND_WALKING : FOREGROUND_STATIONARY;
+        }
+        return walking ? BACKGROUND_WALKING : BACKGROUND_STATIONARY;
+    }
+
+    public boolean isWalking() {
+        return walking;
+    }
+}
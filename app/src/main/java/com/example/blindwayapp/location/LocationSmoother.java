@@ -0,0 +1,99 @@
+package com.example.blindwayapp.location;
+
+/**
+ * Lọc Kalman vận tốc không đổi cho vị trí GPS, mỗi trục (đông, bắc) một bộ lọc 2 trạng thái
+ * tính bằng mét quanh điểm gốc là vị trí đầu tiên. Nhiễu đo lấy từ độ chính xác của từng vị trí
+ * nên điểm kém chính xác ít làm lệch kết quả; nhiễu quá trình ứng với gia tốc khi đi bộ.
+ *
+ * Khoảng trống dài giữa hai vị trí thì bắt đầu lại từ vị trí mới.
+ */
+public class LocationSmoother {
+
+    private static final double METERS_PER_DEGREE = 111_320.0;
+    // Gia tốc (m/s²) khi đi bộ, đổi hướng hay dừng lại
+    static final float ACCELERATION_NOISE = 1.0f;
+    static final long RESET_GAP_MILLIS = 30_000;
+    private static final float INITIAL_SPEED_VARIANCE = 4f;
+    private static final float MIN_ACCURACY = 1f;
+
+    // Mỗi bộ lọc 5 số: giá trị, vận tốc, p00, p01, p11
+    private static final int VALUE = 0;
+    private static final int VELOCITY = 1;
+    private static final int P00 = 2;
+    private static final int P01 = 3;
+    private static final int P11 = 4;
+
+    private final float[] east = new float[5];
+    private final float[] north = new float[5];
+    private double originLatitude;
+    private double originLongitude;
+    private double metersPerDegreeLongitude;
+    private long lastElapsedMillis;
+    private boolean initialized;
+
+    public LocationFix update(double latitude, double longitude, float accuracyMeters, long elapsedMillis) {
+        float accuracy = Math.max(accuracyMeters, MIN_ACCURACY);
+        float variance = accuracy * accuracy;
+        long gap = elapsedMillis - lastElapsedMillis;
+        if (!initialized || gap > RESET_GAP_MILLIS || gap < 0) {
+            originLatitude = latitude;
+            originLongitude = longitude;
+            metersPerDegreeLongitude = METERS_PER_DEGREE * Math.cos(Math.toRadians(latitude));
+            start(east, variance);
+            start(north, variance);
+            initialized = true;
+        } else {
+            float dt = gap / 1000f;
+            float measuredEast = (float) ((longitude - originLongitude) * metersPerDegreeLongitude);
+            float measuredNorth = (float) ((latitude - originLatitude) * METERS_PER_DEGREE);
+            predict(east, dt);
+            predict(north, dt);
+            correct(east, measuredEast, variance);
+            correct(north, measuredNorth, variance);
+        }
+        lastElapsedMillis = elapsedMillis;
+
+        float speed = (float) Math.hypot(east[VELOCITY], north[VELOCITY]);
+        float deviation = (float) Math.sqrt(Math.max(east[P00], north[P00]));
+        return new LocationFix(originLatitude + north[VALUE] / METERS_PER_DEGREE,
+                originLongitude + east[VALUE] / metersPerDegreeLongitude, deviation, speed, elapsedMillis);
+    }
+
+    public void reset() {
+        initialized = false;
+    }
+
+    private static void start(float[] filter, float variance) {
+        filter[VALUE] = 0f;
+        filter[VELOCITY] = 0f;
+        filter[P00] = variance;
+        filter[P01] = 0f;
+        filter[P11] = INITIAL_SPEED_VARIANCE;
+    }
+
+    private static void predict(float[] filter, float dt) {
+        float q = ACCELERATION_NOISE * ACCELERATION_NOISE;
+        float p00 = filter[P00];
+        float p01 = filter[P01];
+        float p11 = filter[P11];
+        filter[VALUE] += filter[VELOCITY] * dt;
+        filter[P00] = p00 + dt * (2 * p01 + dt * p11) + q * dt * dt * dt * dt / 4;
+        filter[P01] = p01 + dt * p11 + q * dt * dt * dt / 2;
+        filter[P11] = p11 + q * dt * dt;
+    }
+
+    private static void correct(float[] filter, float measured, float variance) {
+        float p00 = filter[P00];
+        float p01 = filter[P01];
+        float p11 = filter[P11];
+        float s = p00 + variance;
+        float k0 = p00 / s;
+        float k1 = p01 / s;
+        float innovation = measured - filter[VALUE];
+        filter[VALUE] += k0 * innovation;
+        filter[VELOCITY] += k1 * innovation;
+        filter[P00] = (1 - k0) * p00;
+        filter[P01] = (1 - k0) * p01;
+        filter[P11] = p11 - k1 * p01;
+    }
+}
@@ -0,0 +1,200 @@
+package com.example.blindwayapp.location;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.core.content.ContextCompat;
+
+import com.example.blindwayapp.data.AtomicFileWriter;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Địa điểm người dùng lưu trên máy, dùng chung cho cả process, có chỉ mục không gian (PlaceIndex)
+ * để tìm địa điểm gần vị trí hiện tại.
+ *
+ * Mọi thay đổi chạy lần lượt trên luồng worker sau khi đã nạp file, rồi ghi lại cả file bằng
+ * AtomicFileWriter; Listener được gọi trên callbackExecutor. Hàm đọc gọi được từ mọi luồng.
+ */
+public class PlaceStore implements NearbyPlacesTracker.Searcher {
+
+    private static final String STORE_FILE = "places.bin";
+    private static final int MAGIC = 0x4257504C; // "BWPL"
+    private static final int VERSION = 1;
+
+    public static final String CATEGORY_SAVED = "Đã lưu";
+
+    private static volatile PlaceStore instance;
+
+    public interface Listener {
+        /** Danh sách địa điểm vừa được nạp hoặc thay đổi. */
+        void onPlacesChanged();
+    }
+
+    private final Executor worker;
+    private final Executor callbackExecutor;
+    private final File storeFile;
+    private final PlaceIndex index = new PlaceIndex();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private long nextId = 1;
+
+    /**
+     * @param worker           luồng đọc/ghi file; nên là một luồng duy nhất
+     * @param callbackExecutor nơi gọi Listener, thường là main thread
+     * @param storeFile        file lưu địa điểm, null nếu chỉ giữ trong bộ nhớ
+     */
+    public PlaceStore(Executor worker, Executor callbackExecutor, File storeFile) {
+        this.worker = worker;
+        this.callbackExecutor = callbackExecutor;
+        this.storeFile = storeFile;
+        if (storeFile != null) {
+            worker.execute(this::load);
+        }
+    }
+
+    public static PlaceStore getInstance(@NonNull Context context) {
+        if (instance == null) {
+            synchronized (PlaceStore.class) {
+                if (instance == null) {
+                    Context appContext = context.getApplicationContext();
+                    instance = new PlaceStore(Executors.newSingleThreadExecutor(),
+                            ContextCompat.getMainExecutor(appContext), new File(appContext.getFilesDir(), STORE_FILE));
+                }
+            }
+        }
+        return instance;
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /** Lưu địa điểm mới; Listener được gọi khi đã lưu xong. */
+    public void add(String name, String detail, String category, double latitude, double longitude) {
+        worker.execute(() -> {
+            synchronized (this) {
+                index.put(new Place(nextId++, name, detail, category, latitude, longitude));
+            }
+            save();
+            notifyChanged();
+        });
+    }
+
+    public void remove(long id) {
+        worker.execute(() -> {
+            Place removed;
+            synchronized (this) {
+                removed = index.remove(id);
+            }
+            if (removed != null) {
+                save();
+                notifyChanged();
+            }
+        });
+    }
+
+    public synchronized Place get(long id) {
+        return index.get(id);
+    }
+
+    public synchronized int size() {
+        return index.size();
+    }
+
+    /** Tối đa maxCount địa điểm, lưu gần đây nhất trước; dùng khi không tìm theo vị trí được. */
+    public synchronized List<Place> newest(int maxCount) {
+        List<Place> places = new ArrayList<>(index.all());
+        places.sort((a, b) -> Long.compare(b.id, a.id));
+        return places.size() > maxCount ? new ArrayList<>(places.subList(0, maxCount)) : places;
+    }
+
+    @Override
+    public synchronized int nearest(double latitude, double longitude, float radiusMeters, int maxCount,
+                                    List<NearbyPlace> out) {
+        return index.nearest(latitude, longitude, radiusMeters, maxCount, out);
+    }
+
+    private void notifyChanged() {
+        callbackExecutor.execute(() -> {
+            for (Listener listener : listeners) {
+                listener.onPlacesChanged();
+            }
+        });
+    }
+
+    private void load() {
+        try (InputStream in = new FileInputStream(storeFile)) {
+            List<Place> places = readFrom(in);
+            synchronized (this) {
+                for (Place place : places) {
+                    index.put(place);
+                    nextId = Math.max(nextId, place.id + 1);
+                }
+            }
+            notifyChanged();
+        } catch (FileNotFoundException e) {
+            // Chưa lưu địa điểm nào
+        } catch (IOException e) {
+            // File hỏng: bắt đầu với danh sách rỗng, lần lưu sau sẽ ghi đè
+        }
+    }
+
+    private void save() {
+        if (storeFile == null) {
+            return;
+        }
+        List<Place> places;
+        synchronized (this) {
+            places = new ArrayList<>(index.all());
+        }
+        // Không ghi được thì lần thay đổi sau sẽ ghi lại; dữ liệu trong bộ nhớ vẫn đúng
+        AtomicFileWriter.write(storeFile, out -> writeTo(out, places));
+    }
+
+    static void writeTo(OutputStream stream, List<Place> places) throws IOException {
+        DataOutputStream out = new DataOutputStream(stream);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(places.size());
+        for (Place place : places) {
+            out.writeLong(place.id);
+            out.writeUTF(place.name);
+            out.writeUTF(place.detail);
+            out.writeUTF(place.category);
+            out.writeDouble(place.latitude);
+            out.writeDouble(place.longitude);
+        }
+        out.flush();
+    }
+
+    /** @return địa điểm trong file, danh sách rỗng nếu khác định dạng */
+    static List<Place> readFrom(InputStream stream) throws IOException {
+        DataInputStream in = new DataInputStream(stream);
+        List<Place> places = new ArrayList<>();
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+            return places;
+        }
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            places.add(new Place(in.readLong(), in.readUTF(), in.readUTF(), in.readUTF(),
+                    in.readDouble(), in.readDouble()));
+        }
+        return places;
+    }
+}
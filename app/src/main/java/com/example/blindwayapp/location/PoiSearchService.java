@@ -0,0 +1,85 @@
+package com.example.blindwayapp.location;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.core.content.ContextCompat;
+
+import com.example.blindwayapp.data.LatestRequestWorker;
+import com.example.blindwayapp.data.MappedAsset;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Tìm địa điểm ngoại tuyến trên luồng nền, dùng chung cho cả process.
+ *
+ * Chỉ mục (PoiSearchIndex) được mở ở lần tìm đầu tiên. Khi người dùng gõ liên tục, chỉ lần tìm
+ * mới nhất được chạy và trả kết quả; các lần cũ chưa chạy thì bỏ.
+ *
+ * Chỉ mục là asset không nén, được ánh xạ bộ nhớ (MappedAsset) nên dù lớn cũng không chiếm heap.
+ */
+public class PoiSearchService {
+
+    static final String INDEX_ASSET = "poi_index.bin";
+
+    private static volatile PoiSearchService instance;
+
+    /** Mở chỉ mục; chạy trên worker. */
+    public interface IndexSource {
+        PoiSearchIndex open() throws IOException;
+    }
+
+    public interface Callback {
+        /** @param results rỗng nếu không tìm thấy hoặc không có chỉ mục ({@link #isAvailable()}) */
+        void onResults(List<PoiMatch> results);
+    }
+
+    private final LatestRequestWorker<PoiSearchIndex> requests;
+
+    public PoiSearchService(IndexSource source, Executor worker, Executor callbackExecutor) {
+        requests = new LatestRequestWorker<>(source::open, worker, callbackExecutor);
+    }
+
+    public static PoiSearchService getInstance(@NonNull Context context) {
+        if (instance == null) {
+            synchronized (PoiSearchService.class) {
+                if (instance == null) {
+                    Context appContext = context.getApplicationContext();
+                    instance = new PoiSearchService(
+                            () -> new PoiSearchIndex(MappedAsset.map(appContext, INDEX_ASSET)),
+                            Executors.newSingleThreadExecutor(), ContextCompat.getMainExecutor(appContext));
+                }
+            }
+        }
+        return instance;
+    }
+
+    /** false nếu bản build không kèm chỉ mục địa điểm hoặc file hỏng. */
+    public boolean isAvailable() {
+        return requests.isAvailable();
+    }
+
+    /**
+     * Tìm và gọi callback trên callbackExecutor, trừ khi đã có lần tìm mới hơn.
+     *
+     * @param latitude vị trí hiện tại, NaN nếu chưa có
+     */
+    public void search(String query, double latitude, double longitude, int maxResults, Callback callback) {
+        requests.submit(index -> {
+            List<PoiMatch> results = new ArrayList<>();
+            if (index != null) {
+                index.search(query, latitude, longitude, maxResults, results);
+            }
+            return results;
+        }, callback::onResults);
+    }
+
+    /** Bỏ kết quả của các lần tìm chưa trả về, ví dụ khi ô tìm kiếm bị xóa trắng. */
+    public void cancel() {
+        requests.cancel();
+    }
+}
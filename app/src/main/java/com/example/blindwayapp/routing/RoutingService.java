@@ -0,0 +1,114 @@
+package com.example.blindwayapp.routing;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.core.content.ContextCompat;
+
+import com.example.blindwayapp.data.LatestRequestWorker;
+import com.example.blindwayapp.data.MappedAsset;
+
+import java.io.IOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Tìm đường đi bộ ngoại tuyến trên luồng nền, dùng chung cho cả process.
+ *
+ * Đồ thị (WalkGraph) được mở ở lần tìm đầu tiên. Mỗi lần tìm trả về một {@link RouteFollower} sẵn
+ * sàng theo dõi vị trí; chỉ lần tìm mới nhất được trả kết quả. Tìm lại khi đi lệch dùng tuyến cũ
+ * (WalkRouter.reroute) nên thường chỉ xét vài trăm nút.
+ *
+ * Đồ thị đường đi bộ của cả thành phố là asset không nén, được ánh xạ bộ nhớ (MappedAsset); mỗi
+ * lần tìm chỉ chạm tới các trang chứa nút được xét.
+ */
+public class RoutingService {
+
+    static final String GRAPH_ASSET = "walk_graph.bin";
+    /** Vị trí xa đường đi bộ gần nhất hơn mức này thì không tìm đường. */
+    static final float MAX_SNAP_METERS = 150f;
+
+    private static volatile RoutingService instance;
+
+    /** Mở đồ thị; chạy trên worker. */
+    public interface GraphSource {
+        WalkGraph open() throws IOException;
+    }
+
+    public interface Callback {
+        /** @param follower null nếu không có đồ thị, vị trí xa đường đi bộ hoặc không có đường tới đích */
+        void onRoute(RouteFollower follower);
+    }
+
+    private final LatestRequestWorker<WalkRouter> requests;
+    private volatile long lastSearchMicros;
+
+    public RoutingService(GraphSource source, Executor worker, Executor callbackExecutor) {
+        requests = new LatestRequestWorker<>(() -> new WalkRouter(source.open()), worker, callbackExecutor);
+    }
+
+    public static RoutingService getInstance(@NonNull Context context) {
+        if (instance == null) {
+            synchronized (RoutingService.class) {
+                if (instance == null) {
+                    Context appContext = context.getApplicationContext();
+                    instance = new RoutingService(
+                            () -> new WalkGraph(MappedAsset.map(appContext, GRAPH_ASSET)),
+                            Executors.newSingleThreadExecutor(), ContextCompat.getMainExecutor(appContext));
+                }
+            }
+        }
+        return instance;
+    }
+
+    /** false nếu bản build không kèm đồ thị đường đi bộ hoặc file hỏng. */
+    public boolean isAvailable() {
+        return requests.isAvailable();
+    }
+
+    /** Thời gian tìm đường (không tính mở đồ thị) của lần gần nhất, micro giây. */
+    public long getLastSearchMicros() {
+        return lastSearchMicros;
+    }
+
+    public void route(double fromLatitude, double fromLongitude, double toLatitude, double toLongitude,
+                      Callback callback) {
+        submit(callback, opened -> {
+            WalkGraph graph = opened.getGraph();
+            int source = graph.nearestNode(fromLatitude, fromLongitude, MAX_SNAP_METERS);
+            int target = graph.nearestNode(toLatitude, toLongitude, MAX_SNAP_METERS);
+            return source < 0 || target < 0 ? null : opened.route(source, target);
+        });
+    }
+
+    /** Tìm lại từ vị trí hiện tại khi follower báo đi lệch, nhập lại tuyến cũ phía trước người dùng. */
+    public void reroute(double latitude, double longitude, RouteFollower previous, Callback callback) {
+        Route route = previous.getRoute();
+        int fromIndex = previous.getRejoinIndex();
+        submit(callback, opened -> {
+            int source = opened.getGraph().nearestNode(latitude, longitude, MAX_SNAP_METERS);
+            return source < 0 ? null : opened.reroute(source, route, fromIndex);
+        });
+    }
+
+    /** Bỏ kết quả của các lần tìm chưa trả về, ví dụ khi người dùng dừng dẫn đường. */
+    public void cancel() {
+        requests.cancel();
+    }
+
+    private interface Search {
+        Route run(WalkRouter router);
+    }
+
+    private void submit(Callback callback, Search search) {
+        requests.submit(router -> {
+            if (router == null) {
+                return null;
+            }
+            long start = System.nanoTime();
+            Route route = search.run(router);
+            lastSearchMicros = (System.nanoTime() - start) / 1000;
+            return route != null ? new RouteFollower(router.getGraph(), route) : null;
+        }, callback::onRoute);
+    }
+}
@@ -2,9 +2,6 @@ package com.example.blindwayapp.ui.home;
 
 import android.Manifest;
 import android.content.pm.PackageManager;
-import android.location.Address;
-import android.location.Geocoder;
-import android.location.Location;
 import android.os.Bundle;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -19,23 +16,27 @@ import androidx.fragment.app.Fragment;
 import androidx.fragment.app.FragmentTransaction;
 
 import com.example.blindwayapp.R;
+import com.example.blindwayapp.location.GeocodingService;
+import com.example.blindwayapp.location.LocationEngine;
+import com.example.blindwayapp.location.LocationFix;
+import com.example.blindwayapp.location.PlaceStore;
 import com.example.blindwayapp.ui.my_locations.MyLocationsFragment;
 import com.example.blindwayapp.ui.navigation.NavigationFragment;
 import com.example.blindwayapp.ui.search_location.SearchLocationFragment;
 import com.example.blindwayapp.ui.traffic_location.TrafficLocationFragment;
-import com.google.android.gms.location.FusedLocationProviderClient;
-import com.google.android.gms.location.LocationServices;
-import com.google.android.gms.tasks.OnSuccessListener;
 
-import java.io.IOException;
-import java.util.List;
+import java.text.DateFormat;
+import java.util.Date;
 import java.util.Locale;
 
 public class HomeFragment extends Fragment {
 
     private static final int LOCATION_PERMISSION_REQUEST = 1001;
-    private FusedLocationProviderClient fusedLocationClient;
     private TextView tvCurrentLocation;
+    private LocationEngine locationEngine;
+    private final LocationEngine.Listener locationListener = this::showAddress;
+    // Địa chỉ của vị trí đang hiển thị, dùng làm mô tả khi lưu
+    private String currentAddress;
 
     @Nullable
     @Override
@@ -44,8 +45,9 @@ public class HomeFragment extends Fragment {
                              @Nullable Bundle savedInstanceState) {
         View root = inflater.inflate(R.layout.fragment_home, container, false);
 
-        fusedLocationClient = LocationServices.getFusedLocationProviderClient(requireActivity());
+        locationEngine = LocationEngine.getInstance(requireContext());
         tvCurrentLocation = root.findViewById(R.id.tvCurrentLocation);
+        root.findViewById(R.id.btnSaveLocation).setOnClickListener(v -> saveCurrentLocation());
 
         // Lấy CardView
         View cardMyLocation = root.findViewById(R.id.cardMyLocation);
@@ -59,12 +61,22 @@ public class HomeFragment extends Fragment {
         cardTrafficLocation.setOnClickListener(v -> openFragment(new TrafficLocationFragment()));
         cardNavigation.setOnClickListener(v -> openFragment(new NavigationFragment()));
 
-        // Lấy vị trí hiện tại
-        getCurrentLocation();
-
         return root;
     }
 
+    @Override
+    public void onStart() {
+        super.onStart();
+        // Nhận vị trí liên tục trong lúc màn hình hiển thị, dùng chung yêu cầu với các màn hình khác
+        startLocationUpdates();
+    }
+
+    @Override
+    public void onStop() {
+        super.onStop();
+        locationEngine.removeListener(locationListener);
+    }
+
     private void openFragment(Fragment fragment) {
         FragmentTransaction transaction = requireActivity()
                 .getSupportFragmentManager()
@@ -75,7 +87,7 @@ public class HomeFragment extends Fragment {
         transaction.commit();
     }
 
-    private void getCurrentLocation() {
+    private void startLocationUpdates() {
         if (ActivityCompat.checkSelfPermission(requireContext(), Manifest.permission.ACCESS_FINE_LOCATION)
                 != PackageManager.PERMISSION_GRANTED &&
                 ActivityCompat.checkSelfPermission(requireContext(), Manifest.permission.ACCESS_COARSE_LOCATION)
@@ -86,28 +98,36 @@ public class HomeFragment extends Fragment {
             return;
         }
 
-        fusedLocationClient.getLastLocation()
-                .addOnSuccessListener(requireActivity(), location -> {
-                    if (location != null) {
-                        String address = getAddressFromLocation(location);
-                        tvCurrentLocation.setText(address);
-                    } else {
-                        tvCurrentLocation.setText("Không lấy được vị trí");
+        locationEngine.addListener(locationListener);
+    }
+
+    /** Tra địa chỉ ở nền; vị trí đã tra trước đó (kể cả lần mở ứng dụng trước) có địa chỉ ngay. */
+    private void showAddress(LocationFix location) {
+        GeocodingService.getInstance(requireContext()).lookup(location.latitude, location.longitude,
+                address -> {
+                    // Màn hình có thể đã bị thay trong lúc tra
+                    if (getView() == null) {
+                        return;
                     }
+                    currentAddress = address;
+                    tvCurrentLocation.setText(address != null ? address
+                            : "Vĩ độ: " + location.latitude + ", Kinh độ: " + location.longitude);
                 });
     }
 
-    private String getAddressFromLocation(Location location) {
-        Geocoder geocoder = new Geocoder(requireContext(), Locale.getDefault());
-        try {
-            List<Address> addresses = geocoder.getFromLocation(location.getLatitude(), location.getLongitude(), 1);
-            if (addresses != null && !addresses.isEmpty()) {
-                return addresses.get(0).getAddressLine(0);
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
+    /** Lưu vị trí đang hiển thị vào Địa điểm của tôi, đặt tên theo giờ lưu. */
+    private void saveCurrentLocation() {
+        LocationFix fix = locationEngine.getLastFix();
+        if (fix == null) {
+            Toast.makeText(requireContext(), "Chưa có vị trí để lưu", Toast.LENGTH_SHORT).show();
+            return;
         }
-        return "Vĩ độ: " + location.getLatitude() + ", Kinh độ: " + location.getLongitude();
+        String time = DateFormat.getTimeInstance(DateFormat.SHORT, Locale.getDefault()).format(new Date());
+        String detail = currentAddress != null ? currentAddress
+                : String.format(Locale.US, "%.6f, %.6f", fix.latitude, fix.longitude);
+        PlaceStore.getInstance(requireContext()).add("Vị trí lưu lúc " + time, detail,
+                PlaceStore.CATEGORY_SAVED, fix.latitude, fix.longitude);
+        Toast.makeText(requireContext(), "Đã lưu vị trí", Toast.LENGTH_SHORT).show();
     }
 
     // Nhận kết quả xin quyền
@@ -117,7 +137,8 @@ public class HomeFragment extends Fragment {
         super.onRequestPermissionsResult(requestCode, permissions, grantResults);
         if (requestCode == LOCATION_PERMISSION_REQUEST) {
             if (grantResults.length > 0 && grantResults[0] == PackageManager.PERMISSION_GRANTED) {
-                getCurrentLocation();
+                locationEngine.restart();
+                startLocationUpdates();
             } else {
                 Toast.makeText(requireContext(), "Bạn cần cấp quyền vị trí để sử dụng tính năng này", Toast.LENGTH_SHORT).show();
             }
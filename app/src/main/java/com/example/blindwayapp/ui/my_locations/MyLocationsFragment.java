@@ -4,15 +4,52 @@ import android.os.Bundle;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
+import android.widget.TextView;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.blindwayapp.R;
+import com.example.blindwayapp.location.LocationEngine;
+import com.example.blindwayapp.location.LocationFix;
+import com.example.blindwayapp.location.NearbyPlace;
+import com.example.blindwayapp.location.NearbyPlacesTracker;
+import com.example.blindwayapp.location.Place;
+import com.example.blindwayapp.location.PlaceStore;
+import com.example.blindwayapp.ui.traffic_location.TrafficLocationFragment;
+
+import java.util.ArrayList;
+import java.util.List;
 
 public class MyLocationsFragment extends Fragment {
 
+    // Địa điểm đã lưu trong phạm vi một thành phố, gần nhất trước. Chưa có vị trí hoặc không có
+    // địa điểm nào trong phạm vi thì hiện mọi địa điểm, lưu gần đây nhất trước, không kèm khoảng cách
+    private static final float RADIUS_METERS = 50_000f;
+    private static final int MAX_PLACES = 100;
+    private static final float MARGIN_METERS = 200f;
+    private static final int MAX_CANDIDATES = 200;
+
+    private PlaceStore placeStore;
+    private LocationEngine locationEngine;
+    private NearbyPlacesTracker tracker;
+    private PlaceListAdapter adapter;
+    private TextView tvEmpty;
+    private LocationFix lastFix;
+
+    private final LocationEngine.Listener locationListener = this::showPlaces;
+    private final PlaceStore.Listener placesListener = () -> {
+        tracker.invalidate();
+        if (lastFix != null) {
+            showPlaces(lastFix);
+        } else {
+            showNewestPlaces();
+        }
+    };
+
     public MyLocationsFragment() {
         // Bắt buộc phải có constructor rỗng
     }
@@ -22,6 +59,65 @@ public class MyLocationsFragment extends Fragment {
     public View onCreateView(@NonNull LayoutInflater inflater,
                              @Nullable ViewGroup container,
                              @Nullable Bundle savedInstanceState) {
-        return inflater.inflate(R.layout.fragment_my_locations, container, false);
+        View root = inflater.inflate(R.layout.fragment_my_locations, container, false);
+
+        placeStore = PlaceStore.getInstance(requireContext());
+        locationEngine = LocationEngine.getInstance(requireContext());
+        tracker = new NearbyPlacesTracker(placeStore, RADIUS_METERS, MAX_PLACES, MARGIN_METERS, MAX_CANDIDATES);
+
+        tvEmpty = root.findViewById(R.id.tvEmpty);
+        RecyclerView rvPlaces = root.findViewById(R.id.rvPlaces);
+        rvPlaces.setLayoutManager(new LinearLayoutManager(requireContext()));
+        adapter = new PlaceListAdapter(this::openNavigation, true);
+        rvPlaces.setAdapter(adapter);
+        return root;
+    }
+
+    @Override
+    public void onStart() {
+        super.onStart();
+        placeStore.addListener(placesListener);
+        tracker.invalidate();
+        if (lastFix == null) {
+            showNewestPlaces();
+        }
+        locationEngine.addListener(locationListener);
+    }
+
+    @Override
+    public void onStop() {
+        super.onStop();
+        locationEngine.removeListener(locationListener);
+        placeStore.removeListener(placesListener);
+    }
+
+    /** Chỉ tính lại khoảng cách tới các ứng viên đã có, tìm lại trong chỉ mục khi đi xa. */
+    private void showPlaces(LocationFix fix) {
+        lastFix = fix;
+        List<NearbyPlace> places = tracker.update(fix.latitude, fix.longitude);
+        if (places.isEmpty()) {
+            showNewestPlaces();
+            return;
+        }
+        adapter.submitList(places);
+        tvEmpty.setVisibility(View.GONE);
+    }
+
+    private void showNewestPlaces() {
+        List<NearbyPlace> places = new ArrayList<>();
+        for (Place place : placeStore.newest(MAX_PLACES)) {
+            places.add(new NearbyPlace(place, Float.NaN));
+        }
+        adapter.submitList(places);
+        tvEmpty.setText("Chưa có địa điểm đã lưu. Nhấn nút lưu ở Trang chủ để thêm vị trí hiện tại.");
+        tvEmpty.setVisibility(places.isEmpty() ? View.VISIBLE : View.GONE);
+    }
+
+    private void openNavigation(Place place) {
+        requireActivity().getSupportFragmentManager()
+                .beginTransaction()
+                .replace(R.id.container, TrafficLocationFragment.newInstance(place))
+                .addToBackStack(null)
+                .commit();
     }
 }
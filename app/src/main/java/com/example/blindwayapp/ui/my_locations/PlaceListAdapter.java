@@ -0,0 +1,131 @@
+package com.example.blindwayapp.ui.my_locations;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.ImageButton;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.blindwayapp.R;
+import com.example.blindwayapp.location.NearbyPlace;
+import com.example.blindwayapp.location.Place;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Danh sách địa điểm kèm khoảng cách, dùng chung cho Địa điểm của tôi và Giao thông.
+ *
+ * Danh sách mới được so với danh sách cũ bằng DiffUtil trên luồng nền của ListAdapter; khoảng cách
+ * được so theo chuỗi đã làm tròn nên đi vài mét không làm dòng vẽ lại, và khi chỉ khoảng cách đổi
+ * thì chỉ dòng chữ khoảng cách được cập nhật.
+ */
+public class PlaceListAdapter extends ListAdapter<NearbyPlace, PlaceListAdapter.PlaceViewHolder> {
+
+    private static final Object PAYLOAD_DISTANCE = new Object();
+
+    public interface OnNavigateListener {
+        void onNavigate(Place place);
+    }
+
+    private static final DiffUtil.ItemCallback<NearbyPlace> DIFF = new DiffUtil.ItemCallback<NearbyPlace>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull NearbyPlace oldItem, @NonNull NearbyPlace newItem) {
+            return oldItem.place.id == newItem.place.id;
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull NearbyPlace oldItem, @NonNull NearbyPlace newItem) {
+            return oldItem.place.sameContent(newItem.place)
+                    && formatDistance(oldItem.distanceMeters).equals(formatDistance(newItem.distanceMeters));
+        }
+
+        @Override
+        public Object getChangePayload(@NonNull NearbyPlace oldItem, @NonNull NearbyPlace newItem) {
+            return oldItem.place.sameContent(newItem.place) ? PAYLOAD_DISTANCE : null;
+        }
+    };
+
+    private final OnNavigateListener navigateListener;
+    private final boolean showDetail;
+
+    /** @param showDetail hiện địa chỉ đã lưu trước khoảng cách */
+    public PlaceListAdapter(OnNavigateListener navigateListener, boolean showDetail) {
+        super(DIFF);
+        this.navigateListener = navigateListener;
+        this.showDetail = showDetail;
+    }
+
+    @NonNull
+    @Override
+    public PlaceViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext()).inflate(R.layout.item_place, parent, false);
+        PlaceViewHolder holder = new PlaceViewHolder(view);
+        holder.btnNavigate.setOnClickListener(v -> {
+            int position = holder.getBindingAdapterPosition();
+            if (position != RecyclerView.NO_POSITION) {
+                navigateListener.onNavigate(getItem(position).place);
+            }
+        });
+        return holder;
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull PlaceViewHolder holder, int position) {
+        NearbyPlace item = getItem(position);
+        holder.tvName.setText(item.place.name);
+        holder.btnNavigate.setContentDescription("Dẫn đường tới " + item.place.name);
+        bindDistance(holder, item);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull PlaceViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.contains(PAYLOAD_DISTANCE)) {
+            bindDistance(holder, getItem(position));
+        } else {
+            onBindViewHolder(holder, position);
+        }
+    }
+
+    private void bindDistance(PlaceViewHolder holder, NearbyPlace item) {
+        String detail = showDetail ? item.place.detail : "";
+        // Kết quả tìm kiếm khi chưa có vị trí không có khoảng cách
+        if (!Float.isNaN(item.distanceMeters)) {
+            String distance = "Cách đây " + formatDistance(item.distanceMeters);
+            detail = detail.isEmpty() ? distance : detail + " · " + distance;
+        }
+        holder.tvDetail.setText(detail);
+    }
+
+    /** Làm tròn theo độ lớn: từng mét khi gần, 10 m dưới 1 km, 0,1 km khi xa hơn. */
+    public static String formatDistance(float meters) {
+        if (Float.isNaN(meters)) {
+            return "";
+        }
+        if (meters < 100f) {
+            return Math.round(meters) + " m";
+        }
+        if (meters < 1000f) {
+            return Math.round(meters / 10f) * 10 + " m";
+        }
+        return String.format(Locale.getDefault(), "%.1f km", meters / 1000f);
+    }
+
+    static class PlaceViewHolder extends RecyclerView.ViewHolder {
+        final TextView tvName;
+        final TextView tvDetail;
+        final ImageButton btnNavigate;
+
+        PlaceViewHolder(View itemView) {
+            super(itemView);
+            tvName = itemView.findViewById(R.id.tvPlaceName);
+            tvDetail = itemView.findViewById(R.id.tvPlaceDetail);
+            btnNavigate = itemView.findViewById(R.id.btnNavigatePlace);
+        }
+    }
+}
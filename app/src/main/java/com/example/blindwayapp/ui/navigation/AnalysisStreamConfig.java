@@ -0,0 +1,71 @@
+package com.example.blindwayapp.ui.navigation;
+
+import java.util.Locale;
+
+/**
+ * Kích thước luồng ImageAnalysis vừa đủ cho model thay vì kích thước preview.
+ *
+ * Cạnh ngắn của frame phải đủ để vùng cắt hành lang (RoiPlanner) vẫn có khoảng bằng kích thước
+ * đầu vào model; lấy tỉ lệ 4:3 để giữ toàn bộ góc nhìn của cảm biến mà CameraIntrinsics giả định.
+ * Kích thước ở chiều của cảm biến (ngang), CameraX chọn độ phân giải gần nhất không nhỏ hơn.
+ *
+ * Luồng giữ định dạng YUV_420_888 và không xoay trong CameraX: YuvToTensorConverter đã xoay,
+ * thu nhỏ và đổi màu trong một lượt chỉ đọc các điểm cần lấy mẫu, còn FreeSpaceEstimator và
+ * SceneChangeDetector đọc thẳng plane Y. RGBA_8888 sẽ bắt CameraX đổi màu toàn bộ frame trên CPU
+ * và tăng gấp 8/3 số byte mỗi frame.
+ */
+public final class AnalysisStreamConfig {
+
+    public final int targetWidth;
+    public final int targetHeight;
+    /** Cạnh ngắn tối thiểu (pixel) để đáp ứng model. */
+    public final int requiredShortSide;
+
+    private AnalysisStreamConfig(int targetWidth, int targetHeight, int requiredShortSide) {
+        this.targetWidth = targetWidth;
+        this.targetHeight = targetHeight;
+        this.requiredShortSide = requiredShortSide;
+    }
+
+    /**
+     * @param modelInputSize cạnh lớn hơn của tensor đầu vào model
+     * @param cropFraction   tỉ lệ cạnh ngắn của vùng cắt lớn nhất chạy ở độ phân giải model (1 nếu không cắt)
+     */
+    public static AnalysisStreamConfig forModel(int modelInputSize, float cropFraction) {
+        if (modelInputSize <= 0 || cropFraction <= 0f || cropFraction > 1f) {
+            throw new IllegalArgumentException("Tham số luồng không hợp lệ: " + modelInputSize + ", " + cropFraction);
+        }
+        int shortSide = (int) Math.ceil(modelInputSize / cropFraction);
+        shortSide += shortSide & 1;
+        int longSide = (shortSide * 4 + 2) / 3;
+        longSide += longSide & 1;
+        return new AnalysisStreamConfig(longSide, shortSide, shortSide);
+    }
+
+    /** true nếu độ phân giải CameraX thật sự cấp đáp ứng được model. */
+    public boolean isSatisfiedBy(int width, int height) {
+        return Math.min(width, height) >= requiredShortSide;
+    }
+
+    /** Số byte một frame YUV_420_888 (Y đủ độ phân giải, U và V một nửa mỗi chiều). */
+    public static long yuvBytes(int width, int height) {
+        long chroma = (long) ((width + 1) / 2) * ((height + 1) / 2);
+        return (long) width * height + 2 * chroma;
+    }
+
+    /** Mô tả luồng đã thỏa thuận và lượng byte tiết kiệm mỗi frame so với luồng cỡ preview. */
+    public String describe(int width, int height, int rotationDegrees, int previewWidth, int previewHeight) {
+        long bytes = yuvBytes(width, height);
+        String text = String.format(Locale.US, "%dx%d YUV_420_888, xoay %d° trong converter, %d KB/frame",
+                width, height, rotationDegrees, bytes / 1024);
+        if (previewWidth > 0 && previewHeight > 0) {
+            long saved = yuvBytes(previewWidth, previewHeight) - bytes;
+            text += String.format(Locale.US, ", tiết kiệm %d KB/frame so với preview %dx%d",
+                    saved / 1024, previewWidth, previewHeight);
+        }
+        if (!isSatisfiedBy(width, height)) {
+            text += ", thấp hơn mức cần " + requiredShortSide + " px";
+        }
+        return text;
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.blindwayapp.ui.navigation;
+
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.os.BatteryManager;
+import android.os.Build;
+import android.os.PowerManager;
+
+/**
+ * Trạng thái nhiệt, pin và chế độ tiết kiệm pin cho PerformanceGovernor.
+ *
+ * Pin đọc từ intent ACTION_BATTERY_CHANGED dạng sticky nên không cần đăng ký receiver;
+ * trạng thái nhiệt chỉ có từ Android 10, máy cũ luôn báo THERMAL_NONE.
+ */
+public class AndroidDeviceStateSource implements PerformanceGovernor.DeviceStateSource {
+
+    private static final IntentFilter BATTERY_FILTER = new IntentFilter(Intent.ACTION_BATTERY_CHANGED);
+
+    private final Context appContext;
+    private final PowerManager powerManager;
+
+    public AndroidDeviceStateSource(Context context) {
+        appContext = context.getApplicationContext();
+        powerManager = (PowerManager) appContext.getSystemService(Context.POWER_SERVICE);
+    }
+
+    @Override
+    public int getThermalStatus() {
+        if (powerManager == null || Build.VERSION.SDK_INT < Build.VERSION_CODES.Q) {
+            return PerformanceGovernor.THERMAL_NONE;
+        }
+        return powerManager.getCurrentThermalStatus();
+    }
+
+    @Override
+    public int getBatteryPercent() {
+        Intent battery = appContext.registerReceiver(null, BATTERY_FILTER);
+        if (battery == null) {
+            return -1;
+        }
+        int level = battery.getIntExtra(BatteryManager.EXTRA_LEVEL, -1);
+        int scale = battery.getIntExtra(BatteryManager.EXTRA_SCALE, -1);
+        return level < 0 || scale <= 0 ? -1 : level * 100 / scale;
+    }
+
+    @Override
+    public boolean isCharging() {
+        Intent battery = appContext.registerReceiver(null, BATTERY_FILTER);
+        if (battery == null) {
+            return false;
+        }
+        int status = battery.getIntExtra(BatteryManager.EXTRA_STATUS, -1);
+        return status == BatteryManager.BATTERY_STATUS_CHARGING || status == BatteryManager.BATTERY_STATUS_FULL;
+    }
+
+    @Override
+    public boolean isPowerSaveMode() {
+        return powerManager != null && powerManager.isPowerSaveMode();
+    }
+}
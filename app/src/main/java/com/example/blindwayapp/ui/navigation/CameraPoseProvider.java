@@ -0,0 +1,116 @@
+package com.example.blindwayapp.ui.navigation;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.hardware.Sensor;
+import android.hardware.SensorEvent;
+import android.hardware.SensorEventListener;
+import android.hardware.SensorManager;
+import android.hardware.camera2.CameraCharacteristics;
+import android.hardware.camera2.CameraManager;
+import android.util.Log;
+import android.util.SizeF;
+
+/**
+ * Cung cấp dữ liệu thật cho DistanceEstimator: thông số quang học của camera sau từ Camera2,
+ * độ nghiêng máy từ gia tốc kế và độ cao camera đã hiệu chỉnh lưu trong SharedPreferences.
+ */
+public class CameraPoseProvider implements SensorEventListener {
+
+    private static final String TAG = "CameraPoseProvider";
+    private static final String PREFERENCES = "camera_calibration";
+    private static final String KEY_CAMERA_HEIGHT = "camera_height";
+    // Lọc thông thấp để rung tay khi đi bộ không làm bảng khoảng cách dựng lại liên tục
+    private static final float GRAVITY_SMOOTHING = 0.1f;
+
+    private final SensorManager sensorManager;
+    private final Sensor accelerometer;
+    private final SharedPreferences preferences;
+    private final DistanceEstimator estimator;
+    private final float[] gravity = new float[3];
+    private boolean hasGravity;
+
+    public CameraPoseProvider(Context context) {
+        Context appContext = context.getApplicationContext();
+        sensorManager = (SensorManager) appContext.getSystemService(Context.SENSOR_SERVICE);
+        accelerometer = sensorManager != null ? sensorManager.getDefaultSensor(Sensor.TYPE_ACCELEROMETER) : null;
+        preferences = appContext.getSharedPreferences(PREFERENCES, Context.MODE_PRIVATE);
+
+        CameraIntrinsics intrinsics = readBackCameraIntrinsics(appContext);
+        float height = preferences.getFloat(KEY_CAMERA_HEIGHT, DistanceEstimator.DEFAULT_CAMERA_HEIGHT);
+        estimator = new DistanceEstimator(intrinsics, height);
+        Log.d(TAG, "Camera " + intrinsics + ", góc nhìn dọc "
+                + Math.round(intrinsics.verticalFieldOfViewDegrees()) + "°, cao " + height + " m");
+    }
+
+    public DistanceEstimator getEstimator() {
+        return estimator;
+    }
+
+    public void start() {
+        if (accelerometer == null) {
+            Log.w(TAG, "Không có gia tốc kế, dùng góc nghiêng mặc định");
+            return;
+        }
+        sensorManager.registerListener(this, accelerometer, SensorManager.SENSOR_DELAY_UI);
+    }
+
+    public void stop() {
+        if (accelerometer != null) {
+            sensorManager.unregisterListener(this);
+        }
+        hasGravity = false;
+    }
+
+    /**
+     * Hiệu chỉnh từ một vật ở khoảng cách đã biết rồi lưu độ cao camera cho các lần sau.
+     *
+     * @return độ cao camera mới (mét)
+     */
+    public float calibrate(float normalizedY, float knownDistance) {
+        float height = estimator.calibrate(normalizedY, knownDistance);
+        preferences.edit().putFloat(KEY_CAMERA_HEIGHT, height).apply();
+        Log.d(TAG, "Đã hiệu chỉnh độ cao camera: " + height + " m");
+        return height;
+    }
+
+    @Override
+    public void onSensorChanged(SensorEvent event) {
+        if (!hasGravity) {
+            System.arraycopy(event.values, 0, gravity, 0, 3);
+            hasGravity = true;
+        } else {
+            for (int i = 0; i < 3; i++) {
+                gravity[i] += GRAVITY_SMOOTHING * (event.values[i] - gravity[i]);
+            }
+        }
+        // Máy dựng đứng (y hướng lên) thì camera sau nhìn ngang; ngả màn hình lên trời thì camera chúc xuống
+        float pitch = (float) Math.atan2(gravity[2], gravity[1]);
+        estimator.updatePitch(pitch);
+    }
+
+    @Override
+    public void onAccuracyChanged(Sensor sensor, int accuracy) {
+    }
+
+    private static CameraIntrinsics readBackCameraIntrinsics(Context context) {
+        try {
+            CameraManager manager = (CameraManager) context.getSystemService(Context.CAMERA_SERVICE);
+            for (String id : manager.getCameraIdList()) {
+                CameraCharacteristics characteristics = manager.getCameraCharacteristics(id);
+                Integer facing = characteristics.get(CameraCharacteristics.LENS_FACING);
+                if (facing == null || facing != CameraCharacteristics.LENS_FACING_BACK) {
+                    continue;
+                }
+                float[] focalLengths = characteristics.get(CameraCharacteristics.LENS_INFO_AVAILABLE_FOCAL_LENGTHS);
+                SizeF sensorSize = characteristics.get(CameraCharacteristics.SENSOR_INFO_PHYSICAL_SIZE);
+                if (focalLengths != null && focalLengths.length > 0 && sensorSize != null) {
+                    return new CameraIntrinsics(focalLengths[0], sensorSize.getWidth(), sensorSize.getHeight());
+                }
+            }
+        } catch (Exception e) {
+            Log.w(TAG, "Không đọc được thông số camera: " + e.getMessage());
+        }
+        return CameraIntrinsics.DEFAULT;
+    }
+}
@@ -0,0 +1,233 @@
+package com.example.blindwayapp.ui.navigation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Chọn cấu hình chạy model (CPU/XNNPACK với số luồng khác nhau, NNAPI, GPU) nhanh nhất trên máy.
+ *
+ * Mỗi ứng viên được mở thử, chạy warm-up rồi đo thời gian vài lần; ứng viên nào không mở được
+ * hoặc cho kết quả lệch so với ứng viên tham chiếu (ứng viên đầu tiên, luôn là CPU) bị loại.
+ * CPU không chạy được thì dừng chọn: không có tham chiếu đáng tin để so các delegate với nhau.
+ * Lựa chọn được lưu theo khóa thiết bị/model để các lần khởi động sau bỏ qua bước đo.
+ *
+ * Lớp không phụ thuộc TFLite hay Android; phần tạo Interpreter nằm ở TfLiteDelegateCandidates.
+ */
+public class DelegateSelector {
+
+    /** Một cách chạy model. */
+    public interface Candidate {
+        String getId();
+
+        /** Tạo interpreter với cấu hình này; ném lỗi nếu thiết bị không hỗ trợ. */
+        Trial open() throws Exception;
+    }
+
+    /** Interpreter đã mở của một ứng viên. */
+    public interface Trial {
+        /** Chạy một lần suy luận trên đầu vào cố định. */
+        void run() throws Exception;
+
+        /** Đầu ra của lần chạy gần nhất, dùng để so sánh với ứng viên tham chiếu. */
+        float[] readOutput();
+
+        void close();
+    }
+
+    /** Nơi lưu lựa chọn giữa các lần khởi động. */
+    public interface ChoiceCache {
+        String get(String key);
+
+        void put(String key, String candidateId);
+    }
+
+    /** Thời gian đo được của một ứng viên, phục vụ ghi log. */
+    public static final class Measurement {
+        public final String candidateId;
+        public final long averageNanos;
+        public final String rejectedReason;
+
+        Measurement(String candidateId, long averageNanos, String rejectedReason) {
+            this.candidateId = candidateId;
+            this.averageNanos = averageNanos;
+            this.rejectedReason = rejectedReason;
+        }
+
+        @Override
+        public String toString() {
+            return rejectedReason == null
+                    ? candidateId + ": " + averageNanos / 1000 + " µs"
+                    : candidateId + ": bị loại (" + rejectedReason + ")";
+        }
+    }
+
+    /** Ứng viên được chọn; trial vẫn đang mở và thuộc về người gọi. */
+    public static final class Selection {
+        public final String candidateId;
+        public final Trial trial;
+        public final boolean fromCache;
+        public final List<Measurement> measurements;
+
+        Selection(String candidateId, Trial trial, boolean fromCache, List<Measurement> measurements) {
+            this.candidateId = candidateId;
+            this.trial = trial;
+            this.fromCache = fromCache;
+            this.measurements = Collections.unmodifiableList(measurements);
+        }
+    }
+
+    private final List<Candidate> candidates;
+    private final ChoiceCache cache;
+    private final int warmUpRuns;
+    private final int timedRuns;
+    private final float tolerance;
+
+    /**
+     * @param candidates danh sách ứng viên, phần tử đầu tiên là CPU và làm tham chiếu cho kết quả
+     * @param tolerance  sai lệch tối đa cho phép so với đầu ra tham chiếu, xem {@link #maxRelativeDifference}
+     */
+    public DelegateSelector(List<Candidate> candidates, ChoiceCache cache,
+                            int warmUpRuns, int timedRuns, float tolerance) {
+        if (candidates.isEmpty()) {
+            throw new IllegalArgumentException("Cần ít nhất một ứng viên");
+        }
+        this.candidates = new ArrayList<>(candidates);
+        this.cache = cache;
+        this.warmUpRuns = warmUpRuns;
+        this.timedRuns = Math.max(1, timedRuns);
+        this.tolerance = tolerance;
+    }
+
+    /**
+     * Trả về ứng viên đã lưu cho cacheKey nếu còn mở được, nếu không thì đo lại tất cả.
+     *
+     * @throws IllegalStateException nếu ứng viên tham chiếu (CPU) không chạy được
+     */
+    public Selection select(String cacheKey) {
+        Selection cached = openCachedChoice(cacheKey);
+        if (cached != null) {
+            return cached;
+        }
+
+        List<Measurement> measurements = new ArrayList<>();
+        float[] reference = null;
+        Trial best = null;
+        String bestId = null;
+        long bestNanos = Long.MAX_VALUE;
+
+        for (Candidate candidate : candidates) {
+            boolean isReference = candidate == candidates.get(0);
+            Trial trial;
+            try {
+                trial = candidate.open();
+            } catch (Throwable t) {
+                // Thiết bị không có GPU/NNAPI hoặc native library thiếu: bỏ qua, dùng ứng viên khác
+                measurements.add(new Measurement(candidate.getId(), -1, "không mở được: " + t.getMessage()));
+                if (isReference) {
+                    throw new IllegalStateException("Không chạy được ứng viên tham chiếu: " + measurements, t);
+                }
+                continue;
+            }
+
+            long averageNanos;
+            float[] output;
+            try {
+                for (int i = 0; i < warmUpRuns; i++) {
+                    trial.run();
+                }
+                long start = System.nanoTime();
+                for (int i = 0; i < timedRuns; i++) {
+                    trial.run();
+                }
+                averageNanos = (System.nanoTime() - start) / timedRuns;
+                output = trial.readOutput();
+            } catch (Throwable t) {
+                trial.close();
+                measurements.add(new Measurement(candidate.getId(), -1, "lỗi khi chạy: " + t.getMessage()));
+                if (isReference) {
+                    throw new IllegalStateException("Không chạy được ứng viên tham chiếu: " + measurements, t);
+                }
+                continue;
+            }
+
+            if (isReference) {
+                reference = output;
+            } else {
+                float difference = maxRelativeDifference(reference, output);
+                if (difference > tolerance) {
+                    trial.close();
+                    measurements.add(new Measurement(candidate.getId(), averageNanos,
+                            "kết quả lệch " + difference));
+                    continue;
+                }
+            }
+
+            measurements.add(new Measurement(candidate.getId(), averageNanos, null));
+            if (averageNanos < bestNanos) {
+                if (best != null) {
+                    best.close();
+                }
+                best = trial;
+                bestId = candidate.getId();
+                bestNanos = averageNanos;
+            } else {
+                trial.close();
+            }
+        }
+
+        if (cache != null) {
+            cache.put(cacheKey, bestId);
+        }
+        return new Selection(bestId, best, false, measurements);
+    }
+
+    private Selection openCachedChoice(String cacheKey) {
+        if (cache == null) {
+            return null;
+        }
+        String cachedId = cache.get(cacheKey);
+        if (cachedId == null) {
+            return null;
+        }
+
+        for (Candidate candidate : candidates) {
+            if (!candidate.getId().equals(cachedId)) {
+                continue;
+            }
+            Trial trial = null;
+            try {
+                trial = candidate.open();
+                // Một lần chạy vừa kiểm tra lựa chọn cũ còn dùng được vừa là warm-up
+                trial.run();
+                return new Selection(cachedId, trial, true, new ArrayList<>());
+            } catch (Throwable t) {
+                if (trial != null) {
+                    trial.close();
+                }
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Sai lệch lớn nhất giữa hai đầu ra, tính tương đối với độ lớn của giá trị tham chiếu khi giá trị
+     * đó lớn hơn 1: điểm tin cậy (0..1) so tuyệt đối, toạ độ hộp tính bằng pixel so theo tỉ lệ, nên
+     * sai số FP16 của GPU trên toạ độ vài trăm pixel không làm loại một kết quả đúng.
+     */
+    static float maxRelativeDifference(float[] expected, float[] actual) {
+        if (expected.length != actual.length) {
+            return Float.POSITIVE_INFINITY;
+        }
+        float max = 0f;
+        for (int i = 0; i < expected.length; i++) {
+            float difference = Math.abs(expected[i] - actual[i]) / Math.max(1f, Math.abs(expected[i]));
+            if (!(difference <= max)) {
+                // Cũng bắt được NaN
+                max = Float.isNaN(difference) ? Float.POSITIVE_INFINITY : difference;
+            }
+        }
+        return max;
+    }
+}
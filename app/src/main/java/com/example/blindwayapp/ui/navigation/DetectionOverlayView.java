@@ -0,0 +1,121 @@
+package com.example.blindwayapp.ui.navigation;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.util.AttributeSet;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Vẽ bounding box trực tiếp trong onDraw (canvas tăng tốc phần cứng), thay cho việc vẽ lên
+ * một Bitmap toàn màn hình rồi đẩy qua ImageView.
+ *
+ * Giữ hai DetectionList: {@code front} là ảnh chụp đang được vẽ và không bị sửa cho tới lần
+ * hoán đổi sau, {@code back} nhận kết quả mới. Nếu kết quả mới không khác ảnh đang vẽ quá
+ * {@link #CHANGE_TOLERANCE_PX} thì bỏ qua invalidate. Mọi phương thức chạy trên UI thread.
+ */
+public class DetectionOverlayView extends View {
+
+    // Lệch dưới một pixel thì không đáng vẽ lại
+    private static final float CHANGE_TOLERANCE_PX = 1f;
+    private static final int DEFAULT_CAPACITY = 64;
+
+    private final Paint boxPaint = new Paint();
+    private final Paint labelPaint = new Paint();
+
+    private DetectionList front = new DetectionList(DEFAULT_CAPACITY);
+    private DetectionList back = new DetectionList(DEFAULT_CAPACITY);
+
+    private long drawCount;
+    private long drawNanos;
+    private long skippedUpdates;
+
+    public DetectionOverlayView(Context context) {
+        this(context, null);
+    }
+
+    public DetectionOverlayView(Context context, @Nullable AttributeSet attrs) {
+        this(context, attrs, 0);
+    }
+
+    public DetectionOverlayView(Context context, @Nullable AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+        boxPaint.setColor(Color.GREEN);
+        boxPaint.setStyle(Paint.Style.STROKE);
+        boxPaint.setStrokeWidth(4f);
+        labelPaint.setColor(Color.GREEN);
+        labelPaint.setStyle(Paint.Style.FILL);
+        labelPaint.setTextSize(36f);
+        labelPaint.setAntiAlias(true);
+    }
+
+    /**
+     * Nhận kết quả mới. Danh sách truyền vào được chép nên có thể trả về pool ngay sau đó.
+     */
+    public void setDetections(DetectionList detections) {
+        if (back.capacity() < detections.capacity()) {
+            // Chỉ xảy ra một lần khi model trả về nhiều kết quả hơn mặc định
+            front = new DetectionList(detections.capacity());
+            back = new DetectionList(detections.capacity());
+        }
+        back.copyFrom(detections);
+
+        float tolerance = CHANGE_TOLERANCE_PX / Math.max(1, Math.max(getWidth(), getHeight()));
+        if (back.sameAs(front, tolerance)) {
+            skippedUpdates++;
+            return;
+        }
+
+        DetectionList drawn = front;
+        front = back;
+        back = drawn;
+        invalidate();
+    }
+
+    public void clear() {
+        back.clear();
+        setDetections(back);
+    }
+
+    /** Số lần onDraw đã chạy. */
+    public long getDrawCount() {
+        return drawCount;
+    }
+
+    /** Số kết quả bị bỏ qua vì không khác ảnh đang hiển thị. */
+    public long getSkippedUpdates() {
+        return skippedUpdates;
+    }
+
+    /** Thời gian trung bình ghi lệnh vẽ trong onDraw (µs). */
+    public float getAverageDrawMicros() {
+        return drawCount == 0 ? 0f : drawNanos / 1000f / drawCount;
+    }
+
+    @Override
+    protected void onDraw(@NonNull Canvas canvas) {
+        super.onDraw(canvas);
+        long start = System.nanoTime();
+
+        int viewWidth = getWidth();
+        int viewHeight = getHeight();
+        DetectionList detections = front;
+        for (int i = 0; i < detections.size(); i++) {
+            Detection detection = detections.get(i);
+            float left = detection.left * viewWidth;
+            float top = detection.top * viewHeight;
+            float right = detection.right * viewWidth;
+            float bottom = detection.bottom * viewHeight;
+
+            canvas.drawRect(left, top, right, bottom, boxPaint);
+            canvas.drawText(detection.label, Math.max(10, left), Math.max(40, top - 10), labelPaint);
+        }
+
+        drawNanos += System.nanoTime() - start;
+        drawCount++;
+    }
+}
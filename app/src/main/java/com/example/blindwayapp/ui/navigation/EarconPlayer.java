@@ -0,0 +1,159 @@
+package com.example.blindwayapp.ui.navigation;
+
+import android.media.AudioAttributes;
+import android.media.AudioFormat;
+import android.media.AudioManager;
+import android.media.AudioTrack;
+import android.os.Build;
+import android.os.Process;
+import android.util.Log;
+
+/**
+ * Kênh âm thanh không lời chạy song song với giọng nói: phát tiếng bíp stereo qua một
+ * AudioTrack độ trễ thấp trên luồng riêng.
+ *
+ * {@link #update} chỉ cập nhật vài biến dưới một khóa ngắn nên gọi được từ luồng xử lý frame
+ * ngay khi có kết quả, không phải chờ UI thread. Khoảng lặng giữa hai tiếng bíp được ghi theo
+ * từng đoạn ngắn, nên vật thể mới hoặc gần hơn được phản hồi trong khoảng một đoạn thay vì phải
+ * chờ hết nhịp cũ.
+ */
+public class EarconPlayer {
+
+    private static final String TAG = "EarconPlayer";
+    private static final int SILENCE_CHUNK_MS = 20;
+
+    private final EarconSynthesizer synthesizer;
+    private final AudioTrack track;
+    private final short[] toneBuffer;
+    private final short[] silenceBuffer;
+    private final Object lock = new Object();
+    private Thread thread;
+    private volatile boolean running;
+
+    private volatile boolean active;
+    private volatile int pitch;
+    private volatile float pan;
+    private volatile long intervalMillis;
+    // Tăng mỗi lần có vật thể mới hoặc gần hơn để luồng phát cắt ngắn khoảng lặng
+    private volatile int urgentVersion;
+
+    public EarconPlayer() {
+        int sampleRate = AudioTrack.getNativeOutputSampleRate(AudioManager.STREAM_MUSIC);
+        synthesizer = new EarconSynthesizer(sampleRate);
+        toneBuffer = new short[synthesizer.getToneFrames() * 2];
+        silenceBuffer = new short[sampleRate * SILENCE_CHUNK_MS / 1000 * 2];
+
+        int minBuffer = AudioTrack.getMinBufferSize(sampleRate,
+                AudioFormat.CHANNEL_OUT_STEREO, AudioFormat.ENCODING_PCM_16BIT);
+        AudioAttributes attributes = new AudioAttributes.Builder()
+                .setUsage(AudioAttributes.USAGE_ASSISTANCE_SONIFICATION)
+                .setContentType(AudioAttributes.CONTENT_TYPE_SONIFICATION)
+                .build();
+        AudioFormat format = new AudioFormat.Builder()
+                .setSampleRate(sampleRate)
+                .setChannelMask(AudioFormat.CHANNEL_OUT_STEREO)
+                .setEncoding(AudioFormat.ENCODING_PCM_16BIT)
+                .build();
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            track = new AudioTrack.Builder()
+                    .setAudioAttributes(attributes)
+                    .setAudioFormat(format)
+                    .setBufferSizeInBytes(minBuffer)
+                    .setTransferMode(AudioTrack.MODE_STREAM)
+                    .setPerformanceMode(AudioTrack.PERFORMANCE_MODE_LOW_LATENCY)
+                    .build();
+        } else {
+            track = new AudioTrack(attributes, format, minBuffer, AudioTrack.MODE_STREAM,
+                    AudioManager.AUDIO_SESSION_ID_GENERATE);
+        }
+        Log.d(TAG, "AudioTrack " + sampleRate + " Hz, buffer " + minBuffer + " byte");
+    }
+
+    public void start() {
+        if (running || track.getState() != AudioTrack.STATE_INITIALIZED) {
+            return;
+        }
+        running = true;
+        track.play();
+        thread = new Thread(this::playLoop, TAG);
+        thread.start();
+    }
+
+    /**
+     * Báo vật cản gần nhất hiện tại.
+     *
+     * @param centerX tâm ngang chuẩn hóa 0..1 của vật thể
+     * @param meters  khoảng cách ước lượng
+     */
+    public void update(float centerX, float meters) {
+        int newPitch = EarconSynthesizer.pitchForDistance(meters);
+        // Gọi được từ cả luồng camera (frame ngoại suy) lẫn luồng hậu xử lý
+        synchronized (lock) {
+            boolean urgent = !active || newPitch < pitch;
+            pan = EarconSynthesizer.panForCenter(centerX);
+            intervalMillis = EarconSynthesizer.repeatIntervalMillis(meters);
+            pitch = newPitch;
+            active = true;
+            if (urgent) {
+                urgentVersion++;
+                lock.notifyAll();
+            }
+        }
+    }
+
+    /** Không còn vật cản: ngừng bíp sau tiếng đang phát. */
+    public void silence() {
+        active = false;
+    }
+
+    public void release() {
+        running = false;
+        active = false;
+        synchronized (lock) {
+            lock.notifyAll();
+        }
+        if (thread != null) {
+            try {
+                thread.join(500);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            thread = null;
+        }
+        track.release();
+    }
+
+    private void playLoop() {
+        Process.setThreadPriority(Process.THREAD_PRIORITY_URGENT_AUDIO);
+        while (running) {
+            if (!active) {
+                waitForUpdate();
+                continue;
+            }
+            int version = urgentVersion;
+            int samples = synthesizer.render(pitch, pan, toneBuffer);
+            track.write(toneBuffer, 0, samples);
+
+            // Khoảng lặng theo từng đoạn ngắn để dừng sớm khi có cập nhật khẩn
+            long silenceMillis = intervalMillis - 1000L * synthesizer.getToneFrames() / synthesizer.getSampleRate();
+            for (long written = 0; written < silenceMillis && running && active
+                    && version == urgentVersion; written += SILENCE_CHUNK_MS) {
+                track.write(silenceBuffer, 0, silenceBuffer.length);
+            }
+        }
+        track.pause();
+        track.flush();
+    }
+
+    private void waitForUpdate() {
+        synchronized (lock) {
+            try {
+                while (running && !active) {
+                    lock.wait();
+                }
+            } catch (InterruptedException e) {
+                running = false;
+            }
+        }
+    }
+}
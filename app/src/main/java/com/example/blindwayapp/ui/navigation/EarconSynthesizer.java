@@ -0,0 +1,103 @@
+package com.example.blindwayapp.ui.navigation;
+
+/**
+ * Tạo tiếng bíp báo vật cản: cao độ theo vùng khoảng cách, cân bằng trái/phải theo vị trí
+ * vật thể, nhịp lặp nhanh dần khi vật thể tới gần.
+ *
+ * Dạng sóng của từng cao độ được tính sẵn một lần trong constructor (mono, có fade vào/ra
+ * để không nghe tiếng tách). {@link #render} chỉ nhân với hệ số pan và ghi ra buffer
+ * stereo xen kẽ có sẵn nên không cấp phát.
+ */
+public class EarconSynthesizer {
+
+    // Càng gần càng cao: A6, E6, B5, G5, E5 theo thứ tự vùng của AlertPolicy.distanceBand
+    private static final float[] PITCHES_HZ = {1760f, 1318.5f, 987.8f, 784f, 659.3f};
+    private static final int TONE_MILLIS = 60;
+    private static final int FADE_MILLIS = 5;
+    private static final float AMPLITUDE = 0.5f;
+
+    // Nhịp lặp: 150 ms khi sát vật thể, 1 giây khi cách từ 5 m trở lên
+    private static final float NEAR_DISTANCE = 0.5f;
+    private static final float FAR_DISTANCE = 5f;
+    private static final long NEAR_INTERVAL_MS = 150;
+    private static final long FAR_INTERVAL_MS = 1000;
+
+    private final int sampleRate;
+    private final float[][] tones;
+
+    public EarconSynthesizer(int sampleRate) {
+        if (sampleRate <= 0) {
+            throw new IllegalArgumentException("sampleRate phải dương: " + sampleRate);
+        }
+        this.sampleRate = sampleRate;
+        int length = sampleRate * TONE_MILLIS / 1000;
+        int fade = Math.max(1, sampleRate * FADE_MILLIS / 1000);
+
+        tones = new float[PITCHES_HZ.length][length];
+        for (int p = 0; p < PITCHES_HZ.length; p++) {
+            double step = 2 * Math.PI * PITCHES_HZ[p] / sampleRate;
+            for (int i = 0; i < length; i++) {
+                float envelope = 1f;
+                int edge = Math.min(i, length - 1 - i);
+                if (edge < fade) {
+                    envelope = 0.5f - 0.5f * (float) Math.cos(Math.PI * edge / fade);
+                }
+                tones[p][i] = AMPLITUDE * envelope * (float) Math.sin(step * i);
+            }
+        }
+    }
+
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    /** Số khung (mỗi khung hai mẫu trái/phải) của một tiếng bíp. */
+    public int getToneFrames() {
+        return tones[0].length;
+    }
+
+    public int getPitchCount() {
+        return tones.length;
+    }
+
+    /** Cao độ cho một khoảng cách (mét), 0 là cao nhất. */
+    public static int pitchForDistance(float meters) {
+        return Math.min(AlertPolicy.distanceBand(meters), PITCHES_HZ.length - 1);
+    }
+
+    public static float pitchHz(int pitch) {
+        return PITCHES_HZ[pitch];
+    }
+
+    /** Pan -1 (trái) .. 1 (phải) theo tâm ngang chuẩn hóa 0..1 của vật thể. */
+    public static float panForCenter(float centerX) {
+        return Math.max(-1f, Math.min(1f, centerX * 2f - 1f));
+    }
+
+    /** Khoảng cách giữa hai tiếng bíp, tuyến tính theo khoảng cách vật thể. */
+    public static long repeatIntervalMillis(float meters) {
+        float t = (Math.max(NEAR_DISTANCE, Math.min(FAR_DISTANCE, meters)) - NEAR_DISTANCE)
+                / (FAR_DISTANCE - NEAR_DISTANCE);
+        return NEAR_INTERVAL_MS + Math.round(t * (FAR_INTERVAL_MS - NEAR_INTERVAL_MS));
+    }
+
+    /**
+     * Ghi một tiếng bíp PCM 16-bit stereo xen kẽ vào out, pan theo luật công suất không đổi.
+     *
+     * @return số mẫu đã ghi (gấp đôi số khung)
+     */
+    public int render(int pitch, float pan, short[] out) {
+        float[] tone = tones[pitch];
+        if (out.length < tone.length * 2) {
+            throw new IllegalArgumentException("Buffer cần " + tone.length * 2 + " mẫu, có " + out.length);
+        }
+        double angle = (Math.max(-1f, Math.min(1f, pan)) + 1) * Math.PI / 4;
+        float left = (float) Math.cos(angle) * Short.MAX_VALUE;
+        float right = (float) Math.sin(angle) * Short.MAX_VALUE;
+        for (int i = 0; i < tone.length; i++) {
+            out[2 * i] = (short) (tone[i] * left);
+            out[2 * i + 1] = (short) (tone[i] * right);
+        }
+        return tone.length * 2;
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.blindwayapp.ui.navigation;
+
+import android.util.Log;
+
+import androidx.camera.core.ImageProxy;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chế độ ghi: chép frame YUV thô từ luồng camera ra file .bwfr để chạy lại trên máy tính bằng
+ * module :replay.
+ *
+ * Luồng camera chỉ chép các plane vào một RecordedFrame lấy từ pool nhỏ rồi trả ImageProxy ngay;
+ * nén và ghi file làm trên luồng riêng. Pool cạn (ghi không kịp) thì frame bị bỏ chứ không giữ
+ * luồng camera lại.
+ *
+ * Mỗi lần ghi có hàng đợi và luồng ghi riêng nên hai lần ghi liền nhau không chia frame cho nhau;
+ * start() không chờ luồng ghi của lần trước xả xong (nó được gọi trên main thread). Trong lúc đó
+ * hai luồng ghi dùng chung pool, nên vài frame đầu của lần ghi mới có thể bị bỏ.
+ */
+public class FrameRecorder {
+
+    private static final String TAG = "FrameRecorder";
+    private static final int POOL_SIZE = 4;
+    private static final long POLL_MS = 100;
+
+    /** Một lần ghi: một file, một hàng đợi frame chờ ghi. */
+    private static final class Session {
+        final File file;
+        final FrameRecordWriter writer;
+        final ArrayBlockingQueue<RecordedFrame> pendingFrames = new ArrayBlockingQueue<>(POOL_SIZE);
+        volatile boolean open = true;
+        volatile int droppedFrames;
+
+        Session(File file, FrameRecordWriter writer) {
+            this.file = file;
+            this.writer = writer;
+        }
+    }
+
+    private final ArrayBlockingQueue<RecordedFrame> freeFrames = new ArrayBlockingQueue<>(POOL_SIZE);
+    private volatile Session session;
+    // Chỉ truy cập khi giữ khóa của đối tượng
+    private File file;
+
+    public FrameRecorder() {
+        for (int i = 0; i < POOL_SIZE; i++) {
+            freeFrames.add(new RecordedFrame());
+        }
+    }
+
+    public boolean isRecording() {
+        Session current = session;
+        return current != null && current.open;
+    }
+
+    /**
+     * Bắt đầu ghi vào một file mới trong dir.
+     *
+     * @return file đang ghi
+     */
+    public synchronized File start(File dir) throws IOException {
+        if (isRecording()) {
+            return session.file;
+        }
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Không tạo được thư mục " + dir);
+        }
+        file = new File(dir, "frames_" + System.currentTimeMillis() + ".bwfr");
+        Session started = new Session(file, new FrameRecordWriter(new FileOutputStream(file)));
+        new Thread(() -> writeLoop(started), TAG).start();
+        session = started;
+        Log.d(TAG, "🔴 Bắt đầu ghi frame: " + file);
+        return file;
+    }
+
+    /** Dừng ghi; luồng ghi xả nốt các frame đang chờ rồi đóng file. */
+    public synchronized File stop() {
+        Session stopped = session;
+        if (stopped != null) {
+            stopped.open = false;
+            session = null;
+        }
+        return file;
+    }
+
+    /** Gọi trên luồng camera trước khi frame được xử lý hoặc đóng. */
+    public void offer(ImageProxy imageProxy) {
+        Session current = session;
+        if (current == null || !current.open) {
+            return;
+        }
+        RecordedFrame frame = freeFrames.poll();
+        if (frame == null) {
+            current.droppedFrames++;
+            return;
+        }
+        ImageProxy.PlaneProxy[] planes = imageProxy.getPlanes();
+        frame.set(imageProxy.getImageInfo().getTimestamp(), imageProxy.getWidth(), imageProxy.getHeight(),
+                imageProxy.getImageInfo().getRotationDegrees(),
+                planes[0].getBuffer(), planes[0].getRowStride(),
+                planes[1].getBuffer(), planes[2].getBuffer(),
+                planes[1].getRowStride(), planes[1].getPixelStride());
+        if (!current.pendingFrames.offer(frame)) {
+            freeFrames.offer(frame);
+            return;
+        }
+        // Lần ghi vừa dừng và luồng ghi có thể đã xả xong hàng đợi: tự lấy lại frame về pool
+        if (!current.open && current.pendingFrames.remove(frame)) {
+            freeFrames.offer(frame);
+        }
+    }
+
+    private void writeLoop(Session own) {
+        FrameRecordWriter writer = own.writer;
+        try {
+            while (own.open || !own.pendingFrames.isEmpty()) {
+                RecordedFrame frame = own.pendingFrames.poll(POLL_MS, TimeUnit.MILLISECONDS);
+                if (frame == null) {
+                    continue;
+                }
+                try {
+                    writer.write(frame);
+                } finally {
+                    freeFrames.offer(frame);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            Log.e(TAG, "❌ Lỗi ghi frame: " + e.getMessage(), e);
+            own.open = false;
+        } finally {
+            own.pendingFrames.drainTo(freeFrames);
+            try {
+                writer.close();
+            } catch (IOException e) {
+                Log.w(TAG, "Không đóng được file ghi: " + e.getMessage());
+            }
+            Log.d(TAG, "⏹ Đã ghi " + writer.getFrameCount() + " frame (" + writer.getRawBytes() / 1024
+                    + " KB thô, " + own.file.length() / 1024 + " KB nén), bỏ " + own.droppedFrames
+                    + " frame: " + own.file);
+        }
+    }
+}
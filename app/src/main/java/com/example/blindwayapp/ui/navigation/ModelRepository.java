@@ -0,0 +1,303 @@
+package com.example.blindwayapp.ui.navigation;
+
+import android.content.Context;
+import android.content.res.AssetFileDescriptor;
+import android.os.Build;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.concurrent.futures.CallbackToFutureAdapter;
+
+import com.example.blindwayapp.data.MappedAsset;
+import com.google.common.util.concurrent.ListenableFuture;
+
+import org.tensorflow.lite.Interpreter;
+import org.tensorflow.lite.Tensor;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.CRC32;
+
+/**
+ * Giữ model YOLO và Interpreter dùng chung cho cả process.
+ *
+ * Model chỉ được map một lần, Interpreter được tạo với delegate nhanh nhất (DelegateSelector)
+ * và chạy thử (warm-up) một lần trên luồng nền,
+ * sau đó mọi NavigationFragment dùng lại cùng một Interpreter thay vì tải lại mỗi lần mở màn hình.
+ * Interpreter không thread-safe: tại một thời điểm chỉ một pipeline được chạy nó.
+ */
+public final class ModelRepository {
+
+    private static final String TAG = "ModelRepository";
+    public static final String MODEL_FILE = "yolo_model.tflite";
+    public static final String LABELS_FILE = "labels.txt";
+    private static final String DELEGATE_PREFERENCES = "model_delegate";
+    private static final int BENCHMARK_WARM_UP_RUNS = 2;
+    private static final int BENCHMARK_TIMED_RUNS = 5;
+    private static final float OUTPUT_TOLERANCE = 0.05f;
+
+    private static volatile ModelRepository instance;
+
+    private final Context appContext;
+    private final ExecutorService loaderExecutor = Executors.newSingleThreadExecutor();
+
+    private ListenableFuture<Interpreter> interpreterFuture;
+    private Boolean modelAvailable;
+
+    private volatile MappedByteBuffer modelBuffer;
+    private volatile ModelSpec modelSpec;
+    private volatile String[] labels = new String[0];
+    private volatile String selectedBackend;
+    private volatile long coldStartMillis = -1;
+    private volatile long lastWarmStartMillis = -1;
+
+    private ModelRepository(Context context) {
+        appContext = context.getApplicationContext();
+    }
+
+    public static ModelRepository getInstance(@NonNull Context context) {
+        if (instance == null) {
+            synchronized (ModelRepository.class) {
+                if (instance == null) {
+                    instance = new ModelRepository(context);
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Kiểm tra file model có trong assets không. Kết quả được nhớ lại sau lần đầu.
+     */
+    public synchronized boolean isModelAvailable() {
+        if (modelAvailable == null) {
+            try (AssetFileDescriptor fd = appContext.getAssets().openFd(MODEL_FILE)) {
+                modelAvailable = fd.getLength() > 0;
+            } catch (IOException e) {
+                Log.e(TAG, "❌ Model file không tồn tại hoặc không thể mở: " + e.getMessage());
+                modelAvailable = false;
+            }
+        }
+        return modelAvailable;
+    }
+
+    /** Bắt đầu tải model ở nền nếu chưa tải, ví dụ ngay khi ứng dụng khởi động. */
+    public void preload() {
+        getInterpreter();
+    }
+
+    /**
+     * Future hoàn thành khi Interpreter đã sẵn sàng và đã chạy thử.
+     * Nếu lần tải trước thất bại thì lần gọi này sẽ thử tải lại.
+     */
+    public synchronized ListenableFuture<Interpreter> getInterpreter() {
+        long requestedAt = SystemClock.elapsedRealtime();
+
+        if (interpreterFuture != null && !hasFailed(interpreterFuture)) {
+            ListenableFuture<Interpreter> cached = interpreterFuture;
+            cached.addListener(() -> {
+                lastWarmStartMillis = SystemClock.elapsedRealtime() - requestedAt;
+                Log.d(TAG, "Warm start: " + lastWarmStartMillis + " ms");
+            }, Runnable::run);
+            return cached;
+        }
+
+        interpreterFuture = CallbackToFutureAdapter.getFuture(completer -> {
+            loaderExecutor.execute(() -> {
+                try {
+                    completer.set(loadAndWarmUp(requestedAt));
+                } catch (Exception e) {
+                    Log.e(TAG, "❌ Lỗi khởi tạo model: " + e.getMessage(), e);
+                    completer.setException(e);
+                }
+            });
+            return "ModelRepository.load";
+        });
+        return interpreterFuture;
+    }
+
+    /** Thời gian từ lúc yêu cầu tới khi Interpreter sẵn sàng ở lần tải đầu, -1 nếu chưa tải. */
+    public long getColdStartMillis() {
+        return coldStartMillis;
+    }
+
+    /**
+     * Kiểu dữ liệu, shape và tham số lượng tử hóa của model, có giá trị khi future của
+     * getInterpreter() đã hoàn thành thành công.
+     */
+    public ModelSpec getModelSpec() {
+        return modelSpec;
+    }
+
+    /** Tên các lớp theo thứ tự đầu ra của model, rỗng nếu không có file nhãn. */
+    public String[] getLabels() {
+        return labels.clone();
+    }
+
+    /** Cấu hình đang chạy model (ví dụ "gpu", "cpu-xnnpack-4"), null nếu chưa tải. */
+    public String getSelectedBackend() {
+        return selectedBackend;
+    }
+
+    /**
+     * Mở thêm một Interpreter với cấu hình candidateId (ví dụ khi PerformanceGovernor đổi số luồng),
+     * chạy thử một lần trên luồng nền. Khác với getInterpreter(), Interpreter này thuộc về người gọi
+     * và phải được đóng bằng {@link TfLiteDelegateCandidates.InterpreterTrial#close()}.
+     * Chỉ gọi sau khi getInterpreter() đã thành công.
+     */
+    ListenableFuture<TfLiteDelegateCandidates.InterpreterTrial> openBackend(String candidateId) {
+        return CallbackToFutureAdapter.getFuture(completer -> {
+            loaderExecutor.execute(() -> {
+                try {
+                    ByteBuffer model = modelBuffer;
+                    if (model == null) {
+                        throw new IllegalStateException("Model chưa được tải");
+                    }
+                    DelegateSelector.Trial trial = null;
+                    for (DelegateSelector.Candidate candidate : TfLiteDelegateCandidates.create(model)) {
+                        if (candidate.getId().equals(candidateId)) {
+                            trial = candidate.open();
+                            break;
+                        }
+                    }
+                    if (trial == null) {
+                        throw new IllegalArgumentException("Không có cấu hình " + candidateId);
+                    }
+                    try {
+                        trial.run();
+                    } catch (Exception e) {
+                        trial.close();
+                        throw e;
+                    }
+                    completer.set((TfLiteDelegateCandidates.InterpreterTrial) trial);
+                } catch (Exception e) {
+                    Log.w(TAG, "Không mở được " + candidateId + ": " + e.getMessage());
+                    completer.setException(e);
+                }
+            });
+            return "ModelRepository.openBackend";
+        });
+    }
+
+    /** Thời gian chờ Interpreter ở lần yêu cầu gần nhất khi model đã có sẵn, -1 nếu chưa có. */
+    public long getLastWarmStartMillis() {
+        return lastWarmStartMillis;
+    }
+
+    private Interpreter loadAndWarmUp(long requestedAt) throws IOException {
+        Log.d(TAG, "Bắt đầu khởi tạo model với TensorFlow Lite Interpreter");
+
+        long start = SystemClock.elapsedRealtime();
+        MappedByteBuffer modelBuffer = MappedAsset.map(appContext, MODEL_FILE);
+        long mapped = SystemClock.elapsedRealtime();
+
+        // Chọn delegate nhanh nhất; lựa chọn được lưu theo thiết bị + model nên chỉ đo ở lần đầu.
+        // Các lần chạy đo (hoặc lần chạy kiểm tra khi dùng lựa chọn đã lưu) cũng là warm-up.
+        String cacheKey = Build.FINGERPRINT + "/" + checksum(modelBuffer);
+        DelegateSelector selector = new DelegateSelector(
+                TfLiteDelegateCandidates.create(modelBuffer),
+                new TfLiteDelegateCandidates.PreferencesChoiceCache(
+                        appContext.getSharedPreferences(DELEGATE_PREFERENCES, Context.MODE_PRIVATE)),
+                BENCHMARK_WARM_UP_RUNS, BENCHMARK_TIMED_RUNS, OUTPUT_TOLERANCE);
+        DelegateSelector.Selection selection = selector.select(cacheKey);
+        Interpreter interpreter = ((TfLiteDelegateCandidates.InterpreterTrial) selection.trial).getInterpreter();
+        long warmedUp = SystemClock.elapsedRealtime();
+
+        // Model không khớp với pipeline (shape, kiểu dữ liệu) thì báo lỗi ngay, không chạy sai âm thầm
+        ModelSpec spec;
+        try {
+            spec = new ModelSpec(toTensorSpec(interpreter.getInputTensor(0)),
+                    toTensorSpec(interpreter.getOutputTensor(0)));
+        } catch (IllegalArgumentException e) {
+            selection.trial.close();
+            throw e;
+        }
+        this.modelBuffer = modelBuffer;
+        modelSpec = spec;
+        labels = loadLabels();
+        selectedBackend = selection.candidateId;
+
+        if (selection.fromCache) {
+            Log.d(TAG, "Dùng cấu hình đã lưu: " + selection.candidateId);
+        } else {
+            Log.d(TAG, "Kết quả đo delegate: " + selection.measurements + " -> chọn " + selection.candidateId);
+        }
+
+        coldStartMillis = warmedUp - requestedAt;
+        Log.d(TAG, "✅ Model khởi tạo thành công");
+        Log.d(TAG, "Model " + (modelBuffer.capacity() / 1024) + " KB: " + spec + ", " + labels.length + " nhãn");
+        Log.d(TAG, "Cold start: " + coldStartMillis + " ms (map " + (mapped - start)
+                + " ms, chọn delegate + warm-up " + (warmedUp - mapped) + " ms)");
+        return interpreter;
+    }
+
+    /** Mỗi dòng một nhãn, bỏ dòng trống. Model cũ chỉ có hộp thì không cần file này. */
+    private String[] loadLabels() {
+        List<String> result = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                appContext.getAssets().open(LABELS_FILE), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (!line.isEmpty()) {
+                    result.add(line);
+                }
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "Không đọc được " + LABELS_FILE + ": " + e.getMessage());
+        }
+        return result.toArray(new String[0]);
+    }
+
+    private static TensorSpec toTensorSpec(Tensor tensor) {
+        TensorSpec.DataType dataType;
+        switch (tensor.dataType()) {
+            case FLOAT32:
+                dataType = TensorSpec.DataType.FLOAT32;
+                break;
+            case UINT8:
+                dataType = TensorSpec.DataType.UINT8;
+                break;
+            case INT8:
+                dataType = TensorSpec.DataType.INT8;
+                break;
+            default:
+                throw new IllegalArgumentException("Kiểu dữ liệu tensor không hỗ trợ: " + tensor.dataType());
+        }
+        Tensor.QuantizationParams params = tensor.quantizationParams();
+        return new TensorSpec(dataType, tensor.shape(), params.getScale(), params.getZeroPoint());
+    }
+
+    private static String checksum(ByteBuffer buffer) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate());
+        return Long.toHexString(crc.getValue());
+    }
+
+    private static boolean hasFailed(ListenableFuture<?> future) {
+        if (!future.isDone()) {
+            return false;
+        }
+        try {
+            future.get();
+            return false;
+        } catch (ExecutionException e) {
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return true;
+        } catch (Exception e) {
+            return true;
+        }
+    }
+}
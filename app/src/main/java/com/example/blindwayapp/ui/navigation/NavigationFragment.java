@@ -2,20 +2,13 @@ package com.example.blindwayapp.ui.navigation;
 
 import android.Manifest;
 import android.content.pm.PackageManager;
-import android.graphics.Bitmap;
-import android.graphics.Canvas;
-import android.graphics.Color;
-import android.graphics.Paint;
-import android.graphics.RectF;
-import android.os.Build;
 import android.os.Bundle;
-import android.speech.tts.TextToSpeech;
 import android.util.Log;
+import android.util.Size;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.Button;
-import android.widget.ImageView;
 import android.widget.TextView;
 import android.widget.Toast;
 
@@ -27,68 +20,187 @@ import androidx.camera.core.CameraSelector;
 import androidx.camera.core.ImageAnalysis;
 import androidx.camera.core.ImageProxy;
 import androidx.camera.core.Preview;
+import androidx.camera.core.ResolutionInfo;
+import androidx.camera.core.resolutionselector.AspectRatioStrategy;
+import androidx.camera.core.resolutionselector.ResolutionSelector;
+import androidx.camera.core.resolutionselector.ResolutionStrategy;
 import androidx.camera.lifecycle.ProcessCameraProvider;
 import androidx.camera.view.PreviewView;
 import androidx.core.content.ContextCompat;
 import androidx.fragment.app.Fragment;
+import androidx.fragment.app.FragmentActivity;
 
 import com.example.blindwayapp.R;
+import com.example.blindwayapp.location.LocationEngine;
+import com.example.blindwayapp.location.LocationFix;
 import com.google.common.util.concurrent.ListenableFuture;
 
 import org.tensorflow.lite.Interpreter;
 
-import java.io.FileInputStream;
+import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
-import java.nio.MappedByteBuffer;
-import java.nio.channels.FileChannel;
-import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.List;
 import java.util.Locale;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class NavigationFragment extends Fragment {
 
     private static final String TAG = "NavigationFragment";
-    private static final int INPUT_SIZE = 300;
-    private static final int NUM_DETECTIONS = 10;
-    private static final float CONFIDENCE_THRESHOLD = 0.6f;
-    private static final float IOU_THRESHOLD = 0.4f;
-
-    // Thông số camera để tính khoảng cách
-    private static final float CAMERA_HEIGHT = 0.8f; // 80cm
-    private static final float CAMERA_ANGLE = 30f;
-    private static final float FOCAL_LENGTH = 1000f;
-    private static final int IMAGE_HEIGHT = 480;
-    private static final float IMAGE_CENTER_Y = IMAGE_HEIGHT / 2f;
-    private static final float WALL_DISTANCE_THRESHOLD = 1.0f;
+    // Log và bảng số đo theo từng frame chỉ bật khi cần: adb shell setprop log.tag.NavigationFragment DEBUG
+    private static final boolean FRAME_LOGGING = Log.isLoggable(TAG, Log.DEBUG);
+    private static final long METRICS_PANEL_INTERVAL_MS = 1000;
+    private static final long METRICS_DUMP_INTERVAL_MS = 30_000;
+    private static final String METRICS_FILE = "pipeline_metrics.txt";
+    private static final String RECORDINGS_DIR = "recordings";
+
+    // Cảnh báo nên tới tai người dùng trong vòng 400 ms; cảnh tĩnh vẫn được xử lý ít nhất 2 lần/giây
+    private static final long TARGET_ALERT_LATENCY_MS = 400;
+    private static final long MIN_FRAME_INTERVAL_MS = 0;
+    private static final long MAX_FRAME_INTERVAL_MS = 500;
+    // Tiền xử lý, hai ô chuyển giao, suy luận, hậu xử lý và UI mỗi nơi giữ tối đa một context
+    private static final int FRAME_POOL_SIZE = 6;
+    // Tracker: track cần khớp 2 lần mới được ngoại suy, mất dấu quá 1 giây thì bỏ
+    private static final int MAX_TRACKS = 64;
+    private static final float TRACK_IOU_THRESHOLD = 0.3f;
+    private static final int TRACK_MIN_HITS = 2;
+    private static final long TRACK_MAX_COAST_MS = 1000;
+    // Suy luận phân tầng: sau lượt toàn khung chạy thêm tối đa 2 vùng cắt, miễn là tổng thời gian
+    // suy luận của frame không vượt ngân sách
+    private static final int MAX_ROI_CROPS = 2;
+    private static final long INFERENCE_BUDGET_NANOS = 150_000_000L;
+    private static final float ROI_MERGE_IOU = 0.5f;
+    // Kích thước đầu vào giả định khi camera mở trước lúc model tải xong
+    private static final int DEFAULT_MODEL_INPUT_SIZE = 320;
+
+    // Mức hiệu năng: xét lại mỗi giây, giữ ít nhất 10 giây trước khi tăng lại; nửa độ trễ cảnh báo
+    // dành cho xử lý frame, nửa còn lại cho khoảng cách giữa hai frame
+    private static final long GOVERNOR_INTERVAL_MS = 1000;
+    private static final long GOVERNOR_DWELL_MS = 10_000;
+    private static final long GOVERNOR_LATENCY_BUDGET_MS = TARGET_ALERT_LATENCY_MS / 2;
+    // Frame đang phân tích dở khi đóng màn hình chỉ còn tiền xử lý và chuyển vào pipeline
+    private static final long CAMERA_SHUTDOWN_TIMEOUT_MS = 500;
 
     private PreviewView previewView;
     private Button btnCamera;
-    private ImageView overlayView;
+    private DetectionOverlayView overlayView;
     private TextView tvDetectionStatus;
+    private TextView tvPipelineMetrics;
     private boolean isCameraStarted = false;
-    private int frameCount = 0;
 
     private ActivityResultLauncher<String> requestPermissionLauncher;
     private ExecutorService cameraExecutor;
-    private Interpreter tfliteInterpreter;
-    private TextToSpeech tts;
-
-    private long lastAlertTime = 0;
-    private static final long ALERT_COOLDOWN = 600; // 0.6 giây
-    private String lastAlertText = "";
+    private ImageAnalysis imageAnalyzer;
+    private volatile Interpreter tfliteInterpreter;
+    // Interpreter dùng chung của ModelRepository và cấu hình của nó
+    private Interpreter sharedInterpreter;
+    private String sharedBackend;
+    private ModelRepository modelRepository;
+
+    // Tạo khi model sẵn sàng, theo kích thước và kiểu dữ liệu tensor của model.
+    // Converter chỉ dùng trên cameraExecutor (tầng tiền xử lý), decoder chỉ dùng ở tầng hậu xử lý
+    private YuvToTensorConverter tensorConverter;
+    private DetectionDecoder detectionDecoder;
+    // Vùng cắt: converter riêng để bảng của lượt toàn khung không bị dựng lại mỗi frame;
+    // decoder và buffer đầu ra riêng vì được dùng ở tầng suy luận
+    private YuvToTensorConverter cropConverter;
+    private DetectionDecoder cropDecoder;
+    private ByteBuffer cropOutputBuffer;
+    private final RoiPlanner roiPlanner = new RoiPlanner(MAX_ROI_CROPS);
+    private final DetectionList roiTracks = new DetectionList(MAX_TRACKS);
+    private volatile long inferencePassNanos;
+    private int modelInputSize = DEFAULT_MODEL_INPUT_SIZE;
+    private volatile InferencePipeline<ImageProxy> inferencePipeline;
+    private FrameContextPool framePool;
+    private final ObjectTracker objectTracker = new ObjectTracker(
+            MAX_TRACKS, TRACK_IOU_THRESHOLD, TRACK_MIN_HITS, TRACK_MAX_COAST_MS);
+    // Ghi trên luồng suy luận khi đổi cấu hình, đọc trên UI thread và luồng metrics
+    private volatile String activeBackend = "";
+    private volatile TensorSpec.DataType inputDataType;
+
+    // Frame đã xử lý xong, chờ UI thread lấy; frame cũ chưa kịp hiển thị sẽ bị trả về pool
+    private final AtomicReference<FrameContext> pendingUiFrame = new AtomicReference<>();
+    private final Runnable uiUpdateTask = this::consumePendingUiFrame;
+
+    private final AdaptiveFrameScheduler frameScheduler = new AdaptiveFrameScheduler(
+            TARGET_ALERT_LATENCY_MS, MIN_FRAME_INTERVAL_MS, MAX_FRAME_INTERVAL_MS);
+    private final SceneChangeDetector sceneChangeDetector = new SceneChangeDetector();
+    private float lastLoggedFps = -1f;
+    // Số đo từng tầng luôn được ghi; báo cáo dựng trên luồng riêng mỗi giây (bảng debug) và mỗi 30 giây (file)
+    private final PipelineMetrics metrics = new PipelineMetrics(System.nanoTime());
+    private ScheduledExecutorService metricsExecutor;
+    private File metricsFile;
+
+    private PerformanceGovernor governor;
+    private volatile int roiCropLimit = MAX_ROI_CROPS;
+    private volatile boolean overlayEnabled = true;
+    // Cấu hình model theo mức hiệu năng, đặt trên metricsExecutor và đọc khi interpreter mở xong
+    private volatile String requestedBackend;
+    // Interpreter mới chờ luồng suy luận nhận; interpreter riêng đang chạy chỉ dùng trên luồng đó
+    private final AtomicReference<BackendSwap> pendingBackend = new AtomicReference<>();
+    private TfLiteDelegateCandidates.InterpreterTrial ownedBackend;
+
+    private int lastDetectedCount = -1;
+
+    private static final long MAX_PENDING_ALERT_MS = 1500;
+
+    private TtsAlertOutput alertOutput;
+    private SpeechAlertScheduler alertScheduler;
+    private final AlertDecider alertDecider = new AlertDecider(TARGET_ALERT_LATENCY_MS, Locale.getDefault());
+    // Tiếng bíp theo hướng và khoảng cách, phản hồi ngay trong frame; giọng nói để báo chi tiết
+    private EarconPlayer earconPlayer;
+
+    // Khoảng cách tra theo thông số camera thật và độ nghiêng máy
+    private static final float CALIBRATION_DISTANCE = 2.0f;
+    private CameraPoseProvider cameraPoseProvider;
+    private boolean calibrationPending;
+    // Khoảng trống theo từng cột từ plane Y, chạy mọi frame trên luồng camera
+    private FreeSpaceEstimator freeSpaceEstimator;
+    // Nhấn giữ nút camera để ghi frame thô, chạy lại trên máy tính bằng module :replay
+    private final FrameRecorder frameRecorder = new FrameRecorder();
+
+    // Vị trí dùng chung với các màn hình khác; giữ suốt vòng đời màn hình để vẫn nhận khi tắt màn hình
+    private LocationEngine locationEngine;
+    private volatile LocationFix currentFix;
+    private final LocationEngine.Listener locationListener = fix -> currentFix = fix;
 
     @Override
     public void onCreate(@Nullable Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
 
         cameraExecutor = Executors.newSingleThreadExecutor();
-        initializeTTS();
+        // Các câu khẩn cấp cố định được tổng hợp sẵn để phát ngay
+        alertOutput = new TtsAlertOutput(requireContext(), new Locale("vi"),
+                AlertDecider.ALERT_STOP_AHEAD, AlertDecider.ALERT_STOP_LEFT, AlertDecider.ALERT_STOP_RIGHT,
+                AlertDecider.ALERT_WALL);
+        alertScheduler = new SpeechAlertScheduler(alertOutput, MAX_PENDING_ALERT_MS);
+        alertOutput.attach(alertScheduler);
+        alertScheduler.setStartLatencyHistogram(metrics.get(PipelineMetrics.Stage.TTS_START));
+        earconPlayer = new EarconPlayer();
+        cameraPoseProvider = new CameraPoseProvider(requireContext());
+        freeSpaceEstimator = new FreeSpaceEstimator(cameraPoseProvider.getEstimator());
+        locationEngine = LocationEngine.getInstance(requireContext());
+        locationEngine.beginNavigation();
+        locationEngine.addListener(locationListener);
+
+        File metricsDir = requireContext().getExternalFilesDir(null);
+        metricsFile = new File(metricsDir != null ? metricsDir : requireContext().getFilesDir(), METRICS_FILE);
+        metricsExecutor = Executors.newSingleThreadScheduledExecutor();
+        governor = new PerformanceGovernor(new AndroidDeviceStateSource(requireContext()),
+                GOVERNOR_LATENCY_BUDGET_MS, GOVERNOR_DWELL_MS, this::applyTier);
+        metricsExecutor.scheduleAtFixedRate(this::evaluateTier,
+                GOVERNOR_INTERVAL_MS, GOVERNOR_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        metricsExecutor.scheduleAtFixedRate(this::dumpMetrics,
+                METRICS_DUMP_INTERVAL_MS, METRICS_DUMP_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        if (FRAME_LOGGING) {
+            metricsExecutor.scheduleAtFixedRate(this::refreshMetricsPanel,
+                    METRICS_PANEL_INTERVAL_MS, METRICS_PANEL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        }
 
         requestPermissionLauncher =
                 registerForActivityResult(new ActivityResultContracts.RequestPermission(), isGranted -> {
@@ -117,8 +229,11 @@ public class NavigationFragment extends Fragment {
         btnCamera = view.findViewById(R.id.btnCamera);
         overlayView = view.findViewById(R.id.overlayView);
         tvDetectionStatus = view.findViewById(R.id.tvDetectionStatus);
+        tvPipelineMetrics = view.findViewById(R.id.tvPipelineMetrics);
+        tvPipelineMetrics.setVisibility(FRAME_LOGGING ? View.VISIBLE : View.GONE);
 
-        if (isModelFileExists()) {
+        modelRepository = ModelRepository.getInstance(requireContext());
+        if (modelRepository.isModelAvailable()) {
             btnCamera.setOnClickListener(v -> {
                 if (ContextCompat.checkSelfPermission(requireContext(), Manifest.permission.CAMERA)
                         == PackageManager.PERMISSION_GRANTED) {
@@ -127,7 +242,16 @@ public class NavigationFragment extends Fragment {
                     requestPermissionLauncher.launch(Manifest.permission.CAMERA);
                 }
             });
-            initializeModel();
+            btnCamera.setOnLongClickListener(v -> {
+                toggleRecording();
+                return true;
+            });
+            // Nhấn giữ dòng trạng thái để hiệu chỉnh khoảng cách với một vật đặt cách 2 mét
+            tvDetectionStatus.setOnLongClickListener(v -> {
+                startCalibration();
+                return true;
+            });
+            initializeModel(modelRepository);
         } else {
             btnCamera.setEnabled(false);
             btnCamera.setText("Model không khả dụng");
@@ -135,75 +259,58 @@ public class NavigationFragment extends Fragment {
         }
     }
 
-    private boolean isModelFileExists() {
-        try {
-            java.io.InputStream inputStream = requireContext().getAssets().open("yolo_model.tflite");
-            inputStream.close();
-            Log.d(TAG, "✅ Model file tồn tại và có thể mở được");
-            return true;
-        } catch (IOException e) {
-            Log.e(TAG, "❌ Model file không tồn tại hoặc không thể mở: " + e.getMessage());
-            return false;
-        }
-    }
-
-    private void initializeTTS() {
-        tts = new TextToSpeech(requireContext(), status -> {
-            if (status == TextToSpeech.SUCCESS) {
-                int result = tts.setLanguage(new Locale("vi"));
-                if (result == TextToSpeech.LANG_MISSING_DATA || result == TextToSpeech.LANG_NOT_SUPPORTED) {
-                    Log.e(TAG, "Ngôn ngữ Tiếng Việt không được hỗ trợ");
-                } else {
-                    Log.d(TAG, "Text-to-Speech khởi tạo thành công");
-                }
-            } else {
-                Log.e(TAG, "Không thể khởi tạo Text-to-Speech");
-            }
-        });
-    }
-
-    private void initializeModel() {
-        new Thread(() -> {
+    private void initializeModel(ModelRepository modelRepository) {
+        // Interpreter dùng chung cả process: lần đầu tải ở nền, các lần sau có ngay
+        ListenableFuture<Interpreter> future = modelRepository.getInterpreter();
+        future.addListener(() -> {
             try {
-                Log.d(TAG, "Bắt đầu khởi tạo model với TensorFlow Lite Interpreter");
-
-                MappedByteBuffer modelBuffer = loadModelFile();
-                if (modelBuffer == null) {
-                    Log.e(TAG, "❌ Không thể load model file");
-                    return;
+                Interpreter interpreter = future.get();
+                if (isAdded()) {
+                    onModelReady(interpreter, modelRepository.getModelSpec(), modelRepository.getLabels(),
+                            modelRepository.getSelectedBackend());
                 }
-
-                Interpreter.Options options = new Interpreter.Options();
-                options.setNumThreads(4);
-                tfliteInterpreter = new Interpreter(modelBuffer, options);
-
-                int[] inputShape = tfliteInterpreter.getInputTensor(0).shape();
-                int[] outputShape = tfliteInterpreter.getOutputTensor(0).shape();
-
-                Log.d(TAG, "✅ Model khởi tạo thành công");
-                Log.d(TAG, "Input shape: " + java.util.Arrays.toString(inputShape));
-                Log.d(TAG, "Output shape: " + java.util.Arrays.toString(outputShape));
-
             } catch (Exception e) {
-                Log.e(TAG, "❌ Lỗi khởi tạo model: " + e.getMessage(), e);
-                requireActivity().runOnUiThread(() -> {
-                    Toast.makeText(requireContext(), "Lỗi khởi tạo model: " + e.getMessage(), Toast.LENGTH_LONG).show();
-                });
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                Log.e(TAG, "❌ Lỗi khởi tạo model: " + cause.getMessage(), cause);
+                if (isAdded()) {
+                    Toast.makeText(requireContext(), "Lỗi khởi tạo model: " + cause.getMessage(), Toast.LENGTH_LONG).show();
+                }
             }
-        }).start();
+        }, ContextCompat.getMainExecutor(requireContext()));
     }
 
-    private MappedByteBuffer loadModelFile() {
-        try {
-            FileInputStream inputStream = new FileInputStream(requireContext().getAssets().openFd("yolo_model.tflite").getFileDescriptor());
-            FileChannel fileChannel = inputStream.getChannel();
-            long startOffset = requireContext().getAssets().openFd("yolo_model.tflite").getStartOffset();
-            long declaredLength = requireContext().getAssets().openFd("yolo_model.tflite").getDeclaredLength();
-            return fileChannel.map(FileChannel.MapMode.READ_ONLY, startOffset, declaredLength);
-        } catch (IOException e) {
-            Log.e(TAG, "Error loading model file: " + e.getMessage());
-            return null;
-        }
+    private void onModelReady(Interpreter interpreter, ModelSpec spec, String[] labels, String backend) {
+        YuvToTensorConverter converter = new YuvToTensorConverter(
+                spec.getInputWidth(), spec.getInputHeight(), spec.input.dataType);
+        // Model lượng tử hóa với tham số đầu vào khác sẽ nhận tensor sai mà không báo lỗi
+        converter.requireInput(spec.input);
+        tensorConverter = converter;
+        detectionDecoder = new DetectionDecoder(spec, labels, cameraPoseProvider.getEstimator());
+        cropConverter = new YuvToTensorConverter(spec.getInputWidth(), spec.getInputHeight(), spec.input.dataType);
+        cropDecoder = new DetectionDecoder(spec, labels, cameraPoseProvider.getEstimator());
+        cropOutputBuffer = ByteBuffer.allocateDirect(spec.output.numBytes()).order(ByteOrder.nativeOrder());
+        activeBackend = backend;
+        inputDataType = spec.input.dataType;
+        modelInputSize = Math.max(spec.getInputWidth(), spec.getInputHeight());
+
+        // Frame ngoại suy chứa mọi track nên danh sách detection phải đủ chỗ cho cả hai
+        FrameContextPool pool = new FrameContextPool(FRAME_POOL_SIZE, spec.input.numBytes(),
+                spec.output.numBytes(), Math.max(detectionDecoder.getMaxResults(), MAX_TRACKS), MAX_ROI_CROPS);
+        InferencePipeline<ImageProxy> pipeline = new InferencePipeline<>(
+                pool,
+                this::preprocessFrame,
+                this::runInference,
+                this::postprocessFrame,
+                frame -> publishResult(pool, frame),
+                (stage, e) -> Log.e(TAG, "Lỗi ở tầng " + stage + ": " + e.getMessage(), e));
+        sharedInterpreter = interpreter;
+        sharedBackend = backend;
+        tfliteInterpreter = interpreter;
+        framePool = pool;
+        pipeline.start();
+        // Ghi volatile sau cùng: luồng camera thấy pipeline thì cũng thấy converter/decoder đã tạo
+        inferencePipeline = pipeline;
+        Log.d(TAG, "Pipeline sẵn sàng: " + spec + " trên " + backend);
     }
 
     private void startCamera() {
@@ -224,16 +331,39 @@ public class NavigationFragment extends Fragment {
                 Preview preview = new Preview.Builder().build();
                 preview.setSurfaceProvider(previewView.getSurfaceProvider());
 
-                ImageAnalysis imageAnalyzer = new ImageAnalysis.Builder()
+                // Luồng phân tích nhỏ nhất đủ cho model; xoay và đổi màu làm trong YuvToTensorConverter
+                AnalysisStreamConfig streamConfig =
+                        AnalysisStreamConfig.forModel(modelInputSize, RoiPlanner.CORRIDOR_WIDTH);
+                ResolutionSelector resolutionSelector = new ResolutionSelector.Builder()
+                        .setAspectRatioStrategy(AspectRatioStrategy.RATIO_4_3_FALLBACK_AUTO_STRATEGY)
+                        .setResolutionStrategy(new ResolutionStrategy(
+                                new Size(streamConfig.targetWidth, streamConfig.targetHeight),
+                                ResolutionStrategy.FALLBACK_RULE_CLOSEST_HIGHER_THEN_LOWER))
+                        .build();
+                imageAnalyzer = new ImageAnalysis.Builder()
                         .setBackpressureStrategy(ImageAnalysis.STRATEGY_KEEP_ONLY_LATEST)
+                        .setResolutionSelector(resolutionSelector)
+                        .setOutputImageFormat(ImageAnalysis.OUTPUT_IMAGE_FORMAT_YUV_420_888)
+                        .setOutputImageRotationEnabled(false)
                         .build();
 
                 imageAnalyzer.setAnalyzer(cameraExecutor, imageProxy -> {
-                    frameCount++;
-                    if (frameCount % 2 == 0) {
+                    frameRecorder.offer(imageProxy);
+                    ImageProxy.PlaneProxy yPlane = imageProxy.getPlanes()[0];
+                    frameScheduler.updateSceneChange(sceneChangeDetector.update(yPlane.getBuffer(),
+                            yPlane.getRowStride(), imageProxy.getWidth(), imageProxy.getHeight()));
+                    freeSpaceEstimator.update(yPlane.getBuffer(), yPlane.getRowStride(),
+                            imageProxy.getWidth(), imageProxy.getHeight(),
+                            imageProxy.getImageInfo().getRotationDegrees());
+
+                    if (frameScheduler.shouldProcess(System.nanoTime())) {
                         analyzeImage(imageProxy);
                     } else {
-                        imageProxy.close();
+                        try {
+                            publishPrediction(imageProxy);
+                        } finally {
+                            imageProxy.close();
+                        }
                     }
                 });
 
@@ -246,8 +376,11 @@ public class NavigationFragment extends Fragment {
                         preview,
                         imageAnalyzer
                 );
+                logStreamSettings(streamConfig, imageAnalyzer, preview);
 
                 isCameraStarted = true;
+                earconPlayer.start();
+                cameraPoseProvider.start();
                 Log.d(TAG, "✅ Camera khởi động thành công");
 
             } catch (ExecutionException | InterruptedException e) {
@@ -258,178 +391,226 @@ public class NavigationFragment extends Fragment {
         }, ContextCompat.getMainExecutor(requireContext()));
     }
 
+    /** Kích thước CameraX thật sự chọn cho luồng phân tích và preview, so với kích thước đã yêu cầu. */
+    private void logStreamSettings(AnalysisStreamConfig config, ImageAnalysis analysis, Preview preview) {
+        ResolutionInfo analysisInfo = analysis.getResolutionInfo();
+        if (analysisInfo == null) {
+            Log.w(TAG, "Chưa có thông tin luồng phân tích");
+            return;
+        }
+        ResolutionInfo previewInfo = preview.getResolutionInfo();
+        Size size = analysisInfo.getResolution();
+        Size previewSize = previewInfo != null ? previewInfo.getResolution() : null;
+        Log.d(TAG, "📷 Luồng phân tích: " + config.describe(size.getWidth(), size.getHeight(),
+                analysisInfo.getRotationDegrees(),
+                previewSize != null ? previewSize.getWidth() : 0,
+                previewSize != null ? previewSize.getHeight() : 0)
+                + " (yêu cầu " + config.targetWidth + "x" + config.targetHeight + ")");
+    }
+
     private void analyzeImage(ImageProxy imageProxy) {
-        if (tfliteInterpreter == null) {
+        InferencePipeline<ImageProxy> pipeline = inferencePipeline;
+        if (pipeline == null) {
             Log.d(TAG, "❌ TensorFlow Lite Interpreter chưa được khởi tạo");
             imageProxy.close();
             return;
         }
 
         try {
-            Bitmap bitmap = ImageUtils.imageProxyToBitmap(imageProxy);
-            if (bitmap == null) {
-                Log.e(TAG, "Failed to convert ImageProxy to Bitmap");
-                imageProxy.close();
-                return;
-            }
-
-            Bitmap resizedBitmap = ImageUtils.resizeBitmap(bitmap, INPUT_SIZE, INPUT_SIZE);
-            ImageUtils.recycleBitmap(bitmap);
-
-            if (resizedBitmap == null) {
-                Log.e(TAG, "Failed to resize bitmap");
-                imageProxy.close();
-                return;
-            }
-
-            ByteBuffer inputBuffer = bitmapToByteBuffer(resizedBitmap);
-            ImageUtils.recycleBitmap(resizedBitmap);
-
-            float[][][] output = new float[1][NUM_DETECTIONS][4];
-
-            tfliteInterpreter.run(inputBuffer, output);
-
-            int frameWidth = imageProxy.getWidth();
-            int frameHeight = imageProxy.getHeight();
-
-            List<Detection> detections = processOutput(output[0], frameWidth, frameHeight);
-            List<Detection> filteredDetections = applyNMS(detections);
-
-            Log.d(TAG, "Số vật thể detected: " + filteredDetections.size());
-
-            requireActivity().runOnUiThread(() -> {
-                updateDetectionUI(filteredDetections);
-                processDetectionResults(filteredDetections, frameWidth, frameHeight);
-            });
-
-        } catch (Exception e) {
-            Log.e(TAG, "Lỗi trong quá trình phân tích hình ảnh: " + e.getMessage(), e);
+            // Tiền xử lý chạy ngay trên luồng này; suy luận và hậu xử lý chạy trên luồng riêng
+            pipeline.submit(imageProxy);
         } finally {
+            // Trả buffer camera ngay sau khi chuyển xong để CameraX chuẩn bị frame tiếp theo
             imageProxy.close();
         }
     }
 
-    private ByteBuffer bitmapToByteBuffer(Bitmap bitmap) {
-        ByteBuffer byteBuffer = ByteBuffer.allocateDirect(INPUT_SIZE * INPUT_SIZE * 3);
-        byteBuffer.order(ByteOrder.nativeOrder());
-
-        int[] pixels = new int[INPUT_SIZE * INPUT_SIZE];
-        bitmap.getPixels(pixels, 0, INPUT_SIZE, 0, 0, INPUT_SIZE, INPUT_SIZE);
-
-        for (int pixel : pixels) {
-            byteBuffer.put((byte) ((pixel >> 16) & 0xFF));
-            byteBuffer.put((byte) ((pixel >> 8) & 0xFF));
-            byteBuffer.put((byte) (pixel & 0xFF));
+    /**
+     * Frame không chạy model: ngoại suy vị trí các track tới thời điểm chụp frame này và
+     * hiển thị như kết quả bình thường. Bỏ qua nếu pool đang cạn.
+     */
+    private void publishPrediction(ImageProxy imageProxy) {
+        InferencePipeline<ImageProxy> pipeline = inferencePipeline;
+        if (pipeline == null) {
+            return;
         }
-
-        byteBuffer.rewind();
-        return byteBuffer;
+        FrameContextPool pool = framePool;
+        FrameContext frame = pool.acquire();
+        if (frame == null) {
+            return;
+        }
+        boolean rotated = imageProxy.getImageInfo().getRotationDegrees() % 180 != 0;
+        frame.frameWidth = rotated ? imageProxy.getHeight() : imageProxy.getWidth();
+        frame.frameHeight = rotated ? imageProxy.getWidth() : imageProxy.getHeight();
+        frame.timestampNanos = imageProxy.getImageInfo().getTimestamp();
+        frame.startNanos = System.nanoTime();
+        frame.predicted = true;
+        objectTracker.predict(frame.timestampNanos, frame.frameWidth, frame.detections);
+        metrics.countPredictedFrame();
+        publishResult(pool, frame);
     }
 
-    private List<Detection> processOutput(float[][] output, int frameWidth, int frameHeight) {
-        List<Detection> detections = new ArrayList<>();
-
-        for (int i = 0; i < NUM_DETECTIONS; i++) {
-            if (output[i].length < 4) continue;
-
-            float centerX = output[i][0];
-            float centerY = output[i][1];
-            float width = output[i][2];
-            float height = output[i][3];
-
-            if (!isValidBoundingBox(centerX, centerY, width, height)) {
-                continue;
-            }
-
-            float confidence = calculateConfidence(width, height);
-            if (confidence < CONFIDENCE_THRESHOLD) continue;
-
-            float distance = calculateDistance(centerY * frameHeight, frameHeight);
-            String direction = getDirection(centerX * frameWidth, frameWidth);
-
-            RectF bbox = convertToCornerFormat(centerX, centerY, width, height);
-
-            Detection detection = new Detection("vật thể", confidence, bbox, distance, direction);
-            detections.add(detection);
+    private boolean preprocessFrame(ImageProxy imageProxy, FrameContext frame) {
+        frame.startNanos = System.nanoTime();
+        if (!ImageUtils.imageProxyToTensor(imageProxy, tensorConverter, frame.inputBuffer)) {
+            Log.e(TAG, "Failed to convert ImageProxy to tensor");
+            return false;
         }
-
-        return detections;
+        long converted = System.nanoTime();
+        metrics.record(PipelineMetrics.Stage.PREPROCESS, converted - frame.startNanos);
+
+        // Tensor đã được xoay đúng chiều nên kích thước frame cũng tính theo chiều đã xoay
+        boolean rotated = imageProxy.getImageInfo().getRotationDegrees() % 180 != 0;
+        frame.frameWidth = rotated ? imageProxy.getHeight() : imageProxy.getWidth();
+        frame.frameHeight = rotated ? imageProxy.getWidth() : imageProxy.getHeight();
+        frame.timestampNanos = imageProxy.getImageInfo().getTimestamp();
+        prepareCrops(imageProxy, frame);
+        if (frame.cropCount > 0) {
+            metrics.record(PipelineMetrics.Stage.ROI_CROPS, System.nanoTime() - converted);
+        }
+        return true;
     }
 
-    private boolean isValidBoundingBox(float centerX, float centerY, float width, float height) {
-        return !(width < 0.05f || height < 0.05f ||
-                centerX < 0 || centerX > 1 ||
-                centerY < 0 || centerY > 1 ||
-                width > 1.5f || height > 1.5f);
+    /**
+     * Cắt các vùng do RoiPlanner chọn thẳng từ các plane YUV khi ImageProxy còn mở. Số vùng
+     * tính theo thời gian một lượt suy luận đo được, nên thiết bị chậm chỉ chạy lượt toàn khung.
+     */
+    private void prepareCrops(ImageProxy imageProxy, FrameContext frame) {
+        int limit = Math.min(roiCropLimit, roiPlanner.cropsWithinBudget(INFERENCE_BUDGET_NANOS, inferencePassNanos));
+        if (limit == 0) {
+            return;
+        }
+        objectTracker.predict(frame.timestampNanos, frame.frameWidth, roiTracks);
+        int count = roiPlanner.plan(frame.frameWidth, frame.frameHeight, roiTracks, limit, frame.cropRects);
+        for (int i = 0; i < count; i++) {
+            int r = i * 4;
+            cropConverter.setCrop(frame.cropRects[r], frame.cropRects[r + 1],
+                    frame.cropRects[r + 2], frame.cropRects[r + 3]);
+            if (!ImageUtils.imageProxyToTensor(imageProxy, cropConverter, frame.cropInputs[i])) {
+                break;
+            }
+            frame.cropCount = i + 1;
+        }
     }
 
-    private float calculateConfidence(float width, float height) {
-        return Math.min((width * height) * 8.0f, 0.8f);
+    private void runInference(FrameContext frame) {
+        BackendSwap swap = pendingBackend.getAndSet(null);
+        if (swap != null) {
+            switchBackend(swap);
+        }
+        Interpreter interpreter = tfliteInterpreter;
+        if (interpreter == null) {
+            throw new IllegalStateException("Interpreter đã bị đóng");
+        }
+        long start = System.nanoTime();
+        frame.outputBuffer.rewind();
+        interpreter.run(frame.inputBuffer, frame.outputBuffer);
+        long passEnd = System.nanoTime();
+        long previous = inferencePassNanos;
+        long pass = passEnd - start;
+        metrics.record(PipelineMetrics.Stage.INFERENCE, pass);
+        inferencePassNanos = previous == 0 ? pass : previous + (pass - previous) / 4;
+
+        // Vùng cắt được giải mã ngay tại đây để chỉ cần một buffer đầu ra cho mọi vùng
+        for (int i = 0; i < frame.cropCount; i++) {
+            int r = i * 4;
+            cropOutputBuffer.rewind();
+            long cropStart = System.nanoTime();
+            interpreter.run(frame.cropInputs[i], cropOutputBuffer);
+            metrics.record(PipelineMetrics.Stage.INFERENCE, System.nanoTime() - cropStart);
+            cropDecoder.decode(cropOutputBuffer, frame.cropRects[r], frame.cropRects[r + 1],
+                    frame.cropRects[r + 2], frame.cropRects[r + 3],
+                    frame.frameWidth, frame.frameHeight, frame.cropDetections[i]);
+        }
+        frameScheduler.recordBottleneckStage(System.nanoTime() - start);
     }
 
-    private float calculateDistance(float yMax, int frameHeight) {
-        float normalizedY = (yMax / frameHeight) * IMAGE_HEIGHT;
-        double alpha = Math.atan((normalizedY - IMAGE_CENTER_Y) / FOCAL_LENGTH);
-        double totalAngle = Math.toRadians(CAMERA_ANGLE) + alpha;
-        double distance = CAMERA_HEIGHT / Math.tan(totalAngle);
-        return (float) Math.max(0.1, Math.round(distance * 10) / 10.0);
+    private void postprocessFrame(FrameContext frame) {
+        long start = System.nanoTime();
+        detectionDecoder.decode(frame.outputBuffer, frame.frameWidth, frame.frameHeight, frame.detections);
+        long nms = detectionDecoder.getLastNmsNanos();
+        metrics.record(PipelineMetrics.Stage.DECODE, System.nanoTime() - start - nms);
+        metrics.record(PipelineMetrics.Stage.NMS, nms);
+        if (frame.cropCount > 0) {
+            for (int i = 0; i < frame.cropCount; i++) {
+                RoiPlanner.merge(frame.detections, frame.cropDetections[i], frame.cropRects, i, ROI_MERGE_IOU);
+            }
+            // Tracker ghép detection điểm cao trước
+            frame.detections.sortByConfidenceDescending();
+        }
+        // Thay kết quả thô bằng các track: ID ổn định, khoảng cách đã làm mượt và tốc độ tiến lại gần
+        long trackStart = System.nanoTime();
+        objectTracker.update(frame.detections, frame.timestampNanos);
+        objectTracker.predict(frame.timestampNanos, frame.frameWidth, frame.detections);
+        metrics.record(PipelineMetrics.Stage.TRACKING, System.nanoTime() - trackStart);
+
+        Detection closest = AlertDecider.findClosest(frame.detections);
+        if (closest == null) {
+            frameScheduler.updateClosestObstacle(Float.MAX_VALUE);
+        } else {
+            // Vật thể đang lao tới được coi như đã ở vị trí của nó sau một khoảng độ trễ cảnh báo
+            frameScheduler.updateClosestObstacle(Math.max(0f, alertDecider.effectiveDistance(closest)));
+        }
     }
 
-    private String getDirection(float xCenter, int frameWidth) {
-        if (xCenter < frameWidth / 3) {
-            return "bên trái";
-        } else if (xCenter > 2 * frameWidth / 3) {
-            return "bên phải";
+    /** Frame cũ chưa kịp hiển thị trả về pool của chính pipeline đã tạo ra frame mới. */
+    private void publishResult(FrameContextPool pool, FrameContext frame) {
+        Detection closest = AlertDecider.findClosest(frame.detections);
+        if (closest != null && closest.confidence > AlertDecider.CONFIDENCE_THRESHOLD) {
+            earconPlayer.update(closest.centerX(), closest.distance);
         } else {
-            return "phía trước";
+            earconPlayer.silence();
         }
-    }
+        frame.publishedNanos = System.nanoTime();
+        pool.release(pendingUiFrame.getAndSet(frame));
 
-    private RectF convertToCornerFormat(float centerX, float centerY, float width, float height) {
-        float left = Math.max(0, centerX - width / 2);
-        float top = Math.max(0, centerY - height / 2);
-        float right = Math.min(1, centerX + width / 2);
-        float bottom = Math.min(1, centerY + height / 2);
-        return new RectF(left, top, right, bottom);
+        FragmentActivity activity = getActivity();
+        if (activity != null) {
+            activity.runOnUiThread(uiUpdateTask);
+        }
     }
 
-    private List<Detection> applyNMS(List<Detection> detections) {
-        List<Detection> filteredDetections = new ArrayList<>();
-        detections.sort((d1, d2) -> Float.compare(d2.confidence, d1.confidence));
-
-        while (!detections.isEmpty()) {
-            Detection best = detections.remove(0);
-            filteredDetections.add(best);
-
-            Iterator<Detection> iterator = detections.iterator();
-            while (iterator.hasNext()) {
-                Detection detection = iterator.next();
-                float iou = calculateIOU(best.bbox, detection.bbox);
-                if (iou > IOU_THRESHOLD) {
-                    iterator.remove();
-                }
+    private void consumePendingUiFrame() {
+        FrameContext frame = pendingUiFrame.getAndSet(null);
+        InferencePipeline<ImageProxy> pipeline = inferencePipeline;
+        if (frame == null || pipeline == null) {
+            // Màn hình đã đóng: pool bị bỏ cùng pipeline nên không cần trả frame
+            return;
+        }
+        try {
+            long now = System.nanoTime();
+            metrics.record(PipelineMetrics.Stage.UI_POST, now - frame.publishedNanos);
+            if (!frame.predicted) {
+                frameScheduler.recordEndToEndLatency(now - frame.startNanos, now);
+                governor.recordLatency(now - frame.startNanos);
+                metrics.record(PipelineMetrics.Stage.END_TO_END, now - frame.startNanos);
             }
+            if (FRAME_LOGGING && frame.detections.size() != lastDetectedCount) {
+                Log.d(TAG, "Số vật thể detected: " + frame.detections.size());
+            }
+            float fps = frameScheduler.getProcessedFps(now);
+            if (FRAME_LOGGING && fps != lastLoggedFps) {
+                Log.d(TAG, String.format(Locale.US,
+                        "FPS xử lý: %.1f, suy luận %.1f ms (%s), overlay %.0f µs/lần vẽ, bỏ qua %d/%d",
+                        fps, frameScheduler.getBottleneckStageMillis(), modelDescription(),
+                        overlayView.getAverageDrawMicros(), overlayView.getSkippedUpdates(),
+                        overlayView.getSkippedUpdates() + overlayView.getDrawCount()));
+                lastLoggedFps = fps;
+            }
+            updateDetectionUI(frame.detections);
+            if (calibrationPending && !frame.predicted) {
+                finishCalibration(frame.detections);
+            }
+            processDetectionResults(frame.detections, frame.startNanos);
+        } finally {
+            pipeline.recycle(frame);
         }
-
-        return filteredDetections;
     }
 
-    private float calculateIOU(RectF box1, RectF box2) {
-        float interLeft = Math.max(box1.left, box2.left);
-        float interTop = Math.max(box1.top, box2.top);
-        float interRight = Math.min(box1.right, box2.right);
-        float interBottom = Math.min(box1.bottom, box2.bottom);
-
-        float interArea = Math.max(0, interRight - interLeft) * Math.max(0, interBottom - interTop);
-        float unionArea = (box1.width() * box1.height()) + (box2.width() * box2.height()) - interArea;
-
-        return unionArea > 0 ? interArea / unionArea : 0;
-    }
-
-    private void updateDetectionUI(List<Detection> detections) {
+    private void updateDetectionUI(DetectionList detections) {
         int detectedCount = detections.size();
 
-        if (tvDetectionStatus != null) {
+        if (tvDetectionStatus != null && detectedCount != lastDetectedCount) {
             if (detectedCount == 0) {
                 tvDetectionStatus.setText("Đang quét... không phát hiện vật thể");
             } else {
@@ -437,124 +618,206 @@ public class NavigationFragment extends Fragment {
             }
         }
 
-        overlayView.setImageBitmap(null);
+        if (overlayEnabled) {
+            overlayView.setDetections(detections);
+        }
+        lastDetectedCount = detectedCount;
+    }
 
-        if (detectedCount > 0) {
-            int viewWidth = previewView.getWidth();
-            int viewHeight = previewView.getHeight();
+    private void processDetectionResults(DetectionList detections, long detectedNanos) {
+        if (alertDecider.decide(detections, freeSpaceEstimator.isValid(),
+                freeSpaceEstimator.getCenterFreeDistance(), System.nanoTime())) {
+            announceDetection(alertDecider.getPriority(), alertDecider.getText(), detectedNanos);
+        }
+    }
 
-            if (viewWidth > 0 && viewHeight > 0) {
-                Bitmap overlayBitmap = Bitmap.createBitmap(viewWidth, viewHeight, Bitmap.Config.ARGB_8888);
-                Canvas canvas = new Canvas(overlayBitmap);
-                Paint paint = new Paint();
+    private void startCalibration() {
+        calibrationPending = true;
+        announceDetection(AlertPolicy.Priority.INFO, String.format(Locale.getDefault(),
+                "Hiệu chỉnh: đặt một vật cách %.0f mét ngay phía trước", CALIBRATION_DISTANCE), System.nanoTime());
+    }
 
-                for (Detection detection : detections) {
-                    RectF boundingBox = detection.bbox;
-                    float left = boundingBox.left * viewWidth;
-                    float top = boundingBox.top * viewHeight;
-                    float right = boundingBox.right * viewWidth;
-                    float bottom = boundingBox.bottom * viewHeight;
+    /** Dùng vật thể gần giữa khung hình nhất làm mốc để tính lại độ cao camera. */
+    private void finishCalibration(DetectionList detections) {
+        Detection reference = null;
+        for (int i = 0; i < detections.size(); i++) {
+            Detection detection = detections.get(i);
+            if (reference == null
+                    || Math.abs(detection.centerX() - 0.5f) < Math.abs(reference.centerX() - 0.5f)) {
+                reference = detection;
+            }
+        }
+        if (reference == null) {
+            return;
+        }
+        calibrationPending = false;
+        try {
+            float height = cameraPoseProvider.calibrate(reference.bottom, CALIBRATION_DISTANCE);
+            announceDetection(AlertPolicy.Priority.INFO, String.format(Locale.getDefault(),
+                    "Đã hiệu chỉnh, camera cao %.1f mét", height), System.nanoTime());
+        } catch (IllegalArgumentException e) {
+            Log.w(TAG, "Hiệu chỉnh thất bại: " + e.getMessage());
+            announceDetection(AlertPolicy.Priority.INFO, "Hiệu chỉnh thất bại, hãy chúc camera xuống", System.nanoTime());
+        }
+    }
 
-                    paint.setColor(Color.GREEN);
-                    paint.setStyle(Paint.Style.STROKE);
-                    paint.setStrokeWidth(4f);
-                    canvas.drawRect(left, top, right, bottom, paint);
+    private void announceDetection(AlertPolicy.Priority priority, String message, long detectedNanos) {
+        if (FRAME_LOGGING) {
+            Log.d(TAG, "Thông báo (" + priority + "): " + message);
+        }
+        alertScheduler.submit(priority, message, detectedNanos);
+    }
 
-                    paint.setStyle(Paint.Style.FILL);
-                    paint.setColor(Color.GREEN);
-                    paint.setTextSize(36f);
-                    String labelText = detection.label;
+    /** Cấu hình đang chạy model và kiểu dữ liệu đầu vào, để hiển thị và ghi log. */
+    private String modelDescription() {
+        TensorSpec.DataType dataType = inputDataType;
+        return dataType == null ? "" : activeBackend + ", " + dataType;
+    }
 
-                    float textX = Math.max(10, left);
-                    float textY = Math.max(40, top - 10);
-                    canvas.drawText(labelText, textX, textY, paint);
-                }
+    private String metricsSummary() {
+        InferencePipeline<ImageProxy> pipeline = inferencePipeline;
+        String tier = String.format(Locale.US, "mức %s (%s), %s%n",
+                governor.getTier().label, governor.getReason(), modelDescription());
+        LocationFix fix = currentFix;
+        String location = "vị trí " + (fix != null ? fix : "chưa có") + "\n";
+        return tier + location + (pipeline == null ? metrics.summary(0, 0)
+                : metrics.summary(pipeline.getSubmittedFrames(), pipeline.getDroppedFrames()));
+    }
 
-                overlayView.setImageBitmap(overlayBitmap);
-            }
+    private void evaluateTier() {
+        if (inferencePipeline != null) {
+            governor.evaluate(System.nanoTime());
         }
     }
 
-    private void processDetectionResults(List<Detection> detections, int frameWidth, int frameHeight) {
-        if (detections == null || detections.isEmpty()) {
-            checkForWall(frameHeight);
-            return;
+    /** Áp dụng mức hiệu năng mới; chạy trên metricsExecutor. */
+    private void applyTier(PerformanceTier previous, PerformanceTier tier, String reason) {
+        Log.i(TAG, "⚙️ Mức hiệu năng: " + previous.label + " → " + tier.label + " (" + reason + ")");
+        frameScheduler.setIntervalBoundsMillis(tier.minFrameIntervalMillis, MAX_FRAME_INTERVAL_MS);
+        roiCropLimit = Math.min(tier.maxRoiCrops, MAX_ROI_CROPS);
+        overlayEnabled = tier.overlayEnabled;
+        requestBackend(TfLiteDelegateCandidates.backendForTier(sharedBackend, tier));
+
+        FragmentActivity activity = getActivity();
+        if (activity != null) {
+            activity.runOnUiThread(() -> {
+                if (overlayView != null) {
+                    overlayView.setVisibility(tier.overlayEnabled ? View.VISIBLE : View.GONE);
+                }
+            });
         }
+    }
 
-        long currentTime = System.currentTimeMillis();
-        if (currentTime - lastAlertTime < ALERT_COOLDOWN) {
+    /** Chuẩn bị interpreter cho cấu hình backend ở nền rồi giao cho luồng suy luận. */
+    private void requestBackend(String backend) {
+        if (backend.equals(requestedBackend == null ? sharedBackend : requestedBackend)) {
             return;
         }
-
-        Detection closestDetection = findClosestDetection(detections);
-        if (closestDetection != null && closestDetection.confidence > CONFIDENCE_THRESHOLD) {
-            String alertText;
-            if (detections.size() > 1) {
-                alertText = String.format(Locale.getDefault(),
-                        "Phát hiện %d vật thể, gần nhất ở %s cách %.1f mét",
-                        detections.size(), closestDetection.direction, closestDetection.distance);
-            } else {
-                alertText = String.format(Locale.getDefault(),
-                        "Phát hiện vật thể ở %s cách %.1f mét",
-                        closestDetection.direction, closestDetection.distance);
+        requestedBackend = backend;
+        if (backend.equals(sharedBackend)) {
+            offerBackend(new BackendSwap(backend, null));
+            return;
+        }
+        ListenableFuture<TfLiteDelegateCandidates.InterpreterTrial> future = modelRepository.openBackend(backend);
+        future.addListener(() -> {
+            try {
+                offerBackend(new BackendSwap(backend, future.get()));
+            } catch (ExecutionException | InterruptedException e) {
+                Log.w(TAG, "Giữ cấu hình model hiện tại, không mở được " + backend);
             }
+        }, Runnable::run);
+    }
 
-            if (!alertText.equals(lastAlertText)) {
-                announceDetection(alertText);
-                lastAlertText = alertText;
-                lastAlertTime = currentTime;
+    private void offerBackend(BackendSwap swap) {
+        if (!backendSwapStillWanted(swap)) {
+            swap.close();
+            return;
+        }
+        BackendSwap stale = pendingBackend.getAndSet(swap);
+        if (stale != null) {
+            stale.close();
+        }
+        // onDestroy có thể đã lấy pendingBackend ngay trước khi swap được đặt vào: ghi null cho
+        // inferencePipeline xảy ra trước lần lấy đó, nên ở đây thấy null thì tự thu hồi và đóng
+        if (inferencePipeline == null) {
+            BackendSwap orphan = pendingBackend.getAndSet(null);
+            if (orphan != null) {
+                orphan.close();
             }
         }
     }
 
-    private Detection findClosestDetection(List<Detection> detections) {
-        Detection closest = null;
-        float minDistance = Float.MAX_VALUE;
-
-        for (Detection detection : detections) {
-            if (detection.distance < minDistance) {
-                minDistance = detection.distance;
-                closest = detection;
-            }
-        }
-        return closest;
+    private boolean backendSwapStillWanted(BackendSwap swap) {
+        return inferencePipeline != null && swap.backend.equals(requestedBackend);
     }
 
-    private void checkForWall(int frameHeight) {
-        long currentTime = System.currentTimeMillis();
-        if (currentTime - lastAlertTime < ALERT_COOLDOWN) {
-            return;
+    /** Đổi interpreter giữa hai frame; chạy trên luồng suy luận nên interpreter cũ không còn ai dùng. */
+    private void switchBackend(BackendSwap swap) {
+        TfLiteDelegateCandidates.InterpreterTrial previous = ownedBackend;
+        ownedBackend = swap.trial;
+        tfliteInterpreter = swap.trial != null ? swap.trial.getInterpreter() : sharedInterpreter;
+        activeBackend = swap.backend;
+        // Thời gian một lượt đo lại từ đầu với cấu hình mới
+        inferencePassNanos = 0;
+        if (previous != null) {
+            previous.close();
         }
+        Log.i(TAG, "Model chạy trên " + swap.backend);
+    }
 
-        float sampleY = frameHeight * 0.75f;
-        float distance = calculateDistance(sampleY, frameHeight);
+    /** Interpreter mới cho cấu hình backend; trial null nghĩa là quay về interpreter dùng chung. */
+    private static final class BackendSwap {
+        final String backend;
+        final TfLiteDelegateCandidates.InterpreterTrial trial;
 
-        if (distance <= WALL_DISTANCE_THRESHOLD) {
-            String alertText = String.format(Locale.getDefault(),
-                    "Cảnh báo: Ở sát tường, khoảng cách %.1f mét!", distance);
+        BackendSwap(String backend, TfLiteDelegateCandidates.InterpreterTrial trial) {
+            this.backend = backend;
+            this.trial = trial;
+        }
 
-            if (!alertText.equals(lastAlertText)) {
-                announceDetection(alertText);
-                lastAlertText = alertText;
-                lastAlertTime = currentTime;
+        void close() {
+            if (trial != null) {
+                trial.close();
             }
         }
     }
 
-    private void announceDetection(String message) {
-        Log.d(TAG, "Thông báo: " + message);
-
-        if (tts != null) {
-            try {
-                tts.stop();
-                if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
-                    tts.speak(message, TextToSpeech.QUEUE_FLUSH, null, null);
-                } else {
-                    tts.speak(message, TextToSpeech.QUEUE_FLUSH, null);
+    private void refreshMetricsPanel() {
+        String summary = metricsSummary();
+        FragmentActivity activity = getActivity();
+        if (activity != null) {
+            activity.runOnUiThread(() -> {
+                if (tvPipelineMetrics != null) {
+                    tvPipelineMetrics.setText(summary);
                 }
-            } catch (Exception e) {
-                Log.e(TAG, "Lỗi Text-to-Speech: " + e.getMessage());
-            }
+            });
+        }
+    }
+
+    private void toggleRecording() {
+        if (frameRecorder.isRecording()) {
+            File file = frameRecorder.stop();
+            Toast.makeText(requireContext(), "Đã dừng ghi: " + file.getName(), Toast.LENGTH_SHORT).show();
+            return;
+        }
+        File dir = requireContext().getExternalFilesDir(RECORDINGS_DIR);
+        try {
+            File file = frameRecorder.start(dir != null ? dir : new File(requireContext().getFilesDir(), RECORDINGS_DIR));
+            Toast.makeText(requireContext(), "Đang ghi frame: " + file.getName(), Toast.LENGTH_SHORT).show();
+        } catch (IOException e) {
+            Log.e(TAG, "Không bắt đầu ghi được: " + e.getMessage(), e);
+            Toast.makeText(requireContext(), "Không ghi được frame", Toast.LENGTH_SHORT).show();
+        }
+    }
+
+    private void dumpMetrics() {
+        InferencePipeline<ImageProxy> pipeline = inferencePipeline;
+        try {
+            metrics.dump(metricsFile, System.nanoTime(),
+                    pipeline != null ? pipeline.getSubmittedFrames() : 0,
+                    pipeline != null ? pipeline.getDroppedFrames() : 0);
+        } catch (IOException e) {
+            Log.w(TAG, "Không ghi được số đo pipeline: " + e.getMessage());
         }
     }
 
@@ -562,41 +825,64 @@ public class NavigationFragment extends Fragment {
     public void onDestroy() {
         super.onDestroy();
 
-        if (cameraExecutor != null) {
-            cameraExecutor.shutdown();
+        if (metricsExecutor != null) {
+            metricsExecutor.shutdownNow();
+            Log.d(TAG, "Số đo pipeline:\n" + metricsSummary());
+            dumpMetrics();
         }
 
-        if (tfliteInterpreter != null) {
+        // Gỡ analyzer và chờ frame đang chạy trên luồng camera xong trước khi dừng pipeline
+        if (imageAnalyzer != null) {
+            imageAnalyzer.clearAnalyzer();
+        }
+        if (cameraExecutor != null) {
+            cameraExecutor.shutdown();
             try {
-                tfliteInterpreter.close();
-            } catch (Exception e) {
-                Log.e(TAG, "Error closing interpreter: " + e.getMessage());
+                if (!cameraExecutor.awaitTermination(CAMERA_SHUTDOWN_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                    Log.w(TAG, "Luồng camera chưa dừng sau " + CAMERA_SHUTDOWN_TIMEOUT_MS + " ms");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
             }
         }
+        frameRecorder.stop();
+        if (locationEngine != null) {
+            locationEngine.removeListener(locationListener);
+            locationEngine.endNavigation();
+        }
 
-        if (tts != null) {
-            try {
-                tts.stop();
-                tts.shutdown();
-            } catch (Exception e) {
-                Log.e(TAG, "Error shutting down TTS: " + e.getMessage());
-            }
+        // Dừng pipeline trước khi nhả interpreter để không còn luồng nào đang chạy model
+        InferencePipeline<ImageProxy> pipeline = inferencePipeline;
+        if (pipeline != null) {
+            pipeline.stop();
+            pipeline.recycle(pendingUiFrame.getAndSet(null));
+            inferencePipeline = null;
+        }
+        // Interpreter riêng theo mức hiệu năng thuộc về màn hình này nên đóng ở đây
+        BackendSwap pending = pendingBackend.getAndSet(null);
+        if (pending != null) {
+            pending.close();
+        }
+        if (ownedBackend != null) {
+            ownedBackend.close();
+            ownedBackend = null;
         }
-    }
 
-    private static class Detection {
-        String label;
-        float confidence;
-        RectF bbox;
-        float distance;
-        String direction;
+        // Interpreter thuộc ModelRepository và được giữ lại cho lần mở màn hình sau
+        tfliteInterpreter = null;
 
-        Detection(String label, float confidence, RectF bbox, float distance, String direction) {
-            this.label = label;
-            this.confidence = confidence;
-            this.bbox = bbox;
-            this.distance = distance;
-            this.direction = direction;
+        if (earconPlayer != null) {
+            earconPlayer.release();
+        }
+        if (cameraPoseProvider != null) {
+            cameraPoseProvider.stop();
+        }
+        if (alertOutput != null) {
+            Log.d(TAG, String.format(Locale.US,
+                    "Cảnh báo đã phát: %d, độ trễ tới lúc nói trung bình %.0f ms, tối đa %.0f ms",
+                    alertScheduler.getStartedCount(), alertScheduler.getAverageStartLatencyMillis(),
+                    alertScheduler.getMaxStartLatencyMillis()));
+            alertOutput.shutdown();
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,151 @@
+package com.example.blindwayapp.ui.navigation;
+
+/**
+ * Hàng đợi cảnh báo bằng giọng nói theo mức ưu tiên.
+ *
+ * Cảnh báo khẩn cấp hơn câu đang nói sẽ cắt ngang nó; cảnh báo cùng mức hoặc kém hơn chờ tới
+ * khi câu hiện tại nói xong. Mỗi mức chỉ giữ một câu chờ (câu mới nhất thay câu cũ), câu chờ
+ * quá {@code maxPendingMillis} bị bỏ vì thông tin đã lỗi thời.
+ *
+ * Đo thời gian từ lúc phát hiện tới lúc bắt đầu phát âm thanh. Các phương thức được đồng bộ
+ * vì callback tiến trình của TTS chạy trên luồng riêng.
+ */
+public class SpeechAlertScheduler {
+
+    /** Nơi phát câu nói thật, ví dụ TextToSpeech. */
+    public interface Output {
+        /**
+         * Bắt đầu nói; {@code interrupt} = true thì dừng câu đang nói trước.
+         *
+         * @return false nếu không phát được (engine chưa sẵn sàng)
+         */
+        boolean speak(String text, String utteranceId, boolean interrupt);
+    }
+
+    private static final int PRIORITY_COUNT = AlertPolicy.Priority.values().length;
+
+    private final Output output;
+    private final long maxPendingNanos;
+
+    private AlertPolicy.Priority speaking;
+    private String speakingId;
+    private long speakingDetectedNanos;
+    private boolean speakingStarted;
+    private long nextUtterance;
+
+    private final String[] pendingTexts = new String[PRIORITY_COUNT];
+    private final long[] pendingDetectedNanos = new long[PRIORITY_COUNT];
+
+    private long startedCount;
+    private long totalStartLatencyNanos;
+    private long maxStartLatencyNanos;
+    private long lastStartLatencyNanos;
+    private LatencyHistogram startLatencyHistogram;
+
+    public SpeechAlertScheduler(Output output, long maxPendingMillis) {
+        this.output = output;
+        this.maxPendingNanos = maxPendingMillis * 1_000_000L;
+    }
+
+    /**
+     * @param detectedNanos System.nanoTime() lúc có kết quả phát hiện dẫn tới cảnh báo này
+     */
+    public synchronized void submit(AlertPolicy.Priority priority, String text, long detectedNanos) {
+        if (speaking == null) {
+            start(priority, text, detectedNanos, false);
+        } else if (priority.isMoreUrgentThan(speaking)) {
+            start(priority, text, detectedNanos, true);
+        } else {
+            pendingTexts[priority.ordinal()] = text;
+            pendingDetectedNanos[priority.ordinal()] = detectedNanos;
+        }
+    }
+
+    /** Gọi khi engine bắt đầu phát câu có utteranceId này. */
+    public synchronized void onSpeechStarted(String utteranceId, long nowNanos) {
+        if (!utteranceId.equals(speakingId) || speakingStarted) {
+            return;
+        }
+        speakingStarted = true;
+        lastStartLatencyNanos = nowNanos - speakingDetectedNanos;
+        totalStartLatencyNanos += lastStartLatencyNanos;
+        maxStartLatencyNanos = Math.max(maxStartLatencyNanos, lastStartLatencyNanos);
+        startedCount++;
+        if (startLatencyHistogram != null) {
+            startLatencyHistogram.recordNanos(lastStartLatencyNanos);
+        }
+    }
+
+    /** Gọi khi câu nói xong, bị dừng hoặc lỗi; câu bị cắt ngang trước đó được bỏ qua. */
+    public synchronized void onSpeechFinished(String utteranceId, long nowNanos) {
+        if (!utteranceId.equals(speakingId)) {
+            return;
+        }
+        speaking = null;
+        speakingId = null;
+        startNextPending(nowNanos);
+    }
+
+    /** Histogram nhận thêm độ trễ tới lúc bắt đầu nói của mỗi câu, null để tắt. */
+    public synchronized void setStartLatencyHistogram(LatencyHistogram histogram) {
+        startLatencyHistogram = histogram;
+    }
+
+    public synchronized boolean isSpeaking() {
+        return speaking != null;
+    }
+
+    /** Bỏ mọi câu đang chờ; câu đang nói vẫn tiếp tục. */
+    public synchronized void clearPending() {
+        for (int i = 0; i < PRIORITY_COUNT; i++) {
+            pendingTexts[i] = null;
+        }
+    }
+
+    public synchronized long getStartedCount() {
+        return startedCount;
+    }
+
+    public synchronized float getLastStartLatencyMillis() {
+        return lastStartLatencyNanos / 1e6f;
+    }
+
+    public synchronized float getAverageStartLatencyMillis() {
+        return startedCount == 0 ? 0f : totalStartLatencyNanos / 1e6f / startedCount;
+    }
+
+    public synchronized float getMaxStartLatencyMillis() {
+        return maxStartLatencyNanos / 1e6f;
+    }
+
+    private void startNextPending(long nowNanos) {
+        for (int i = 0; i < PRIORITY_COUNT; i++) {
+            String text = pendingTexts[i];
+            if (text == null) {
+                continue;
+            }
+            pendingTexts[i] = null;
+            if (nowNanos - pendingDetectedNanos[i] > maxPendingNanos) {
+                continue;
+            }
+            start(AlertPolicy.Priority.values()[i], text, pendingDetectedNanos[i], false);
+            return;
+        }
+    }
+
+    private void start(AlertPolicy.Priority priority, String text, long detectedNanos, boolean interrupt) {
+        // Câu chờ cùng mức hoặc kém hơn đã lỗi thời so với câu sắp nói
+        for (int i = priority.ordinal(); i < PRIORITY_COUNT; i++) {
+            pendingTexts[i] = null;
+        }
+        String utteranceId = "alert-" + nextUtterance++;
+        speaking = priority;
+        speakingId = utteranceId;
+        speakingDetectedNanos = detectedNanos;
+        speakingStarted = false;
+        if (!output.speak(text, utteranceId, interrupt)) {
+            speaking = null;
+            speakingId = null;
+        }
+    }
+}
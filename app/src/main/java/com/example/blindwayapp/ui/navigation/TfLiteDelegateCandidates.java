@@ -0,0 +1,212 @@
+package com.example.blindwayapp.ui.navigation;
+
+import android.content.SharedPreferences;
+import android.os.Build;
+
+import org.tensorflow.lite.DataType;
+import org.tensorflow.lite.Delegate;
+import org.tensorflow.lite.Interpreter;
+import org.tensorflow.lite.Tensor;
+import org.tensorflow.lite.gpu.CompatibilityList;
+import org.tensorflow.lite.gpu.GpuDelegate;
+import org.tensorflow.lite.nnapi.NnApiDelegate;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Các ứng viên TFLite cho DelegateSelector: CPU/XNNPACK với 4, 2, 1 luồng, NNAPI và GPU.
+ *
+ * Ứng viên đầu tiên (CPU 4 luồng, cấu hình cũ của ứng dụng) làm tham chiếu kết quả và là
+ * đường dự phòng khi máy không có GPU hoặc NNAPI.
+ */
+final class TfLiteDelegateCandidates {
+
+    static final String CPU_PREFIX = "cpu-xnnpack-";
+    static final String NNAPI = "nnapi";
+    static final String GPU = "gpu";
+
+    private static final int[] CPU_THREAD_COUNTS = {4, 2, 1};
+    // Hạt giống cố định để mọi ứng viên chạy trên cùng một đầu vào
+    private static final long INPUT_SEED = 42L;
+
+    private TfLiteDelegateCandidates() {
+    }
+
+    static List<DelegateSelector.Candidate> create(ByteBuffer model) {
+        List<DelegateSelector.Candidate> candidates = new ArrayList<>();
+        for (int threads : CPU_THREAD_COUNTS) {
+            candidates.add(new InterpreterCandidate(CPU_PREFIX + threads, model, threads, null));
+        }
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.P) {
+            candidates.add(new InterpreterCandidate(NNAPI, model, 1, NnApiDelegate::new));
+        }
+        candidates.add(new InterpreterCandidate(GPU, model, 1, TfLiteDelegateCandidates::createGpuDelegate));
+        return candidates;
+    }
+
+    /**
+     * Cấu hình dùng cho một mức hiệu năng: giữ GPU/NNAPI đã chọn nếu mức đó cho phép, còn lại chạy
+     * CPU với số luồng không quá số luồng của mức và của cấu hình đã chọn (nếu là CPU).
+     */
+    static String backendForTier(String selected, PerformanceTier tier) {
+        if (selected == null || !selected.startsWith(CPU_PREFIX)) {
+            if (selected != null && tier.allowAccelerator) {
+                return selected;
+            }
+            return CPU_PREFIX + tier.cpuThreads;
+        }
+        int selectedThreads = Integer.parseInt(selected.substring(CPU_PREFIX.length()));
+        return CPU_PREFIX + Math.min(selectedThreads, tier.cpuThreads);
+    }
+
+    private static Delegate createGpuDelegate() {
+        try (CompatibilityList compatibilityList = new CompatibilityList()) {
+            if (!compatibilityList.isDelegateSupportedOnThisDevice()) {
+                throw new UnsupportedOperationException("GPU delegate không hỗ trợ trên thiết bị này");
+            }
+            return new GpuDelegate(compatibilityList.getBestOptionsForThisDevice());
+        }
+    }
+
+    private interface DelegateFactory {
+        Delegate create() throws Exception;
+    }
+
+    private static final class InterpreterCandidate implements DelegateSelector.Candidate {
+        private final String id;
+        private final ByteBuffer model;
+        private final int numThreads;
+        private final DelegateFactory delegateFactory;
+
+        InterpreterCandidate(String id, ByteBuffer model, int numThreads, DelegateFactory delegateFactory) {
+            this.id = id;
+            this.model = model;
+            this.numThreads = numThreads;
+            this.delegateFactory = delegateFactory;
+        }
+
+        @Override
+        public String getId() {
+            return id;
+        }
+
+        @Override
+        public DelegateSelector.Trial open() throws Exception {
+            Interpreter.Options options = new Interpreter.Options();
+            options.setNumThreads(numThreads);
+            options.setUseXNNPACK(true);
+
+            Delegate delegate = null;
+            if (delegateFactory != null) {
+                delegate = delegateFactory.create();
+                options.addDelegate(delegate);
+            }
+
+            try {
+                return new InterpreterTrial(new Interpreter(model, options), delegate);
+            } catch (Throwable t) {
+                closeDelegate(delegate);
+                throw t;
+            }
+        }
+    }
+
+    /** Interpreter đã mở cùng delegate của nó. */
+    static final class InterpreterTrial implements DelegateSelector.Trial {
+        private final Interpreter interpreter;
+        private final Delegate delegate;
+        private final ByteBuffer input;
+        private final ByteBuffer output;
+
+        InterpreterTrial(Interpreter interpreter, Delegate delegate) {
+            this.interpreter = interpreter;
+            this.delegate = delegate;
+
+            Tensor inputTensor = interpreter.getInputTensor(0);
+            input = ByteBuffer.allocateDirect(inputTensor.numBytes()).order(ByteOrder.nativeOrder());
+            Random random = new Random(INPUT_SEED);
+            if (inputTensor.dataType() == DataType.FLOAT32) {
+                // Byte ngẫu nhiên đọc thành float có cả NaN và Inf; ảnh chuẩn hóa nằm trong [0, 1]
+                while (input.hasRemaining()) {
+                    input.putFloat(random.nextFloat());
+                }
+            } else {
+                while (input.hasRemaining()) {
+                    input.put((byte) random.nextInt(256));
+                }
+            }
+            input.rewind();
+
+            output = ByteBuffer.allocateDirect(interpreter.getOutputTensor(0).numBytes())
+                    .order(ByteOrder.nativeOrder());
+        }
+
+        Interpreter getInterpreter() {
+            return interpreter;
+        }
+
+        @Override
+        public void run() {
+            input.rewind();
+            output.rewind();
+            interpreter.run(input, output);
+        }
+
+        @Override
+        public float[] readOutput() {
+            Tensor tensor = interpreter.getOutputTensor(0);
+            float[] values = new float[tensor.numElements()];
+            output.rewind();
+            if (tensor.dataType() == DataType.FLOAT32) {
+                output.asFloatBuffer().get(values);
+            } else {
+                // Đầu ra lượng tử hóa: so sánh sau khi giải lượng tử
+                Tensor.QuantizationParams params = tensor.quantizationParams();
+                float scale = params.getScale() != 0f ? params.getScale() : 1f;
+                boolean unsigned = tensor.dataType() == DataType.UINT8;
+                for (int i = 0; i < values.length; i++) {
+                    int raw = unsigned ? output.get(i) & 0xFF : output.get(i);
+                    values[i] = (raw - params.getZeroPoint()) * scale;
+                }
+            }
+            return values;
+        }
+
+        @Override
+        public void close() {
+            interpreter.close();
+            closeDelegate(delegate);
+        }
+    }
+
+    private static void closeDelegate(Delegate delegate) {
+        if (delegate instanceof GpuDelegate) {
+            ((GpuDelegate) delegate).close();
+        } else if (delegate instanceof NnApiDelegate) {
+            ((NnApiDelegate) delegate).close();
+        }
+    }
+
+    /** Lưu lựa chọn vào SharedPreferences. */
+    static final class PreferencesChoiceCache implements DelegateSelector.ChoiceCache {
+        private final SharedPreferences preferences;
+
+        PreferencesChoiceCache(SharedPreferences preferences) {
+            this.preferences = preferences;
+        }
+
+        @Override
+        public String get(String key) {
+            return preferences.getString(key, null);
+        }
+
+        @Override
+        public void put(String key, String candidateId) {
+            preferences.edit().putString(key, candidateId).apply();
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.blindwayapp.ui.navigation;
+
+import android.content.Context;
+import android.os.Bundle;
+import android.speech.tts.TextToSpeech;
+import android.speech.tts.UtteranceProgressListener;
+import android.util.Log;
+
+import java.io.File;
+import java.util.Locale;
+
+/**
+ * Phát cảnh báo qua TextToSpeech và báo tiến trình về SpeechAlertScheduler.
+ *
+ * Các câu cảnh báo cố định được tổng hợp trước ra file bằng synthesizeToFile rồi gắn vào
+ * engine bằng addSpeech: khi nói đúng câu đó, engine phát thẳng file âm thanh thay vì
+ * tổng hợp lại, nên cảnh báo khẩn cấp không phải chờ engine. File được giữ trong cache
+ * theo engine và ngôn ngữ nên chỉ tổng hợp một lần. Engine ghi vào file tạm và chỉ khi ghi xong
+ * mới đổi tên thành file thật, nên file bị cắt dở (app bị tắt, engine lỗi) không được dùng lại.
+ */
+public class TtsAlertOutput implements SpeechAlertScheduler.Output {
+
+    private static final String TAG = "TtsAlertOutput";
+    private static final String CLIP_DIRECTORY = "alert_clips";
+    private static final String CLIP_UTTERANCE_PREFIX = "clip-";
+    private static final String CLIP_TEMP_SUFFIX = ".tmp";
+
+    private final File clipDirectory;
+    private final Locale locale;
+    private final String[] cachedPhrases;
+    private final TextToSpeech tts;
+    private volatile boolean ready;
+    private volatile SpeechAlertScheduler scheduler;
+
+    /**
+     * @param cachedPhrases các câu cố định cần tổng hợp sẵn
+     */
+    public TtsAlertOutput(Context context, Locale locale, String... cachedPhrases) {
+        this.clipDirectory = new File(context.getCacheDir(), CLIP_DIRECTORY);
+        this.locale = locale;
+        this.cachedPhrases = cachedPhrases.clone();
+        this.tts = new TextToSpeech(context.getApplicationContext(), this::onInit);
+    }
+
+    /** Scheduler nhận callback bắt đầu/kết thúc của các câu cảnh báo. */
+    public void attach(SpeechAlertScheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public boolean speak(String text, String utteranceId, boolean interrupt) {
+        if (!ready) {
+            Log.w(TAG, "TTS chưa sẵn sàng, bỏ qua: " + text);
+            return false;
+        }
+        try {
+            int mode = interrupt ? TextToSpeech.QUEUE_FLUSH : TextToSpeech.QUEUE_ADD;
+            return tts.speak(text, mode, null, utteranceId) == TextToSpeech.SUCCESS;
+        } catch (Exception e) {
+            Log.e(TAG, "Lỗi Text-to-Speech: " + e.getMessage());
+            return false;
+        }
+    }
+
+    public void shutdown() {
+        ready = false;
+        scheduler = null;
+        try {
+            tts.stop();
+            tts.shutdown();
+        } catch (Exception e) {
+            Log.e(TAG, "Error shutting down TTS: " + e.getMessage());
+        }
+    }
+
+    private void onInit(int status) {
+        if (status != TextToSpeech.SUCCESS) {
+            Log.e(TAG, "Không thể khởi tạo Text-to-Speech");
+            return;
+        }
+        int result = tts.setLanguage(locale);
+        if (result == TextToSpeech.LANG_MISSING_DATA || result == TextToSpeech.LANG_NOT_SUPPORTED) {
+            Log.e(TAG, "Ngôn ngữ Tiếng Việt không được hỗ trợ");
+            return;
+        }
+        tts.setOnUtteranceProgressListener(new ProgressListener());
+        ready = true;
+        Log.d(TAG, "Text-to-Speech khởi tạo thành công");
+        prepareClips();
+    }
+
+    private void prepareClips() {
+        if (!clipDirectory.isDirectory() && !clipDirectory.mkdirs()) {
+            Log.w(TAG, "Không tạo được thư mục cache âm thanh");
+            return;
+        }
+        for (int i = 0; i < cachedPhrases.length; i++) {
+            String phrase = cachedPhrases[i];
+            File clip = clipFile(phrase);
+            if (clip.length() > 0) {
+                tts.addSpeech(phrase, clip);
+            } else {
+                // Đổi tên và addSpeech sau khi file được ghi xong (xem ProgressListener.onDone)
+                tts.synthesizeToFile(phrase, new Bundle(), tempFile(clip), CLIP_UTTERANCE_PREFIX + i);
+            }
+        }
+    }
+
+    /** File theo engine, ngôn ngữ và nội dung câu để đổi giọng thì tổng hợp lại. */
+    private File clipFile(String phrase) {
+        String key = tts.getDefaultEngine() + "_" + locale.toLanguageTag() + "_" + phrase;
+        return new File(clipDirectory, Integer.toHexString(key.hashCode()) + ".wav");
+    }
+
+    private static File tempFile(File clip) {
+        return new File(clip.getPath() + CLIP_TEMP_SUFFIX);
+    }
+
+    private String clipPhrase(String utteranceId) {
+        return cachedPhrases[Integer.parseInt(utteranceId.substring(CLIP_UTTERANCE_PREFIX.length()))];
+    }
+
+    private final class ProgressListener extends UtteranceProgressListener {
+
+        @Override
+        public void onStart(String utteranceId) {
+            SpeechAlertScheduler current = scheduler;
+            if (current != null && !utteranceId.startsWith(CLIP_UTTERANCE_PREFIX)) {
+                current.onSpeechStarted(utteranceId, System.nanoTime());
+                Log.d(TAG, String.format(Locale.US, "Độ trễ cảnh báo: %.0f ms",
+                        current.getLastStartLatencyMillis()));
+            }
+        }
+
+        @Override
+        public void onDone(String utteranceId) {
+            if (utteranceId.startsWith(CLIP_UTTERANCE_PREFIX)) {
+                onClipSynthesized(utteranceId);
+                return;
+            }
+            finished(utteranceId);
+        }
+
+        @Override
+        public void onStop(String utteranceId, boolean interrupted) {
+            if (utteranceId.startsWith(CLIP_UTTERANCE_PREFIX)) {
+                discardClip(utteranceId);
+                return;
+            }
+            finished(utteranceId);
+        }
+
+        @Override
+        @SuppressWarnings("deprecation")
+        public void onError(String utteranceId) {
+            Log.w(TAG, "Lỗi khi phát " + utteranceId);
+            if (utteranceId.startsWith(CLIP_UTTERANCE_PREFIX)) {
+                discardClip(utteranceId);
+                return;
+            }
+            finished(utteranceId);
+        }
+
+        private void finished(String utteranceId) {
+            SpeechAlertScheduler current = scheduler;
+            if (current != null) {
+                current.onSpeechFinished(utteranceId, System.nanoTime());
+            }
+        }
+
+        private void onClipSynthesized(String utteranceId) {
+            String phrase = clipPhrase(utteranceId);
+            File clip = clipFile(phrase);
+            if (!tempFile(clip).renameTo(clip)) {
+                Log.w(TAG, "Không lưu được âm thanh: " + phrase);
+                discardClip(utteranceId);
+                return;
+            }
+            tts.addSpeech(phrase, clip);
+            Log.d(TAG, "Đã lưu sẵn âm thanh: " + phrase);
+        }
+
+        /** Xóa file tạm của lần tổng hợp dở; lần mở sau sẽ tổng hợp lại. */
+        private void discardClip(String utteranceId) {
+            File temp = tempFile(clipFile(clipPhrase(utteranceId)));
+            if (temp.exists() && !temp.delete()) {
+                Log.w(TAG, "Không xóa được " + temp.getName());
+            }
+        }
+    }
+}
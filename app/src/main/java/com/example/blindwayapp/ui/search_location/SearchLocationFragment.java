@@ -1,20 +1,51 @@
 package com.example.blindwayapp.ui.search_location;
 
 import android.os.Bundle;
+import android.text.Editable;
+import android.text.TextWatcher;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.Button;
+import android.widget.EditText;
+import android.widget.LinearLayout;
+import android.widget.TextView;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
-
-import android.view.LayoutInflater;
-import android.view.View;
-import android.view.ViewGroup;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.blindwayapp.R;
+import com.example.blindwayapp.location.LocationEngine;
+import com.example.blindwayapp.location.LocationFix;
+import com.example.blindwayapp.location.NearbyPlace;
+import com.example.blindwayapp.location.Place;
+import com.example.blindwayapp.location.PoiMatch;
+import com.example.blindwayapp.location.PoiSearchService;
+import com.example.blindwayapp.ui.my_locations.PlaceListAdapter;
+import com.example.blindwayapp.ui.traffic_location.TrafficLocationFragment;
+
+import java.util.ArrayList;
+import java.util.List;
 
 
 public class SearchLocationFragment extends Fragment {
 
+    private static final int MAX_RESULTS = 20;
+
+    private PoiSearchService searchService;
+    private LocationEngine locationEngine;
+    private PlaceListAdapter adapter;
+    private EditText etSearch;
+    private TextView tvSearchStatus;
+    private RecyclerView rvResults;
+    private View categoryList;
+    private volatile LocationFix lastFix;
+
+    private final LocationEngine.Listener locationListener = fix -> lastFix = fix;
+
     public SearchLocationFragment() {
         // Bắt buộc phải có constructor rỗng
     }
@@ -24,6 +55,109 @@ public class SearchLocationFragment extends Fragment {
     public View onCreateView(@NonNull LayoutInflater inflater,
                              @Nullable ViewGroup container,
                              @Nullable Bundle savedInstanceState) {
-        return inflater.inflate(R.layout.fragment_search_location, container, false);
+        View root = inflater.inflate(R.layout.fragment_search_location, container, false);
+
+        searchService = PoiSearchService.getInstance(requireContext());
+        locationEngine = LocationEngine.getInstance(requireContext());
+
+        etSearch = root.findViewById(R.id.etSearch);
+        tvSearchStatus = root.findViewById(R.id.tvSearchStatus);
+        rvResults = root.findViewById(R.id.rvResults);
+        categoryList = root.findViewById(R.id.categoryList);
+
+        rvResults.setLayoutManager(new LinearLayoutManager(requireContext()));
+        adapter = new PlaceListAdapter(this::openNavigation, true);
+        rvResults.setAdapter(adapter);
+
+        root.findViewById(R.id.btnBack).setOnClickListener(v ->
+                requireActivity().getSupportFragmentManager().popBackStack());
+
+        // Nút danh mục tìm theo đúng tên danh mục; chỉ mục chấm điểm cả tên và danh mục
+        LinearLayout categories = (LinearLayout) categoryList;
+        for (int i = 0; i < categories.getChildCount(); i++) {
+            View child = categories.getChildAt(i);
+            if (child instanceof Button) {
+                Button button = (Button) child;
+                button.setOnClickListener(v -> etSearch.setText(button.getText()));
+            }
+        }
+
+        etSearch.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+            }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+            }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                search(s.toString());
+            }
+        });
+        return root;
+    }
+
+    @Override
+    public void onStart() {
+        super.onStart();
+        lastFix = locationEngine.getLastFix();
+        locationEngine.addListener(locationListener);
+    }
+
+    @Override
+    public void onStop() {
+        super.onStop();
+        locationEngine.removeListener(locationListener);
+    }
+
+    /** Tìm ngay khi gõ; dịch vụ chỉ trả kết quả của lần gõ mới nhất. */
+    private void search(String query) {
+        boolean hasQuery = !query.trim().isEmpty();
+        rvResults.setVisibility(hasQuery ? View.VISIBLE : View.GONE);
+        categoryList.setVisibility(hasQuery ? View.GONE : View.VISIBLE);
+        if (!hasQuery) {
+            adapter.submitList(null);
+            tvSearchStatus.setVisibility(View.GONE);
+            searchService.cancel();
+            return;
+        }
+        LocationFix fix = lastFix;
+        double latitude = fix != null ? fix.latitude : Double.NaN;
+        double longitude = fix != null ? fix.longitude : Double.NaN;
+        searchService.search(query, latitude, longitude, MAX_RESULTS, this::showResults);
+    }
+
+    private void showResults(List<PoiMatch> results) {
+        if (getView() == null) {
+            return;
+        }
+        List<NearbyPlace> places = new ArrayList<>(results.size());
+        for (PoiMatch match : results) {
+            Place place = new Place(match.poi, match.name, match.category, match.category,
+                    match.latitude, match.longitude);
+            places.add(new NearbyPlace(place, match.distanceMeters));
+        }
+        adapter.submitList(places);
+
+        if (!searchService.isAvailable()) {
+            tvSearchStatus.setText("Chưa có dữ liệu địa điểm ngoại tuyến");
+        } else if (places.isEmpty()) {
+            tvSearchStatus.setText("Không tìm thấy địa điểm phù hợp");
+        } else {
+            tvSearchStatus.setText("Tìm thấy " + places.size() + " địa điểm");
+        }
+        tvSearchStatus.setVisibility(View.VISIBLE);
+        // TalkBack đọc số kết quả mà không cần rời ô tìm kiếm
+        tvSearchStatus.announceForAccessibility(tvSearchStatus.getText());
+    }
+
+    private void openNavigation(Place place) {
+        requireActivity().getSupportFragmentManager()
+                .beginTransaction()
+                .replace(R.id.container, TrafficLocationFragment.newInstance(place))
+                .addToBackStack(null)
+                .commit();
     }
-}
\ No newline at end of file
+}
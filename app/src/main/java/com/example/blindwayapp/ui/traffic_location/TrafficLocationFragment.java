@@ -5,23 +5,303 @@ import android.os.Bundle;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
+import android.widget.TextView;
 
 import com.example.blindwayapp.R;
+import com.example.blindwayapp.location.LocationEngine;
+import com.example.blindwayapp.location.LocationFix;
+import com.example.blindwayapp.location.NearbyPlace;
+import com.example.blindwayapp.location.NearbyPlacesTracker;
+import com.example.blindwayapp.location.Place;
+import com.example.blindwayapp.location.PlaceIndex;
+import com.example.blindwayapp.location.PlaceStore;
+import com.example.blindwayapp.routing.RouteFollower;
+import com.example.blindwayapp.routing.RouteStep;
+import com.example.blindwayapp.routing.RoutingService;
+import com.example.blindwayapp.ui.my_locations.PlaceListAdapter;
+import com.example.blindwayapp.ui.navigation.AlertPolicy;
+import com.example.blindwayapp.ui.navigation.SpeechAlertScheduler;
+import com.example.blindwayapp.ui.navigation.TtsAlertOutput;
 
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Địa điểm quanh vị trí hiện tại kèm khoảng cách cập nhật khi đi, và thẻ dẫn đường tới địa điểm đã chọn.
+ *
+ * Khi bản build có đồ thị đường đi bộ, thẻ dẫn đường đọc chỉ dẫn rẽ bằng giọng nói theo tuyến do
+ * RoutingService tìm và tìm lại đường khi người dùng đi lệch. Không có đồ thị hoặc không tìm được
+ * đường thì thẻ báo khoảng cách và hướng theo đường thẳng.
+ */
 public class TrafficLocationFragment extends Fragment {
+
+    private static final String ARG_PLACE_ID = "place_id";
+    private static final String ARG_NAME = "name";
+    private static final String ARG_DETAIL = "detail";
+    private static final String ARG_CATEGORY = "category";
+    private static final String ARG_LATITUDE = "latitude";
+    private static final String ARG_LONGITUDE = "longitude";
+
+    private static final float RADIUS_METERS = 2_000f;
+    private static final int MAX_PLACES = 20;
+    private static final float MARGIN_METERS = 100f;
+    private static final int MAX_CANDIDATES = 100;
+    private static final float ARRIVAL_METERS = 15f;
+    private static final long MAX_PENDING_SPEECH_MS = 3000;
+    private static final String SPEECH_OFF_ROUTE = "Bạn đã đi lệch đường, đang tìm lại đường";
+    private static final String[] COMPASS = {
+            "Bắc", "Đông Bắc", "Đông", "Đông Nam", "Nam", "Tây Nam", "Tây", "Tây Bắc"};
+
+    private PlaceStore placeStore;
+    private LocationEngine locationEngine;
+    private NearbyPlacesTracker tracker;
+    private PlaceListAdapter adapter;
+    private TextView tvEmpty;
+    private View cardNavigation;
+    private TextView tvDestination;
+    private TextView tvDistance;
+    private TextView tvInstruction;
+    private TextView tvInstructionDetail;
+    private Place destination;
+    private LocationFix lastFix;
+    private RoutingService routingService;
+    private TtsAlertOutput speechOutput;
+    private SpeechAlertScheduler speech;
+    // Tuyến đang theo, null khi chưa tìm xong hoặc không có đồ thị
+    private RouteFollower follower;
+    private boolean routeRequested;
+    private boolean rerouting;
+    private boolean offRoute;
+    private boolean guiding;
+
+    private final LocationEngine.Listener locationListener = this::onLocation;
+    private final PlaceStore.Listener placesListener = () -> {
+        tracker.invalidate();
+        if (lastFix != null) {
+            onLocation(lastFix);
+        }
+    };
+
     public TrafficLocationFragment() {
         // Bắt buộc phải có constructor rỗng
     }
 
+    /** Mở màn hình với thẻ dẫn đường tới một địa điểm (đã lưu hoặc từ kết quả tìm kiếm). */
+    public static TrafficLocationFragment newInstance(Place place) {
+        TrafficLocationFragment fragment = new TrafficLocationFragment();
+        Bundle args = new Bundle();
+        args.putLong(ARG_PLACE_ID, place.id);
+        args.putString(ARG_NAME, place.name);
+        args.putString(ARG_DETAIL, place.detail);
+        args.putString(ARG_CATEGORY, place.category);
+        args.putDouble(ARG_LATITUDE, place.latitude);
+        args.putDouble(ARG_LONGITUDE, place.longitude);
+        fragment.setArguments(args);
+        return fragment;
+    }
+
+    @Override
+    public void onCreate(@Nullable Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        routingService = RoutingService.getInstance(requireContext());
+        speechOutput = new TtsAlertOutput(requireContext(), new Locale("vi"), RouteStep.Turn.ARRIVE.phrase);
+        speech = new SpeechAlertScheduler(speechOutput, MAX_PENDING_SPEECH_MS);
+        speechOutput.attach(speech);
+    }
+
     @Nullable
     @Override
     public View onCreateView(@NonNull LayoutInflater inflater,
                              @Nullable ViewGroup container,
                              @Nullable Bundle savedInstanceState) {
-        return inflater.inflate(R.layout.fragment_traffic_location, container, false);
+        View root = inflater.inflate(R.layout.fragment_traffic_location, container, false);
+
+        placeStore = PlaceStore.getInstance(requireContext());
+        locationEngine = LocationEngine.getInstance(requireContext());
+        tracker = new NearbyPlacesTracker(placeStore, RADIUS_METERS, MAX_PLACES, MARGIN_METERS, MAX_CANDIDATES);
+        Bundle args = getArguments();
+        if (args != null && args.containsKey(ARG_NAME) && destination == null) {
+            setDestination(new Place(args.getLong(ARG_PLACE_ID), args.getString(ARG_NAME), args.getString(ARG_DETAIL),
+                    args.getString(ARG_CATEGORY), args.getDouble(ARG_LATITUDE), args.getDouble(ARG_LONGITUDE)));
+        }
+
+        tvEmpty = root.findViewById(R.id.tvEmpty);
+        cardNavigation = root.findViewById(R.id.cardNavigation);
+        tvDestination = root.findViewById(R.id.tvDestination);
+        tvDistance = root.findViewById(R.id.tvDistance);
+        tvInstruction = root.findViewById(R.id.tvInstruction);
+        tvInstructionDetail = root.findViewById(R.id.tvInstructionDetail);
+        root.findViewById(R.id.btnStopNav).setOnClickListener(v -> {
+            setDestination(null);
+            cardNavigation.setVisibility(View.GONE);
+        });
+
+        RecyclerView rvPlaces = root.findViewById(R.id.rvPlaces);
+        rvPlaces.setLayoutManager(new LinearLayoutManager(requireContext()));
+        adapter = new PlaceListAdapter(place -> {
+            setDestination(place);
+            if (lastFix != null) {
+                showDestination(lastFix);
+            }
+        }, false);
+        rvPlaces.setAdapter(adapter);
+        return root;
+    }
+
+    @Override
+    public void onStart() {
+        super.onStart();
+        placeStore.addListener(placesListener);
+        tracker.invalidate();
+        locationEngine.addListener(locationListener);
+    }
+
+    @Override
+    public void onStop() {
+        super.onStop();
+        locationEngine.removeListener(locationListener);
+        placeStore.removeListener(placesListener);
+    }
+
+    @Override
+    public void onDestroy() {
+        super.onDestroy();
+        setDestination(null);
+        speechOutput.shutdown();
+    }
+
+    /** Đổi đích (null để dừng dẫn đường); tuyến cũ và lần tìm đường đang chạy bị bỏ. */
+    private void setDestination(@Nullable Place place) {
+        destination = place;
+        follower = null;
+        routeRequested = false;
+        rerouting = false;
+        offRoute = false;
+        routingService.cancel();
+        // Dẫn đường cần vị trí chính xác hơn màn hình danh sách
+        if (place != null && !guiding) {
+            locationEngine.beginNavigation();
+            guiding = true;
+        } else if (place == null && guiding) {
+            locationEngine.endNavigation();
+            guiding = false;
+        }
+    }
+
+    private void onLocation(LocationFix fix) {
+        lastFix = fix;
+        List<NearbyPlace> places = tracker.update(fix.latitude, fix.longitude);
+        adapter.submitList(places);
+        tvEmpty.setText("Không có địa điểm nào trong vòng 2 km");
+        tvEmpty.setVisibility(places.isEmpty() ? View.VISIBLE : View.GONE);
+        showDestination(fix);
+    }
+
+    /** Khoảng cách tới đích tính lại từ mỗi vị trí mới, không cần tìm trong chỉ mục. */
+    private void showDestination(LocationFix fix) {
+        if (destination == null) {
+            cardNavigation.setVisibility(View.GONE);
+            return;
+        }
+        cardNavigation.setVisibility(View.VISIBLE);
+        if (follower != null) {
+            followRoute(fix);
+            return;
+        }
+        if (!routeRequested && routingService.isAvailable()) {
+            requestRoute(fix);
+        }
+        float distance = PlaceIndex.distanceMeters(fix.latitude, fix.longitude,
+                destination.latitude, destination.longitude);
+        tvDestination.setText(destination.name);
+        if (distance <= Math.max(ARRIVAL_METERS, fix.accuracyMeters)) {
+            tvDistance.setText("Đã tới nơi");
+            tvInstruction.setText("Bạn đang ở gần " + destination.name);
+        } else {
+            tvDistance.setText("Còn " + PlaceListAdapter.formatDistance(distance));
+            tvInstruction.setText("Đi về hướng " + compassDirection(fix, destination));
+        }
+        tvInstructionDetail.setText(destination.detail.isEmpty()
+                ? "Khoảng cách theo đường thẳng" : destination.detail);
+    }
+
+    private void requestRoute(LocationFix fix) {
+        routeRequested = true;
+        routingService.route(fix.latitude, fix.longitude, destination.latitude, destination.longitude,
+                this::onRoute);
+    }
+
+    /** Tuyến mới hoặc tuyến tìm lại; null thì giữ tuyến cũ (hoặc chỉ hướng theo đường thẳng). */
+    private void onRoute(RouteFollower route) {
+        rerouting = false;
+        if (route == null || destination == null || getView() == null) {
+            return;
+        }
+        follower = route;
+        offRoute = false;
+        if (lastFix != null) {
+            showDestination(lastFix);
+        }
+    }
+
+    private void followRoute(LocationFix fix) {
+        RouteFollower.Status status = follower.update(fix.latitude, fix.longitude, fix.accuracyMeters);
+        tvDestination.setText(destination.name);
+        switch (status) {
+            case ARRIVED:
+                tvDistance.setText("Đã tới nơi");
+                tvInstruction.setText("Bạn đang ở gần " + destination.name);
+                tvInstructionDetail.setText(destination.detail);
+                if (guiding) {
+                    locationEngine.endNavigation();
+                    guiding = false;
+                }
+                break;
+            case OFF_ROUTE:
+                if (!offRoute) {
+                    offRoute = true;
+                    speak(SPEECH_OFF_ROUTE);
+                }
+                if (!rerouting) {
+                    rerouting = true;
+                    routingService.reroute(fix.latitude, fix.longitude, follower, this::onRoute);
+                }
+                tvInstruction.setText("Đang tìm lại đường");
+                tvInstructionDetail.setText("Cách tuyến " + PlaceListAdapter.formatDistance(follower.getOffRouteMeters()));
+                break;
+            default:
+                offRoute = false;
+                tvDistance.setText("Còn " + PlaceListAdapter.formatDistance(follower.getRemainingMeters()));
+                if (follower.isApproaching()) {
+                    tvInstruction.setText(follower.getSteps().get(0).instruction());
+                    tvInstructionDetail.setText("Cách tuyến " + PlaceListAdapter.formatDistance(follower.getOffRouteMeters()));
+                    break;
+                }
+                RouteStep next = follower.getNextStep();
+                tvInstruction.setText(next.instruction());
+                tvInstructionDetail.setText("Sau " + PlaceListAdapter.formatDistance(follower.getDistanceToNextStep()));
+                break;
+        }
+        String prompt = follower.getPrompt();
+        if (prompt != null) {
+            speak(prompt);
+        }
+    }
+
+    private void speak(String text) {
+        speech.submit(AlertPolicy.Priority.INFO, text, System.nanoTime());
+    }
+
+    private static String compassDirection(LocationFix from, Place to) {
+        double north = to.latitude - from.latitude;
+        double east = (to.longitude - from.longitude) * Math.cos(Math.toRadians(from.latitude));
+        double bearing = (Math.toDegrees(Math.atan2(east, north)) + 360) % 360;
+        return COMPASS[(int) Math.round(bearing / 45) % COMPASS.length];
     }
-}
\ No newline at end of file
+}
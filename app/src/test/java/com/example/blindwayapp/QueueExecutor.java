@@ -0,0 +1,23 @@
+package com.example.blindwayapp;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+
+/** Executor cho test: giữ việc lại trong hàng đợi cho tới khi test gọi runAll(). */
+public final class QueueExecutor implements Executor {
+    private final Queue<Runnable> tasks = new ArrayDeque<>();
+
+    @Override
+    public void execute(Runnable command) {
+        tasks.add(command);
+    }
+
+    /** Chạy mọi việc đang chờ, kể cả việc được thêm trong lúc chạy. */
+    public void runAll() {
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            task.run();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.blindwayapp.data;
+
+import com.example.blindwayapp.QueueExecutor;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class LatestRequestWorkerTest {
+
+    private final QueueExecutor worker = new QueueExecutor();
+    private final QueueExecutor main = new QueueExecutor();
+    private final List<String> delivered = new ArrayList<>();
+    private int opens;
+
+    @Test
+    public void olderRequests_areSkippedAndResourceOpenedOnce() {
+        LatestRequestWorker<String> requests = new LatestRequestWorker<>(this::open, worker, main);
+        List<String> ran = new ArrayList<>();
+        requests.submit(resource -> {
+            ran.add("a");
+            return resource + "a";
+        }, delivered::add);
+        requests.submit(resource -> {
+            ran.add("b");
+            return resource + "b";
+        }, delivered::add);
+        worker.runAll();
+        main.runAll();
+
+        assertEquals(List.of("b"), ran);
+        assertEquals(List.of("chỉ mục b"), delivered);
+
+        // Chạy xong nhưng có lần gửi mới trước khi kịp trả: bỏ kết quả
+        requests.submit(resource -> resource + "c", delivered::add);
+        worker.runAll();
+        requests.cancel();
+        main.runAll();
+        assertEquals(1, delivered.size());
+        assertEquals(1, opens);
+    }
+
+    @Test
+    public void failedOpen_passesNullAndIsNotRetried() {
+        LatestRequestWorker<String> requests = new LatestRequestWorker<>(() -> {
+            opens++;
+            throw new IOException("thiếu asset");
+        }, worker, main);
+        requests.submit(resource -> resource == null ? "không có" : resource, delivered::add);
+        requests.submit(resource -> resource == null ? "vẫn không có" : resource, delivered::add);
+        worker.runAll();
+        main.runAll();
+        requests.submit(resource -> resource == null ? "vẫn không có" : resource, delivered::add);
+        worker.runAll();
+        main.runAll();
+
+        assertEquals(List.of("vẫn không có", "vẫn không có"), delivered);
+        assertFalse(requests.isAvailable());
+        assertEquals(1, opens);
+    }
+
+    private String open() {
+        opens++;
+        return "chỉ mục ";
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.blindwayapp.location;
+
+import com.example.blindwayapp.QueueExecutor;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.Assert.*;
+
+public class GeocodingServiceTest {
+
+    private static final double LAT = 21.028511;
+    private static final double LON = 105.804817;
+    private static final long DAY = 24L * 60 * 60 * 1000;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final FakeBackend backend = new FakeBackend();
+    private final QueueExecutor worker = new QueueExecutor();
+    private final List<String> results = new ArrayList<>();
+    private long now = 1_000_000L;
+
+    @Test
+    public void sameCell_isResolvedOnceAndThenCached() {
+        GeocodingService service = service(null);
+
+        service.lookup(LAT, LON, results::add);
+        service.lookup(LAT + 0.000004, LON, results::add);
+        assertTrue("Chưa chạy worker thì chưa có kết quả", results.isEmpty());
+        worker.runAll();
+        service.lookup(LAT, LON, results::add);
+
+        assertEquals(1, backend.calls);
+        assertEquals(3, results.size());
+        for (String result : results) {
+            assertEquals("Số 1 Tràng Tiền", result);
+        }
+    }
+
+    @Test
+    public void expiredEntry_isRefreshed() {
+        GeocodingService service = service(null);
+        service.lookup(LAT, LON, results::add);
+        worker.runAll();
+
+        now += GeocodingService.TTL_MILLIS + 1;
+        backend.address = "Địa chỉ mới";
+        service.lookup(LAT, LON, results::add);
+        worker.runAll();
+
+        assertEquals(2, backend.calls);
+        assertEquals("Địa chỉ mới", results.get(1));
+    }
+
+    @Test
+    public void offline_fallsBackToStaleAddress() {
+        GeocodingService service = service(null);
+        service.lookup(LAT, LON, results::add);
+        worker.runAll();
+
+        now += 30 * DAY;
+        backend.offline = true;
+        service.lookup(LAT, LON, results::add);
+        service.lookup(0, 0, results::add);
+        worker.runAll();
+
+        assertEquals("Số 1 Tràng Tiền", results.get(1));
+        assertNull(results.get(2));
+    }
+
+    @Test
+    public void cacheFile_survivesRestartAndWorksOffline() throws IOException {
+        File file = new File(folder.getRoot(), "geocode_cache.bin");
+        GeocodingService first = service(file);
+        first.lookup(LAT, LON, results::add);
+        worker.runAll();
+        assertTrue(file.exists());
+
+        backend.offline = true;
+        GeocodingService second = service(file);
+        second.lookup(LAT, LON, results::add);
+        worker.runAll();
+
+        assertEquals(1, backend.calls);
+        assertEquals("Số 1 Tràng Tiền", results.get(1));
+    }
+
+    @Test
+    public void cache_evictsLeastRecentlyUsedAndKeepsOrderThroughFile() throws IOException {
+        GeocodingCache cache = new GeocodingCache(2, DAY);
+        cache.put("a", "A", 0);
+        cache.put("b", "B", 0);
+        cache.get("a", 0);
+        cache.put("c", "C", 0);
+
+        assertNull(cache.getStale("b"));
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        cache.writeTo(bytes, "vi");
+
+        GeocodingCache restored = new GeocodingCache(2, DAY);
+        assertEquals(0, restored.readFrom(new ByteArrayInputStream(bytes.toByteArray()), "en"));
+        assertEquals(2, restored.readFrom(new ByteArrayInputStream(bytes.toByteArray()), "vi"));
+        restored.put("d", "D", 0);
+        // "a" được dùng trước "c" nên bị đẩy ra trước
+        assertNull(restored.getStale("a"));
+        assertEquals("C", restored.get("c", 0));
+    }
+
+    private GeocodingService service(File file) {
+        return new GeocodingService(backend, worker, Runnable::run, () -> now, file, new Locale("vi"));
+    }
+
+    private static final class FakeBackend implements GeocodingService.Backend {
+        String address = "Số 1 Tràng Tiền";
+        boolean offline;
+        int calls;
+
+        @Override
+        public String reverseGeocode(double latitude, double longitude) throws IOException {
+            if (offline) {
+                throw new IOException("Không có mạng");
+            }
+            calls++;
+            return address;
+        }
+    }
+}
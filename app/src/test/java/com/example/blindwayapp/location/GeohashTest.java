@@ -0,0 +1,32 @@
+package com.example.blindwayapp.location;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class GeohashTest {
+
+    @Test
+    public void knownPoints() {
+        // Giá trị tham chiếu từ bộ mã hóa geohash chuẩn
+        assertEquals("ezs42", Geohash.encode(42.6, -5.6, 5));
+        assertEquals("u4pruydqqvj", Geohash.encode(57.64911, 10.40744, 11));
+    }
+
+    @Test
+    public void nearbyPoints_shareCell() {
+        // Hai điểm cách nhau chưa tới một mét ở Hà Nội
+        String a = Geohash.encode(21.028511, 105.804817, 8);
+        String b = Geohash.encode(21.028515, 105.804820, 8);
+        String far = Geohash.encode(21.030000, 105.804817, 8);
+
+        assertEquals(a, b);
+        assertNotEquals(a, far);
+        assertEquals(a.substring(0, 6), far.substring(0, 6));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidLatitude_isRejected() {
+        Geohash.encode(91, 0, 8);
+    }
+}
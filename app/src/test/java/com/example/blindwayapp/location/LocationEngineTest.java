@@ -0,0 +1,97 @@
+package com.example.blindwayapp.location;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class LocationEngineTest {
+
+    private static final double LAT = 21.028515;
+    private static final double LON = 105.804820;
+
+    private static class FakeBackend implements LocationEngine.Backend {
+        final List<LocationRequestPolicy.Request> started = new ArrayList<>();
+        int stops;
+
+        @Override
+        public void start(LocationRequestPolicy.Request request) {
+            started.add(request);
+        }
+
+        @Override
+        public void stop() {
+            stops++;
+        }
+    }
+
+    @Test
+    public void listenersShareOneRequest() {
+        FakeBackend backend = new FakeBackend();
+        LocationEngine engine = new LocationEngine(backend);
+        List<LocationFix> home = new ArrayList<>();
+        List<LocationFix> traffic = new ArrayList<>();
+        LocationEngine.Listener homeListener = home::add;
+        LocationEngine.Listener trafficListener = traffic::add;
+
+        engine.addListener(homeListener);
+        engine.addListener(trafficListener);
+        assertEquals(1, backend.started.size());
+
+        engine.onRawLocation(LAT, LON, 5f, 1000);
+        assertEquals(1, home.size());
+        assertEquals(1, traffic.size());
+
+        engine.removeListener(homeListener);
+        assertEquals(0, backend.stops);
+        engine.removeListener(trafficListener);
+        assertEquals(1, backend.stops);
+        assertNull(engine.getCurrentRequest());
+    }
+
+    @Test
+    public void newListenerGetsLastFixImmediately() {
+        LocationEngine engine = new LocationEngine(new FakeBackend());
+        engine.addListener(fix -> { });
+        engine.onRawLocation(LAT, LON, 5f, 1000);
+
+        List<LocationFix> received = new ArrayList<>();
+        engine.addListener(received::add);
+        assertEquals(1, received.size());
+        assertSame(engine.getLastFix(), received.get(0));
+    }
+
+    @Test
+    public void navigationAndScreenChangeRequest() {
+        FakeBackend backend = new FakeBackend();
+        LocationEngine engine = new LocationEngine(backend);
+        engine.addListener(fix -> { });
+        assertSame(LocationRequestPolicy.FOREGROUND_STATIONARY, engine.getCurrentRequest());
+
+        engine.setScreenOn(false);
+        assertSame(LocationRequestPolicy.BACKGROUND_STATIONARY, engine.getCurrentRequest());
+
+        engine.beginNavigation();
+        engine.beginNavigation();
+        assertSame(LocationRequestPolicy.NAVIGATION_STATIONARY, engine.getCurrentRequest());
+        engine.endNavigation();
+        assertSame(LocationRequestPolicy.NAVIGATION_STATIONARY, engine.getCurrentRequest());
+        engine.endNavigation();
+        assertSame(LocationRequestPolicy.BACKGROUND_STATIONARY, engine.getCurrentRequest());
+        assertEquals(4, backend.started.size());
+    }
+
+    @Test
+    public void dropsOutOfOrderFixes() {
+        LocationEngine engine = new LocationEngine(new FakeBackend());
+        List<LocationFix> received = new ArrayList<>();
+        engine.addListener(received::add);
+        engine.onRawLocation(LAT, LON, 5f, 2000);
+        engine.onRawLocation(LAT + 0.001, LON, 5f, 1000);
+        assertEquals(1, received.size());
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.blindwayapp.location;
+
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+public class LocationRequestPolicyTest {
+
+    @Test
+    public void navigationKeepsHighAccuracyWithScreenOff() {
+        LocationRequestPolicy policy = new LocationRequestPolicy();
+        assertSame(LocationRequestPolicy.NAVIGATION_STATIONARY, policy.choose(true, false, -1f));
+        assertSame(LocationRequestPolicy.NAVIGATION_WALKING, policy.choose(true, false, 1.2f));
+    }
+
+    @Test
+    public void batchesWhenScreenOffOutsideNavigation() {
+        LocationRequestPolicy policy = new LocationRequestPolicy();
+        assertSame(LocationRequestPolicy.FOREGROUND_STATIONARY, policy.choose(false, true, 0f));
+        assertSame(LocationRequestPolicy.BACKGROUND_STATIONARY, policy.choose(false, false, 0f));
+        assertSame(LocationRequestPolicy.BACKGROUND_WALKING, policy.choose(false, false, 1f));
+    }
+
+    @Test
+    public void walkingStateHasHysteresis() {
+        LocationRequestPolicy policy = new LocationRequestPolicy();
+        assertSame(LocationRequestPolicy.FOREGROUND_STATIONARY, policy.choose(false, true, 0.5f));
+        assertSame(LocationRequestPolicy.FOREGROUND_WALKING, policy.choose(false, true, 0.7f));
+        // Giữa hai ngưỡng thì giữ trạng thái cũ
+        assertSame(LocationRequestPolicy.FOREGROUND_WALKING, policy.choose(false, true, 0.4f));
+        assertSame(LocationRequestPolicy.FOREGROUND_STATIONARY, policy.choose(false, true, 0.2f));
+        assertSame(LocationRequestPolicy.FOREGROUND_STATIONARY, policy.choose(false, true, 0.5f));
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.blindwayapp.location;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+public class LocationSmootherTest {
+
+    private static final double LAT = 21.028515;
+    private static final double LON = 105.804820;
+    private static final double METERS_PER_DEGREE = 111_320.0;
+
+    @Test
+    public void reducesJitterWhileStandingStill() {
+        LocationSmoother smoother = new LocationSmoother();
+        Random random = new Random(7);
+        double rawError = 0;
+        double smoothError = 0;
+        int counted = 0;
+        for (int i = 0; i < 60; i++) {
+            double noisyLat = LAT + random.nextGaussian() * 8 / METERS_PER_DEGREE;
+            LocationFix fix = smoother.update(noisyLat, LON, 8f, i * 1000L);
+            if (i >= 10) {
+                rawError += Math.abs(noisyLat - LAT) * METERS_PER_DEGREE;
+                smoothError += Math.abs(fix.latitude - LAT) * METERS_PER_DEGREE;
+                counted++;
+            }
+        }
+        assertTrue("Sai số sau lọc " + smoothError / counted + " m, thô " + rawError / counted + " m",
+                smoothError < rawError * 0.6);
+    }
+
+    @Test
+    public void estimatesWalkingSpeed() {
+        LocationSmoother smoother = new LocationSmoother();
+        LocationFix fix = null;
+        for (int i = 0; i < 30; i++) {
+            double lat = LAT + 1.2 * i / METERS_PER_DEGREE;
+            fix = smoother.update(lat, LON, 5f, i * 1000L);
+        }
+        assertEquals(1.2f, fix.speedMetersPerSecond, 0.2f);
+    }
+
+    @Test
+    public void restartsAfterLongGap() {
+        LocationSmoother smoother = new LocationSmoother();
+        smoother.update(LAT, LON, 5f, 0);
+        smoother.update(LAT, LON, 5f, 1000);
+        double farLat = LAT + 0.01;
+        LocationFix fix = smoother.update(farLat, LON, 5f, 1000 + LocationSmoother.RESET_GAP_MILLIS + 1);
+        assertEquals(farLat, fix.latitude, 1e-9);
+        assertEquals(0f, fix.speedMetersPerSecond, 0f);
+    }
+}
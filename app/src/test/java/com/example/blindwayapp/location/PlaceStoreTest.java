@@ -0,0 +1,118 @@
+package com.example.blindwayapp.location;
+
+import com.example.blindwayapp.QueueExecutor;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class PlaceStoreTest {
+
+    private static final double LAT = 21.028515;
+    private static final double LON = 105.804820;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final QueueExecutor worker = new QueueExecutor();
+    private int changes;
+
+    @Test
+    public void addedPlace_isFoundNearby() {
+        PlaceStore store = store(null);
+        store.add("Nhà riêng", "Số 12, Đường Lê Lợi", PlaceStore.CATEGORY_SAVED, LAT, LON);
+        store.add("Trường học", "", PlaceStore.CATEGORY_SAVED, LAT + 0.01, LON);
+        assertEquals("Chưa chạy worker thì chưa lưu", 0, store.size());
+        worker.runAll();
+
+        List<NearbyPlace> out = new ArrayList<>();
+        assertEquals(1, store.nearest(LAT, LON + 0.0005, 200f, 10, out));
+        assertEquals("Nhà riêng", out.get(0).place.name);
+        assertEquals(2, changes);
+    }
+
+    @Test
+    public void newest_listsWithoutLocationNewestFirst() {
+        PlaceStore store = store(null);
+        store.add("Nhà riêng", "", PlaceStore.CATEGORY_SAVED, LAT, LON);
+        store.add("Nhà bà ngoại", "", PlaceStore.CATEGORY_SAVED, LAT + 1, LON);
+        store.add("Trường học", "", PlaceStore.CATEGORY_SAVED, LAT + 2, LON);
+        worker.runAll();
+
+        List<Place> newest = store.newest(2);
+        assertEquals(2, newest.size());
+        assertEquals("Trường học", newest.get(0).name);
+        assertEquals("Nhà bà ngoại", newest.get(1).name);
+        assertEquals(3, store.newest(10).size());
+    }
+
+    @Test
+    public void places_surviveReload() throws IOException {
+        File file = new File(folder.getRoot(), "places.bin");
+        PlaceStore store = store(file);
+        store.add("Nhà riêng", "Số 12", PlaceStore.CATEGORY_SAVED, LAT, LON);
+        store.add("Bến xe buýt", "", PlaceStore.CATEGORY_SAVED, LAT + 0.001, LON);
+        worker.runAll();
+        store.remove(1);
+        worker.runAll();
+
+        PlaceStore reloaded = store(file);
+        worker.runAll();
+        assertEquals(1, reloaded.size());
+        Place place = reloaded.get(2);
+        assertEquals("Bến xe buýt", place.name);
+        assertEquals(LAT + 0.001, place.latitude, 0);
+
+        // Id mới tiếp tục sau id lớn nhất trong file
+        reloaded.add("Siêu thị", "", PlaceStore.CATEGORY_SAVED, LAT, LON);
+        worker.runAll();
+        assertNotNull(reloaded.get(3));
+        assertFalse(new File(file.getPath() + ".tmp").exists());
+    }
+
+    @Test
+    public void addBeforeLoadFinishes_keepsBoth() throws IOException {
+        File file = new File(folder.getRoot(), "places.bin");
+        PlaceStore store = store(file);
+        store.add("Nhà riêng", "", PlaceStore.CATEGORY_SAVED, LAT, LON);
+        worker.runAll();
+
+        PlaceStore reloaded = store(file);
+        reloaded.add("Trường học", "", PlaceStore.CATEGORY_SAVED, LAT, LON);
+        worker.runAll();
+        assertEquals(2, reloaded.size());
+        assertEquals("Nhà riêng", reloaded.get(1).name);
+        assertEquals("Trường học", reloaded.get(2).name);
+    }
+
+    @Test
+    public void corruptFile_startsEmpty() throws IOException {
+        File file = new File(folder.getRoot(), "places.bin");
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(new byte[]{1, 2, 3});
+        }
+        PlaceStore store = store(file);
+        worker.runAll();
+        assertEquals(0, store.size());
+
+        store.add("Nhà riêng", "", PlaceStore.CATEGORY_SAVED, LAT, LON);
+        worker.runAll();
+        PlaceStore reloaded = store(file);
+        worker.runAll();
+        assertEquals(1, reloaded.size());
+    }
+
+    private PlaceStore store(File file) {
+        PlaceStore store = new PlaceStore(worker, Runnable::run, file);
+        store.addListener(() -> changes++);
+        return store;
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.blindwayapp.location;
+
+import com.example.blindwayapp.QueueExecutor;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class PoiSearchServiceTest {
+
+    private static final double LAT = 21.028515;
+    private static final double LON = 105.804820;
+
+    private final QueueExecutor worker = new QueueExecutor();
+    private final QueueExecutor main = new QueueExecutor();
+    private final List<List<PoiMatch>> delivered = new ArrayList<>();
+    private int opens;
+
+    @Test
+    public void onlyLatestQuery_isDelivered() {
+        PoiSearchService service = new PoiSearchService(this::openIndex, worker, main);
+        service.search("b", LAT, LON, 10, delivered::add);
+        service.search("be", LAT, LON, 10, delivered::add);
+        service.search("ben xe", LAT, LON, 10, delivered::add);
+        worker.runAll();
+        main.runAll();
+
+        assertEquals(1, delivered.size());
+        assertEquals("Bến xe Mỹ Đình", delivered.get(0).get(0).name);
+        assertEquals("Chỉ mở chỉ mục một lần", 1, opens);
+        assertTrue(service.isAvailable());
+    }
+
+    @Test
+    public void resultOfOlderQuery_isDroppedAfterNewerOneStarts() {
+        PoiSearchService service = new PoiSearchService(this::openIndex, worker, main);
+        service.search("ben", Double.NaN, Double.NaN, 10, delivered::add);
+        worker.runAll();
+        // Kết quả đã tìm xong nhưng người dùng gõ tiếp trước khi kịp hiển thị
+        service.search("benh", Double.NaN, Double.NaN, 10, delivered::add);
+        main.runAll();
+        assertTrue(delivered.isEmpty());
+
+        worker.runAll();
+        main.runAll();
+        assertEquals(1, delivered.size());
+        assertEquals("Bệnh viện Bạch Mai", delivered.get(0).get(0).name);
+        assertTrue(Float.isNaN(delivered.get(0).get(0).distanceMeters));
+    }
+
+    @Test
+    public void cancel_dropsPendingResults() {
+        PoiSearchService service = new PoiSearchService(this::openIndex, worker, main);
+        service.search("ben", LAT, LON, 10, delivered::add);
+        service.cancel();
+        worker.runAll();
+        main.runAll();
+        assertTrue(delivered.isEmpty());
+    }
+
+    @Test
+    public void missingIndex_reportsUnavailable() {
+        PoiSearchService service = new PoiSearchService(() -> {
+            opens++;
+            throw new FileNotFoundException("poi_index.bin");
+        }, worker, main);
+        service.search("ben xe", LAT, LON, 10, delivered::add);
+        worker.runAll();
+        main.runAll();
+        assertTrue(delivered.get(0).isEmpty());
+        assertFalse(service.isAvailable());
+
+        // Không thử mở lại ở mỗi lần gõ
+        service.search("ben xe my", LAT, LON, 10, delivered::add);
+        worker.runAll();
+        main.runAll();
+        assertEquals(1, opens);
+        assertEquals(2, delivered.size());
+    }
+
+    private PoiSearchIndex openIndex() throws IOException {
+        opens++;
+        PoiIndexWriter writer = new PoiIndexWriter();
+        writer.add("Bến xe Mỹ Đình", "Vận chuyển & Hậu cần", LAT, LON);
+        writer.add("Bệnh viện Bạch Mai", "Y tế & Sức khỏe", LAT + 0.01, LON);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        writer.writeTo(bytes);
+        return new PoiSearchIndex(ByteBuffer.wrap(bytes.toByteArray()));
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.blindwayapp.routing;
+
+import com.example.blindwayapp.QueueExecutor;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class RoutingServiceTest {
+
+    private static final double LAT = 21.028515;
+    private static final double LON = 105.804820;
+    private static final double STEP = 0.00045;
+
+    private final QueueExecutor worker = new QueueExecutor();
+    private final QueueExecutor main = new QueueExecutor();
+    private final List<RouteFollower> delivered = new ArrayList<>();
+    private int opens;
+
+    @Test
+    public void route_snapsToNearestNodes() {
+        RoutingService service = new RoutingService(this::openGraph, worker, main);
+        // Cách nút đầu vài mét, đích ở đầu kia của đường
+        service.route(LAT + 0.00002, LON, LAT + 4 * STEP, LON, delivered::add);
+        worker.runAll();
+        main.runAll();
+
+        RouteFollower follower = delivered.get(0);
+        assertEquals(5, follower.getRoute().size());
+        assertEquals(200f, follower.getRoute().getLengthMeters(), 1f);
+        assertEquals("Đi theo Phố Huế", follower.getSteps().get(0).instruction());
+        assertEquals(1, opens);
+    }
+
+    @Test
+    public void onlyLatestRequest_isDelivered() {
+        RoutingService service = new RoutingService(this::openGraph, worker, main);
+        service.route(LAT, LON, LAT + 2 * STEP, LON, delivered::add);
+        service.route(LAT, LON, LAT + 4 * STEP, LON, delivered::add);
+        worker.runAll();
+        main.runAll();
+        assertEquals(1, delivered.size());
+        assertEquals(200f, follower().getRoute().getLengthMeters(), 1f);
+
+        service.route(LAT, LON, LAT + 2 * STEP, LON, delivered::add);
+        service.cancel();
+        worker.runAll();
+        main.runAll();
+        assertEquals(1, delivered.size());
+    }
+
+    @Test
+    public void reroute_continuesToSameDestination() {
+        RoutingService service = new RoutingService(this::openGraph, worker, main);
+        service.route(LAT, LON, LAT + 4 * STEP, LON, delivered::add);
+        worker.runAll();
+        main.runAll();
+        RouteFollower first = follower();
+        first.update(LAT + STEP, LON, 5f);
+
+        // Đi lệch sang ngõ song song
+        service.reroute(LAT + STEP, LON + STEP, first, delivered::add);
+        worker.runAll();
+        main.runAll();
+        RouteFollower second = follower();
+        assertEquals(first.getRoute().getDestination(), second.getRoute().getDestination());
+        // Quay lại qua ngõ ngang (khoảng 47 m theo kinh độ) rồi đi tiếp 150 m trên Phố Huế
+        assertEquals(47f + 150f, second.getRoute().getLengthMeters(), 1f);
+    }
+
+    @Test
+    public void farFromAnyPath_orMissingGraph_deliversNull() {
+        RoutingService service = new RoutingService(this::openGraph, worker, main);
+        service.route(LAT + 0.05, LON, LAT, LON, delivered::add);
+        worker.runAll();
+        main.runAll();
+        assertNull(delivered.get(0));
+        assertTrue(service.isAvailable());
+
+        RoutingService missing = new RoutingService(() -> {
+            throw new FileNotFoundException("walk_graph.bin");
+        }, worker, main);
+        missing.route(LAT, LON, LAT + STEP, LON, delivered::add);
+        worker.runAll();
+        main.runAll();
+        assertNull(delivered.get(1));
+        assertFalse(missing.isAvailable());
+    }
+
+    private RouteFollower follower() {
+        return delivered.get(delivered.size() - 1);
+    }
+
+    /** Phố Huế thẳng hướng bắc 5 nút, song song là một ngõ nối ngang ở mỗi nút. */
+    private WalkGraph openGraph() throws IOException {
+        opens++;
+        WalkGraphWriter writer = new WalkGraphWriter();
+        int[] street = new int[5];
+        int[] side = new int[5];
+        for (int i = 0; i < 5; i++) {
+            street[i] = writer.addNode(LAT + i * STEP, LON);
+            side[i] = writer.addNode(LAT + i * STEP, LON + STEP);
+            writer.addEdge(street[i], side[i], "Ngõ " + i);
+            if (i > 0) {
+                writer.addEdge(street[i - 1], street[i], "Phố Huế");
+                writer.addEdge(side[i - 1], side[i], "Ngõ song song");
+            }
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        writer.writeTo(bytes);
+        return new WalkGraph(ByteBuffer.wrap(bytes.toByteArray()));
+    }
+}
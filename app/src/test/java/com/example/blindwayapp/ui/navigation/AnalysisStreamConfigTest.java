@@ -0,0 +1,51 @@
+package com.example.blindwayapp.ui.navigation;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class AnalysisStreamConfigTest {
+
+    @Test
+    public void target_isFourThreeAndCoversCorridorCrop() {
+        AnalysisStreamConfig config = AnalysisStreamConfig.forModel(300, RoiPlanner.CORRIDOR_WIDTH);
+
+        assertEquals(500, config.requiredShortSide);
+        assertEquals(500, config.targetHeight);
+        assertEquals(668, config.targetWidth);
+        // Vùng cắt hành lang trên luồng này có ít nhất bằng kích thước đầu vào model
+        assertTrue(RoiPlanner.CORRIDOR_WIDTH * config.targetHeight >= 300);
+    }
+
+    @Test
+    public void withoutCrops_modelInputIsEnough() {
+        AnalysisStreamConfig config = AnalysisStreamConfig.forModel(320, 1f);
+
+        assertTrue(config.isSatisfiedBy(640, 480));
+        assertTrue(config.isSatisfiedBy(480, 640));
+        assertFalse(config.isSatisfiedBy(352, 288));
+    }
+
+    @Test
+    public void yuvBytes_countsHalfResolutionChroma() {
+        assertEquals(640 * 480 * 3 / 2, AnalysisStreamConfig.yuvBytes(640, 480));
+        assertEquals(3 * 3 + 2 * 2 * 2, AnalysisStreamConfig.yuvBytes(3, 3));
+    }
+
+    @Test
+    public void describe_reportsSavingsAgainstPreview() {
+        AnalysisStreamConfig config = AnalysisStreamConfig.forModel(320, RoiPlanner.CORRIDOR_WIDTH);
+
+        String text = config.describe(720, 540, 90, 1440, 1080);
+
+        assertTrue(text, text.contains("720x540"));
+        assertTrue(text, text.contains("tiết kiệm 1708 KB/frame"));
+        assertFalse(text, text.contains("thấp hơn"));
+        assertTrue(config.describe(640, 480, 90, 0, 0).contains("thấp hơn mức cần 534 px"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidCropFraction_isRejected() {
+        AnalysisStreamConfig.forModel(320, 0f);
+    }
+}
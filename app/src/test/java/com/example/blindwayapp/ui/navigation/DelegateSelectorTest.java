@@ -0,0 +1,233 @@
+package com.example.blindwayapp.ui.navigation;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Kiểm tra DelegateSelector với các ứng viên giả: không cần TFLite hay thiết bị thật.
+ */
+public class DelegateSelectorTest {
+
+    private static final float[] REFERENCE_OUTPUT = {0.1f, 0.5f, 0.9f};
+
+    @Test
+    public void noGpuOrNnapi_fallsBackToFastestCpu() {
+        FakeCandidate cpu4 = FakeCandidate.working("cpu-4", 2_000_000, REFERENCE_OUTPUT);
+        FakeCandidate cpu1 = FakeCandidate.working("cpu-1", 6_000_000, REFERENCE_OUTPUT);
+        FakeCandidate nnapi = FakeCandidate.failingOpen("nnapi");
+        FakeCandidate gpu = FakeCandidate.failingOpen("gpu");
+        MapCache cache = new MapCache();
+
+        DelegateSelector.Selection selection =
+                selector(cache, cpu4, cpu1, nnapi, gpu).select("device/model");
+
+        assertEquals("cpu-4", selection.candidateId);
+        assertFalse(selection.fromCache);
+        assertEquals("cpu-4", cache.get("device/model"));
+        assertEquals(4, selection.measurements.size());
+        assertFalse(cpu4.closed);
+        assertTrue(cpu1.closed);
+    }
+
+    @Test
+    public void fasterCandidateWithWrongOutput_isRejected() {
+        FakeCandidate cpu = FakeCandidate.working("cpu-4", 4_000_000, REFERENCE_OUTPUT);
+        FakeCandidate gpu = FakeCandidate.working("gpu", 500_000, new float[]{0.1f, 0.5f, 0.2f});
+
+        DelegateSelector.Selection selection = selector(new MapCache(), cpu, gpu).select("key");
+
+        assertEquals("cpu-4", selection.candidateId);
+        assertTrue(gpu.closed);
+        assertNotNull(selection.measurements.get(1).rejectedReason);
+    }
+
+    @Test
+    public void fasterEquivalentCandidate_isChosen() {
+        FakeCandidate cpu = FakeCandidate.working("cpu-4", 4_000_000, REFERENCE_OUTPUT);
+        FakeCandidate gpu = FakeCandidate.working("gpu", 500_000, new float[]{0.11f, 0.49f, 0.9f});
+
+        DelegateSelector.Selection selection = selector(new MapCache(), cpu, gpu).select("key");
+
+        assertEquals("gpu", selection.candidateId);
+        assertTrue(cpu.closed);
+        assertFalse(gpu.closed);
+    }
+
+    @Test
+    public void cachedChoice_skipsBenchmark() {
+        FakeCandidate cpu = FakeCandidate.working("cpu-4", 4_000_000, REFERENCE_OUTPUT);
+        FakeCandidate gpu = FakeCandidate.working("gpu", 500_000, REFERENCE_OUTPUT);
+        MapCache cache = new MapCache();
+        cache.put("key", "gpu");
+
+        DelegateSelector.Selection selection = selector(cache, cpu, gpu).select("key");
+
+        assertEquals("gpu", selection.candidateId);
+        assertTrue(selection.fromCache);
+        assertEquals(0, cpu.openCount);
+        assertEquals(1, gpu.runCount);
+    }
+
+    @Test
+    public void failingCachedChoice_isBenchmarkedAgain() {
+        FakeCandidate cpu = FakeCandidate.working("cpu-4", 4_000_000, REFERENCE_OUTPUT);
+        FakeCandidate gpu = FakeCandidate.failingOpen("gpu");
+        MapCache cache = new MapCache();
+        cache.put("key", "gpu");
+
+        DelegateSelector.Selection selection = selector(cache, cpu, gpu).select("key");
+
+        assertEquals("cpu-4", selection.candidateId);
+        assertFalse(selection.fromCache);
+        assertEquals("cpu-4", cache.get("key"));
+    }
+
+    @Test
+    public void candidateFailingDuringRun_isClosedAndSkipped() {
+        FakeCandidate cpu = FakeCandidate.working("cpu-4", 4_000_000, REFERENCE_OUTPUT);
+        FakeCandidate nnapi = FakeCandidate.working("nnapi", 100_000, REFERENCE_OUTPUT);
+        nnapi.failRun = true;
+
+        DelegateSelector.Selection selection = selector(new MapCache(), cpu, nnapi).select("key");
+
+        assertEquals("cpu-4", selection.candidateId);
+        assertTrue(nnapi.closed);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void nothingWorks_throws() {
+        selector(new MapCache(), FakeCandidate.failingOpen("cpu-4"), FakeCandidate.failingOpen("gpu"))
+                .select("key");
+    }
+
+    @Test
+    public void referenceFailing_abortsEvenIfAcceleratorsWork() {
+        FakeCandidate cpu = FakeCandidate.failingOpen("cpu-4");
+        FakeCandidate nnapi = FakeCandidate.working("nnapi", 100_000, REFERENCE_OUTPUT);
+        FakeCandidate gpu = FakeCandidate.working("gpu", 100_000, REFERENCE_OUTPUT);
+        MapCache cache = new MapCache();
+        try {
+            selector(cache, cpu, nnapi, gpu).select("key");
+            fail();
+        } catch (IllegalStateException expected) {
+            // GPU không được so với NNAPI khi thiếu kết quả CPU
+        }
+        assertEquals(0, nnapi.openCount);
+        assertEquals(0, gpu.openCount);
+        assertNull(cache.get("key"));
+    }
+
+    @Test
+    public void pixelBoxesWithFp16Error_areAccepted() {
+        float[] boxes = {312.4f, 208.9f, 64.2f, 0.93f};
+        FakeCandidate cpu = FakeCandidate.working("cpu-4", 4_000_000, boxes);
+        FakeCandidate gpu = FakeCandidate.working("gpu", 500_000, new float[]{312.6f, 208.8f, 64.3f, 0.92f});
+        FakeCandidate nnapi = FakeCandidate.working("nnapi", 300_000, new float[]{340f, 208.9f, 64.2f, 0.93f});
+
+        DelegateSelector.Selection selection = selector(new MapCache(), cpu, gpu, nnapi).select("key");
+
+        assertEquals("gpu", selection.candidateId);
+        assertNotNull(selection.measurements.get(2).rejectedReason);
+    }
+
+    @Test
+    public void maxRelativeDifference_treatsNaNAndLengthMismatchAsInfinite() {
+        assertEquals(Float.POSITIVE_INFINITY,
+                DelegateSelector.maxRelativeDifference(new float[]{1f}, new float[]{Float.NaN}), 0f);
+        assertEquals(Float.POSITIVE_INFINITY,
+                DelegateSelector.maxRelativeDifference(new float[]{1f}, new float[]{1f, 2f}), 0f);
+        assertEquals(0.25f,
+                DelegateSelector.maxRelativeDifference(new float[]{0.5f, 2f}, new float[]{0.5f, 2.5f}), 1e-6f);
+        assertEquals(0.2f,
+                DelegateSelector.maxRelativeDifference(new float[]{0.1f, 0f}, new float[]{0.3f, 0f}), 1e-6f);
+    }
+
+    private static DelegateSelector selector(MapCache cache, FakeCandidate... candidates) {
+        List<DelegateSelector.Candidate> list = new ArrayList<>(Arrays.asList(candidates));
+        return new DelegateSelector(list, cache, 1, 3, 0.05f);
+    }
+
+    private static final class MapCache implements DelegateSelector.ChoiceCache {
+        private final Map<String, String> values = new HashMap<>();
+
+        @Override
+        public String get(String key) {
+            return values.get(key);
+        }
+
+        @Override
+        public void put(String key, String candidateId) {
+            values.put(key, candidateId);
+        }
+    }
+
+    /** Ứng viên giả: mỗi lần chạy tốn một khoảng thời gian cố định và trả đầu ra cho trước. */
+    private static final class FakeCandidate implements DelegateSelector.Candidate {
+        private final String id;
+        private final long runNanos;
+        private final float[] output;
+        private final boolean failOpen;
+        boolean failRun;
+        int openCount;
+        int runCount;
+        boolean closed;
+
+        private FakeCandidate(String id, long runNanos, float[] output, boolean failOpen) {
+            this.id = id;
+            this.runNanos = runNanos;
+            this.output = output;
+            this.failOpen = failOpen;
+        }
+
+        static FakeCandidate working(String id, long runNanos, float[] output) {
+            return new FakeCandidate(id, runNanos, output, false);
+        }
+
+        static FakeCandidate failingOpen(String id) {
+            return new FakeCandidate(id, 0, null, true);
+        }
+
+        @Override
+        public String getId() {
+            return id;
+        }
+
+        @Override
+        public DelegateSelector.Trial open() {
+            openCount++;
+            if (failOpen) {
+                throw new UnsupportedOperationException(id + " không hỗ trợ");
+            }
+            return new DelegateSelector.Trial() {
+                @Override
+                public void run() {
+                    if (failRun) {
+                        throw new IllegalStateException("delegate lỗi");
+                    }
+                    runCount++;
+                    long end = System.nanoTime() + runNanos;
+                    while (System.nanoTime() < end) {
+                        Thread.onSpinWait();
+                    }
+                }
+
+                @Override
+                public float[] readOutput() {
+                    return output.clone();
+                }
+
+                @Override
+                public void close() {
+                    closed = true;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.blindwayapp.ui.navigation;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.*;
+
+public class EarconSynthesizerTest {
+
+    private static final int SAMPLE_RATE = 48000;
+
+    private final EarconSynthesizer synthesizer = new EarconSynthesizer(SAMPLE_RATE);
+    private final short[] out = new short[synthesizer.getToneFrames() * 2];
+
+    @Test
+    public void pan_movesEnergyBetweenChannels() {
+        synthesizer.render(0, -1f, out);
+        assertTrue(energy(out, 0) > 0);
+        assertEquals(0, energy(out, 1));
+
+        synthesizer.render(0, 1f, out);
+        assertEquals(0, energy(out, 0));
+        assertTrue(energy(out, 1) > 0);
+
+        synthesizer.render(0, 0f, out);
+        assertEquals(energy(out, 0), energy(out, 1), energy(out, 0) / 100);
+    }
+
+    @Test
+    public void pitch_followsDistanceBand() {
+        assertTrue(EarconSynthesizer.pitchForDistance(0.5f) < EarconSynthesizer.pitchForDistance(4f));
+        assertEquals(synthesizer.getPitchCount() - 1, EarconSynthesizer.pitchForDistance(50f));
+
+        for (int pitch = 0; pitch < synthesizer.getPitchCount(); pitch++) {
+            synthesizer.render(pitch, -1f, out);
+            float seconds = (float) synthesizer.getToneFrames() / SAMPLE_RATE;
+            float measured = zeroCrossings(out) / 2f / seconds;
+            assertEquals(EarconSynthesizer.pitchHz(pitch), measured, EarconSynthesizer.pitchHz(pitch) * 0.05f);
+        }
+    }
+
+    @Test
+    public void tone_fadesInAndOut() {
+        synthesizer.render(0, -1f, out);
+        assertEquals(0, out[0]);
+        assertTrue(Math.abs(out[out.length - 2]) < 200);
+    }
+
+    @Test
+    public void repeatInterval_shrinksAsObjectApproaches() {
+        assertEquals(150, EarconSynthesizer.repeatIntervalMillis(0.2f));
+        assertEquals(1000, EarconSynthesizer.repeatIntervalMillis(8f));
+        assertTrue(EarconSynthesizer.repeatIntervalMillis(1f) < EarconSynthesizer.repeatIntervalMillis(2f));
+    }
+
+    @Test
+    public void panForCenter_mapsFrameWidth() {
+        assertEquals(-1f, EarconSynthesizer.panForCenter(0f), 1e-6f);
+        assertEquals(0f, EarconSynthesizer.panForCenter(0.5f), 1e-6f);
+        assertEquals(1f, EarconSynthesizer.panForCenter(1.2f), 1e-6f);
+    }
+
+    @Test
+    public void render_allocatesNothing() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        org.junit.Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        org.junit.Assume.assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+        long threadId = Thread.currentThread().getId();
+
+        for (int i = 0; i < 1000; i++) {
+            synthesizer.render(i % synthesizer.getPitchCount(), (i % 21) / 10f - 1f, out);
+        }
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 1000; i++) {
+            synthesizer.render(i % synthesizer.getPitchCount(), (i % 21) / 10f - 1f, out);
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        assertTrue("Cấp phát " + allocated + " byte", allocated < 1000);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void render_rejectsShortBuffer() {
+        synthesizer.render(0, 0f, new short[10]);
+    }
+
+    private static long energy(short[] samples, int channel) {
+        long sum = 0;
+        for (int i = channel; i < samples.length; i += 2) {
+            sum += (long) samples[i] * samples[i];
+        }
+        return sum;
+    }
+
+    private static int zeroCrossings(short[] samples) {
+        int crossings = 0;
+        for (int i = 2; i < samples.length; i += 2) {
+            if ((samples[i - 2] < 0) != (samples[i] < 0)) {
+                crossings++;
+            }
+        }
+        return crossings;
+    }
+}
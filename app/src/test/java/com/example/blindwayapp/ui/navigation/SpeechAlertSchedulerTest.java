@@ -0,0 +1,98 @@
+package com.example.blindwayapp.ui.navigation;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class SpeechAlertSchedulerTest {
+
+    private static final long MS = 1_000_000L;
+
+    private final RecordingOutput output = new RecordingOutput();
+    private final SpeechAlertScheduler scheduler = new SpeechAlertScheduler(output, 1500);
+
+    @Test
+    public void urgentAlert_interruptsLowerPriority() {
+        scheduler.submit(AlertPolicy.Priority.INFO, "thông tin", 0);
+        scheduler.submit(AlertPolicy.Priority.IMMINENT, "dừng lại", 10 * MS);
+
+        assertEquals(2, output.texts.size());
+        assertEquals("dừng lại", output.texts.get(1));
+        assertTrue(output.interrupts.get(1));
+
+        // Callback kết thúc của câu bị cắt không làm hỏng trạng thái
+        scheduler.onSpeechFinished(output.ids.get(0), 20 * MS);
+        assertTrue(scheduler.isSpeaking());
+    }
+
+    @Test
+    public void lowerPriority_waitsAndKeepsOnlyLatest() {
+        scheduler.submit(AlertPolicy.Priority.WALL, "tường", 0);
+        scheduler.submit(AlertPolicy.Priority.INFO, "cũ", 10 * MS);
+        scheduler.submit(AlertPolicy.Priority.INFO, "mới", 20 * MS);
+        assertEquals(1, output.texts.size());
+
+        scheduler.onSpeechFinished(output.ids.get(0), 800 * MS);
+
+        assertEquals(2, output.texts.size());
+        assertEquals("mới", output.texts.get(1));
+        assertFalse(output.interrupts.get(1));
+    }
+
+    @Test
+    public void stalePendingAlert_isDropped() {
+        scheduler.submit(AlertPolicy.Priority.IMMINENT, "dừng lại", 0);
+        scheduler.submit(AlertPolicy.Priority.INFO, "thông tin", 10 * MS);
+
+        scheduler.onSpeechFinished(output.ids.get(0), 3000 * MS);
+
+        assertEquals(1, output.texts.size());
+        assertFalse(scheduler.isSpeaking());
+    }
+
+    @Test
+    public void measuresLatencyFromDetectionToSpeechStart() {
+        scheduler.submit(AlertPolicy.Priority.INFO, "một", 100 * MS);
+        scheduler.onSpeechStarted(output.ids.get(0), 180 * MS);
+        scheduler.onSpeechFinished(output.ids.get(0), 900 * MS);
+        scheduler.submit(AlertPolicy.Priority.INFO, "hai", 1000 * MS);
+        scheduler.onSpeechStarted(output.ids.get(1), 1040 * MS);
+
+        assertEquals(2, scheduler.getStartedCount());
+        assertEquals(40f, scheduler.getLastStartLatencyMillis(), 1e-3f);
+        assertEquals(60f, scheduler.getAverageStartLatencyMillis(), 1e-3f);
+        assertEquals(80f, scheduler.getMaxStartLatencyMillis(), 1e-3f);
+    }
+
+    @Test
+    public void failedSpeak_doesNotBlockQueue() {
+        output.accept = false;
+        scheduler.submit(AlertPolicy.Priority.INFO, "một", 0);
+        assertFalse(scheduler.isSpeaking());
+
+        output.accept = true;
+        scheduler.submit(AlertPolicy.Priority.INFO, "hai", 0);
+        assertTrue(scheduler.isSpeaking());
+    }
+
+    private static final class RecordingOutput implements SpeechAlertScheduler.Output {
+        final List<String> texts = new ArrayList<>();
+        final List<String> ids = new ArrayList<>();
+        final List<Boolean> interrupts = new ArrayList<>();
+        boolean accept = true;
+
+        @Override
+        public boolean speak(String text, String utteranceId, boolean interrupt) {
+            if (!accept) {
+                return false;
+            }
+            texts.add(text);
+            ids.add(utteranceId);
+            interrupts.add(interrupt);
+            return true;
+        }
+    }
+}
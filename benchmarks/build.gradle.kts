@@ -0,0 +1,29 @@
+// Benchmark JMH cho đường xử lý frame trong :core, chạy trên JVM Linux thường:
+//
+//   ./gradlew :benchmarks:jmh
+//   ./gradlew :benchmarks:jmh -PjmhIncludes=NonMaxSuppressionBenchmark
+//
+// Kết quả JSON ở benchmarks/build/results/jmh/results.json, lưu lại theo từng bản phát hành để so sánh.
+
+plugins {
+    java
+    alias(libs.plugins.jmh)
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+dependencies {
+    jmh(project(":core"))
+}
+
+jmh {
+    jmhVersion.set(libs.versions.jmh)
+    warmupIterations.set(3)
+    iterations.set(5)
+    fork.set(1)
+    resultFormat.set("JSON")
+    (findProperty("jmhIncludes") as String?)?.let { includes.set(listOf(it)) }
+}
@@ -0,0 +1,78 @@
+package com.example.blindwayapp.location;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * k địa điểm gần nhất trong 100.000 địa điểm rải trên khoảng 22 x 22 km quanh Hà Nội: tìm thẳng
+ * trong chỉ mục, và NearbyPlacesTracker khi đi bộ (chủ yếu chỉ tính lại khoảng cách ứng viên).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class PlaceIndexBenchmark {
+
+    private static final double LAT = 21.028515;
+    private static final double LON = 105.804820;
+    private static final double SPAN_DEGREES = 0.2;
+    private static final int QUERIES = 1024;
+
+    @Param({"100000"})
+    public int places;
+
+    @Param({"10"})
+    public int k;
+
+    @Param({"500", "2000"})
+    public float radiusMeters;
+
+    private PlaceIndex index;
+    private NearbyPlacesTracker tracker;
+    private final List<NearbyPlace> out = new ArrayList<>();
+    private double[] queryLatitudes;
+    private double[] queryLongitudes;
+    private int next;
+    private int step;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(23);
+        index = new PlaceIndex();
+        for (int i = 0; i < places; i++) {
+            index.put(new Place(i, "Địa điểm " + i, "", "",
+                    LAT + (random.nextDouble() - 0.5) * SPAN_DEGREES,
+                    LON + (random.nextDouble() - 0.5) * SPAN_DEGREES));
+        }
+        queryLatitudes = new double[QUERIES];
+        queryLongitudes = new double[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            queryLatitudes[i] = LAT + (random.nextDouble() - 0.5) * SPAN_DEGREES;
+            queryLongitudes[i] = LON + (random.nextDouble() - 0.5) * SPAN_DEGREES;
+        }
+        tracker = new NearbyPlacesTracker(index::nearest, radiusMeters, k, 100f, 8 * k);
+    }
+
+    @Benchmark
+    public int nearest() {
+        int i = next++ & (QUERIES - 1);
+        return index.nearest(queryLatitudes[i], queryLongitudes[i], radiusMeters, k, out);
+    }
+
+    /** Đi bộ 1,2 m/s theo hướng bắc, mỗi lần gọi là một vị trí mới. */
+    @Benchmark
+    public int walkingTracker() {
+        double lat = LAT + 1.2 * (step++ % 10_000) / PlaceIndex.METERS_PER_DEGREE;
+        return tracker.update(lat, LON).size();
+    }
+}
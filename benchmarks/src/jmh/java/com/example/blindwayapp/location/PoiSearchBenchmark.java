@@ -0,0 +1,71 @@
+package com.example.blindwayapp.location;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tìm địa điểm ngoại tuyến trong 100.000 địa điểm quanh Hà Nội, từ chữ cái đầu tiên (nhiều
+ * ứng viên nhất) tới tên đầy đủ nhiều từ. Chỉ mục nằm trong direct buffer như khi ánh xạ file.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class PoiSearchBenchmark {
+
+    private static final double LAT = 21.028515;
+    private static final double LON = 105.804820;
+    private static final String[] WORDS = {"Bến", "xe", "Chợ", "Phở", "Cà", "phê", "Trường", "Bệnh", "viện",
+            "Nhà", "sách", "Ngân", "hàng", "Siêu", "thị", "Công", "viên", "Hồ", "Tây", "Lê", "Lợi", "Trần",
+            "Hưng", "Đạo", "Nguyễn", "Trãi", "Kim", "Mã", "Cầu", "Giấy", "Đống", "Đa", "Hoàn", "Kiếm"};
+    private static final String[] CATEGORIES = {"Vận chuyển & Hậu cần", "Ẩm thực & Nhà hàng",
+            "Y tế & Sức khỏe", "Giáo dục & Học tập", "Cửa hàng mua sắm"};
+
+    @Param({"100000"})
+    public int places;
+
+    @Param({"b", "ben xe", "nguyen trai", "ca phe ho tay"})
+    public String query;
+
+    private PoiSearchIndex index;
+    private final List<PoiMatch> out = new ArrayList<>();
+
+    @Setup
+    public void setUp() throws IOException {
+        Random random = new Random(29);
+        PoiIndexWriter writer = new PoiIndexWriter();
+        for (int i = 0; i < places; i++) {
+            StringBuilder name = new StringBuilder();
+            int length = 2 + random.nextInt(3);
+            for (int w = 0; w < length; w++) {
+                name.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+            }
+            name.append(i);
+            writer.add(name.toString(), CATEGORIES[random.nextInt(CATEGORIES.length)],
+                    LAT + (random.nextDouble() - 0.5) * 0.2, LON + (random.nextDouble() - 0.5) * 0.2);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        writer.writeTo(bytes);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.size());
+        buffer.put(bytes.toByteArray()).flip();
+        index = new PoiSearchIndex(buffer);
+    }
+
+    @Benchmark
+    public int search() {
+        return index.search(query, LAT, LON, 20, out);
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.blindwayapp.routing;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tìm đường đi bộ trên lưới side x side nút cách nhau 50 m (500 x 500 là 250.000 nút, khoảng 25 x 25 km),
+ * bỏ ngẫu nhiên 15% đoạn đường để có đường vòng. Đồ thị nằm trong direct buffer như khi ánh xạ file.
+ * route: tuyến 2-5 km; reroute: tìm lại sau khi lệch sang nút bên cạnh một điểm trên tuyến.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class WalkRouterBenchmark {
+
+    private static final double LAT = 21.028515;
+    private static final double LON = 105.804820;
+    private static final double LAT_STEP = 0.00045;
+    private static final double LON_STEP = 0.00048;
+    private static final int QUERIES = 64;
+
+    @Param({"500"})
+    public int side;
+
+    private WalkGraph graph;
+    private WalkRouter router;
+    private int[] sources;
+    private int[] targets;
+    private Route[] routes;
+    private int[] deviations;
+    private int[] rejoinIndices;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        Random random = new Random(13);
+        WalkGraphWriter writer = new WalkGraphWriter();
+        for (int r = 0; r < side; r++) {
+            for (int c = 0; c < side; c++) {
+                writer.addNode(LAT + r * LAT_STEP, LON + c * LON_STEP);
+            }
+        }
+        for (int r = 0; r < side; r++) {
+            for (int c = 0; c < side; c++) {
+                int node = r * side + c;
+                if (c + 1 < side && random.nextDouble() >= 0.15) {
+                    writer.addEdge(node, node + 1, "Phố " + r);
+                }
+                if (r + 1 < side && random.nextDouble() >= 0.15) {
+                    writer.addEdge(node, node + side, "Ngõ " + c);
+                }
+            }
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        writer.writeTo(bytes);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.size());
+        buffer.put(bytes.toByteArray()).flip();
+        graph = new WalkGraph(buffer);
+        router = new WalkRouter(graph);
+
+        sources = new int[QUERIES];
+        targets = new int[QUERIES];
+        routes = new Route[QUERIES];
+        deviations = new int[QUERIES];
+        rejoinIndices = new int[QUERIES];
+        int margin = side / 5;
+        for (int i = 0; i < QUERIES; i++) {
+            Route route;
+            do {
+                int r = margin + random.nextInt(side - 2 * margin);
+                int c = margin + random.nextInt(side - 2 * margin);
+                sources[i] = node(r, c);
+                targets[i] = node(r + random.nextInt(2 * margin) - margin, c + margin / 2 + random.nextInt(margin));
+                route = router.route(sources[i], targets[i]);
+            } while (route == null || route.size() < 10);
+            routes[i] = route;
+            int index = 1 + random.nextInt(route.size() / 2);
+            int node = route.node(index);
+            deviations[i] = graph.edgeTarget(graph.firstEdge(node) + random.nextInt(graph.degree(node)));
+            rejoinIndices[i] = index + 1;
+        }
+    }
+
+    @Benchmark
+    public Route route() {
+        int i = next++ & (QUERIES - 1);
+        return router.route(sources[i], targets[i]);
+    }
+
+    @Benchmark
+    public Route reroute() {
+        int i = next++ & (QUERIES - 1);
+        return router.reroute(deviations[i], routes[i], rejoinIndices[i]);
+    }
+
+    private int node(int r, int c) {
+        return graph.nearestNode(LAT + r * LAT_STEP, LON + c * LON_STEP, 1f);
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.blindwayapp.ui.navigation;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Giải mã đầu ra YOLOv8 [1, 84, 8400] (80 lớp) kèm top-K và NMS, với đầu ra số thực và
+ * lượng tử hóa UINT8. Phần lớn anchor điểm thấp, vài trăm anchor quanh 12 vật thể điểm cao.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class DetectionDecoderBenchmark {
+
+    private static final int ANCHORS = 8400;
+    private static final int CLASSES = 80;
+    private static final int INPUT_SIZE = 640;
+
+    @Param({"FLOAT32", "UINT8"})
+    public TensorSpec.DataType outputType;
+
+    private DetectionDecoder decoder;
+    private ByteBuffer output;
+    private DetectionList result;
+
+    @Setup
+    public void setUp() {
+        String[] labels = new String[CLASSES];
+        for (int i = 0; i < CLASSES; i++) {
+            labels[i] = "lớp " + i;
+        }
+        float scale = outputType == TensorSpec.DataType.UINT8 ? 1f / 255 : 0f;
+        TensorSpec outputSpec = new TensorSpec(outputType, new int[]{1, 4 + CLASSES, ANCHORS}, scale, 0);
+        TensorSpec inputSpec = new TensorSpec(TensorSpec.DataType.UINT8, new int[]{1, INPUT_SIZE, INPUT_SIZE, 3}, 0f, 0);
+        decoder = new DetectionDecoder(new ModelSpec(inputSpec, outputSpec), labels);
+        result = new DetectionList(decoder.getMaxResults());
+        output = syntheticOutput(outputSpec, new Random(11));
+    }
+
+    @Benchmark
+    public DetectionList decode() {
+        decoder.decode(output, 480, 640, result);
+        return result;
+    }
+
+    /** Tọa độ chuẩn hóa 0..1 để cùng một dữ liệu biểu diễn được ở cả hai kiểu tensor. */
+    private static ByteBuffer syntheticOutput(TensorSpec spec, Random random) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(spec.numBytes()).order(ByteOrder.nativeOrder());
+        for (int i = 0; i < ANCHORS; i++) {
+            put(spec, buffer, 0, i, random.nextFloat());
+            put(spec, buffer, 1, i, random.nextFloat());
+            put(spec, buffer, 2, i, 0.03f + 0.15f * random.nextFloat());
+            put(spec, buffer, 3, i, 0.03f + 0.15f * random.nextFloat());
+            for (int c = 0; c < CLASSES; c++) {
+                put(spec, buffer, 4 + c, i, 0.3f * random.nextFloat());
+            }
+        }
+        for (int object = 0; object < 12; object++) {
+            float cx = 0.1f + 0.8f * random.nextFloat();
+            float cy = 0.1f + 0.8f * random.nextFloat();
+            int objectClass = random.nextInt(CLASSES);
+            for (int k = 0; k < 30; k++) {
+                int anchor = random.nextInt(ANCHORS);
+                put(spec, buffer, 0, anchor, cx + 0.006f * (float) random.nextGaussian());
+                put(spec, buffer, 1, anchor, cy + 0.006f * (float) random.nextGaussian());
+                put(spec, buffer, 2, anchor, 0.12f);
+                put(spec, buffer, 3, anchor, 0.19f);
+                put(spec, buffer, 4 + objectClass, anchor, 0.5f + 0.5f * random.nextFloat());
+            }
+        }
+        return buffer;
+    }
+
+    private static void put(TensorSpec spec, ByteBuffer buffer, int row, int anchor, float value) {
+        int index = row * ANCHORS + anchor;
+        if (spec.dataType == TensorSpec.DataType.FLOAT32) {
+            buffer.putFloat(index * 4, value);
+        } else {
+            buffer.put(index, (byte) Math.max(0, Math.min(255, Math.round(value * 255))));
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.blindwayapp.ui.navigation;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Khoảng cách mặt đất: tra bảng (đường nóng, mỗi detection một lần) so với công thức đầy đủ,
+ * và chi phí dựng lại bảng khi độ nghiêng máy đổi.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class DistanceBenchmark {
+
+    // Số hàng chân vật thể mỗi lần gọi, cỡ số detection của một frame đông
+    private static final int ROWS = 64;
+
+    private final float[] rows = new float[ROWS];
+    private DistanceEstimator estimator;
+    private float focal;
+    private float pitch;
+
+    @Setup
+    public void setUp() {
+        for (int i = 0; i < ROWS; i++) {
+            rows[i] = (i + 0.5f) / ROWS;
+        }
+        estimator = new DistanceEstimator(CameraIntrinsics.DEFAULT);
+        focal = CameraIntrinsics.DEFAULT.verticalFocalNormalized();
+        pitch = DistanceEstimator.DEFAULT_PITCH_RADIANS;
+    }
+
+    @Benchmark
+    public void lookupTable(Blackhole blackhole) {
+        for (float row : rows) {
+            blackhole.consume(estimator.estimate(row));
+        }
+    }
+
+    @Benchmark
+    public void fullFormula(Blackhole blackhole) {
+        for (float row : rows) {
+            blackhole.consume(DistanceLookupTable.groundDistance(
+                    row, DistanceEstimator.DEFAULT_CAMERA_HEIGHT, pitch, focal));
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public DistanceLookupTable rebuildTable() {
+        return new DistanceLookupTable(DistanceEstimator.TABLE_ROWS, DistanceEstimator.DEFAULT_CAMERA_HEIGHT,
+                pitch, focal);
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.blindwayapp.ui.navigation;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Quét khoảng trống phía trước trên plane Y 640x480 xoay 90°, chạy mỗi frame kể cả khi không
+ * chạy model. Cảnh: mặt đất xám, nhà sáng phía trên, vật cản tối ở giữa.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class FreeSpaceBenchmark {
+
+    private static final int SENSOR_WIDTH = 640;
+    private static final int SENSOR_HEIGHT = 480;
+    private static final int ROW_STRIDE = 704;
+
+    private FreeSpaceEstimator estimator;
+    private ByteBuffer yPlane;
+
+    @Setup
+    public void setUp() {
+        DistanceEstimator distance = new DistanceEstimator(CameraIntrinsics.DEFAULT);
+        distance.updatePitch((float) Math.toRadians(10));
+        estimator = new FreeSpaceEstimator(distance);
+
+        // Xoay 90°: hàng cảm biến y là cột x = SENSOR_HEIGHT - 1 - y của ảnh dọc
+        Random random = new Random(3);
+        yPlane = ByteBuffer.allocateDirect(ROW_STRIDE * SENSOR_HEIGHT);
+        for (int y = 0; y < SENSOR_HEIGHT; y++) {
+            for (int x = 0; x < SENSOR_WIDTH; x++) {
+                float ux = (SENSOR_HEIGHT - y - 0.5f) / SENSOR_HEIGHT;
+                float uy = (x + 0.5f) / SENSOR_WIDTH;
+                int luma;
+                if (ux > 0.35f && ux < 0.65f && uy > 0.3f && uy < 0.6f) {
+                    luma = 40;
+                } else if (uy < 0.12f) {
+                    luma = 210;
+                } else {
+                    luma = 120;
+                }
+                yPlane.put(y * ROW_STRIDE + x, (byte) (luma + random.nextInt(7) - 3));
+            }
+        }
+    }
+
+    @Benchmark
+    public float update() {
+        estimator.update(yPlane, ROW_STRIDE, SENSOR_WIDTH, SENSOR_HEIGHT, 90);
+        return estimator.getCenterFreeDistance();
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.blindwayapp.ui.navigation;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Top-K + NMS theo lớp trên số ứng viên từ đầu ra đã lọc ngưỡng (100) tới toàn bộ anchor YOLOv8 (8.400).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class NonMaxSuppressionBenchmark {
+
+    private static final int CLASSES = 80;
+    private static final float IOU_THRESHOLD = 0.45f;
+
+    @Param({"100", "1000", "8400"})
+    public int candidates;
+
+    @Param({"300"})
+    public int topK;
+
+    private float[] boxes;
+    private float[] scores;
+    private int[] classes;
+    private NonMaxSuppression nms;
+    private int[] keep;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(13);
+        boxes = new float[candidates * 4];
+        scores = new float[candidates];
+        classes = new int[candidates];
+        // Ứng viên dồn quanh 12 vật thể như đầu ra model thật, nên NMS có nhiều hộp để loại
+        float[] centers = new float[24];
+        for (int i = 0; i < centers.length; i++) {
+            centers[i] = 0.1f + 0.8f * random.nextFloat();
+        }
+        for (int i = 0; i < candidates; i++) {
+            int object = random.nextInt(12);
+            float cx = centers[object * 2] + 0.02f * (float) random.nextGaussian();
+            float cy = centers[object * 2 + 1] + 0.02f * (float) random.nextGaussian();
+            float half = 0.05f + 0.05f * random.nextFloat();
+            boxes[i * 4] = cx - half;
+            boxes[i * 4 + 1] = cy - half;
+            boxes[i * 4 + 2] = cx + half;
+            boxes[i * 4 + 3] = cy + half;
+            scores[i] = random.nextFloat();
+            classes[i] = random.nextInt(4) == 0 ? random.nextInt(CLASSES) : object;
+        }
+        nms = new NonMaxSuppression(topK);
+        keep = new int[DetectionDecoder.MAX_RESULTS];
+    }
+
+    @Benchmark
+    public int apply() {
+        return nms.apply(boxes, scores, classes, candidates, IOU_THRESHOLD, keep);
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.blindwayapp.ui.navigation;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Một frame của tracker: update với các detection mới rồi predict cho frame ngoại suy giữa hai lần
+ * chạy model. Các vật thể rung nhẹ quanh chỗ cũ nên mọi track đều được ghép lại mỗi frame.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class ObjectTrackerBenchmark {
+
+    private static final long FRAME_NANOS = 100_000_000L;
+    private static final int FRAME_WIDTH = 480;
+
+    @Param({"20", "300"})
+    public int objects;
+
+    private ObjectTracker tracker;
+    private DetectionList detections;
+    private DetectionList out;
+    private float[] x;
+    private float[] y;
+    private float[] phase;
+    private int frame;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(17);
+        x = new float[objects];
+        y = new float[objects];
+        phase = new float[objects];
+        for (int i = 0; i < objects; i++) {
+            // Mỗi vật thể một ô riêng trên lưới 20 cột để không chồng lấn nhau
+            x[i] = (i % 20) / 20f + 0.005f;
+            y[i] = (i / 20) / 15f + 0.005f;
+            phase[i] = (float) (2 * Math.PI * random.nextDouble());
+        }
+        tracker = new ObjectTracker(objects, 0.3f, 2, 1000);
+        detections = new DetectionList(objects);
+        out = new DetectionList(objects);
+    }
+
+    @Benchmark
+    public DetectionList updateAndPredict() {
+        detections.clear();
+        for (int i = 0; i < objects; i++) {
+            float left = x[i] + 0.005f * (float) Math.sin(0.2f * frame + phase[i]);
+            float top = y[i] + 0.005f * (float) Math.cos(0.2f * frame + phase[i]);
+            detections.obtain().set("người", 0.9f, left, top, left + 0.04f, top + 0.05f, 3f, null);
+        }
+        long timestamp = frame * FRAME_NANOS;
+        tracker.update(detections, timestamp);
+        tracker.predict(timestamp + FRAME_NANOS / 2, FRAME_WIDTH, out);
+        frame++;
+        return out;
+    }
+}
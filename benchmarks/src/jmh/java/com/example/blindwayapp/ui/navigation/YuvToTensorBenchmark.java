@@ -0,0 +1,77 @@
+package com.example.blindwayapp.ui.navigation;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chuyển frame YUV_420_888 640x480 (U/V xen kẽ như NV21) sang tensor: xoay, thu nhỏ, đổi màu
+ * và ghi tensor UINT8 hoặc FLOAT32 chuẩn hóa trong một lượt.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class YuvToTensorBenchmark {
+
+    private static final int WIDTH = 640;
+    private static final int HEIGHT = 480;
+
+    @Param({"UINT8", "FLOAT32"})
+    public TensorSpec.DataType dataType;
+
+    @Param({"0", "90"})
+    public int rotation;
+
+    @Param({"320"})
+    public int inputSize;
+
+    private ByteBuffer yPlane;
+    private ByteBuffer uPlane;
+    private ByteBuffer vPlane;
+    private YuvToTensorConverter fullFrame;
+    private YuvToTensorConverter corridor;
+    private ByteBuffer out;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(7);
+        yPlane = randomPlane(random, WIDTH * HEIGHT);
+        uPlane = randomPlane(random, WIDTH * HEIGHT / 2);
+        vPlane = randomPlane(random, WIDTH * HEIGHT / 2);
+
+        fullFrame = new YuvToTensorConverter(inputSize, inputSize, dataType);
+        corridor = new YuvToTensorConverter(inputSize, inputSize, dataType);
+        corridor.setCrop(0.2f, 0.55f, 0.8f, 1f);
+        out = ByteBuffer.allocateDirect(fullFrame.getOutputSize()).order(ByteOrder.nativeOrder());
+    }
+
+    @Benchmark
+    public ByteBuffer convertFullFrame() {
+        fullFrame.convert(yPlane, WIDTH, uPlane, vPlane, WIDTH, 2, WIDTH, HEIGHT, rotation, out);
+        return out;
+    }
+
+    @Benchmark
+    public ByteBuffer convertCorridorCrop() {
+        corridor.convert(yPlane, WIDTH, uPlane, vPlane, WIDTH, 2, WIDTH, HEIGHT, rotation, out);
+        return out;
+    }
+
+    private static ByteBuffer randomPlane(Random random, int size) {
+        byte[] bytes = new byte[size];
+        random.nextBytes(bytes);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(size);
+        buffer.put(bytes).rewind();
+        return buffer;
+    }
+}
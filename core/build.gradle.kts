@@ -0,0 +1,16 @@
+// Thuật toán thuần Java (xử lý frame: YUV sang tensor, giải mã, NMS, khoảng cách, tracker, pipeline;
+// chỉ mục địa điểm, đồ thị và tìm đường đi bộ). Không phụ thuộc Android nên test và benchmark chạy
+// trên JVM thường.
+
+plugins {
+    `java-library`
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+dependencies {
+    testImplementation(libs.junit)
+}
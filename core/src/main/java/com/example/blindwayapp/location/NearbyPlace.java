@@ -0,0 +1,13 @@
+package com.example.blindwayapp.location;
+
+/** Một kết quả tìm quanh vị trí: địa điểm và khoảng cách tới nó lúc tìm. */
+public final class NearbyPlace {
+
+    public final Place place;
+    public final float distanceMeters;
+
+    public NearbyPlace(Place place, float distanceMeters) {
+        this.place = place;
+        this.distanceMeters = distanceMeters;
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.blindwayapp.location;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Giữ danh sách địa điểm gần nhất khi vị trí thay đổi liên tục mà không phải tìm lại trong chỉ
+ * mục mỗi lần có vị trí mới.
+ *
+ * Mỗi lần tìm lấy thêm các ứng viên trong bán kính mở rộng (bán kính + lề) quanh điểm neo. Khi
+ * người dùng mới đi được quãng d, mọi địa điểm ngoài tập ứng viên cách vị trí mới hơn
+ * (phạm vi phủ - d), nên chỉ cần tính lại khoảng cách cho các ứng viên; kết quả còn đúng nếu
+ * phạm vi đó vẫn chứa bán kính tìm hoặc chứa đủ k kết quả. Ngược lại mới tìm lại trong chỉ mục.
+ *
+ * Không đồng bộ; dùng trên một luồng.
+ */
+public class NearbyPlacesTracker {
+
+    /** Tìm trong chỉ mục, cùng ý nghĩa với {@link PlaceIndex#nearest}. */
+    public interface Searcher {
+        int nearest(double latitude, double longitude, float radiusMeters, int maxCount, List<NearbyPlace> out);
+    }
+
+    private final Searcher searcher;
+    private final float radiusMeters;
+    private final int maxCount;
+    private final float marginMeters;
+    private final int maxCandidates;
+
+    private final List<NearbyPlace> candidates = new ArrayList<>();
+    private final List<NearbyPlace> scratch = new ArrayList<>();
+    private double anchorLatitude;
+    private double anchorLongitude;
+    // Mọi địa điểm cách điểm neo không quá khoảng này đều nằm trong tập ứng viên
+    private float coverageMeters;
+    private boolean valid;
+    private int searchCount;
+
+    /**
+     * @param radiusMeters  chỉ trả về địa điểm trong bán kính này
+     * @param maxCount      số kết quả tối đa
+     * @param marginMeters  quãng đi được trước khi phải tìm lại (nếu các ứng viên không đủ)
+     * @param maxCandidates giới hạn tập ứng viên; đầy thì phạm vi phủ co lại theo ứng viên xa nhất
+     */
+    public NearbyPlacesTracker(Searcher searcher, float radiusMeters, int maxCount, float marginMeters,
+                               int maxCandidates) {
+        if (maxCandidates < maxCount) {
+            throw new IllegalArgumentException("Số ứng viên phải không nhỏ hơn số kết quả");
+        }
+        this.searcher = searcher;
+        this.radiusMeters = radiusMeters;
+        this.maxCount = maxCount;
+        this.marginMeters = marginMeters;
+        this.maxCandidates = maxCandidates;
+    }
+
+    /** @return danh sách mới (không bị sửa về sau), gần nhất trước */
+    public List<NearbyPlace> update(double latitude, double longitude) {
+        if (!valid) {
+            search(latitude, longitude);
+        }
+        List<NearbyPlace> result = rank(latitude, longitude);
+        if (!covers(result, latitude, longitude)) {
+            search(latitude, longitude);
+            result = rank(latitude, longitude);
+        }
+        return result;
+    }
+
+    /** Gọi khi dữ liệu trong chỉ mục thay đổi. */
+    public void invalidate() {
+        valid = false;
+    }
+
+    /** Số lần đã tìm trong chỉ mục. */
+    public int getSearchCount() {
+        return searchCount;
+    }
+
+    private void search(double latitude, double longitude) {
+        searchCount++;
+        float searchRadius = radiusMeters + marginMeters;
+        int found = searcher.nearest(latitude, longitude, searchRadius, maxCandidates, candidates);
+        coverageMeters = found == maxCandidates ? candidates.get(found - 1).distanceMeters : searchRadius;
+        anchorLatitude = latitude;
+        anchorLongitude = longitude;
+        valid = true;
+    }
+
+    private List<NearbyPlace> rank(double latitude, double longitude) {
+        scratch.clear();
+        for (int i = 0; i < candidates.size(); i++) {
+            Place place = candidates.get(i).place;
+            float distance = PlaceIndex.distanceMeters(latitude, longitude, place.latitude, place.longitude);
+            if (distance <= radiusMeters) {
+                scratch.add(new NearbyPlace(place, distance));
+            }
+        }
+        Collections.sort(scratch, (a, b) -> Float.compare(a.distanceMeters, b.distanceMeters));
+        return new ArrayList<>(scratch.subList(0, Math.min(maxCount, scratch.size())));
+    }
+
+    private boolean covers(List<NearbyPlace> result, double latitude, double longitude) {
+        float moved = PlaceIndex.distanceMeters(anchorLatitude, anchorLongitude, latitude, longitude);
+        float limit = coverageMeters - moved;
+        if (limit >= radiusMeters) {
+            return true;
+        }
+        return result.size() == maxCount && result.get(maxCount - 1).distanceMeters <= limit;
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.blindwayapp.location;
+
+/** Một địa điểm đã lưu hoặc nhập từ dữ liệu có sẵn; bất biến, định danh bằng id. */
+public final class Place {
+
+    public final long id;
+    public final String name;
+    /** Địa chỉ hoặc mô tả ngắn, chuỗi rỗng nếu không có. */
+    public final String detail;
+    public final String category;
+    public final double latitude;
+    public final double longitude;
+
+    public Place(long id, String name, String detail, String category, double latitude, double longitude) {
+        this.id = id;
+        this.name = name;
+        this.detail = detail;
+        this.category = category;
+        this.latitude = latitude;
+        this.longitude = longitude;
+    }
+
+    /** true nếu hai bản ghi hiển thị giống nhau (không so id). */
+    public boolean sameContent(Place other) {
+        return name.equals(other.name) && detail.equals(other.detail) && category.equals(other.category)
+                && latitude == other.latitude && longitude == other.longitude;
+    }
+
+    @Override
+    public String toString() {
+        return name + " (" + latitude + ", " + longitude + ")";
+    }
+}
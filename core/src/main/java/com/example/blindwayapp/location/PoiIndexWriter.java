@@ -0,0 +1,181 @@
+package com.example.blindwayapp.location;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Dựng file chỉ mục tìm kiếm địa điểm ngoại tuyến cho {@link PoiSearchIndex}, chạy lúc build
+ * (module :poiindex) hoặc trong test.
+ *
+ * Định dạng (số nguyên big-endian, mọi offset tính từ đầu file):
+ * <pre>
+ * header      MAGIC, VERSION, số địa điểm, số loại, số từ, offset bảng địa điểm, bảng loại,
+ *             bảng từ, danh sách địa điểm theo từ, vùng chuỗi
+ * bảng loại   mỗi loại: offset tên, offset tên đã chuẩn hóa
+ * địa điểm    mỗi địa điểm: vĩ độ x 1e7, kinh độ x 1e7, offset tên, offset tên đã chuẩn hóa, loại
+ * bảng từ     từ đã chuẩn hóa sắp theo byte UTF-8: offset từ, vị trí đầu và số địa điểm có từ đó
+ * chuỗi       mỗi chuỗi: độ dài (2 byte) rồi các byte UTF-8
+ * </pre>
+ * Các bảng có kích thước cố định nên đọc thẳng từ file ánh xạ bộ nhớ, không phải giải mã trước.
+ */
+public class PoiIndexWriter {
+
+    static final int MAGIC = 0x42575049; // "BWPI"
+    static final int VERSION = 1;
+    static final int HEADER_INTS = 10;
+    static final int CATEGORY_INTS = 2;
+    static final int POI_INTS = 5;
+    static final int TOKEN_INTS = 3;
+    static final double COORDINATE_SCALE = 1e7;
+    private static final int MAX_STRING_BYTES = 0xFFFF;
+
+    private final List<String> names = new ArrayList<>();
+    private final List<Integer> categories = new ArrayList<>();
+    private final List<double[]> coordinates = new ArrayList<>();
+    private final List<String> categoryNames = new ArrayList<>();
+    private final Map<String, Integer> categoryIds = new HashMap<>();
+
+    /** @return số thứ tự của địa điểm trong chỉ mục */
+    public int add(String name, String category, double latitude, double longitude) {
+        Integer categoryId = categoryIds.get(category);
+        if (categoryId == null) {
+            categoryId = categoryNames.size();
+            categoryNames.add(category);
+            categoryIds.put(category, categoryId);
+        }
+        names.add(name);
+        categories.add(categoryId);
+        coordinates.add(new double[]{latitude, longitude});
+        return names.size() - 1;
+    }
+
+    public int size() {
+        return names.size();
+    }
+
+    public void writeTo(OutputStream stream) throws IOException {
+        ByteArrayOutputStream strings = new ByteArrayOutputStream();
+        DataOutputStream stringOut = new DataOutputStream(strings);
+
+        // Từ của tên và của loại, sắp theo byte UTF-8 để tìm tiền tố bằng tìm kiếm nhị phân trên file
+        TreeMap<byte[], List<Integer>> postings = new TreeMap<>(PoiIndexWriter::compareBytes);
+        String[] foldedCategories = new String[categoryNames.size()];
+        for (int i = 0; i < foldedCategories.length; i++) {
+            foldedCategories[i] = SearchText.fold(categoryNames.get(i));
+        }
+
+        int[] categoryTable = new int[categoryNames.size() * CATEGORY_INTS];
+        for (int i = 0; i < categoryNames.size(); i++) {
+            categoryTable[i * CATEGORY_INTS] = writeString(stringOut, strings, categoryNames.get(i));
+            categoryTable[i * CATEGORY_INTS + 1] = writeString(stringOut, strings, foldedCategories[i]);
+        }
+
+        int[] poiTable = new int[names.size() * POI_INTS];
+        for (int poi = 0; poi < names.size(); poi++) {
+            String folded = SearchText.fold(names.get(poi));
+            double[] coordinate = coordinates.get(poi);
+            int base = poi * POI_INTS;
+            poiTable[base] = (int) Math.round(coordinate[0] * COORDINATE_SCALE);
+            poiTable[base + 1] = (int) Math.round(coordinate[1] * COORDINATE_SCALE);
+            poiTable[base + 2] = writeString(stringOut, strings, names.get(poi));
+            poiTable[base + 3] = writeString(stringOut, strings, folded);
+            poiTable[base + 4] = categories.get(poi);
+
+            Set<String> tokens = new LinkedHashSet<>(SearchText.tokens(folded));
+            tokens.addAll(SearchText.tokens(foldedCategories[categories.get(poi)]));
+            for (String token : tokens) {
+                byte[] key = token.getBytes(StandardCharsets.UTF_8);
+                List<Integer> list = postings.get(key);
+                if (list == null) {
+                    list = new ArrayList<>();
+                    postings.put(key, list);
+                }
+                list.add(poi);
+            }
+        }
+
+        int[] tokenTable = new int[postings.size() * TOKEN_INTS];
+        int postingCount = 0;
+        int token = 0;
+        for (Map.Entry<byte[], List<Integer>> entry : postings.entrySet()) {
+            tokenTable[token * TOKEN_INTS] = writeBytes(stringOut, strings, entry.getKey());
+            tokenTable[token * TOKEN_INTS + 1] = postingCount;
+            tokenTable[token * TOKEN_INTS + 2] = entry.getValue().size();
+            postingCount += entry.getValue().size();
+            token++;
+        }
+
+        int categoryTableOffset = HEADER_INTS * 4;
+        int poiTableOffset = categoryTableOffset + categoryTable.length * 4;
+        int tokenTableOffset = poiTableOffset + poiTable.length * 4;
+        int postingsOffset = tokenTableOffset + tokenTable.length * 4;
+        int stringsOffset = postingsOffset + postingCount * 4;
+
+        DataOutputStream out = new DataOutputStream(stream);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(names.size());
+        out.writeInt(categoryNames.size());
+        out.writeInt(postings.size());
+        out.writeInt(poiTableOffset);
+        out.writeInt(categoryTableOffset);
+        out.writeInt(tokenTableOffset);
+        out.writeInt(postingsOffset);
+        out.writeInt(stringsOffset);
+        writeInts(out, categoryTable);
+        writeInts(out, poiTable);
+        writeInts(out, tokenTable);
+        for (List<Integer> list : postings.values()) {
+            for (int poi : list) {
+                out.writeInt(poi);
+            }
+        }
+        stringOut.flush();
+        strings.writeTo(out);
+        out.flush();
+    }
+
+    private static int writeString(DataOutputStream out, ByteArrayOutputStream buffer, String text)
+            throws IOException {
+        return writeBytes(out, buffer, text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** @return offset của chuỗi trong vùng chuỗi */
+    private static int writeBytes(DataOutputStream out, ByteArrayOutputStream buffer, byte[] bytes)
+            throws IOException {
+        out.flush();
+        int offset = buffer.size();
+        int length = Math.min(bytes.length, MAX_STRING_BYTES);
+        out.writeShort(length);
+        out.write(bytes, 0, length);
+        return offset;
+    }
+
+    private static void writeInts(DataOutputStream out, int[] values) throws IOException {
+        for (int value : values) {
+            out.writeInt(value);
+        }
+    }
+
+    /** So sánh byte không dấu, cùng thứ tự với {@link PoiSearchIndex}. */
+    static int compareBytes(byte[] a, byte[] b) {
+        int length = Math.min(a.length, b.length);
+        for (int i = 0; i < length; i++) {
+            int diff = (a[i] & 0xFF) - (b[i] & 0xFF);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return a.length - b.length;
+    }
+}
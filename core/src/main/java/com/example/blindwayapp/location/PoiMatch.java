@@ -0,0 +1,31 @@
+package com.example.blindwayapp.location;
+
+/** Một kết quả tìm địa điểm ngoại tuyến. */
+public final class PoiMatch {
+
+    /** Số thứ tự trong chỉ mục, ổn định với cùng một file. */
+    public final int poi;
+    public final String name;
+    public final String category;
+    public final double latitude;
+    public final double longitude;
+    /** NaN nếu tìm không kèm vị trí. */
+    public final float distanceMeters;
+    public final float score;
+
+    public PoiMatch(int poi, String name, String category, double latitude, double longitude,
+                    float distanceMeters, float score) {
+        this.poi = poi;
+        this.name = name;
+        this.category = category;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.distanceMeters = distanceMeters;
+        this.score = score;
+    }
+
+    @Override
+    public String toString() {
+        return name + " [" + category + "] " + distanceMeters + " m, " + score;
+    }
+}
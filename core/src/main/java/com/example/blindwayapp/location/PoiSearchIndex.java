@@ -0,0 +1,343 @@
+package com.example.blindwayapp.location;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tìm địa điểm ngoại tuyến trên file do {@link PoiIndexWriter} dựng, đọc thẳng từ ByteBuffer
+ * (thường là file ánh xạ bộ nhớ) nên mở file gần như tức thì và chỉ các trang được chạm tới mới
+ * nằm trong RAM.
+ *
+ * Mỗi từ trong câu tìm được so như tiền tố của một từ trong tên hoặc loại địa điểm, không phân biệt
+ * dấu. Từ hiếm nhất (ít địa điểm nhất) chọn ra tập ứng viên qua bảng từ; các từ còn lại được kiểm
+ * tra trên tên đã chuẩn hóa của từng ứng viên. Điểm văn bản ưu tiên khớp cả từ hơn khớp tiền tố,
+ * khớp tên hơn khớp loại, rồi giảm dần theo khoảng cách tới vị trí hiện tại.
+ *
+ * search() được đồng bộ vì dùng chung mảng tạm.
+ */
+public class PoiSearchIndex {
+
+    private static final int MAX_QUERY_TOKENS = 8;
+    // Ở khoảng cách này điểm văn bản còn một nửa
+    static final float DISTANCE_SCALE_METERS = 2000f;
+    private static final float CATEGORY_WEIGHT = 0.5f;
+    private static final float NAME_START_BONUS = 0.1f;
+    private static final float MAX_TEXT_SCORE = 1f + NAME_START_BONUS;
+
+    private final ByteBuffer buffer;
+    private final int poiCount;
+    private final int categoryCount;
+    private final int tokenCount;
+    private final int poiTable;
+    private final int categoryTable;
+    private final int tokenTable;
+    private final int postings;
+    private final int strings;
+
+    // Đánh dấu ứng viên đã xét trong lần tìm hiện tại, tránh xét lại địa điểm có nhiều từ cùng tiền tố
+    private int[] visited;
+    private int generation;
+    private float[] heapScores = new float[16];
+    private int[] heapPois = new int[16];
+    private int heapSize;
+
+    public PoiSearchIndex(ByteBuffer source) throws IOException {
+        buffer = source.duplicate().order(ByteOrder.BIG_ENDIAN);
+        if (buffer.capacity() < PoiIndexWriter.HEADER_INTS * 4
+                || buffer.getInt(0) != PoiIndexWriter.MAGIC || buffer.getInt(4) != PoiIndexWriter.VERSION) {
+            throw new IOException("Không phải file chỉ mục địa điểm");
+        }
+        poiCount = buffer.getInt(8);
+        categoryCount = buffer.getInt(12);
+        tokenCount = buffer.getInt(16);
+        poiTable = buffer.getInt(20);
+        categoryTable = buffer.getInt(24);
+        tokenTable = buffer.getInt(28);
+        postings = buffer.getInt(32);
+        strings = buffer.getInt(36);
+        if (strings < postings || strings > buffer.capacity()) {
+            throw new IOException("File chỉ mục địa điểm bị cắt");
+        }
+    }
+
+    public int size() {
+        return poiCount;
+    }
+
+    public int getCategoryCount() {
+        return categoryCount;
+    }
+
+    public String getCategoryName(int category) {
+        return readString(buffer.getInt(categoryTable + category * PoiIndexWriter.CATEGORY_INTS * 4));
+    }
+
+    /**
+     * @param latitude vị trí hiện tại, NaN nếu chưa có (khi đó chỉ xếp theo điểm văn bản)
+     * @param out      được xóa rồi điền kết quả, điểm cao nhất trước
+     * @return số kết quả
+     */
+    public synchronized int search(String query, double latitude, double longitude, int maxResults,
+                                   List<PoiMatch> out) {
+        out.clear();
+        List<String> words = SearchText.tokens(SearchText.fold(query));
+        if (words.isEmpty() || maxResults <= 0 || poiCount == 0) {
+            return 0;
+        }
+        int queryTokens = Math.min(words.size(), MAX_QUERY_TOKENS);
+        byte[][] tokens = new byte[queryTokens][];
+        int driverFirst = 0;
+        int driverLast = 0;
+        long driverPostings = Long.MAX_VALUE;
+        for (int i = 0; i < queryTokens; i++) {
+            tokens[i] = words.get(i).getBytes(StandardCharsets.UTF_8);
+            int first = lowerBound(tokens[i], false);
+            int last = lowerBound(tokens[i], true);
+            long total = 0;
+            for (int t = first; t < last; t++) {
+                total += buffer.getInt(tokenEntry(t) + 8);
+            }
+            if (total == 0) {
+                return 0;
+            }
+            if (total < driverPostings) {
+                driverPostings = total;
+                driverFirst = first;
+                driverLast = last;
+            }
+        }
+
+        if (visited == null) {
+            visited = new int[poiCount];
+        }
+        if (++generation == 0) {
+            Arrays.fill(visited, 0);
+            generation = 1;
+        }
+        if (heapScores.length < maxResults) {
+            heapScores = new float[maxResults];
+            heapPois = new int[maxResults];
+        }
+        heapSize = 0;
+        boolean located = !Double.isNaN(latitude) && !Double.isNaN(longitude);
+        double metersPerDegreeLongitude = located
+                ? PlaceIndex.METERS_PER_DEGREE * Math.cos(Math.toRadians(latitude)) : 0;
+
+        for (int t = driverFirst; t < driverLast; t++) {
+            int entry = tokenEntry(t);
+            int start = postings + buffer.getInt(entry + 4) * 4;
+            int count = buffer.getInt(entry + 8);
+            for (int i = 0; i < count; i++) {
+                int poi = buffer.getInt(start + i * 4);
+                if (visited[poi] == generation) {
+                    continue;
+                }
+                visited[poi] = generation;
+                float distanceFactor = 1f;
+                if (located) {
+                    distanceFactor = 1f + distance(poi, latitude, longitude, metersPerDegreeLongitude)
+                            / DISTANCE_SCALE_METERS;
+                    // Ở quá xa thì dù khớp hoàn toàn cũng không vào được danh sách, bỏ qua phần so chữ
+                    if (heapSize == maxResults && MAX_TEXT_SCORE / distanceFactor <= heapScores[0]) {
+                        continue;
+                    }
+                }
+                float text = textScore(poi, tokens);
+                if (text > 0f) {
+                    offer(text / distanceFactor, poi, maxResults);
+                }
+            }
+        }
+
+        int count = heapSize;
+        PoiMatch[] sorted = new PoiMatch[count];
+        while (heapSize > 0) {
+            int poi = heapPois[0];
+            sorted[heapSize - 1] = toMatch(poi, heapScores[0], located, latitude, longitude, metersPerDegreeLongitude);
+            removeTop();
+        }
+        for (PoiMatch match : sorted) {
+            out.add(match);
+        }
+        return count;
+    }
+
+    /** Trung bình điểm từng từ; 0 nếu có từ không khớp cả tên lẫn loại. */
+    private float textScore(int poi, byte[][] tokens) {
+        int base = poiEntry(poi);
+        int folded = strings + buffer.getInt(base + 12);
+        int categoryFolded = strings + buffer.getInt(
+                categoryTable + buffer.getInt(base + 16) * PoiIndexWriter.CATEGORY_INTS * 4 + 4);
+        float total = 0f;
+        for (int i = 0; i < tokens.length; i++) {
+            // Khớp tên luôn được ít nhất 0,5 nên chỉ xét loại khi tên không khớp
+            float best = wordScore(folded, tokens[i]);
+            if (best <= 0f) {
+                best = CATEGORY_WEIGHT * wordScore(categoryFolded, tokens[i]);
+                if (best <= 0f) {
+                    return 0f;
+                }
+            }
+            total += best;
+        }
+        float score = total / tokens.length;
+        if (startsWith(folded + 2, buffer.getShort(folded) & 0xFFFF, tokens[0])) {
+            score += NAME_START_BONUS;
+        }
+        return score;
+    }
+
+    /** 1 nếu trùng cả từ, từ 0,5 tới dưới 0,8 nếu là tiền tố (càng dài càng cao), 0 nếu không khớp. */
+    private float wordScore(int stringPosition, byte[] token) {
+        int length = buffer.getShort(stringPosition) & 0xFFFF;
+        int start = stringPosition + 2;
+        int end = start + length;
+        float best = 0f;
+        int wordStart = start;
+        while (wordStart < end) {
+            int wordEnd = wordStart;
+            while (wordEnd < end && buffer.get(wordEnd) != ' ') {
+                wordEnd++;
+            }
+            int wordLength = wordEnd - wordStart;
+            if (wordLength >= token.length && startsWith(wordStart, wordLength, token)) {
+                if (wordLength == token.length) {
+                    return 1f;
+                }
+                best = Math.max(best, 0.5f + 0.3f * token.length / wordLength);
+            }
+            wordStart = wordEnd + 1;
+        }
+        return best;
+    }
+
+    private boolean startsWith(int position, int length, byte[] prefix) {
+        if (length < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (buffer.get(position + i) != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Vị trí đầu tiên trong bảng từ có tiền tố (độ dài bằng prefix) lớn hơn hoặc bằng prefix,
+     * hoặc lớn hơn hẳn nếu strict; hai lần tìm cho ra khoảng các từ bắt đầu bằng prefix.
+     */
+    private int lowerBound(byte[] prefix, boolean strict) {
+        int low = 0;
+        int high = tokenCount;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            int compare = comparePrefix(middle, prefix);
+            if (compare < 0 || (strict && compare == 0)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private int comparePrefix(int token, byte[] prefix) {
+        int position = strings + buffer.getInt(tokenEntry(token));
+        int length = buffer.getShort(position) & 0xFFFF;
+        int compared = Math.min(length, prefix.length);
+        for (int i = 0; i < compared; i++) {
+            int diff = (buffer.get(position + 2 + i) & 0xFF) - (prefix[i] & 0xFF);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return length < prefix.length ? -1 : 0;
+    }
+
+    private float distance(int poi, double latitude, double longitude, double metersPerDegreeLongitude) {
+        int base = poiEntry(poi);
+        double north = (buffer.getInt(base) / PoiIndexWriter.COORDINATE_SCALE - latitude) * PlaceIndex.METERS_PER_DEGREE;
+        double east = (buffer.getInt(base + 4) / PoiIndexWriter.COORDINATE_SCALE - longitude) * metersPerDegreeLongitude;
+        return (float) Math.sqrt(north * north + east * east);
+    }
+
+    private PoiMatch toMatch(int poi, float score, boolean located, double latitude, double longitude,
+                             double metersPerDegreeLongitude) {
+        int base = poiEntry(poi);
+        return new PoiMatch(poi, readString(buffer.getInt(base + 8)), getCategoryName(buffer.getInt(base + 16)),
+                buffer.getInt(base) / PoiIndexWriter.COORDINATE_SCALE,
+                buffer.getInt(base + 4) / PoiIndexWriter.COORDINATE_SCALE,
+                located ? distance(poi, latitude, longitude, metersPerDegreeLongitude) : Float.NaN, score);
+    }
+
+    private String readString(int offset) {
+        int position = strings + offset;
+        int length = buffer.getShort(position) & 0xFFFF;
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buffer.get(position + 2 + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private int poiEntry(int poi) {
+        return poiTable + poi * PoiIndexWriter.POI_INTS * 4;
+    }
+
+    private int tokenEntry(int token) {
+        return tokenTable + token * PoiIndexWriter.TOKEN_INTS * 4;
+    }
+
+    // Đống min theo điểm giữ maxResults kết quả tốt nhất
+    private void offer(float score, int poi, int maxResults) {
+        if (heapSize < maxResults) {
+            int i = heapSize++;
+            while (i > 0) {
+                int parent = (i - 1) >> 1;
+                if (heapScores[parent] <= score) {
+                    break;
+                }
+                heapScores[i] = heapScores[parent];
+                heapPois[i] = heapPois[parent];
+                i = parent;
+            }
+            heapScores[i] = score;
+            heapPois[i] = poi;
+        } else if (score > heapScores[0]) {
+            siftDown(score, poi);
+        }
+    }
+
+    private void removeTop() {
+        heapSize--;
+        if (heapSize > 0) {
+            siftDown(heapScores[heapSize], heapPois[heapSize]);
+        }
+    }
+
+    private void siftDown(float score, int poi) {
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && heapScores[child + 1] < heapScores[child]) {
+                child++;
+            }
+            if (heapScores[child] >= score) {
+                break;
+            }
+            heapScores[i] = heapScores[child];
+            heapPois[i] = heapPois[child];
+            i = child;
+        }
+        heapScores[i] = score;
+        heapPois[i] = poi;
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.blindwayapp.location;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Chuẩn hóa chữ để tìm kiếm không phân biệt dấu: bỏ dấu thanh và dấu mũ tiếng Việt (đ thành d),
+ * chữ thường, mọi ký tự không phải chữ hoặc số thành một dấu cách. "Bến xe Mỹ Đình" thành
+ * "ben xe my dinh".
+ */
+public final class SearchText {
+
+    private SearchText() {
+    }
+
+    public static String fold(CharSequence text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder out = new StringBuilder(decomposed.length());
+        boolean space = true;
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (c == 'đ' || c == 'Đ') {
+                c = 'd';
+            }
+            if (Character.isLetterOrDigit(c)) {
+                out.append(Character.toLowerCase(c));
+                space = false;
+            } else if (!space) {
+                out.append(' ');
+                space = true;
+            }
+        }
+        int length = out.length();
+        if (length > 0 && out.charAt(length - 1) == ' ') {
+            out.setLength(length - 1);
+        }
+        return out.toString().toLowerCase(Locale.ROOT);
+    }
+
+    /** Các từ của chuỗi đã chuẩn hóa, theo thứ tự, có thể lặp. */
+    public static List<String> tokens(String folded) {
+        List<String> tokens = new ArrayList<>();
+        int start = 0;
+        while (start < folded.length()) {
+            int end = folded.indexOf(' ', start);
+            if (end < 0) {
+                end = folded.length();
+            }
+            if (end > start) {
+                tokens.add(folded.substring(start, end));
+            }
+            start = end + 1;
+        }
+        return tokens;
+    }
+}
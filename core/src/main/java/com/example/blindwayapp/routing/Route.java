@@ -0,0 +1,43 @@
+package com.example.blindwayapp.routing;
+
+/** Tuyến đi bộ qua các nút của {@link WalkGraph}, kèm quãng đường cộng dồn tới từng nút. */
+public final class Route {
+
+    private final int[] nodes;
+    /** edges[i] là cạnh từ nút i - 1 tới nút i; edges[0] = -1. */
+    private final int[] edges;
+    private final float[] distances;
+
+    Route(int[] nodes, int[] edges, float[] distances) {
+        this.nodes = nodes;
+        this.edges = edges;
+        this.distances = distances;
+    }
+
+    /** Số nút, ít nhất là 1 (điểm đi trùng điểm đến). */
+    public int size() {
+        return nodes.length;
+    }
+
+    public int node(int index) {
+        return nodes[index];
+    }
+
+    /** Cạnh đi vào nút thứ index, -1 với nút đầu. */
+    public int edge(int index) {
+        return edges[index];
+    }
+
+    /** Quãng đường từ đầu tuyến tới nút thứ index (mét). */
+    public float distanceAt(int index) {
+        return distances[index];
+    }
+
+    public float getLengthMeters() {
+        return distances[distances.length - 1];
+    }
+
+    public int getDestination() {
+        return nodes[nodes.length - 1];
+    }
+}
@@ -0,0 +1,224 @@
+package com.example.blindwayapp.routing;
+
+import java.util.List;
+
+/**
+ * Theo dõi vị trí người dùng trên một tuyến: chiếu mỗi vị trí mới lên tuyến, chọn câu chỉ dẫn cần
+ * nói và phát hiện khi người dùng đi lệch khỏi tuyến.
+ *
+ * Mỗi chỗ rẽ được nhắc hai lần: báo trước khi còn khoảng {@link #PREPARE_METERS} và nói lại khi tới
+ * nơi. Đi lệch được xác nhận sau {@link #OFF_ROUTE_FIXES} vị trí liên tiếp xa tuyến để một lần GPS
+ * nhảy không làm tìm lại đường.
+ *
+ * Tuyến bắt đầu ở nút gần nhất nên vị trí đầu tiên có thể cách tuyến xa hơn ngưỡng đi lệch (đứng
+ * giữa một đoạn phố dài hoặc trong sân, công viên). Khi đó người dùng đang đi tới tuyến: chỉ tính là
+ * đi lệch nếu xa tuyến hơn lúc gần nhất từ trước tới giờ quá ngưỡng, để tuyến mới không bị tìm lại
+ * ngay lập tức. Chỉ dùng trên một luồng.
+ */
+public class RouteFollower {
+
+    public enum Status {
+        ON_ROUTE,
+        /** Đã lệch khỏi tuyến; cần tìm lại đường từ vị trí hiện tại. */
+        OFF_ROUTE,
+        ARRIVED
+    }
+
+    public static final float OFF_ROUTE_METERS = 25f;
+    static final int OFF_ROUTE_FIXES = 2;
+    static final float PREPARE_METERS = 40f;
+    static final float NOW_METERS = 10f;
+    static final float ARRIVAL_METERS = 12f;
+    // Chỉ chiếu lên đoạn tuyến gần vị trí trước để tuyến đi qua lại gần nhau không làm nhảy tiến độ
+    private static final float SEARCH_BEHIND_METERS = 30f;
+    private static final float SEARCH_AHEAD_METERS = 150f;
+    private static final double METERS_PER_DEGREE = 111_320.0;
+
+    private final WalkGraph graph;
+    private final Route route;
+    private final List<RouteStep> steps;
+
+    private boolean started;
+    private boolean approaching = true;
+    private float closestApproachMeters = Float.MAX_VALUE;
+    private int segment;
+    private float progressMeters;
+    private float offRouteMeters;
+    private int offRouteFixes;
+    private int nextStep = 1;
+    private boolean prepared;
+    private Status status = Status.ON_ROUTE;
+    private String prompt;
+
+    public RouteFollower(WalkGraph graph, Route route, List<RouteStep> steps) {
+        this.graph = graph;
+        this.route = route;
+        this.steps = steps;
+    }
+
+    public RouteFollower(WalkGraph graph, Route route) {
+        this(graph, route, TurnInstructionBuilder.build(graph, route));
+    }
+
+    /**
+     * @param accuracyMeters sai số của vị trí; vị trí kém chính xác cần lệch xa hơn mới tính là đi lệch
+     */
+    public Status update(double latitude, double longitude, float accuracyMeters) {
+        prompt = null;
+        if (status == Status.ARRIVED) {
+            return status;
+        }
+        float threshold = Math.max(OFF_ROUTE_METERS, accuracyMeters);
+        project(latitude, longitude, threshold);
+        if (offRouteMeters > threshold) {
+            if (approaching && offRouteMeters <= closestApproachMeters + threshold) {
+                approach();
+                return status;
+            }
+            if (++offRouteFixes >= OFF_ROUTE_FIXES) {
+                status = Status.OFF_ROUTE;
+            }
+            return status;
+        }
+        approaching = false;
+        offRouteFixes = 0;
+        status = Status.ON_ROUTE;
+
+        if (!started) {
+            started = true;
+            RouteStep depart = steps.get(0);
+            prompt = depart.instruction() + " " + formatMeters(depart.lengthMeters);
+        }
+        while (nextStep < steps.size()) {
+            RouteStep step = steps.get(nextStep);
+            float distance = step.distanceMeters - progressMeters;
+            boolean last = nextStep == steps.size() - 1;
+            if (distance <= (last ? ARRIVAL_METERS : NOW_METERS)) {
+                prompt = step.instruction();
+                prepared = false;
+                nextStep++;
+                if (last) {
+                    status = Status.ARRIVED;
+                }
+                continue;
+            }
+            if (!prepared && distance <= PREPARE_METERS && !last) {
+                prepared = true;
+                prompt = "Sau " + formatMeters(distance) + ", " + lowerFirst(step.instruction());
+            }
+            break;
+        }
+        return status;
+    }
+
+    /** Chưa tới tuyến lần nào; nói đường cần đi tới ở vị trí đầu tiên. */
+    private void approach() {
+        if (closestApproachMeters == Float.MAX_VALUE) {
+            String street = steps.get(0).streetName;
+            prompt = "Đi tới " + (street.isEmpty() ? "lối đi bộ" : street) + ", cách " + formatMeters(offRouteMeters);
+        }
+        closestApproachMeters = Math.min(closestApproachMeters, offRouteMeters);
+        offRouteFixes = 0;
+        status = Status.ON_ROUTE;
+    }
+
+    /** Câu cần nói sau lần update() vừa rồi, null nếu không có gì mới. */
+    public String getPrompt() {
+        return prompt;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public Route getRoute() {
+        return route;
+    }
+
+    public List<RouteStep> getSteps() {
+        return steps;
+    }
+
+    /** Chỉ dẫn kế tiếp, null khi đã tới nơi. */
+    public RouteStep getNextStep() {
+        return nextStep < steps.size() ? steps.get(nextStep) : null;
+    }
+
+    public float getDistanceToNextStep() {
+        RouteStep step = getNextStep();
+        return step != null ? Math.max(0f, step.distanceMeters - progressMeters) : 0f;
+    }
+
+    /** Quãng đường còn lại, kể cả đoạn đi tới tuyến nếu chưa tới. */
+    public float getRemainingMeters() {
+        float toRoute = approaching ? offRouteMeters : 0f;
+        return Math.max(0f, route.getLengthMeters() - progressMeters) + toRoute;
+    }
+
+    /** true khi người dùng chưa tới tuyến lần nào kể từ khi có tuyến. */
+    public boolean isApproaching() {
+        return approaching;
+    }
+
+    /** Khoảng cách từ vị trí gần nhất tới tuyến (mét). */
+    public float getOffRouteMeters() {
+        return offRouteMeters;
+    }
+
+    /** Nút đầu tiên phía trước người dùng trên tuyến, dùng cho {@link WalkRouter#reroute}. */
+    public int getRejoinIndex() {
+        return Math.min(segment + 1, route.size() - 1);
+    }
+
+    /** Làm tròn tới 10 mét cho dễ nghe, dưới 20 mét giữ nguyên. */
+    public static String formatMeters(float meters) {
+        int rounded = meters < 20f ? Math.round(meters) : Math.round(meters / 10f) * 10;
+        return rounded + " mét";
+    }
+
+    private void project(double latitude, double longitude, float threshold) {
+        if (route.size() == 1) {
+            segment = 0;
+            progressMeters = 0f;
+            offRouteMeters = graph.distanceMeters(route.node(0), latitude, longitude);
+            return;
+        }
+        double metersPerDegreeLongitude = METERS_PER_DEGREE * Math.cos(Math.toRadians(latitude));
+        float bestDistance = Float.MAX_VALUE;
+        int bestSegment = segment;
+        float bestProgress = progressMeters;
+        for (int i = 0; i < route.size() - 1; i++) {
+            if (route.distanceAt(i + 1) < progressMeters - SEARCH_BEHIND_METERS) {
+                continue;
+            }
+            if (route.distanceAt(i) > progressMeters + SEARCH_AHEAD_METERS) {
+                break;
+            }
+            int a = route.node(i);
+            int b = route.node(i + 1);
+            double ax = (graph.longitude(a) - longitude) * metersPerDegreeLongitude;
+            double ay = (graph.latitude(a) - latitude) * METERS_PER_DEGREE;
+            double bx = (graph.longitude(b) - longitude) * metersPerDegreeLongitude;
+            double by = (graph.latitude(b) - latitude) * METERS_PER_DEGREE;
+            double dx = bx - ax;
+            double dy = by - ay;
+            double lengthSquared = dx * dx + dy * dy;
+            double t = lengthSquared > 0 ? Math.max(0, Math.min(1, -(ax * dx + ay * dy) / lengthSquared)) : 0;
+            float distance = (float) Math.hypot(ax + t * dx, ay + t * dy);
+            if (distance < bestDistance) {
+                bestDistance = distance;
+                bestSegment = i;
+                bestProgress = route.distanceAt(i) + (float) t * (route.distanceAt(i + 1) - route.distanceAt(i));
+            }
+        }
+        offRouteMeters = bestDistance;
+        if (bestDistance <= threshold) {
+            segment = bestSegment;
+            progressMeters = bestProgress;
+        }
+    }
+
+    private static String lowerFirst(String text) {
+        return text.isEmpty() ? text : Character.toLowerCase(text.charAt(0)) + text.substring(1);
+    }
+}
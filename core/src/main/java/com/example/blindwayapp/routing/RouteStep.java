@@ -0,0 +1,79 @@
+package com.example.blindwayapp.routing;
+
+/** Một chỉ dẫn rẽ trên tuyến: tại nút thứ {@link #routeIndex} làm {@link #turn} để đi tiếp vào {@link #streetName}. */
+public final class RouteStep {
+
+    public enum Turn {
+        DEPART("Đi"),
+        STRAIGHT("Đi thẳng"),
+        SLIGHT_LEFT("Chếch sang trái"),
+        LEFT("Rẽ trái"),
+        SHARP_LEFT("Rẽ gắt sang trái"),
+        SLIGHT_RIGHT("Chếch sang phải"),
+        RIGHT("Rẽ phải"),
+        SHARP_RIGHT("Rẽ gắt sang phải"),
+        U_TURN("Quay lại"),
+        ARRIVE("Đã tới nơi");
+
+        public final String phrase;
+
+        Turn(String phrase) {
+            this.phrase = phrase;
+        }
+
+        /** @param degrees góc đổi hướng, dương là sang phải, trong khoảng [-180, 180] */
+        public static Turn fromAngle(float degrees) {
+            float magnitude = Math.abs(degrees);
+            if (magnitude < 20f) {
+                return STRAIGHT;
+            }
+            if (magnitude > 160f) {
+                return U_TURN;
+            }
+            boolean right = degrees > 0;
+            if (magnitude < 50f) {
+                return right ? SLIGHT_RIGHT : SLIGHT_LEFT;
+            }
+            if (magnitude < 120f) {
+                return right ? RIGHT : LEFT;
+            }
+            return right ? SHARP_RIGHT : SHARP_LEFT;
+        }
+    }
+
+    public final int routeIndex;
+    public final Turn turn;
+    /** Tên đường đi vào sau chỉ dẫn, rỗng nếu không có tên. */
+    public final String streetName;
+    /** Quãng đường từ đầu tuyến tới chỗ rẽ (mét). */
+    public final float distanceMeters;
+    /** Quãng đường đi tiếp sau chỗ rẽ tới chỉ dẫn kế tiếp (mét). */
+    public final float lengthMeters;
+
+    public RouteStep(int routeIndex, Turn turn, String streetName, float distanceMeters, float lengthMeters) {
+        this.routeIndex = routeIndex;
+        this.turn = turn;
+        this.streetName = streetName;
+        this.distanceMeters = distanceMeters;
+        this.lengthMeters = lengthMeters;
+    }
+
+    /** Câu chỉ dẫn, ví dụ "Rẽ trái vào Phố Huế". */
+    public String instruction() {
+        switch (turn) {
+            case ARRIVE:
+                return turn.phrase;
+            case DEPART:
+                return streetName.isEmpty() ? "Đi theo lối đi bộ" : "Đi theo " + streetName;
+            case U_TURN:
+                return turn.phrase;
+            default:
+                return streetName.isEmpty() ? turn.phrase : turn.phrase + " vào " + streetName;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return routeIndex + ": " + instruction() + " (" + distanceMeters + " m)";
+    }
+}
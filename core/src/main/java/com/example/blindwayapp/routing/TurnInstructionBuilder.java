@@ -0,0 +1,77 @@
+package com.example.blindwayapp.routing;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Chuyển tuyến thành các chỉ dẫn rẽ để đọc bằng giọng nói.
+ *
+ * Chỉ dẫn được tạo ở ngã rẽ (nút có hơn hai cạnh) khi đổi hướng hoặc đổi sang đường khác tên, và ở
+ * khúc cua gắt giữa đường. Đi thẳng qua ngã tư cùng tên đường không cần nhắc nên không tạo chỉ dẫn.
+ */
+public final class TurnInstructionBuilder {
+
+    // Khúc cua không ở ngã rẽ vẫn được nhắc nếu gắt hơn góc này
+    private static final float BEND_DEGREES = 60f;
+
+    private TurnInstructionBuilder() {
+    }
+
+    /** @return bước đầu là DEPART, bước cuối là ARRIVE */
+    public static List<RouteStep> build(WalkGraph graph, Route route) {
+        int count = route.size();
+        List<Integer> indices = new ArrayList<>();
+        List<RouteStep.Turn> turns = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        indices.add(0);
+        turns.add(RouteStep.Turn.DEPART);
+        names.add(count > 1 ? graph.edgeName(route.edge(1)) : "");
+
+        for (int i = 1; i < count - 1; i++) {
+            int node = route.node(i);
+            float angle = turnAngle(graph, route.node(i - 1), node, route.node(i + 1));
+            RouteStep.Turn turn = RouteStep.Turn.fromAngle(angle);
+            boolean junction = graph.degree(node) > 2;
+            boolean renamed = !graph.sameName(route.edge(i), route.edge(i + 1));
+            boolean emit = junction ? turn != RouteStep.Turn.STRAIGHT || renamed
+                    : Math.abs(angle) >= BEND_DEGREES;
+            if (emit) {
+                indices.add(i);
+                turns.add(turn);
+                names.add(graph.edgeName(route.edge(i + 1)));
+            }
+        }
+        indices.add(count - 1);
+        turns.add(RouteStep.Turn.ARRIVE);
+        names.add("");
+
+        List<RouteStep> steps = new ArrayList<>(indices.size());
+        for (int s = 0; s < indices.size(); s++) {
+            float distance = route.distanceAt(indices.get(s));
+            float next = s + 1 < indices.size() ? route.distanceAt(indices.get(s + 1)) : distance;
+            steps.add(new RouteStep(indices.get(s), turns.get(s), names.get(s), distance, next - distance));
+        }
+        return steps;
+    }
+
+    /** Góc đổi hướng tại b khi đi a -> b -> c, dương là rẽ phải. */
+    static float turnAngle(WalkGraph graph, int a, int b, int c) {
+        float in = bearing(graph, a, b);
+        float out = bearing(graph, b, c);
+        float delta = out - in;
+        while (delta > 180f) {
+            delta -= 360f;
+        }
+        while (delta < -180f) {
+            delta += 360f;
+        }
+        return delta;
+    }
+
+    /** Hướng đi từ nút from tới nút to, độ theo chiều kim đồng hồ từ hướng Bắc. */
+    static float bearing(WalkGraph graph, int from, int to) {
+        double north = graph.latitude(to) - graph.latitude(from);
+        double east = (graph.longitude(to) - graph.longitude(from)) * Math.cos(Math.toRadians(graph.latitude(from)));
+        return (float) Math.toDegrees(Math.atan2(east, north));
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.blindwayapp.routing;
+
+import com.example.blindwayapp.location.PlaceIndex;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Đồ thị đường đi bộ do {@link WalkGraphWriter} dựng, đọc thẳng từ ByteBuffer (thường là file ánh xạ
+ * bộ nhớ): mở gần như tức thì và chỉ các trang A* chạm tới mới nằm trong RAM.
+ *
+ * Cạnh ra của nút n là các cạnh từ {@link #firstEdge(int) firstEdge(n)} tới trước firstEdge(n + 1).
+ * Chỉ đọc nên dùng chung được giữa các luồng.
+ */
+public class WalkGraph {
+
+    private static final double COORDINATE_SCALE = WalkGraphWriter.COORDINATE_SCALE;
+    private static final double METERS_PER_DEGREE = 111_320.0;
+
+    private final ByteBuffer buffer;
+    private final int nodeCount;
+    private final int edgeCount;
+    private final int rows;
+    private final int columns;
+    private final int originLatitude;
+    private final int originLongitude;
+    private final int cellSize;
+    private final int nodeTable;
+    private final int edgeTable;
+    private final int grid;
+    private final int strings;
+
+    public WalkGraph(ByteBuffer source) throws IOException {
+        buffer = source.duplicate().order(ByteOrder.BIG_ENDIAN);
+        if (buffer.capacity() < WalkGraphWriter.HEADER_INTS * 4
+                || buffer.getInt(0) != WalkGraphWriter.MAGIC || buffer.getInt(4) != WalkGraphWriter.VERSION) {
+            throw new IOException("Không phải file đồ thị đường đi bộ");
+        }
+        nodeCount = buffer.getInt(8);
+        edgeCount = buffer.getInt(12);
+        rows = buffer.getInt(16);
+        columns = buffer.getInt(20);
+        originLatitude = buffer.getInt(24);
+        originLongitude = buffer.getInt(28);
+        cellSize = buffer.getInt(32);
+        nodeTable = buffer.getInt(36);
+        edgeTable = buffer.getInt(40);
+        grid = buffer.getInt(44);
+        strings = buffer.getInt(48);
+        if (strings < grid || strings > buffer.capacity() || cellSize <= 0) {
+            throw new IOException("File đồ thị đường đi bộ bị cắt");
+        }
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    public int getEdgeCount() {
+        return edgeCount;
+    }
+
+    public double latitude(int node) {
+        return buffer.getInt(nodeTable + node * WalkGraphWriter.NODE_INTS * 4) / COORDINATE_SCALE;
+    }
+
+    public double longitude(int node) {
+        return buffer.getInt(nodeTable + node * WalkGraphWriter.NODE_INTS * 4 + 4) / COORDINATE_SCALE;
+    }
+
+    public int firstEdge(int node) {
+        return buffer.getInt(nodeTable + node * WalkGraphWriter.NODE_INTS * 4 + 8);
+    }
+
+    public int degree(int node) {
+        return firstEdge(node + 1) - firstEdge(node);
+    }
+
+    public int edgeTarget(int edge) {
+        return buffer.getInt(edgeTable + edge * WalkGraphWriter.EDGE_INTS * 4);
+    }
+
+    public float edgeLengthMeters(int edge) {
+        return buffer.getInt(edgeTable + edge * WalkGraphWriter.EDGE_INTS * 4 + 4) / 100f;
+    }
+
+    /** @return tên đường của cạnh, rỗng nếu không có tên */
+    public String edgeName(int edge) {
+        int offset = buffer.getInt(edgeTable + edge * WalkGraphWriter.EDGE_INTS * 4 + 8);
+        return offset < 0 ? "" : readString(offset);
+    }
+
+    /** Hai cạnh cùng tên khi cùng offset chuỗi; không phải giải mã tên. */
+    public boolean sameName(int edge, int other) {
+        return buffer.getInt(edgeTable + edge * WalkGraphWriter.EDGE_INTS * 4 + 8)
+                == buffer.getInt(edgeTable + other * WalkGraphWriter.EDGE_INTS * 4 + 8);
+    }
+
+    /** @return cạnh từ from tới to, -1 nếu không có */
+    public int findEdge(int from, int to) {
+        int end = firstEdge(from + 1);
+        for (int edge = firstEdge(from); edge < end; edge++) {
+            if (edgeTarget(edge) == to) {
+                return edge;
+            }
+        }
+        return -1;
+    }
+
+    public float distanceMeters(int node, double latitude, double longitude) {
+        return PlaceIndex.distanceMeters(latitude(node), longitude(node), latitude, longitude);
+    }
+
+    /**
+     * Nút gần vị trí nhất, tìm trong các ô lưới quanh vị trí.
+     *
+     * @return -1 nếu không có nút nào trong maxMeters
+     */
+    public int nearestNode(double latitude, double longitude, float maxMeters) {
+        int row = cell(latitude, originLatitude);
+        int column = cell(longitude, originLongitude);
+        double cellMeters = cellSize / COORDINATE_SCALE * METERS_PER_DEGREE;
+        int rowRadius = (int) Math.ceil(maxMeters / cellMeters);
+        int columnRadius = (int) Math.ceil(maxMeters / Math.max(cellMeters * Math.cos(Math.toRadians(latitude)), 1));
+        int best = -1;
+        float bestDistance = maxMeters;
+        for (int r = Math.max(0, row - rowRadius); r <= Math.min(rows - 1, row + rowRadius); r++) {
+            int fromColumn = Math.max(0, column - columnRadius);
+            int toColumn = Math.min(columns - 1, column + columnRadius);
+            if (fromColumn > toColumn) {
+                continue;
+            }
+            // Các ô liền nhau trong một hàng có nút liền nhau trong file
+            int start = buffer.getInt(grid + (r * columns + fromColumn) * 4);
+            int end = buffer.getInt(grid + (r * columns + toColumn + 1) * 4);
+            for (int node = start; node < end; node++) {
+                float distance = distanceMeters(node, latitude, longitude);
+                if (distance <= bestDistance) {
+                    bestDistance = distance;
+                    best = node;
+                }
+            }
+        }
+        return best;
+    }
+
+    private int cell(double degrees, int origin) {
+        return (int) Math.floor((degrees * COORDINATE_SCALE - origin) / cellSize);
+    }
+
+    private String readString(int offset) {
+        int position = strings + offset;
+        int length = buffer.getShort(position) & 0xFFFF;
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buffer.get(position + 2 + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
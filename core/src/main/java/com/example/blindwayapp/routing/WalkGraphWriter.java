@@ -0,0 +1,236 @@
+package com.example.blindwayapp.routing;
+
+import com.example.blindwayapp.location.PlaceIndex;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dựng file đồ thị đường đi bộ cho {@link WalkGraph}, chạy lúc build (module :walkgraph) hoặc trong test.
+ *
+ * Mỗi cạnh thêm vào là đường hai chiều. Nút được đánh số lại theo ô lưới để các nút gần nhau nằm
+ * gần nhau trong file (A* chạm ít trang hơn) và tìm nút gần nhất chỉ cần đọc vài ô.
+ *
+ * Định dạng (số nguyên big-endian, mọi offset tính từ đầu file):
+ * <pre>
+ * header      MAGIC, VERSION, số nút, số cạnh một chiều, số hàng lưới, số cột lưới, vĩ độ gốc lưới x 1e7,
+ *             kinh độ gốc lưới x 1e7, cạnh ô x 1e7, offset bảng nút, bảng cạnh, bảng lưới, vùng chuỗi
+ * bảng nút    mỗi nút: vĩ độ x 1e7, kinh độ x 1e7, cạnh đầu tiên; thêm một dòng cuối chỉ số cạnh
+ * bảng cạnh   cạnh ra của từng nút liền nhau: nút đích, độ dài (cm), offset tên đường (-1 nếu không tên)
+ * bảng lưới   mỗi ô theo hàng: nút đầu tiên trong ô; thêm một phần tử cuối bằng số nút
+ * chuỗi       mỗi chuỗi: độ dài (2 byte) rồi các byte UTF-8
+ * </pre>
+ */
+public class WalkGraphWriter {
+
+    static final int MAGIC = 0x42575747; // "BWWG"
+    static final int VERSION = 1;
+    static final int HEADER_INTS = 13;
+    static final int NODE_INTS = 3;
+    static final int EDGE_INTS = 3;
+    static final double COORDINATE_SCALE = 1e7;
+    /** Khoảng 110 m theo vĩ độ. */
+    static final double DEFAULT_CELL_DEGREES = 0.001;
+    private static final int MAX_STRING_BYTES = 0xFFFF;
+
+    private final double cellDegrees;
+    private final List<double[]> coordinates = new ArrayList<>();
+    private final List<int[]> edges = new ArrayList<>();
+    private final List<String> names = new ArrayList<>();
+    private final Map<String, Integer> nameIds = new HashMap<>();
+
+    public WalkGraphWriter() {
+        this(DEFAULT_CELL_DEGREES);
+    }
+
+    public WalkGraphWriter(double cellDegrees) {
+        this.cellDegrees = cellDegrees;
+    }
+
+    /** @return số thứ tự tạm của nút, dùng cho {@link #addEdge}; trong file nút được đánh số lại */
+    public int addNode(double latitude, double longitude) {
+        coordinates.add(new double[]{latitude, longitude});
+        return coordinates.size() - 1;
+    }
+
+    /** Đoạn đường đi bộ hai chiều giữa hai nút. @param name tên đường, rỗng hoặc null nếu không có */
+    public void addEdge(int from, int to, String name) {
+        if (from == to) {
+            return;
+        }
+        if (from < 0 || to < 0 || from >= coordinates.size() || to >= coordinates.size()) {
+            throw new IllegalArgumentException("Nút không tồn tại: " + from + ", " + to);
+        }
+        int nameId = -1;
+        if (name != null && !name.isEmpty()) {
+            Integer id = nameIds.get(name);
+            if (id == null) {
+                id = names.size();
+                names.add(name);
+                nameIds.put(name, id);
+            }
+            nameId = id;
+        }
+        edges.add(new int[]{from, to, nameId});
+    }
+
+    public int getNodeCount() {
+        return coordinates.size();
+    }
+
+    public int getEdgeCount() {
+        return edges.size();
+    }
+
+    public void writeTo(OutputStream stream) throws IOException {
+        int nodeCount = coordinates.size();
+        double minLatitude = Double.MAX_VALUE;
+        double minLongitude = Double.MAX_VALUE;
+        double maxLatitude = -Double.MAX_VALUE;
+        double maxLongitude = -Double.MAX_VALUE;
+        for (double[] coordinate : coordinates) {
+            minLatitude = Math.min(minLatitude, coordinate[0]);
+            minLongitude = Math.min(minLongitude, coordinate[1]);
+            maxLatitude = Math.max(maxLatitude, coordinate[0]);
+            maxLongitude = Math.max(maxLongitude, coordinate[1]);
+        }
+        if (nodeCount == 0) {
+            minLatitude = minLongitude = maxLatitude = maxLongitude = 0;
+        }
+        int originLatitude = (int) Math.floor(minLatitude * COORDINATE_SCALE);
+        int originLongitude = (int) Math.floor(minLongitude * COORDINATE_SCALE);
+        int cellSize = (int) Math.round(cellDegrees * COORDINATE_SCALE);
+        int rows = cellIndex(maxLatitude, originLatitude, cellSize) + 1;
+        int columns = cellIndex(maxLongitude, originLongitude, cellSize) + 1;
+
+        // Đánh số lại nút theo ô (hàng rồi cột)
+        long[] keys = new long[nodeCount];
+        for (int node = 0; node < nodeCount; node++) {
+            double[] coordinate = coordinates.get(node);
+            long cell = (long) cellIndex(coordinate[0], originLatitude, cellSize) * columns
+                    + cellIndex(coordinate[1], originLongitude, cellSize);
+            keys[node] = cell << 32 | node;
+        }
+        Arrays.sort(keys);
+        int[] newId = new int[nodeCount];
+        int[] grid = new int[rows * columns + 1];
+        for (int i = 0; i < nodeCount; i++) {
+            int node = (int) keys[i];
+            newId[node] = i;
+            grid[(int) (keys[i] >>> 32) + 1]++;
+        }
+        for (int cell = 0; cell < rows * columns; cell++) {
+            grid[cell + 1] += grid[cell];
+        }
+
+        // Cạnh ra theo nút mới, mỗi cạnh hai chiều thành hai cạnh một chiều
+        int[] degree = new int[nodeCount + 1];
+        for (int[] edge : edges) {
+            degree[newId[edge[0]] + 1]++;
+            degree[newId[edge[1]] + 1]++;
+        }
+        for (int node = 0; node < nodeCount; node++) {
+            degree[node + 1] += degree[node];
+        }
+        int[] firstEdge = degree.clone();
+        int[] edgeTable = new int[edges.size() * 2 * EDGE_INTS];
+        for (int[] edge : edges) {
+            double[] a = coordinates.get(edge[0]);
+            double[] b = coordinates.get(edge[1]);
+            int centimeters = lengthCentimeters(a, b);
+            putEdge(edgeTable, firstEdge, newId[edge[0]], newId[edge[1]], centimeters, edge[2]);
+            putEdge(edgeTable, firstEdge, newId[edge[1]], newId[edge[0]], centimeters, edge[2]);
+        }
+
+        ByteArrayOutputStream strings = new ByteArrayOutputStream();
+        DataOutputStream stringOut = new DataOutputStream(strings);
+        int[] nameOffsets = new int[names.size()];
+        for (int i = 0; i < names.size(); i++) {
+            nameOffsets[i] = writeString(stringOut, strings, names.get(i));
+        }
+        stringOut.flush();
+        for (int edge = 0; edge < edgeTable.length; edge += EDGE_INTS) {
+            int name = edgeTable[edge + 2];
+            edgeTable[edge + 2] = name >= 0 ? nameOffsets[name] : -1;
+        }
+
+        int[] nodeTable = new int[(nodeCount + 1) * NODE_INTS];
+        for (int node = 0; node < nodeCount; node++) {
+            double[] coordinate = coordinates.get((int) keys[node]);
+            nodeTable[node * NODE_INTS] = (int) Math.round(coordinate[0] * COORDINATE_SCALE);
+            nodeTable[node * NODE_INTS + 1] = (int) Math.round(coordinate[1] * COORDINATE_SCALE);
+            nodeTable[node * NODE_INTS + 2] = degree[node];
+        }
+        nodeTable[nodeCount * NODE_INTS + 2] = degree[nodeCount];
+
+        int nodeTableOffset = HEADER_INTS * 4;
+        int edgeTableOffset = nodeTableOffset + nodeTable.length * 4;
+        int gridOffset = edgeTableOffset + edgeTable.length * 4;
+        int stringsOffset = gridOffset + grid.length * 4;
+
+        DataOutputStream out = new DataOutputStream(stream);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(nodeCount);
+        out.writeInt(edges.size() * 2);
+        out.writeInt(rows);
+        out.writeInt(columns);
+        out.writeInt(originLatitude);
+        out.writeInt(originLongitude);
+        out.writeInt(cellSize);
+        out.writeInt(nodeTableOffset);
+        out.writeInt(edgeTableOffset);
+        out.writeInt(gridOffset);
+        out.writeInt(stringsOffset);
+        writeInts(out, nodeTable);
+        writeInts(out, edgeTable);
+        writeInts(out, grid);
+        strings.writeTo(out);
+        out.flush();
+    }
+
+    /**
+     * Làm tròn lên để độ dài cạnh không nhỏ hơn khoảng cách đường thẳng mà A* dùng làm ước lượng.
+     */
+    static int lengthCentimeters(double[] a, double[] b) {
+        float meters = PlaceIndex.distanceMeters(a[0], a[1], b[0], b[1]);
+        return Math.max(1, (int) Math.ceil(meters * 100));
+    }
+
+    private static int cellIndex(double degrees, int origin, int cellSize) {
+        return (int) ((Math.round(degrees * COORDINATE_SCALE) - origin) / cellSize);
+    }
+
+    private static void putEdge(int[] table, int[] next, int from, int to, int centimeters, int name) {
+        int base = next[from]++ * EDGE_INTS;
+        table[base] = to;
+        table[base + 1] = centimeters;
+        table[base + 2] = name;
+    }
+
+    /** @return offset của chuỗi trong vùng chuỗi */
+    private static int writeString(DataOutputStream out, ByteArrayOutputStream buffer, String text)
+            throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        out.flush();
+        int offset = buffer.size();
+        int length = Math.min(bytes.length, MAX_STRING_BYTES);
+        out.writeShort(length);
+        out.write(bytes, 0, length);
+        return offset;
+    }
+
+    private static void writeInts(DataOutputStream out, int[] values) throws IOException {
+        for (int value : values) {
+            out.writeInt(value);
+        }
+    }
+}
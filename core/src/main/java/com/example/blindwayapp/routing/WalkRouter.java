@@ -0,0 +1,243 @@
+package com.example.blindwayapp.routing;
+
+import java.util.Arrays;
+
+/**
+ * Tìm đường đi bộ ngắn nhất trên {@link WalkGraph} bằng A* với ước lượng là khoảng cách đường thẳng
+ * tới đích (độ dài cạnh được làm tròn lên nên ước lượng không vượt quá quãng đường thật).
+ *
+ * Tìm lại khi người dùng đi lệch không bắt đầu từ đầu: mọi nút còn lại của tuyến cũ đều là đích,
+ * với quãng đường còn lại tới đích đã biết chính xác (đoạn con của đường ngắn nhất cũng ngắn nhất).
+ * A* dừng khi không nút nào trong hàng đợi còn có thể cho tổng tốt hơn, thường ngay khi chạm lại
+ * tuyến cũ gần người dùng nên chỉ xét vài trăm nút thay vì cả thành phố.
+ *
+ * Mảng trạng thái theo nút được cấp một lần và dùng lại giữa các lần tìm nhờ đánh dấu theo lượt;
+ * vì vậy route() và reroute() được đồng bộ.
+ */
+public class WalkRouter {
+
+    // Bù sai số làm tròn toạ độ và công thức khoảng cách phẳng để ước lượng luôn không quá lớn
+    private static final float HEURISTIC_WEIGHT = 0.99f;
+
+    private final WalkGraph graph;
+    private final float[] cost;
+    private final int[] parent;
+    private final int[] visited;
+    private int generation;
+
+    // Đống nhỏ theo f = g + h, cho phép trùng nút (bỏ phần tử cũ khi lấy ra)
+    private float[] heapKeys = new float[256];
+    private int[] heapNodes = new int[256];
+    private int heapSize;
+
+    // Bảng băm nhỏ nút đích -> vị trí trên tuyến cũ
+    private int[] goalNodes = new int[64];
+    private int[] goalIndices = new int[64];
+    private int goalMask;
+
+    private int settledCount;
+
+    public WalkRouter(WalkGraph graph) {
+        this.graph = graph;
+        int nodeCount = graph.getNodeCount();
+        cost = new float[nodeCount];
+        parent = new int[nodeCount];
+        visited = new int[nodeCount];
+    }
+
+    public WalkGraph getGraph() {
+        return graph;
+    }
+
+    /** @return null nếu không có đường giữa hai nút */
+    public synchronized Route route(int source, int target) {
+        clearGoals(1);
+        putGoal(target, 0);
+        return search(source, target, null);
+    }
+
+    /**
+     * Tìm lại từ nút source tới đích của tuyến cũ, nhập lại tuyến cũ ở nút tốt nhất từ fromIndex trở đi.
+     *
+     * @return null nếu không có đường
+     */
+    public synchronized Route reroute(int source, Route previous, int fromIndex) {
+        int from = Math.max(0, Math.min(fromIndex, previous.size() - 1));
+        clearGoals(previous.size() - from);
+        for (int i = from; i < previous.size(); i++) {
+            putGoal(previous.node(i), i);
+        }
+        return search(source, previous.getDestination(), previous);
+    }
+
+    /** Số nút đã xét ở lần tìm gần nhất. */
+    public synchronized int getLastSettledCount() {
+        return settledCount;
+    }
+
+    private Route search(int source, int target, Route previous) {
+        if (++generation == 0) {
+            Arrays.fill(visited, 0);
+            generation = 1;
+        }
+        double targetLatitude = graph.latitude(target);
+        double targetLongitude = graph.longitude(target);
+        heapSize = 0;
+        settledCount = 0;
+        visited[source] = generation;
+        cost[source] = 0f;
+        parent[source] = -1;
+        push(heuristic(source, targetLatitude, targetLongitude), source);
+
+        float bestTotal = Float.MAX_VALUE;
+        int bestJoin = -1;
+        int bestJoinIndex = -1;
+        while (heapSize > 0) {
+            float key = heapKeys[0];
+            int node = pop();
+            if (key >= bestTotal) {
+                break;
+            }
+            float g = cost[node];
+            if (key > g + heuristic(node, targetLatitude, targetLongitude) + 1e-3f) {
+                continue; // phần tử cũ, nút đã được cập nhật với chi phí tốt hơn
+            }
+            settledCount++;
+            int goalIndex = goalIndex(node);
+            if (goalIndex >= 0) {
+                float remaining = previous != null
+                        ? previous.getLengthMeters() - previous.distanceAt(goalIndex) : 0f;
+                if (g + remaining < bestTotal) {
+                    bestTotal = g + remaining;
+                    bestJoin = node;
+                    bestJoinIndex = goalIndex;
+                }
+                continue;
+            }
+            int end = graph.firstEdge(node + 1);
+            for (int edge = graph.firstEdge(node); edge < end; edge++) {
+                int next = graph.edgeTarget(edge);
+                float nextCost = g + graph.edgeLengthMeters(edge);
+                if (visited[next] != generation || nextCost < cost[next]) {
+                    visited[next] = generation;
+                    cost[next] = nextCost;
+                    parent[next] = node;
+                    push(nextCost + heuristic(next, targetLatitude, targetLongitude), next);
+                }
+            }
+        }
+        if (bestJoin < 0) {
+            return null;
+        }
+        return buildRoute(bestJoin, previous, bestJoinIndex);
+    }
+
+    /** Đường từ nguồn tới nút nhập, nối với phần còn lại của tuyến cũ sau nút nhập. */
+    private Route buildRoute(int join, Route previous, int joinIndex) {
+        int length = 0;
+        for (int node = join; node >= 0; node = parent[node]) {
+            length++;
+        }
+        int tail = previous != null ? previous.size() - 1 - joinIndex : 0;
+        int[] nodes = new int[length + tail];
+        for (int node = join, i = length - 1; node >= 0; node = parent[node], i--) {
+            nodes[i] = node;
+        }
+        for (int i = 0; i < tail; i++) {
+            nodes[length + i] = previous.node(joinIndex + 1 + i);
+        }
+        int[] edges = new int[nodes.length];
+        float[] distances = new float[nodes.length];
+        edges[0] = -1;
+        for (int i = 1; i < nodes.length; i++) {
+            int edge = i >= length ? previous.edge(joinIndex + 1 + i - length)
+                    : graph.findEdge(nodes[i - 1], nodes[i]);
+            edges[i] = edge;
+            distances[i] = distances[i - 1] + graph.edgeLengthMeters(edge);
+        }
+        return new Route(nodes, edges, distances);
+    }
+
+    private float heuristic(int node, double targetLatitude, double targetLongitude) {
+        return graph.distanceMeters(node, targetLatitude, targetLongitude) * HEURISTIC_WEIGHT;
+    }
+
+    private void clearGoals(int count) {
+        int capacity = Integer.highestOneBit(Math.max(count, 16) * 2 - 1) * 2;
+        if (goalNodes.length < capacity) {
+            goalNodes = new int[capacity];
+            goalIndices = new int[capacity];
+        }
+        goalMask = capacity - 1;
+        Arrays.fill(goalNodes, 0, capacity, -1);
+    }
+
+    private void putGoal(int node, int index) {
+        int slot = mix(node) & goalMask;
+        while (goalNodes[slot] >= 0 && goalNodes[slot] != node) {
+            slot = (slot + 1) & goalMask;
+        }
+        goalNodes[slot] = node;
+        goalIndices[slot] = index;
+    }
+
+    private int goalIndex(int node) {
+        int slot = mix(node) & goalMask;
+        while (goalNodes[slot] >= 0) {
+            if (goalNodes[slot] == node) {
+                return goalIndices[slot];
+            }
+            slot = (slot + 1) & goalMask;
+        }
+        return -1;
+    }
+
+    private static int mix(int value) {
+        int h = value * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private void push(float key, int node) {
+        if (heapSize == heapKeys.length) {
+            heapKeys = Arrays.copyOf(heapKeys, heapSize * 2);
+            heapNodes = Arrays.copyOf(heapNodes, heapSize * 2);
+        }
+        int i = heapSize++;
+        while (i > 0) {
+            int up = (i - 1) >>> 1;
+            if (heapKeys[up] <= key) {
+                break;
+            }
+            heapKeys[i] = heapKeys[up];
+            heapNodes[i] = heapNodes[up];
+            i = up;
+        }
+        heapKeys[i] = key;
+        heapNodes[i] = node;
+    }
+
+    private int pop() {
+        int top = heapNodes[0];
+        float key = heapKeys[--heapSize];
+        int node = heapNodes[heapSize];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && heapKeys[child + 1] < heapKeys[child]) {
+                child++;
+            }
+            if (key <= heapKeys[child]) {
+                break;
+            }
+            heapKeys[i] = heapKeys[child];
+            heapNodes[i] = heapNodes[child];
+            i = child;
+        }
+        heapKeys[i] = key;
+        heapNodes[i] = node;
+        return top;
+    }
+}
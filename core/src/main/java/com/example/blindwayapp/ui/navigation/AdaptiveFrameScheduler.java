@@ -0,0 +1,156 @@
+package com.example.blindwayapp.ui.navigation;
+
+/**
+ * Quyết định frame nào được đưa vào pipeline, thay cho quy tắc cố định "bỏ một frame, lấy một frame".
+ *
+ * Khoảng cách giữa hai frame được xử lý nằm giữa hai biên:
+ * <ul>
+ *     <li>nhanh nhất: thời gian của tầng chậm nhất (suy luận) – gửi nhanh hơn chỉ làm frame bị bỏ;</li>
+ *     <li>chậm nhất: độ trễ cảnh báo mục tiêu trừ đi độ trễ end-to-end đo được, để một vật cản
+ *     xuất hiện ngay sau lần lấy mẫu vẫn được cảnh báo kịp thời.</li>
+ * </ul>
+ * Vật cản càng gần hoặc cảnh thay đổi càng nhanh thì càng tiến về biên nhanh; cảnh tĩnh thì lùi về biên chậm.
+ *
+ * shouldProcess chạy trên luồng camera, các phép đo được ghi từ luồng khác nên các trường dùng volatile.
+ * Số frame mỗi giây đếm các frame đã xử lý xong (lúc ghi độ trễ end-to-end), không phải frame được nhận.
+ */
+public class AdaptiveFrameScheduler {
+
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    private static final float EWMA_ALPHA = 0.2f;
+
+    // Vật cản gần hơn NEAR_DISTANCE là khẩn cấp hoàn toàn, xa hơn FAR_DISTANCE thì không ảnh hưởng
+    private static final float NEAR_DISTANCE = 1.0f;
+    private static final float FAR_DISTANCE = 4.0f;
+
+    private volatile long targetAlertLatencyNanos;
+    private volatile long minIntervalFloorNanos;
+    private volatile long maxIntervalCeilingNanos;
+
+    private volatile float latencyEwmaNanos;
+    private volatile float stageEwmaNanos;
+    private volatile float closestDistance = Float.MAX_VALUE;
+    private volatile float sceneChange;
+
+    // Chỉ truy cập trên luồng camera
+    private long lastAcceptedNanos = Long.MIN_VALUE;
+    // Chỉ ghi trên luồng gọi recordEndToEndLatency
+    private long windowStartNanos = Long.MIN_VALUE;
+    private int windowFrames;
+    private volatile float processedFps;
+    private volatile long lastCompletedNanos = Long.MIN_VALUE;
+
+    /**
+     * @param targetAlertLatencyMillis độ trễ tối đa mong muốn từ lúc vật cản xuất hiện tới lúc cảnh báo
+     * @param minIntervalMillis        khoảng cách tối thiểu giữa hai frame được xử lý
+     * @param maxIntervalMillis        khoảng cách tối đa, kể cả khi cảnh hoàn toàn tĩnh
+     */
+    public AdaptiveFrameScheduler(long targetAlertLatencyMillis, long minIntervalMillis, long maxIntervalMillis) {
+        setTargetAlertLatencyMillis(targetAlertLatencyMillis);
+        setIntervalBoundsMillis(minIntervalMillis, maxIntervalMillis);
+    }
+
+    public void setTargetAlertLatencyMillis(long millis) {
+        targetAlertLatencyNanos = millis * NANOS_PER_MILLI;
+    }
+
+    public void setIntervalBoundsMillis(long minMillis, long maxMillis) {
+        if (minMillis < 0 || maxMillis < minMillis) {
+            throw new IllegalArgumentException("Khoảng cách frame không hợp lệ: " + minMillis + ".." + maxMillis);
+        }
+        minIntervalFloorNanos = minMillis * NANOS_PER_MILLI;
+        maxIntervalCeilingNanos = maxMillis * NANOS_PER_MILLI;
+    }
+
+    /**
+     * Gọi cho mỗi frame camera; true nếu frame nên được xử lý.
+     */
+    public boolean shouldProcess(long nowNanos) {
+        if (lastAcceptedNanos != Long.MIN_VALUE && nowNanos - lastAcceptedNanos < currentIntervalNanos()) {
+            return false;
+        }
+        lastAcceptedNanos = nowNanos;
+        return true;
+    }
+
+    /**
+     * Độ trễ từ lúc nhận frame tới lúc kết quả tới được tầng cảnh báo; mỗi lần gọi là một frame xử lý xong.
+     *
+     * @param completedNanos thời điểm kết quả tới tầng cảnh báo (System.nanoTime)
+     */
+    public void recordEndToEndLatency(long nanos, long completedNanos) {
+        latencyEwmaNanos = ewma(latencyEwmaNanos, nanos);
+        countCompletedFrame(completedNanos);
+    }
+
+    /** Thời gian của tầng chậm nhất trong pipeline (thường là Interpreter.run). */
+    public void recordBottleneckStage(long nanos) {
+        stageEwmaNanos = ewma(stageEwmaNanos, nanos);
+    }
+
+    /** Khoảng cách tới vật cản gần nhất trong frame vừa xử lý, Float.MAX_VALUE nếu không có. */
+    public void updateClosestObstacle(float meters) {
+        closestDistance = meters;
+    }
+
+    /** Mức thay đổi cảnh 0..1, xem SceneChangeDetector. */
+    public void updateSceneChange(float score) {
+        sceneChange = Math.max(0f, Math.min(1f, score));
+    }
+
+    /**
+     * Số frame xử lý xong mỗi giây, tính trên cửa sổ 1 giây gần nhất; về 0 nếu suốt một giây
+     * không có frame nào xong (pipeline bị nghẽn).
+     */
+    public float getProcessedFps(long nowNanos) {
+        long last = lastCompletedNanos;
+        if (last == Long.MIN_VALUE || nowNanos - last >= NANOS_PER_SECOND) {
+            return 0f;
+        }
+        return processedFps;
+    }
+
+    /** Thời gian trung bình (EWMA) của tầng chậm nhất, tính bằng mili giây. */
+    public float getBottleneckStageMillis() {
+        return stageEwmaNanos / NANOS_PER_MILLI;
+    }
+
+    public long currentIntervalNanos() {
+        long fastest = Math.max(minIntervalFloorNanos, (long) stageEwmaNanos);
+        long slowest = Math.min(maxIntervalCeilingNanos, targetAlertLatencyNanos - (long) latencyEwmaNanos);
+        if (slowest <= fastest) {
+            return fastest;
+        }
+        float urgency = Math.max(proximityUrgency(closestDistance), sceneChange);
+        return slowest - (long) (urgency * (slowest - fastest));
+    }
+
+    private void countCompletedFrame(long nowNanos) {
+        lastCompletedNanos = nowNanos;
+        if (windowStartNanos == Long.MIN_VALUE) {
+            windowStartNanos = nowNanos;
+        }
+        windowFrames++;
+        long elapsed = nowNanos - windowStartNanos;
+        if (elapsed >= NANOS_PER_SECOND) {
+            processedFps = (windowFrames - 1) * (float) NANOS_PER_SECOND / elapsed;
+            windowStartNanos = nowNanos;
+            windowFrames = 1;
+        }
+    }
+
+    static float proximityUrgency(float distance) {
+        if (distance <= NEAR_DISTANCE) {
+            return 1f;
+        }
+        if (distance >= FAR_DISTANCE) {
+            return 0f;
+        }
+        return (FAR_DISTANCE - distance) / (FAR_DISTANCE - NEAR_DISTANCE);
+    }
+
+    private static float ewma(float current, long sample) {
+        return current == 0f ? sample : current + EWMA_ALPHA * (sample - current);
+    }
+}
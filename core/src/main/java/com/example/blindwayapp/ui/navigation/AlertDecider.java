@@ -0,0 +1,134 @@
+package com.example.blindwayapp.ui.navigation;
+
+import java.util.Locale;
+
+/**
+ * Chọn cảnh báo giọng nói cho một frame kết quả: vật thể gần nhất đủ tin cậy, hoặc tường phía
+ * trước khi không có vật thể nào. Lọc trùng theo {@link AlertPolicy}.
+ *
+ * Dùng chung cho màn hình điều hướng và bộ phát lại frame ghi sẵn, nên kết quả chỉ phụ thuộc
+ * vào đầu vào và thời điểm truyền vào. decide() chỉ dùng trên một luồng; các hàm còn lại không
+ * có trạng thái nên gọi được từ luồng hậu xử lý.
+ */
+public class AlertDecider {
+
+    public static final float CONFIDENCE_THRESHOLD = 0.6f;
+    // Vật thể (sau khi tính tốc độ tiến lại gần) gần hơn mức này được báo như sắp va chạm
+    public static final float IMMINENT_DISTANCE = 1.0f;
+    public static final float WALL_DISTANCE_THRESHOLD = 1.0f;
+    // Chỉ báo "đang tới gần" khi vật thể tiến lại nhanh hơn tốc độ này (m/s)
+    public static final float APPROACHING_SPEED_THRESHOLD = 0.3f;
+    public static final long INFO_ALERT_GAP_MS = 2000;
+
+    // Các câu khẩn cấp cố định, được tổng hợp sẵn để phát ngay
+    public static final String ALERT_STOP_AHEAD = "Dừng lại! Vật cản phía trước";
+    public static final String ALERT_STOP_LEFT = "Dừng lại! Vật cản bên trái";
+    public static final String ALERT_STOP_RIGHT = "Dừng lại! Vật cản bên phải";
+    public static final String ALERT_WALL = "Cảnh báo: Ở sát tường!";
+
+    private static final int WALL_ALERT_KEY = Integer.MIN_VALUE;
+
+    private final AlertPolicy policy = new AlertPolicy(INFO_ALERT_GAP_MS);
+    private final float lookaheadSeconds;
+    private final Locale locale;
+
+    private AlertPolicy.Priority priority;
+    private String text;
+
+    /**
+     * @param lookaheadMillis vật thể đang lao tới được coi như đã ở vị trí của nó sau khoảng này
+     * @param locale          định dạng số trong câu thông báo
+     */
+    public AlertDecider(long lookaheadMillis, Locale locale) {
+        this.lookaheadSeconds = lookaheadMillis / 1000f;
+        this.locale = locale;
+    }
+
+    /**
+     * @param freeSpaceValid     false nếu frame quá tối để ước lượng khoảng trống
+     * @param centerFreeDistance khoảng trống phía trước (mét) từ FreeSpaceEstimator
+     * @return true nếu có cảnh báo cần nói; đọc bằng {@link #getPriority()} và {@link #getText()}
+     */
+    public boolean decide(DetectionList detections, boolean freeSpaceValid, float centerFreeDistance,
+                          long nowNanos) {
+        priority = null;
+        text = null;
+        if (detections.isEmpty()) {
+            if (freeSpaceValid && centerFreeDistance <= WALL_DISTANCE_THRESHOLD
+                    && policy.accept(AlertPolicy.Priority.WALL, WALL_ALERT_KEY,
+                    AlertPolicy.distanceBand(centerFreeDistance), nowNanos)) {
+                priority = AlertPolicy.Priority.WALL;
+                text = ALERT_WALL;
+                return true;
+            }
+            return false;
+        }
+
+        Detection closest = findClosest(detections);
+        if (closest == null || closest.confidence <= CONFIDENCE_THRESHOLD) {
+            return false;
+        }
+
+        AlertPolicy.Priority candidate = effectiveDistance(closest) < IMMINENT_DISTANCE
+                ? AlertPolicy.Priority.IMMINENT : AlertPolicy.Priority.INFO;
+        // Vật thể chưa có track thì dùng nhãn làm khóa
+        int key = closest.trackId >= 0 ? closest.trackId : closest.label.hashCode();
+        if (!policy.accept(candidate, key, AlertPolicy.distanceBand(closest.distance), nowNanos)) {
+            return false;
+        }
+
+        String message;
+        if (candidate == AlertPolicy.Priority.IMMINENT) {
+            message = imminentAlert(closest.direction);
+        } else if (detections.size() > 1) {
+            message = String.format(locale, "Phát hiện %d vật thể, gần nhất ở %s cách %.1f mét",
+                    detections.size(), closest.direction, closest.distance);
+        } else {
+            message = String.format(locale, "Phát hiện vật thể ở %s cách %.1f mét",
+                    closest.direction, closest.distance);
+        }
+        if (candidate == AlertPolicy.Priority.INFO && closest.closingSpeed > APPROACHING_SPEED_THRESHOLD) {
+            message += ", đang tới gần";
+        }
+        priority = candidate;
+        text = message;
+        return true;
+    }
+
+    public AlertPolicy.Priority getPriority() {
+        return priority;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    /** Khoảng cách sau khi trừ quãng vật thể kịp tiến lại trong thời gian cảnh báo tới tai người dùng. */
+    public float effectiveDistance(Detection detection) {
+        return detection.distance - Math.max(0f, detection.closingSpeed) * lookaheadSeconds;
+    }
+
+    /** Vật thể gần nhất, null nếu danh sách rỗng. */
+    public static Detection findClosest(DetectionList detections) {
+        Detection closest = null;
+        float minDistance = Float.MAX_VALUE;
+        for (int i = 0; i < detections.size(); i++) {
+            Detection detection = detections.get(i);
+            if (detection.distance < minDistance) {
+                minDistance = detection.distance;
+                closest = detection;
+            }
+        }
+        return closest;
+    }
+
+    static String imminentAlert(String direction) {
+        if (DetectionDecoder.DIRECTION_LEFT.equals(direction)) {
+            return ALERT_STOP_LEFT;
+        }
+        if (DetectionDecoder.DIRECTION_RIGHT.equals(direction)) {
+            return ALERT_STOP_RIGHT;
+        }
+        return ALERT_STOP_AHEAD;
+    }
+}
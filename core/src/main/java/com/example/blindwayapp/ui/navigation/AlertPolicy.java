@@ -0,0 +1,116 @@
+package com.example.blindwayapp.ui.navigation;
+
+/**
+ * Quyết định một cảnh báo có đáng được nói ra không, theo ý nghĩa chứ không theo chuỗi văn bản.
+ *
+ * Hai cảnh báo được coi là trùng nếu cùng khóa (thường là track ID), không khẩn cấp hơn và
+ * không rơi vào vùng khoảng cách gần hơn lần trước. Nhờ vậy đi thêm 0,1 m không làm câu mới
+ * cắt ngang câu cũ, nhưng vật thể vượt qua ngưỡng 2 m → 1 m vẫn được báo ngay.
+ *
+ * Không cấp phát sau khi khởi tạo; chỉ dùng trên một luồng (UI thread).
+ */
+public class AlertPolicy {
+
+    /** Mức ưu tiên, khẩn cấp nhất đứng trước. */
+    public enum Priority {
+        /** Sắp va chạm: nhắc lại thường xuyên khi nguy hiểm còn đó. */
+        IMMINENT(1500),
+        WALL(3000),
+        /** Thông tin chung về vật thể xung quanh. */
+        INFO(5000);
+
+        final long repeatNanos;
+
+        Priority(long repeatMillis) {
+            this.repeatNanos = repeatMillis * 1_000_000L;
+        }
+
+        boolean isMoreUrgentThan(Priority other) {
+            return ordinal() < other.ordinal();
+        }
+    }
+
+    // Ranh giới vùng khoảng cách (mét); vùng 0 là gần nhất
+    private static final float[] DISTANCE_BANDS = {1f, 2f, 3f, 5f};
+    private static final int HISTORY_SIZE = 16;
+
+    private final long infoGapNanos;
+
+    private final int[] keys = new int[HISTORY_SIZE];
+    private final int[] bands = new int[HISTORY_SIZE];
+    private final Priority[] priorities = new Priority[HISTORY_SIZE];
+    private final long[] announcedNanos = new long[HISTORY_SIZE];
+    private int historySize;
+    private long lastInfoNanos = Long.MIN_VALUE;
+
+    /**
+     * @param infoGapMillis khoảng cách tối thiểu giữa hai cảnh báo INFO bất kể khóa
+     */
+    public AlertPolicy(long infoGapMillis) {
+        this.infoGapNanos = infoGapMillis * 1_000_000L;
+    }
+
+    /** Vùng khoảng cách của một vật thể, 0 là gần nhất. */
+    public static int distanceBand(float meters) {
+        int band = 0;
+        while (band < DISTANCE_BANDS.length && meters >= DISTANCE_BANDS[band]) {
+            band++;
+        }
+        return band;
+    }
+
+    /**
+     * Ghi nhận và trả về true nếu cảnh báo nên được nói, false nếu trùng với cảnh báo gần đây.
+     *
+     * @param key  định danh ngữ nghĩa, ví dụ track ID của vật thể
+     * @param band vùng khoảng cách từ {@link #distanceBand}
+     */
+    public boolean accept(Priority priority, int key, int band, long nowNanos) {
+        if (priority == Priority.INFO && lastInfoNanos != Long.MIN_VALUE
+                && nowNanos - lastInfoNanos < infoGapNanos) {
+            return false;
+        }
+
+        int slot = find(key);
+        if (slot >= 0 && nowNanos - announcedNanos[slot] < priorities[slot].repeatNanos
+                && band >= bands[slot] && !priority.isMoreUrgentThan(priorities[slot])) {
+            return false;
+        }
+
+        if (slot < 0) {
+            slot = historySize < HISTORY_SIZE ? historySize++ : oldest();
+            keys[slot] = key;
+        }
+        bands[slot] = band;
+        priorities[slot] = priority;
+        announcedNanos[slot] = nowNanos;
+        if (priority == Priority.INFO) {
+            lastInfoNanos = nowNanos;
+        }
+        return true;
+    }
+
+    public void clear() {
+        historySize = 0;
+        lastInfoNanos = Long.MIN_VALUE;
+    }
+
+    private int find(int key) {
+        for (int i = 0; i < historySize; i++) {
+            if (keys[i] == key) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int oldest() {
+        int oldest = 0;
+        for (int i = 1; i < historySize; i++) {
+            if (announcedNanos[i] < announcedNanos[oldest]) {
+                oldest = i;
+            }
+        }
+        return oldest;
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.blindwayapp.ui.navigation;
+
+/**
+ * Thông số quang học của camera sau: tiêu cự và kích thước cảm biến (mm), đọc từ Camera2.
+ *
+ * Cảm biến nằm ngang theo chiều dài máy; frame phân tích đã được xoay sang chiều dọc nên
+ * chiều cao ảnh ứng với cạnh dài (sensorWidthMm) của cảm biến.
+ */
+public final class CameraIntrinsics {
+
+    /**
+     * Giá trị dùng khi không đọc được Camera2: tương đương tiêu cự 1000 px trên ảnh cao 480 px
+     * như công thức cũ.
+     */
+    public static final CameraIntrinsics DEFAULT = new CameraIntrinsics(4.8f, 2.304f, 1.728f);
+
+    public final float focalLengthMm;
+    public final float sensorWidthMm;
+    public final float sensorHeightMm;
+
+    public CameraIntrinsics(float focalLengthMm, float sensorWidthMm, float sensorHeightMm) {
+        if (focalLengthMm <= 0 || sensorWidthMm <= 0 || sensorHeightMm <= 0) {
+            throw new IllegalArgumentException("Thông số camera không hợp lệ: " + focalLengthMm
+                    + " mm, cảm biến " + sensorWidthMm + "x" + sensorHeightMm + " mm");
+        }
+        this.focalLengthMm = focalLengthMm;
+        this.sensorWidthMm = sensorWidthMm;
+        this.sensorHeightMm = sensorHeightMm;
+    }
+
+    /** Tiêu cự tính theo đơn vị chiều cao ảnh của frame đã xoay dọc. */
+    public float verticalFocalNormalized() {
+        return focalLengthMm / Math.max(sensorWidthMm, sensorHeightMm);
+    }
+
+    /** Góc nhìn dọc của frame đã xoay, độ. */
+    public float verticalFieldOfViewDegrees() {
+        return (float) Math.toDegrees(2 * Math.atan(0.5 / verticalFocalNormalized()));
+    }
+
+    @Override
+    public String toString() {
+        return focalLengthMm + " mm, cảm biến " + sensorWidthMm + "x" + sensorHeightMm + " mm";
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.blindwayapp.ui.navigation;
+
+/**
+ * Một vật thể phát hiện được trong frame. Tọa độ hộp chuẩn hóa 0..1 theo frame đã xoay đúng chiều.
+ *
+ * Đối tượng được dùng lại giữa các frame (xem DetectionList) nên không giữ tham chiếu lâu dài
+ * tới nó ngoài luồng đang xử lý; cần giữ lại thì copyFrom sang một Detection khác.
+ */
+public class Detection {
+    public String label;
+    public float confidence;
+    public float left;
+    public float top;
+    public float right;
+    public float bottom;
+    public float distance;
+    public String direction;
+    /** ID ổn định qua các frame do ObjectTracker gán, -1 nếu chưa được theo dõi. */
+    public int trackId = -1;
+    /** Tốc độ tiến lại gần (m/s, dương là đang lại gần), 0 nếu chưa biết. */
+    public float closingSpeed;
+
+    public Detection set(String label, float confidence,
+                         float left, float top, float right, float bottom,
+                         float distance, String direction) {
+        this.label = label;
+        this.confidence = confidence;
+        this.left = left;
+        this.top = top;
+        this.right = right;
+        this.bottom = bottom;
+        this.distance = distance;
+        this.direction = direction;
+        this.trackId = -1;
+        this.closingSpeed = 0f;
+        return this;
+    }
+
+    public void copyFrom(Detection other) {
+        set(other.label, other.confidence, other.left, other.top, other.right, other.bottom,
+                other.distance, other.direction);
+        trackId = other.trackId;
+        closingSpeed = other.closingSpeed;
+    }
+
+    public float width() {
+        return right - left;
+    }
+
+    public float height() {
+        return bottom - top;
+    }
+
+    public float centerX() {
+        return (left + right) * 0.5f;
+    }
+
+    public float centerY() {
+        return (top + bottom) * 0.5f;
+    }
+}
@@ -0,0 +1,335 @@
+package com.example.blindwayapp.ui.navigation;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Giải mã đầu ra của model thành danh sách Detection: lọc theo điểm, chọn top-K rồi NMS theo lớp.
+ *
+ * Hỗ trợ ba bố cục tensor đầu ra:
+ * <ul>
+ *     <li>[1, N, 5 + C] kiểu YOLOv5: cx, cy, w, h, objectness rồi điểm của C lớp;</li>
+ *     <li>[1, 4 + C, N] kiểu YOLOv8: hộp và điểm lớp theo cột, không có objectness;</li>
+ *     <li>[1, N, 4] của model cũ chỉ có hộp: độ tin cậy ước lượng theo diện tích, nhãn "vật thể".</li>
+ * </ul>
+ * Tọa độ có thể chuẩn hóa 0..1 hoặc tính theo pixel của ảnh đầu vào model.
+ *
+ * Ứng viên được giữ trong các mảng float/int phẳng, không cấp phát trong lúc xử lý:
+ * kết quả ghi vào DetectionList do FrameContext sở hữu.
+ */
+public class DetectionDecoder {
+
+    public static final String LABEL_OBJECT = "vật thể";
+    public static final String DIRECTION_LEFT = "bên trái";
+    public static final String DIRECTION_RIGHT = "bên phải";
+    public static final String DIRECTION_AHEAD = "phía trước";
+
+    /** Số vật thể tối đa trả về mỗi frame. */
+    public static final int MAX_RESULTS = 20;
+
+    private static final float CONFIDENCE_THRESHOLD = 0.6f;
+    private static final float SCORE_THRESHOLD = 0.45f;
+    private static final float IOU_THRESHOLD = 0.4f;
+    private static final int TOP_K = 300;
+    // Tọa độ lớn hơn ngưỡng này được coi là pixel của ảnh đầu vào thay vì giá trị chuẩn hóa
+    private static final float NORMALIZED_LIMIT = 2f;
+
+    enum Layout {
+        BOXES_ONLY,
+        ANCHOR_ROWS,
+        ANCHOR_COLUMNS
+    }
+
+    private final TensorSpec outputSpec;
+    private final Layout layout;
+    private final String[] labels;
+    private final int anchors;
+    private final int classes;
+    private final float inputWidth;
+    private final float inputHeight;
+    private final DistanceEstimator distanceEstimator;
+
+    // Ứng viên vượt ngưỡng, dạng mảng phẳng
+    private final float[] boxes;
+    private final float[] scores;
+    private final int[] classIds;
+    // Điểm và lớp tốt nhất của từng anchor, chỉ dùng cho bố cục theo cột
+    private final float[] bestScores;
+    private final int[] bestClasses;
+
+    private final NonMaxSuppression nms;
+    private final int[] keep;
+    private long lastNmsNanos;
+
+    /** Dùng thông số camera mặc định để ước lượng khoảng cách. */
+    public DetectionDecoder(ModelSpec spec, String[] labels) {
+        this(spec, labels, new DistanceEstimator(CameraIntrinsics.DEFAULT));
+    }
+
+    /**
+     * @param spec              model đang dùng (tensor đầu ra và kích thước ảnh đầu vào)
+     * @param labels            tên các lớp theo thứ tự của model; có thể rỗng với model chỉ có hộp
+     * @param distanceEstimator tra khoảng cách theo hàng chạm đất của hộp
+     * @throws IllegalArgumentException nếu bố cục đầu ra không khớp với số nhãn
+     */
+    public DetectionDecoder(ModelSpec spec, String[] labels, DistanceEstimator distanceEstimator) {
+        TensorSpec output = spec.output;
+        output.requireShape("Tensor đầu ra", 1, -1, -1);
+        int rows = output.dim(1);
+        int columns = output.dim(2);
+        int labelCount = labels.length;
+
+        if (columns == 4) {
+            layout = Layout.BOXES_ONLY;
+            anchors = rows;
+            classes = 1;
+        } else if (labelCount > 0 && columns == 5 + labelCount) {
+            layout = Layout.ANCHOR_ROWS;
+            anchors = rows;
+            classes = labelCount;
+        } else if (labelCount > 0 && rows == 4 + labelCount) {
+            layout = Layout.ANCHOR_COLUMNS;
+            anchors = columns;
+            classes = labelCount;
+        } else {
+            throw new IllegalArgumentException("Không nhận ra bố cục đầu ra " + output
+                    + " với " + labelCount + " nhãn");
+        }
+
+        this.outputSpec = output;
+        this.labels = labels.clone();
+        this.inputWidth = spec.getInputWidth();
+        this.inputHeight = spec.getInputHeight();
+        this.distanceEstimator = distanceEstimator;
+
+        boxes = new float[anchors * 4];
+        scores = new float[anchors];
+        classIds = new int[anchors];
+        bestScores = layout == Layout.ANCHOR_COLUMNS ? new float[anchors] : null;
+        bestClasses = layout == Layout.ANCHOR_COLUMNS ? new int[anchors] : null;
+
+        nms = new NonMaxSuppression(Math.min(TOP_K, anchors));
+        keep = new int[Math.min(MAX_RESULTS, anchors)];
+    }
+
+    public int getMaxResults() {
+        return keep.length;
+    }
+
+    /** Thời gian NMS của lần decode gần nhất, đã tính trong thời gian decode. */
+    public long getLastNmsNanos() {
+        return lastNmsNanos;
+    }
+
+    Layout getLayout() {
+        return layout;
+    }
+
+    /**
+     * Giải mã đầu ra thô của model, chọn top-K, lọc trùng theo lớp và ghi kết quả vào result.
+     * Với model lượng tử hóa chỉ các giá trị thật sự được đọc mới được giải lượng tử.
+     */
+    public void decode(ByteBuffer output, int frameWidth, int frameHeight, DetectionList result) {
+        decode(output, 0f, 0f, 1f, 1f, frameWidth, frameHeight, result);
+    }
+
+    /**
+     * Như {@link #decode(ByteBuffer, int, int, DetectionList)} cho đầu ra chạy trên một vùng cắt
+     * [cropLeft, cropTop, cropRight, cropBottom] của frame; hộp được đổi về tọa độ toàn khung
+     * trước khi tính khoảng cách và hướng.
+     */
+    public void decode(ByteBuffer output, float cropLeft, float cropTop, float cropRight, float cropBottom,
+                       int frameWidth, int frameHeight, DetectionList result) {
+        result.clear();
+        float cropWidth = cropRight - cropLeft;
+        float cropHeight = cropBottom - cropTop;
+
+        int count;
+        switch (layout) {
+            case ANCHOR_ROWS:
+                count = collectAnchorRows(output);
+                break;
+            case ANCHOR_COLUMNS:
+                count = collectAnchorColumns(output);
+                break;
+            default:
+                count = collectBoxesOnly(output);
+                break;
+        }
+
+        long nmsStart = System.nanoTime();
+        int kept = nms.apply(boxes, scores, classIds, count, IOU_THRESHOLD, keep);
+        lastNmsNanos = System.nanoTime() - nmsStart;
+        for (int i = 0; i < kept; i++) {
+            Detection detection = result.obtain();
+            if (detection == null) break;
+
+            int index = keep[i];
+            int b = index * 4;
+            float left = cropLeft + boxes[b] * cropWidth;
+            float top = cropTop + boxes[b + 1] * cropHeight;
+            float right = cropLeft + boxes[b + 2] * cropWidth;
+            float bottom = cropTop + boxes[b + 3] * cropHeight;
+            float centerX = (left + right) / 2;
+
+            // Cạnh dưới của hộp là nơi vật thể chạm đất
+            detection.set(labelOf(classIds[index]), scores[index],
+                    left, top, right, bottom,
+                    distanceEstimator.estimate(bottom),
+                    getDirection(centerX * frameWidth, frameWidth));
+        }
+    }
+
+    /** [1, N, 5 + C]: loại sớm theo objectness trước khi đọc điểm các lớp. */
+    private int collectAnchorRows(ByteBuffer output) {
+        int stride = 5 + classes;
+        int count = 0;
+        for (int i = 0; i < anchors; i++) {
+            int base = i * stride;
+            float objectness = outputSpec.read(output, base + 4);
+            if (objectness < SCORE_THRESHOLD) continue;
+
+            int bestClass = 0;
+            float bestScore = outputSpec.read(output, base + 5);
+            for (int c = 1; c < classes; c++) {
+                float score = outputSpec.read(output, base + 5 + c);
+                if (score > bestScore) {
+                    bestScore = score;
+                    bestClass = c;
+                }
+            }
+
+            float score = objectness * bestScore;
+            if (score < SCORE_THRESHOLD) continue;
+
+            if (addCandidate(count, outputSpec.read(output, base), outputSpec.read(output, base + 1),
+                    outputSpec.read(output, base + 2), outputSpec.read(output, base + 3), score, bestClass)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * [1, 4 + C, N]: duyệt theo từng lớp để đọc bộ nhớ tuần tự, giữ điểm cao nhất của mỗi anchor,
+     * sau đó chỉ đọc hộp của các anchor vượt ngưỡng.
+     */
+    private int collectAnchorColumns(ByteBuffer output) {
+        for (int i = 0; i < anchors; i++) {
+            bestScores[i] = 0f;
+            bestClasses[i] = 0;
+        }
+        for (int c = 0; c < classes; c++) {
+            int base = (4 + c) * anchors;
+            for (int i = 0; i < anchors; i++) {
+                float score = outputSpec.read(output, base + i);
+                if (score > bestScores[i]) {
+                    bestScores[i] = score;
+                    bestClasses[i] = c;
+                }
+            }
+        }
+
+        int count = 0;
+        for (int i = 0; i < anchors; i++) {
+            float score = bestScores[i];
+            if (score < SCORE_THRESHOLD) continue;
+
+            if (addCandidate(count, outputSpec.read(output, i), outputSpec.read(output, anchors + i),
+                    outputSpec.read(output, 2 * anchors + i), outputSpec.read(output, 3 * anchors + i),
+                    score, bestClasses[i])) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /** [1, N, 4] của model cũ: chỉ có hộp, độ tin cậy ước lượng theo diện tích. */
+    private int collectBoxesOnly(ByteBuffer output) {
+        int count = 0;
+        for (int i = 0; i < anchors; i++) {
+            int base = i * 4;
+            float centerX = outputSpec.read(output, base);
+            float centerY = outputSpec.read(output, base + 1);
+            float width = outputSpec.read(output, base + 2);
+            float height = outputSpec.read(output, base + 3);
+
+            if (!isValidBoundingBox(centerX, centerY, width, height)) {
+                continue;
+            }
+
+            float confidence = calculateConfidence(width, height);
+            if (confidence < CONFIDENCE_THRESHOLD) continue;
+
+            if (addCandidate(count, centerX, centerY, width, height, confidence, 0)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /** Ghi hộp [cx, cy, w, h] thành [left, top, right, bottom] chuẩn hóa; false nếu hộp suy biến. */
+    private boolean addCandidate(int index, float centerX, float centerY, float width, float height,
+                                 float score, int classId) {
+        if (width > NORMALIZED_LIMIT || height > NORMALIZED_LIMIT
+                || centerX > NORMALIZED_LIMIT || centerY > NORMALIZED_LIMIT) {
+            centerX /= inputWidth;
+            width /= inputWidth;
+            centerY /= inputHeight;
+            height /= inputHeight;
+        }
+
+        float left = Math.max(0f, centerX - width / 2);
+        float top = Math.max(0f, centerY - height / 2);
+        float right = Math.min(1f, centerX + width / 2);
+        float bottom = Math.min(1f, centerY + height / 2);
+        if (right <= left || bottom <= top) {
+            return false;
+        }
+
+        int b = index * 4;
+        boxes[b] = left;
+        boxes[b + 1] = top;
+        boxes[b + 2] = right;
+        boxes[b + 3] = bottom;
+        scores[index] = score;
+        classIds[index] = classId;
+        return true;
+    }
+
+    private String labelOf(int classId) {
+        return layout == Layout.BOXES_ONLY || classId >= labels.length ? LABEL_OBJECT : labels[classId];
+    }
+
+    static boolean isValidBoundingBox(float centerX, float centerY, float width, float height) {
+        return !(width < 0.05f || height < 0.05f ||
+                centerX < 0 || centerX > 1 ||
+                centerY < 0 || centerY > 1 ||
+                width > 1.5f || height > 1.5f);
+    }
+
+    static float calculateConfidence(float width, float height) {
+        return Math.min((width * height) * 8.0f, 0.8f);
+    }
+
+    public static String getDirection(float xCenter, int frameWidth) {
+        if (xCenter < frameWidth / 3) {
+            return DIRECTION_LEFT;
+        } else if (xCenter > 2 * frameWidth / 3) {
+            return DIRECTION_RIGHT;
+        } else {
+            return DIRECTION_AHEAD;
+        }
+    }
+
+    static float calculateIOU(Detection box1, Detection box2) {
+        float interLeft = Math.max(box1.left, box2.left);
+        float interTop = Math.max(box1.top, box2.top);
+        float interRight = Math.min(box1.right, box2.right);
+        float interBottom = Math.min(box1.bottom, box2.bottom);
+
+        float interArea = Math.max(0, interRight - interLeft) * Math.max(0, interBottom - interTop);
+        float unionArea = (box1.width() * box1.height()) + (box2.width() * box2.height()) - interArea;
+
+        return unionArea > 0 ? interArea / unionArea : 0;
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.blindwayapp.ui.navigation;
+
+/**
+ * Danh sách Detection dung lượng cố định, tái sử dụng các phần tử thay vì cấp phát mới mỗi frame.
+ */
+public class DetectionList {
+
+    private final Detection[] items;
+    private int size;
+
+    public DetectionList(int capacity) {
+        items = new Detection[capacity];
+        for (int i = 0; i < capacity; i++) {
+            items[i] = new Detection();
+        }
+    }
+
+    /**
+     * Lấy phần tử tái sử dụng kế tiếp và thêm vào cuối danh sách, hoặc null nếu đã đầy.
+     */
+    public Detection obtain() {
+        if (size == items.length) {
+            return null;
+        }
+        return items[size++];
+    }
+
+    public Detection get(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("index " + index + ", size " + size);
+        }
+        return items[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int capacity() {
+        return items.length;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /** Chép nội dung của danh sách khác vào các phần tử của danh sách này. */
+    public void copyFrom(DetectionList other) {
+        size = Math.min(other.size, items.length);
+        for (int i = 0; i < size; i++) {
+            items[i].copyFrom(other.items[i]);
+        }
+    }
+
+    /**
+     * true nếu hai danh sách có cùng số phần tử, cùng nhãn, cùng track theo thứ tự
+     * và mọi cạnh hộp lệch nhau không quá tolerance (đơn vị tọa độ chuẩn hóa).
+     */
+    public boolean sameAs(DetectionList other, float tolerance) {
+        if (other.size != size) {
+            return false;
+        }
+        for (int i = 0; i < size; i++) {
+            Detection a = items[i];
+            Detection b = other.items[i];
+            if (a.trackId != b.trackId || !a.label.equals(b.label)
+                    || Math.abs(a.left - b.left) > tolerance
+                    || Math.abs(a.top - b.top) > tolerance
+                    || Math.abs(a.right - b.right) > tolerance
+                    || Math.abs(a.bottom - b.bottom) > tolerance) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Sắp xếp giảm dần theo confidence (insertion sort, danh sách nhỏ và không cấp phát). */
+    public void sortByConfidenceDescending() {
+        for (int i = 1; i < size; i++) {
+            Detection current = items[i];
+            int j = i - 1;
+            while (j >= 0 && items[j].confidence < current.confidence) {
+                items[j + 1] = items[j];
+                j--;
+            }
+            items[j + 1] = current;
+        }
+    }
+}
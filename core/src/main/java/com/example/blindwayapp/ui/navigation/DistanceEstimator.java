@@ -0,0 +1,96 @@
+package com.example.blindwayapp.ui.navigation;
+
+/**
+ * Ước lượng khoảng cách tới vật thể bằng một camera, từ hàng ảnh nơi vật thể chạm đất.
+ *
+ * Giữ một {@link DistanceLookupTable} cho tư thế hiện tại; mỗi lần tra là O(1). Bảng chỉ được
+ * dựng lại khi độ nghiêng máy đổi quá {@link #PITCH_REBUILD_THRESHOLD_RADIANS} hoặc khi độ cao
+ * camera được hiệu chỉnh. Tra cứu chạy ở luồng hậu xử lý, cập nhật tư thế đến từ luồng cảm biến.
+ */
+public class DistanceEstimator {
+
+    public static final float DEFAULT_CAMERA_HEIGHT = 0.8f; // 80cm
+    public static final float DEFAULT_PITCH_RADIANS = (float) Math.toRadians(30);
+    // Độ cao camera hợp lý khi cầm hoặc đeo trước ngực
+    public static final float MIN_CAMERA_HEIGHT = 0.3f;
+    public static final float MAX_CAMERA_HEIGHT = 2.0f;
+
+    static final int TABLE_ROWS = 512;
+    static final float PITCH_REBUILD_THRESHOLD_RADIANS = (float) Math.toRadians(0.5);
+
+    private final float focalNormalized;
+    private volatile DistanceLookupTable table;
+    private int rebuildCount;
+
+    public DistanceEstimator(CameraIntrinsics intrinsics) {
+        this(intrinsics, DEFAULT_CAMERA_HEIGHT);
+    }
+
+    public DistanceEstimator(CameraIntrinsics intrinsics, float cameraHeight) {
+        focalNormalized = intrinsics.verticalFocalNormalized();
+        rebuild(clampHeight(cameraHeight), DEFAULT_PITCH_RADIANS);
+    }
+
+    /** Khoảng cách (mét) tới điểm chạm đất ở hàng y chuẩn hóa 0..1 của frame. */
+    public float estimate(float normalizedY) {
+        return table.distanceAt(normalizedY);
+    }
+
+    /**
+     * Độ nghiêng mới của trục camera so với phương ngang (radian, dương là chúc xuống).
+     *
+     * @return true nếu bảng được dựng lại
+     */
+    public synchronized boolean updatePitch(float pitchRadians) {
+        DistanceLookupTable current = table;
+        if (Math.abs(pitchRadians - current.pitchRadians) < PITCH_REBUILD_THRESHOLD_RADIANS) {
+            return false;
+        }
+        rebuild(current.cameraHeight, pitchRadians);
+        return true;
+    }
+
+    public synchronized void setCameraHeight(float cameraHeight) {
+        rebuild(clampHeight(cameraHeight), table.pitchRadians);
+    }
+
+    /**
+     * Hiệu chỉnh độ cao camera từ một vật đặt ở khoảng cách đã biết với tư thế hiện tại.
+     *
+     * @param normalizedY hàng chạm đất của vật hiệu chỉnh
+     * @return độ cao camera mới (mét), đã giới hạn trong khoảng hợp lý
+     */
+    public synchronized float calibrate(float normalizedY, float knownDistance) {
+        float pitch = table.pitchRadians;
+        float height = clampHeight(DistanceLookupTable.solveCameraHeight(
+                normalizedY, knownDistance, pitch, focalNormalized));
+        rebuild(height, pitch);
+        return height;
+    }
+
+    public float getCameraHeight() {
+        return table.cameraHeight;
+    }
+
+    public float getPitchRadians() {
+        return table.pitchRadians;
+    }
+
+    /** Hàng chuẩn hóa của đường chân trời với tư thế hiện tại; âm nếu nằm trên đỉnh khung hình. */
+    public float getHorizonRow() {
+        return (float) (0.5 - focalNormalized * Math.tan(table.pitchRadians));
+    }
+
+    synchronized int getRebuildCount() {
+        return rebuildCount;
+    }
+
+    private void rebuild(float cameraHeight, float pitchRadians) {
+        table = new DistanceLookupTable(TABLE_ROWS, cameraHeight, pitchRadians, focalNormalized);
+        rebuildCount++;
+    }
+
+    private static float clampHeight(float cameraHeight) {
+        return Math.max(MIN_CAMERA_HEIGHT, Math.min(MAX_CAMERA_HEIGHT, cameraHeight));
+    }
+}
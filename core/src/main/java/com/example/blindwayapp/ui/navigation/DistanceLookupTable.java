@@ -0,0 +1,64 @@
+package com.example.blindwayapp.ui.navigation;
+
+/**
+ * Khoảng cách mặt đất cho từng hàng ảnh, tính sẵn cho một tư thế camera.
+ *
+ * Với camera ở độ cao h, trục quang nghiêng xuống góc pitch so với phương ngang, điểm chạm đất
+ * ở hàng y (0..1, từ trên xuống) nằm trên tia lệch atan((y - 0.5) / f) so với trục quang nên cách
+ * chân người h / tan(pitch + atan((y - 0.5) / f)). Hàng ở trên đường chân trời cho
+ * {@link #MAX_DISTANCE}. Bất biến sau khi tạo nên dùng chung giữa các luồng được.
+ */
+public final class DistanceLookupTable {
+
+    /** Khoảng cách cho điểm ở xa hoặc trên đường chân trời (mét). */
+    public static final float MAX_DISTANCE = 20f;
+    public static final float MIN_DISTANCE = 0.1f;
+
+    private final float[] distances;
+    public final float cameraHeight;
+    public final float pitchRadians;
+
+    public DistanceLookupTable(int rows, float cameraHeight, float pitchRadians, float focalNormalized) {
+        if (rows < 2) {
+            throw new IllegalArgumentException("Cần ít nhất 2 hàng: " + rows);
+        }
+        this.cameraHeight = cameraHeight;
+        this.pitchRadians = pitchRadians;
+        distances = new float[rows];
+        for (int row = 0; row < rows; row++) {
+            distances[row] = groundDistance((float) row / (rows - 1), cameraHeight, pitchRadians, focalNormalized);
+        }
+    }
+
+    /** Khoảng cách (mét) tới điểm chạm đất ở hàng y chuẩn hóa 0..1, làm tròn 0,1 m. */
+    public float distanceAt(float normalizedY) {
+        int row = (int) (Math.max(0f, Math.min(1f, normalizedY)) * (distances.length - 1) + 0.5f);
+        return distances[row];
+    }
+
+    public int getRows() {
+        return distances.length;
+    }
+
+    /** Công thức đầy đủ, dùng khi dựng bảng và khi hiệu chỉnh. */
+    public static float groundDistance(float normalizedY, float cameraHeight, float pitchRadians,
+                                       float focalNormalized) {
+        double angle = pitchRadians + Math.atan((normalizedY - 0.5) / focalNormalized);
+        if (angle <= 0) {
+            return MAX_DISTANCE;
+        }
+        double distance = cameraHeight / Math.tan(angle);
+        double rounded = Math.round(distance * 10) / 10.0;
+        return (float) Math.max(MIN_DISTANCE, Math.min(MAX_DISTANCE, rounded));
+    }
+
+    /** Độ cao camera khiến điểm ở hàng y cách đúng knownDistance mét. */
+    public static float solveCameraHeight(float normalizedY, float knownDistance, float pitchRadians,
+                                          float focalNormalized) {
+        double angle = pitchRadians + Math.atan((normalizedY - 0.5) / focalNormalized);
+        if (angle <= 0) {
+            throw new IllegalArgumentException("Điểm hiệu chỉnh nằm trên đường chân trời");
+        }
+        return (float) (knownDistance * Math.tan(angle));
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.blindwayapp.ui.navigation;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Toàn bộ buffer cần cho một frame: tensor đầu vào, tensor đầu ra của model và danh sách Detection.
+ *
+ * Được cấp một lần trong FrameContextPool và dùng lại, nên vòng lặp xử lý frame
+ * ở trạng thái ổn định không cấp phát bộ nhớ.
+ */
+public class FrameContext {
+
+    public final ByteBuffer inputBuffer;
+    /** Đầu ra thô của model, đọc qua TensorSpec (giải lượng tử nếu cần). */
+    public final ByteBuffer outputBuffer;
+    /** Kết quả cuối cùng sau NMS. */
+    public final DetectionList detections;
+    /** Tensor đầu vào của các vùng cắt do RoiPlanner chọn, cắt thẳng từ các plane của camera. */
+    public final ByteBuffer[] cropInputs;
+    /** [left, top, right, bottom] chuẩn hóa của từng vùng cắt. */
+    public final float[] cropRects;
+    /** Detection của từng vùng cắt, đã đổi sang tọa độ toàn khung. */
+    public final DetectionList[] cropDetections;
+    public int cropCount;
+
+    public int frameWidth;
+    public int frameHeight;
+    public long timestampNanos;
+    /** System.nanoTime() lúc frame bắt đầu được xử lý, để đo độ trễ end-to-end. */
+    public long startNanos;
+    /** true nếu kết quả chỉ được ngoại suy từ tracker, không chạy model. */
+    public boolean predicted;
+    /** System.nanoTime() lúc kết quả được chuyển cho UI thread. */
+    public long publishedNanos;
+
+    public FrameContext(int inputBytes, int outputBytes, int maxDetections) {
+        this(inputBytes, outputBytes, maxDetections, 0);
+    }
+
+    /**
+     * Đầu ra thô của vùng cắt không nằm trong context: tầng suy luận giải mã ngay vào
+     * cropDetections nên chỉ cần một buffer đầu ra cho mỗi luồng suy luận.
+     */
+    public FrameContext(int inputBytes, int outputBytes, int maxDetections, int maxCrops) {
+        inputBuffer = ByteBuffer.allocateDirect(inputBytes).order(ByteOrder.nativeOrder());
+        outputBuffer = ByteBuffer.allocateDirect(outputBytes).order(ByteOrder.nativeOrder());
+        detections = new DetectionList(maxDetections);
+        cropInputs = new ByteBuffer[maxCrops];
+        cropRects = new float[maxCrops * 4];
+        cropDetections = new DetectionList[maxCrops];
+        for (int i = 0; i < maxCrops; i++) {
+            cropInputs[i] = ByteBuffer.allocateDirect(inputBytes).order(ByteOrder.nativeOrder());
+            cropDetections[i] = new DetectionList(maxDetections);
+        }
+    }
+
+    void reset() {
+        detections.clear();
+        for (DetectionList crop : cropDetections) {
+            crop.clear();
+        }
+        cropCount = 0;
+        frameWidth = 0;
+        frameHeight = 0;
+        timestampNanos = 0;
+        startNanos = 0;
+        predicted = false;
+        publishedNanos = 0;
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.blindwayapp.ui.navigation;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Pool cố định các FrameContext, lock-free và không cấp phát khi acquire/release.
+ *
+ * Khi pool cạn, acquire trả về null và frame đó bị bỏ qua thay vì cấp thêm bộ nhớ.
+ */
+public class FrameContextPool {
+
+    private final AtomicReferenceArray<FrameContext> slots;
+
+    public FrameContextPool(int size, int inputBytes, int outputBytes, int maxDetections) {
+        this(size, inputBytes, outputBytes, maxDetections, 0);
+    }
+
+    public FrameContextPool(int size, int inputBytes, int outputBytes, int maxDetections, int maxCrops) {
+        slots = new AtomicReferenceArray<>(size);
+        for (int i = 0; i < size; i++) {
+            slots.set(i, new FrameContext(inputBytes, outputBytes, maxDetections, maxCrops));
+        }
+    }
+
+    public FrameContext acquire() {
+        for (int i = 0; i < slots.length(); i++) {
+            FrameContext context = slots.get(i);
+            if (context != null && slots.compareAndSet(i, context, null)) {
+                context.reset();
+                return context;
+            }
+        }
+        return null;
+    }
+
+    public void release(FrameContext context) {
+        if (context == null) {
+            return;
+        }
+        for (int i = 0; i < slots.length(); i++) {
+            if (slots.get(i) == null && slots.compareAndSet(i, null, context)) {
+                return;
+            }
+        }
+        throw new IllegalStateException("FrameContext không thuộc pool hoặc bị trả lại hai lần");
+    }
+
+    /** Số FrameContext đang rảnh trong pool. */
+    public int available() {
+        int count = 0;
+        for (int i = 0; i < slots.length(); i++) {
+            if (slots.get(i) != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
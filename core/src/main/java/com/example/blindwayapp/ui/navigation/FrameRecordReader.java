@@ -0,0 +1,81 @@
+package com.example.blindwayapp.ui.navigation;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Đọc lại file do {@link FrameRecordWriter} ghi, lần lượt từng frame vào một RecordedFrame dùng lại.
+ */
+public class FrameRecordReader implements Closeable {
+
+    private final Inflater inflater = new Inflater();
+    private final DataInputStream in;
+    private byte[] scratch = new byte[0];
+
+    public FrameRecordReader(InputStream stream) throws IOException {
+        DataInputStream header = new DataInputStream(stream);
+        int magic = header.readInt();
+        int version = header.readInt();
+        if (magic != FrameRecordWriter.MAGIC) {
+            throw new IOException("Không phải file ghi frame");
+        }
+        if (version != FrameRecordWriter.VERSION) {
+            throw new IOException("Phiên bản file ghi frame không hỗ trợ: " + version);
+        }
+        in = new DataInputStream(new BufferedInputStream(new InflaterInputStream(stream, inflater, 64 * 1024)));
+    }
+
+    /**
+     * Đọc frame kế tiếp vào frame.
+     *
+     * @return false nếu đã hết file
+     */
+    public boolean next(RecordedFrame frame) throws IOException {
+        int marker;
+        try {
+            marker = in.readInt();
+        } catch (EOFException e) {
+            return false;
+        }
+        if (marker != FrameRecordWriter.FRAME_MARKER) {
+            throw new IOException("File ghi frame bị hỏng");
+        }
+        frame.timestampNanos = in.readLong();
+        frame.width = in.readInt();
+        frame.height = in.readInt();
+        frame.rotationDegrees = in.readInt();
+        frame.yRowStride = in.readInt();
+        frame.uvRowStride = in.readInt();
+        frame.uvPixelStride = in.readInt();
+        for (int plane = 0; plane < 3; plane++) {
+            int length = in.readInt();
+            if (length < 0) {
+                throw new IOException("File ghi frame bị hỏng");
+            }
+            if (scratch.length < length) {
+                scratch = new byte[length];
+            }
+            in.readFully(scratch, 0, length);
+            ByteBuffer target = frame.planeForLength(plane, length);
+            target.put(scratch, 0, length);
+            target.flip();
+        }
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            in.close();
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.blindwayapp.ui.navigation;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Ghi chuỗi frame YUV thô vào file nhị phân gọn để phát lại trên máy tính.
+ *
+ * Định dạng: magic "BWFR" và phiên bản (không nén), sau đó là luồng deflate gồm các bản ghi
+ * frame: marker, timestamp, kích thước, góc xoay, stride rồi độ dài và nội dung ba plane.
+ * Nén ở mức nhanh nhất vì chạy trên thiết bị trong lúc camera đang hoạt động.
+ */
+public class FrameRecordWriter implements Closeable {
+
+    static final int MAGIC = 0x42574652; // "BWFR"
+    static final int VERSION = 1;
+    static final int FRAME_MARKER = 0x46524D45; // "FRME"
+
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    private final DataOutputStream out;
+    private byte[] scratch = new byte[0];
+    private int frameCount;
+    private long rawBytes;
+
+    public FrameRecordWriter(OutputStream stream) throws IOException {
+        DataOutputStream header = new DataOutputStream(stream);
+        header.writeInt(MAGIC);
+        header.writeInt(VERSION);
+        header.flush();
+        out = new DataOutputStream(new BufferedOutputStream(new DeflaterOutputStream(stream, deflater, 64 * 1024)));
+    }
+
+    public void write(RecordedFrame frame) throws IOException {
+        out.writeInt(FRAME_MARKER);
+        out.writeLong(frame.timestampNanos);
+        out.writeInt(frame.width);
+        out.writeInt(frame.height);
+        out.writeInt(frame.rotationDegrees);
+        out.writeInt(frame.yRowStride);
+        out.writeInt(frame.uvRowStride);
+        out.writeInt(frame.uvPixelStride);
+        writePlane(frame.yPlane);
+        writePlane(frame.uPlane);
+        writePlane(frame.vPlane);
+        frameCount++;
+    }
+
+    public int getFrameCount() {
+        return frameCount;
+    }
+
+    /** Tổng số byte plane chưa nén đã ghi. */
+    public long getRawBytes() {
+        return rawBytes;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            out.close();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private void writePlane(ByteBuffer plane) throws IOException {
+        int length = plane.limit();
+        if (scratch.length < length) {
+            scratch = new byte[length];
+        }
+        for (int i = 0; i < length; i++) {
+            scratch[i] = plane.get(i);
+        }
+        out.writeInt(length);
+        out.write(scratch, 0, length);
+        rawBytes += length;
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.blindwayapp.ui.navigation;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Chạy lại các frame đã ghi qua đúng chuỗi xử lý của màn hình điều hướng: ước lượng khoảng trống,
+ * chuyển YUV sang tensor, suy luận, giải mã + NMS, tracker và AlertDecider.
+ *
+ * Chạy đồng bộ trên một luồng, mỗi frame một lượt, nên độ trễ đo được là của từng tầng chứ không
+ * có thời gian chờ hàng đợi. Thời điểm cảnh báo lấy theo timestamp của frame để việc lọc trùng
+ * giống như lúc ghi dù máy tính chạy nhanh hay chậm hơn điện thoại.
+ */
+public class FrameReplayer {
+
+    /** Chạy model trên tensor đầu vào, ghi đầu ra thô vào output. */
+    public interface Inference {
+        void run(ByteBuffer input, ByteBuffer output);
+    }
+
+    /** Một cảnh báo đã phát khi chạy lại. */
+    public static final class Alert {
+        public final int frameIndex;
+        public final long timestampNanos;
+        public final AlertPolicy.Priority priority;
+        public final String text;
+
+        Alert(int frameIndex, long timestampNanos, AlertPolicy.Priority priority, String text) {
+            this.frameIndex = frameIndex;
+            this.timestampNanos = timestampNanos;
+            this.priority = priority;
+            this.text = text;
+        }
+    }
+
+    private final Inference inference;
+    private final YuvToTensorConverter converter;
+    private final DetectionDecoder decoder;
+    private final ByteBuffer inputBuffer;
+    private final ByteBuffer outputBuffer;
+    private final FreeSpaceEstimator freeSpaceEstimator;
+    private final ObjectTracker tracker;
+    private final AlertDecider alertDecider;
+    private final DetectionList detections;
+    private final PipelineMetrics metrics = new PipelineMetrics(System.nanoTime());
+    private final List<Alert> alerts = new ArrayList<>();
+
+    private int frameCount;
+    private long processingNanos;
+    private long firstTimestampNanos;
+    private long lastTimestampNanos;
+
+    /**
+     * @param spec      model dùng khi ghi; null cùng inference null để chỉ chạy cảnh báo tường
+     * @param inference null nếu không có runtime TFLite trên máy chạy lại
+     */
+    public FrameReplayer(ModelSpec spec, String[] labels, Inference inference,
+                         DistanceEstimator distanceEstimator, ObjectTracker tracker, AlertDecider alertDecider) {
+        if ((spec == null) != (inference == null)) {
+            throw new IllegalArgumentException("Cần cả ModelSpec và Inference, hoặc không cái nào");
+        }
+        this.inference = inference;
+        this.tracker = tracker;
+        this.alertDecider = alertDecider;
+        freeSpaceEstimator = new FreeSpaceEstimator(distanceEstimator);
+        if (spec != null) {
+            converter = new YuvToTensorConverter(spec.getInputWidth(), spec.getInputHeight(), spec.input.dataType);
+            converter.requireInput(spec.input);
+            decoder = new DetectionDecoder(spec, labels, distanceEstimator);
+            inputBuffer = ByteBuffer.allocateDirect(spec.input.numBytes()).order(ByteOrder.nativeOrder());
+            outputBuffer = ByteBuffer.allocateDirect(spec.output.numBytes()).order(ByteOrder.nativeOrder());
+            detections = new DetectionList(Math.max(decoder.getMaxResults(), tracker.getCapacity()));
+        } else {
+            converter = null;
+            decoder = null;
+            inputBuffer = null;
+            outputBuffer = null;
+            detections = new DetectionList(tracker.getCapacity());
+        }
+    }
+
+    /** Xử lý một frame; frame có thể được dùng lại ngay sau khi hàm trả về. */
+    public void process(RecordedFrame frame) {
+        long start = System.nanoTime();
+        freeSpaceEstimator.update(frame.yPlane, frame.yRowStride, frame.width, frame.height, frame.rotationDegrees);
+        boolean rotated = frame.rotationDegrees % 180 != 0;
+        int frameWidth = rotated ? frame.height : frame.width;
+        int frameHeight = rotated ? frame.width : frame.height;
+
+        if (inference != null) {
+            converter.convert(frame.yPlane, frame.yRowStride, frame.uPlane, frame.vPlane,
+                    frame.uvRowStride, frame.uvPixelStride, frame.width, frame.height,
+                    frame.rotationDegrees, inputBuffer);
+            long converted = System.nanoTime();
+            metrics.record(PipelineMetrics.Stage.PREPROCESS, converted - start);
+
+            outputBuffer.rewind();
+            inference.run(inputBuffer, outputBuffer);
+            long inferred = System.nanoTime();
+            metrics.record(PipelineMetrics.Stage.INFERENCE, inferred - converted);
+
+            decoder.decode(outputBuffer, frameWidth, frameHeight, detections);
+            long nms = decoder.getLastNmsNanos();
+            metrics.record(PipelineMetrics.Stage.DECODE, System.nanoTime() - inferred - nms);
+            metrics.record(PipelineMetrics.Stage.NMS, nms);
+        } else {
+            detections.clear();
+        }
+
+        long trackStart = System.nanoTime();
+        tracker.update(detections, frame.timestampNanos);
+        tracker.predict(frame.timestampNanos, frameWidth, detections);
+        metrics.record(PipelineMetrics.Stage.TRACKING, System.nanoTime() - trackStart);
+
+        if (alertDecider.decide(detections, freeSpaceEstimator.isValid(),
+                freeSpaceEstimator.getCenterFreeDistance(), frame.timestampNanos)) {
+            alerts.add(new Alert(frameCount, frame.timestampNanos, alertDecider.getPriority(), alertDecider.getText()));
+        }
+
+        long elapsed = System.nanoTime() - start;
+        metrics.record(PipelineMetrics.Stage.END_TO_END, elapsed);
+        processingNanos += elapsed;
+        if (frameCount == 0) {
+            firstTimestampNanos = frame.timestampNanos;
+        }
+        lastTimestampNanos = frame.timestampNanos;
+        frameCount++;
+    }
+
+    public int getFrameCount() {
+        return frameCount;
+    }
+
+    public PipelineMetrics getMetrics() {
+        return metrics;
+    }
+
+    public List<Alert> getAlerts() {
+        return Collections.unmodifiableList(alerts);
+    }
+
+    /** Số frame xử lý được mỗi giây, chỉ tính thời gian xử lý. */
+    public double getThroughputFps() {
+        return processingNanos == 0 ? 0 : frameCount * 1e9 / processingNanos;
+    }
+
+    /** Báo cáo: thông lượng, phân bố độ trễ từng tầng và danh sách cảnh báo đã phát. */
+    public String report() {
+        StringBuilder builder = new StringBuilder(1024);
+        double recordedSeconds = (lastTimestampNanos - firstTimestampNanos) / 1e9;
+        builder.append(String.format(Locale.US, "%d frame, ghi trong %.1f s, chạy lại %.1f frame/s%n",
+                frameCount, recordedSeconds, getThroughputFps()));
+        builder.append(metrics.summary(inference != null ? frameCount : 0, 0));
+        builder.append(String.format(Locale.US, "cảnh báo: %d%n", alerts.size()));
+        for (Alert alert : alerts) {
+            builder.append(String.format(Locale.US, "  +%8.3f s  #%-5d %-9s %s%n",
+                    (alert.timestampNanos - firstTimestampNanos) / 1e9, alert.frameIndex,
+                    alert.priority, alert.text));
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,200 @@
+package com.example.blindwayapp.ui.navigation;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Ước lượng khoảng trống phía trước theo từng cột ảnh, chỉ dùng plane Y (không đổi sang RGB).
+ *
+ * Frame được chia thành lưới COLUMNS x ROWS ô theo chiều đã xoay đúng; độ sáng mỗi ô là trung
+ * bình 4 điểm lấy mẫu. Mỗi cột được quét từ dưới lên: vùng đáy khung hình được coi là mặt đất,
+ * ô đầu tiên có cạnh (chênh sáng với ô kề) hoặc độ sáng khác hẳn mặt đất trong hai ô liên tiếp
+ * là chân vật cản. Hàng đó đổi ra mét bằng DistanceEstimator.
+ *
+ * Cột đồng nhất tới tận đỉnh khung hình chỉ được coi là đang nhìn sát vào tường khi camera gần
+ * phương ngang, tức đường chân trời đáng lẽ nằm trong khung hình. Khi camera chúc xuống, cột đó
+ * là mặt sàn trơn (bê tông, gạch, thảm) và được coi là trống. Frame quá tối thì không kết luận gì. Bảng vị trí lấy mẫu chỉ dựng lại khi
+ * kích thước hoặc góc xoay đổi; mỗi frame đọc khoảng 4.600 byte và không cấp phát.
+ */
+public class FreeSpaceEstimator {
+
+    static final int COLUMNS = 24;
+    static final int ROWS = 48;
+    private static final int SAMPLES_PER_CELL = 4;
+    // Các hàng đáy dùng làm mẫu mặt đất
+    private static final int GROUND_ROWS = 4;
+    private static final int MIN_EDGE = 12;
+    private static final int EDGE_FACTOR = 3;
+    private static final int LUMA_DEVIATION = 28;
+    // Chênh sáng tối thiểu ở đâu đó trong cột để coi là có cấu trúc cảnh (đường chân trời, mép vật)
+    private static final int TEXTURE_EDGE = 8;
+    private static final int DARK_LUMA = 20;
+
+    private final DistanceEstimator distanceEstimator;
+
+    private final int[] sampleOffsets = new int[ROWS * COLUMNS * SAMPLES_PER_CELL];
+    private int tableWidth = -1;
+    private int tableHeight = -1;
+    private int tableStride = -1;
+    private int tableRotation = -1;
+
+    private final int[] cells = new int[ROWS * COLUMNS];
+    private final float[] freeRows = new float[COLUMNS];
+    private final float[] freeDistances = new float[COLUMNS];
+    private final float[] sortScratch = new float[COLUMNS];
+    private boolean valid;
+
+    public FreeSpaceEstimator(DistanceEstimator distanceEstimator) {
+        this.distanceEstimator = distanceEstimator;
+    }
+
+    /**
+     * Phân tích một frame.
+     *
+     * @param rotationDegrees góc xoay theo chiều kim đồng hồ để frame đúng chiều (0/90/180/270)
+     */
+    public synchronized void update(ByteBuffer yPlane, int rowStride, int width, int height, int rotationDegrees) {
+        int rotation = ((rotationDegrees % 360) + 360) % 360;
+        if (width != tableWidth || height != tableHeight || rowStride != tableStride || rotation != tableRotation) {
+            buildSampleTable(rowStride, width, height, rotation);
+        }
+
+        long lumaSum = 0;
+        for (int cell = 0, s = 0; cell < cells.length; cell++) {
+            int sum = 0;
+            for (int k = 0; k < SAMPLES_PER_CELL; k++) {
+                sum += yPlane.get(sampleOffsets[s++]) & 0xFF;
+            }
+            cells[cell] = sum / SAMPLES_PER_CELL;
+            lumaSum += cells[cell];
+        }
+
+        valid = lumaSum / cells.length >= DARK_LUMA;
+        boolean horizonInFrame = distanceEstimator.getHorizonRow() >= 0f;
+        for (int col = 0; col < COLUMNS; col++) {
+            float row = valid ? scanColumn(col, horizonInFrame) : 0f;
+            freeRows[col] = row;
+            freeDistances[col] = valid ? distanceEstimator.estimate(row) : DistanceLookupTable.MAX_DISTANCE;
+        }
+    }
+
+    /** false nếu frame cuối quá tối để kết luận. */
+    public synchronized boolean isValid() {
+        return valid;
+    }
+
+    /** Chép khoảng trống (mét) của từng cột, trái sang phải, vào out (ít nhất COLUMNS phần tử). */
+    public synchronized void copyProfile(float[] out) {
+        System.arraycopy(freeDistances, 0, out, 0, COLUMNS);
+    }
+
+    /** Hàng chuẩn hóa 0..1 của chân vật cản ở từng cột (0 nếu trống tới đường chân trời hoặc đỉnh khung hình). */
+    public synchronized void copyFreeRows(float[] out) {
+        System.arraycopy(freeRows, 0, out, 0, COLUMNS);
+    }
+
+    /** Trung vị khoảng trống của một phần ba giữa khung hình, tức hướng đang đi tới. */
+    public synchronized float getCenterFreeDistance() {
+        int from = COLUMNS / 3;
+        int to = COLUMNS - COLUMNS / 3;
+        int n = 0;
+        for (int col = from; col < to; col++) {
+            float value = freeDistances[col];
+            int j = n++ - 1;
+            while (j >= 0 && sortScratch[j] > value) {
+                sortScratch[j + 1] = sortScratch[j];
+                j--;
+            }
+            sortScratch[j + 1] = value;
+        }
+        return sortScratch[n / 2];
+    }
+
+    /** Quét một cột từ dưới lên, trả về hàng chuẩn hóa của chân vật cản đầu tiên. */
+    private float scanColumn(int col, boolean horizonInFrame) {
+        int groundSum = 0;
+        int baselineEdge = 0;
+        for (int row = ROWS - GROUND_ROWS; row < ROWS; row++) {
+            groundSum += cell(row, col);
+            baselineEdge += edge(row, col);
+        }
+        int groundLuma = groundSum / GROUND_ROWS;
+        int threshold = Math.max(MIN_EDGE, EDGE_FACTOR * baselineEdge / GROUND_ROWS);
+
+        boolean textured = false;
+        boolean previousHit = false;
+        for (int row = ROWS - 1; row > 0; row--) {
+            int edge = edge(row, col);
+            textured |= edge >= TEXTURE_EDGE;
+            boolean hit = edge > threshold || Math.abs(cell(row, col) - groundLuma) > LUMA_DEVIATION;
+            if (hit && previousHit) {
+                // Ô thấp hơn trong cặp đã khác mặt đất thì nó thuộc vật cản, nếu không thì
+                // nó chỉ là mặt đất nằm ngay dưới mép vật cản
+                int lower = row + 1;
+                boolean lowerIsObstacle = Math.abs(cell(lower, col) - groundLuma) > LUMA_DEVIATION;
+                return (lowerIsObstacle ? lower + 1 : lower) / (float) ROWS;
+            }
+            previousHit = hit;
+        }
+        // Không có cạnh nào từ đáy tới đỉnh: nếu đáng lẽ phải thấy đường chân trời thì nhiều khả
+        // năng camera đang sát một bức tường trơn, còn không thì cả cột chỉ là mặt sàn
+        return textured || !horizonInFrame ? 0f : 1f;
+    }
+
+    private int cell(int row, int col) {
+        return cells[row * COLUMNS + col];
+    }
+
+    /** Chênh sáng của ô với ô phía trên và ô bên phải. */
+    private int edge(int row, int col) {
+        int value = cell(row, col);
+        int vertical = Math.abs(value - cell(row - 1, col));
+        int horizontal = col + 1 < COLUMNS ? Math.abs(value - cell(row, col + 1)) : 0;
+        return Math.max(vertical, horizontal);
+    }
+
+    /** Vị trí byte trong plane Y của 4 điểm lấy mẫu mỗi ô, theo tọa độ đã xoay đúng chiều. */
+    private void buildSampleTable(int rowStride, int width, int height, int rotation) {
+        boolean swapAxes = rotation == 90 || rotation == 270;
+        int uprightWidth = swapAxes ? height : width;
+        int uprightHeight = swapAxes ? width : height;
+
+        int s = 0;
+        for (int row = 0; row < ROWS; row++) {
+            for (int col = 0; col < COLUMNS; col++) {
+                for (int k = 0; k < SAMPLES_PER_CELL; k++) {
+                    // Bốn điểm ở 1/4 và 3/4 mỗi chiều của ô
+                    float fx = (col + 0.25f + 0.5f * (k & 1)) / COLUMNS;
+                    float fy = (row + 0.25f + 0.5f * (k >> 1)) / ROWS;
+                    int ux = Math.min(uprightWidth - 1, (int) (fx * uprightWidth));
+                    int uy = Math.min(uprightHeight - 1, (int) (fy * uprightHeight));
+
+                    int x;
+                    int y;
+                    switch (rotation) {
+                        case 90:
+                            x = uy;
+                            y = height - 1 - ux;
+                            break;
+                        case 180:
+                            x = width - 1 - ux;
+                            y = height - 1 - uy;
+                            break;
+                        case 270:
+                            x = width - 1 - uy;
+                            y = ux;
+                            break;
+                        default:
+                            x = ux;
+                            y = uy;
+                            break;
+                    }
+                    sampleOffsets[s++] = y * rowStride + x;
+                }
+            }
+        }
+        tableWidth = width;
+        tableHeight = height;
+        tableStride = rowStride;
+        tableRotation = rotation;
+    }
+}
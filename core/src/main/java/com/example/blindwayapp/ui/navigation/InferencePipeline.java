@@ -0,0 +1,235 @@
+package com.example.blindwayapp.ui.navigation;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Pipeline nhiều tầng cho việc phân tích frame: tiền xử lý -> suy luận -> hậu xử lý/cảnh báo.
+ *
+ * Tiền xử lý chạy ngay trên luồng gọi submit (luồng analyzer của camera, vì ImageProxy phải
+ * được đọc trước khi đóng); suy luận và hậu xử lý mỗi tầng có một luồng riêng. Giữa các tầng
+ * là một ô chuyển giao kiểu drop-oldest: frame mới ghi đè frame cũ chưa được lấy, frame cũ
+ * trả về pool. Nhờ vậy frame N+1 được chuyển đổi trong lúc frame N đang chạy model, và
+ * pipeline không bao giờ xếp hàng công việc cũ.
+ *
+ * Không dùng khóa: chuyển giao bằng AtomicReference, luồng chờ bằng LockSupport.park.
+ * Lớp không phụ thuộc Android để có thể đo throughput bằng frame tổng hợp trên JVM.
+ *
+ * @param <F> kiểu frame đầu vào (ImageProxy trên thiết bị, frame tổng hợp trong test)
+ */
+public class InferencePipeline<F> {
+
+    /** Tầng tiền xử lý: ghi frame vào tensor của context. Trả về false để bỏ frame. */
+    public interface Preprocessor<F> {
+        boolean preprocess(F frame, FrameContext context) throws Exception;
+    }
+
+    /** Một tầng xử lý context trên luồng riêng của nó. */
+    public interface Stage {
+        void process(FrameContext context) throws Exception;
+    }
+
+    /**
+     * Nơi nhận kết quả cuối cùng. Sink giữ quyền sở hữu context và phải trả lại
+     * bằng {@link #recycle(FrameContext)} khi dùng xong.
+     */
+    public interface ResultSink {
+        void accept(FrameContext context);
+    }
+
+    public interface ErrorHandler {
+        void onError(String stage, Exception e);
+    }
+
+    private final FrameContextPool pool;
+    private final Preprocessor<F> preprocessor;
+    private final ResultSink resultSink;
+    private final ErrorHandler errorHandler;
+    private final Worker inferenceWorker;
+    private final Worker postprocessWorker;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    private final AtomicLong submittedFrames = new AtomicLong();
+    private final AtomicLong droppedFrames = new AtomicLong();
+    private final AtomicLong completedFrames = new AtomicLong();
+
+    public InferencePipeline(FrameContextPool pool,
+                             Preprocessor<F> preprocessor,
+                             Stage inference,
+                             Stage postprocess,
+                             ResultSink resultSink,
+                             ErrorHandler errorHandler) {
+        this.pool = pool;
+        this.preprocessor = preprocessor;
+        this.resultSink = resultSink;
+        this.errorHandler = errorHandler;
+        this.postprocessWorker = new Worker("postprocess", postprocess, null);
+        this.inferenceWorker = new Worker("inference", inference, postprocessWorker);
+    }
+
+    public void start() {
+        if (running.compareAndSet(false, true)) {
+            inferenceWorker.start();
+            postprocessWorker.start();
+        }
+    }
+
+    /**
+     * Dừng các luồng và trả mọi context đang nằm trong pipeline về pool.
+     */
+    public void stop() {
+        if (!running.compareAndSet(true, false)) {
+            return;
+        }
+        inferenceWorker.shutdown();
+        postprocessWorker.shutdown();
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    /**
+     * Tiền xử lý frame trên luồng hiện tại rồi chuyển sang tầng suy luận.
+     *
+     * @return false nếu frame bị bỏ (pipeline đã dừng, pool cạn hoặc tiền xử lý thất bại)
+     */
+    public boolean submit(F frame) {
+        submittedFrames.incrementAndGet();
+        if (!running.get()) {
+            droppedFrames.incrementAndGet();
+            return false;
+        }
+
+        FrameContext context = pool.acquire();
+        if (context == null) {
+            droppedFrames.incrementAndGet();
+            return false;
+        }
+
+        boolean accepted = false;
+        try {
+            accepted = preprocessor.preprocess(frame, context);
+        } catch (Exception e) {
+            reportError("preprocess", e);
+        }
+
+        if (!accepted) {
+            droppedFrames.incrementAndGet();
+            pool.release(context);
+            return false;
+        }
+
+        inferenceWorker.offer(context);
+        return true;
+    }
+
+    /** Trả context mà ResultSink đã dùng xong về pool. */
+    public void recycle(FrameContext context) {
+        pool.release(context);
+    }
+
+    public long getSubmittedFrames() {
+        return submittedFrames.get();
+    }
+
+    public long getDroppedFrames() {
+        return droppedFrames.get();
+    }
+
+    public long getCompletedFrames() {
+        return completedFrames.get();
+    }
+
+    private void reportError(String stage, Exception e) {
+        if (errorHandler != null) {
+            errorHandler.onError(stage, e);
+        }
+    }
+
+    private void complete(FrameContext context) {
+        completedFrames.incrementAndGet();
+        if (resultSink != null) {
+            resultSink.accept(context);
+        } else {
+            pool.release(context);
+        }
+    }
+
+    /**
+     * Luồng xử lý một tầng, nhận việc qua một ô drop-oldest.
+     */
+    private final class Worker implements Runnable {
+        private final String name;
+        private final Stage stage;
+        private final Worker next;
+        private final AtomicReference<FrameContext> mailbox = new AtomicReference<>();
+        private volatile Thread thread;
+        private volatile boolean active;
+
+        Worker(String name, Stage stage, Worker next) {
+            this.name = name;
+            this.stage = stage;
+            this.next = next;
+        }
+
+        void start() {
+            active = true;
+            Thread worker = new Thread(this, "InferencePipeline-" + name);
+            worker.setDaemon(true);
+            thread = worker;
+            worker.start();
+        }
+
+        void offer(FrameContext context) {
+            FrameContext displaced = mailbox.getAndSet(context);
+            if (displaced != null) {
+                droppedFrames.incrementAndGet();
+                pool.release(displaced);
+            }
+            LockSupport.unpark(thread);
+        }
+
+        void shutdown() {
+            active = false;
+            Thread worker = thread;
+            LockSupport.unpark(worker);
+            if (worker != null && worker != Thread.currentThread()) {
+                try {
+                    worker.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            pool.release(mailbox.getAndSet(null));
+        }
+
+        @Override
+        public void run() {
+            while (active) {
+                FrameContext context = mailbox.getAndSet(null);
+                if (context == null) {
+                    LockSupport.park(this);
+                    continue;
+                }
+
+                try {
+                    stage.process(context);
+                } catch (Exception e) {
+                    reportError(name, e);
+                    droppedFrames.incrementAndGet();
+                    pool.release(context);
+                    continue;
+                }
+
+                if (next != null) {
+                    next.offer(context);
+                } else {
+                    complete(context);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.blindwayapp.ui.navigation;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram độ trễ kiểu HDR: bucket tuyến tính dưới 32 µs, phía trên chia mỗi lũy thừa 2 thành
+ * 16 bucket nên sai số tương đối không quá 1/16 (khoảng 6%) từ micro giây tới
+ * {@link #MAX_TRACKABLE_MICROS}.
+ *
+ * record() chỉ gồm vài phép dịch bit và một lần tăng nguyên tử, không khóa và không cấp phát,
+ * nên gọi được từ mọi luồng của pipeline. Đọc phân vị trong lúc đang ghi cho kết quả gần đúng,
+ * đủ cho bảng theo dõi.
+ */
+public class LatencyHistogram {
+
+    static final int SUB_BITS = 5;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int HALF_COUNT = SUB_COUNT / 2;
+    /** Giá trị lớn hơn (60 giây) được tính vào bucket cuối. */
+    public static final long MAX_TRACKABLE_MICROS = 60_000_000L;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(indexOf(MAX_TRACKABLE_MICROS) + 1);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong maxMicros = new AtomicLong();
+
+    public void recordNanos(long nanos) {
+        recordMicros(nanos / 1000);
+    }
+
+    public void recordMicros(long micros) {
+        long value = Math.max(0L, Math.min(MAX_TRACKABLE_MICROS, micros));
+        buckets.incrementAndGet(indexOf(value));
+        count.incrementAndGet();
+        long max = maxMicros.get();
+        while (value > max && !maxMicros.compareAndSet(max, value)) {
+            max = maxMicros.get();
+        }
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getMaxMicros() {
+        return maxMicros.get();
+    }
+
+    /**
+     * Giá trị (µs) mà percentile phần trăm số mẫu không vượt quá, 0 nếu chưa có mẫu.
+     *
+     * @param percentile 0..100
+     */
+    public long percentileMicros(double percentile) {
+        long total = count.get();
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1L, (long) Math.ceil(total * Math.min(100.0, Math.max(0.0, percentile)) / 100.0));
+        long seen = 0;
+        for (int i = 0; i < buckets.length(); i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) {
+                return Math.min(highestEquivalentValue(i), maxMicros.get());
+            }
+        }
+        return maxMicros.get();
+    }
+
+    public float percentileMillis(double percentile) {
+        return percentileMicros(percentile) / 1000f;
+    }
+
+    public void reset() {
+        for (int i = 0; i < buckets.length(); i++) {
+            buckets.set(i, 0);
+        }
+        count.set(0);
+        maxMicros.set(0);
+    }
+
+    static int indexOf(long micros) {
+        if (micros < SUB_COUNT) {
+            return (int) micros;
+        }
+        // Giữ SUB_BITS bit cao nhất: top nằm trong [HALF_COUNT, SUB_COUNT)
+        int shift = 63 - Long.numberOfLeadingZeros(micros) - (SUB_BITS - 1);
+        int top = (int) (micros >>> shift);
+        return SUB_COUNT + (shift - 1) * HALF_COUNT + (top - HALF_COUNT);
+    }
+
+    /** Giá trị lớn nhất rơi vào bucket index. */
+    static long highestEquivalentValue(int index) {
+        if (index < SUB_COUNT) {
+            return index;
+        }
+        int k = index - SUB_COUNT;
+        int shift = k / HALF_COUNT + 1;
+        long top = k % HALF_COUNT + HALF_COUNT;
+        return ((top + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.blindwayapp.ui.navigation;
+
+/**
+ * Tensor đầu vào/đầu ra của model đang dùng, đã kiểm tra khớp với cách ứng dụng xử lý.
+ *
+ * Đầu vào phải là ảnh RGB [1, H, W, 3] kiểu UINT8, INT8 hoặc FLOAT32; đầu ra là một tensor
+ * [1, A, B] theo một trong các bố cục mà DetectionDecoder hiểu.
+ */
+public final class ModelSpec {
+
+    public final TensorSpec input;
+    public final TensorSpec output;
+
+    /**
+     * @throws IllegalArgumentException nếu model không khớp với pipeline
+     */
+    public ModelSpec(TensorSpec input, TensorSpec output) {
+        input.requireShape("Tensor đầu vào", 1, -1, -1, 3);
+        output.requireShape("Tensor đầu ra", 1, -1, -1);
+        this.input = input;
+        this.output = output;
+    }
+
+    public int getInputWidth() {
+        return input.dim(2);
+    }
+
+    public int getInputHeight() {
+        return input.dim(1);
+    }
+
+    @Override
+    public String toString() {
+        return "input " + input + ", output " + output;
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.blindwayapp.ui.navigation;
+
+/**
+ * Chọn top-K theo điểm rồi lọc trùng (NMS) theo từng lớp, hoàn toàn trên mảng nguyên thủy.
+ *
+ * Hộp được lưu phẳng [left, top, right, bottom] liên tiếp trong một mảng float. Top-K dùng
+ * min-heap nên chi phí O(n log K) với n ứng viên; NMS tham lam chỉ chạy trên K hộp còn lại,
+ * vì vậy vẫn nhanh khi đầu ra YOLO có hàng nghìn ứng viên. Hai hộp khác lớp không loại nhau.
+ *
+ * Mọi buffer được cấp trong constructor; không thread-safe.
+ */
+public class NonMaxSuppression {
+
+    private final int topK;
+    private final int[] order;
+    private final float[] areas;
+    private final boolean[] suppressed;
+
+    /**
+     * @param topK số ứng viên điểm cao nhất được đưa vào bước lọc trùng
+     */
+    public NonMaxSuppression(int topK) {
+        if (topK <= 0) {
+            throw new IllegalArgumentException("topK phải dương: " + topK);
+        }
+        this.topK = topK;
+        this.order = new int[topK];
+        this.areas = new float[topK];
+        this.suppressed = new boolean[topK];
+    }
+
+    /**
+     * @param boxes        count hộp [left, top, right, bottom] nối tiếp nhau
+     * @param scores       điểm của từng hộp
+     * @param classes      lớp của từng hộp
+     * @param count        số ứng viên
+     * @param iouThreshold hộp cùng lớp có IoU lớn hơn ngưỡng này với hộp tốt hơn sẽ bị loại
+     * @param keep         nhận chỉ số các hộp được giữ, theo điểm giảm dần
+     * @return số hộp được giữ, không quá keep.length
+     */
+    public int apply(float[] boxes, float[] scores, int[] classes, int count,
+                     float iouThreshold, int[] keep) {
+        int k = selectTopK(scores, count);
+
+        for (int i = 0; i < k; i++) {
+            int b = order[i] * 4;
+            areas[i] = Math.max(0f, boxes[b + 2] - boxes[b]) * Math.max(0f, boxes[b + 3] - boxes[b + 1]);
+            suppressed[i] = false;
+        }
+
+        int kept = 0;
+        for (int i = 0; i < k && kept < keep.length; i++) {
+            if (suppressed[i]) continue;
+
+            int best = order[i];
+            keep[kept++] = best;
+
+            int b = best * 4;
+            float left = boxes[b];
+            float top = boxes[b + 1];
+            float right = boxes[b + 2];
+            float bottom = boxes[b + 3];
+            int bestClass = classes[best];
+
+            for (int j = i + 1; j < k; j++) {
+                if (suppressed[j]) continue;
+                int other = order[j];
+                if (classes[other] != bestClass) continue;
+
+                int o = other * 4;
+                float interWidth = Math.min(right, boxes[o + 2]) - Math.max(left, boxes[o]);
+                if (interWidth <= 0f) continue;
+                float interHeight = Math.min(bottom, boxes[o + 3]) - Math.max(top, boxes[o + 1]);
+                if (interHeight <= 0f) continue;
+
+                float inter = interWidth * interHeight;
+                float union = areas[i] + areas[j] - inter;
+                if (union > 0f && inter > iouThreshold * union) {
+                    suppressed[j] = true;
+                }
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * Đưa chỉ số của tối đa topK điểm cao nhất vào order[0..k), sắp giảm dần.
+     */
+    private int selectTopK(float[] scores, int count) {
+        int size = 0;
+        for (int i = 0; i < count; i++) {
+            if (size < topK) {
+                order[size] = i;
+                siftUp(scores, size);
+                size++;
+            } else if (scores[i] > scores[order[0]]) {
+                order[0] = i;
+                siftDown(scores, 0, size);
+            }
+        }
+
+        // Heapsort trên min-heap: lần lượt đưa phần tử nhỏ nhất về cuối -> thứ tự giảm dần
+        for (int end = size - 1; end > 0; end--) {
+            int smallest = order[0];
+            order[0] = order[end];
+            order[end] = smallest;
+            siftDown(scores, 0, end);
+        }
+        return size;
+    }
+
+    private void siftUp(float[] scores, int index) {
+        int item = order[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (scores[order[parent]] <= scores[item]) break;
+            order[index] = order[parent];
+            index = parent;
+        }
+        order[index] = item;
+    }
+
+    private void siftDown(float[] scores, int index, int size) {
+        int item = order[index];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) break;
+            if (child + 1 < size && scores[order[child + 1]] < scores[order[child]]) {
+                child++;
+            }
+            if (scores[item] <= scores[order[child]]) break;
+            order[index] = order[child];
+            index = child;
+        }
+        order[index] = item;
+    }
+}
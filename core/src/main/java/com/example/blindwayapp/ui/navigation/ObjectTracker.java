@@ -0,0 +1,292 @@
+package com.example.blindwayapp.ui.navigation;
+
+/**
+ * Theo dõi vật thể qua nhiều frame: gán ID ổn định, làm mượt khoảng cách và ước lượng tốc độ tiến lại gần.
+ *
+ * Mỗi track giữ bộ lọc Kalman vận tốc không đổi cho tâm, kích thước hộp và khoảng cách
+ * (mỗi đại lượng một bộ lọc 2 trạng thái vị trí/vận tốc). Ở frame có chạy model, {@link #update}
+ * ghép detection với track bằng IoU theo kiểu tham lam (detection điểm cao ghép trước, chỉ ghép
+ * cùng nhãn); ở các frame giữa, {@link #predict} ngoại suy hộp mà không cần chạy model.
+ *
+ * Dữ liệu lưu dạng mảng song song (structure of arrays), cấp phát một lần trong constructor.
+ * Các phương thức được đồng bộ: update chạy ở tầng hậu xử lý, predict chạy trên luồng camera.
+ */
+public class ObjectTracker {
+
+    private static final float NANOS_PER_SECOND = 1e9f;
+
+    // Bộ lọc: cx, cy, w, h, khoảng cách; mỗi bộ lọc 5 số: giá trị, vận tốc, p00, p01, p11
+    private static final int FILTERS = 5;
+    private static final int FILTER_SIZE = 5;
+    private static final int STRIDE = FILTERS * FILTER_SIZE;
+    private static final int CX = 0;
+    private static final int CY = FILTER_SIZE;
+    private static final int W = 2 * FILTER_SIZE;
+    private static final int H = 3 * FILTER_SIZE;
+    private static final int DIST = 4 * FILTER_SIZE;
+
+    // Nhiễu quá trình (gia tốc) và nhiễu đo cho hộp chuẩn hóa 0..1 và khoảng cách tính bằng mét
+    private static final float BOX_PROCESS_NOISE = 0.5f;
+    private static final float BOX_MEASUREMENT_NOISE = 0.02f * 0.02f;
+    private static final float DISTANCE_PROCESS_NOISE = 2f;
+    private static final float DISTANCE_MEASUREMENT_NOISE = 0.2f * 0.2f;
+    private static final float INITIAL_VELOCITY_VARIANCE = 1f;
+
+    private final int capacity;
+    private final float iouThreshold;
+    private final int minHits;
+    private final long maxCoastNanos;
+
+    private final float[] filters;
+    private final int[] ids;
+    private final String[] labels;
+    private final float[] confidences;
+    private final int[] hits;
+    private final long[] lastUpdateNanos;
+    private final boolean[] matched;
+    private int count;
+    private int nextId = 1;
+    private long stateNanos = Long.MIN_VALUE;
+
+    // Detection nào đã được ghép trong lần update hiện tại
+    private final boolean[] detectionMatched;
+
+    /**
+     * @param capacity      số track tối đa; detection mới bị bỏ qua khi đầy
+     * @param iouThreshold  IoU tối thiểu để ghép detection với track
+     * @param minHits       số lần khớp để track được coi là chắc chắn và tiếp tục được ngoại suy
+     * @param maxCoastMillis track không được cập nhật lâu hơn thời gian này sẽ bị xóa
+     */
+    public ObjectTracker(int capacity, float iouThreshold, int minHits, long maxCoastMillis) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity phải dương: " + capacity);
+        }
+        this.capacity = capacity;
+        this.iouThreshold = iouThreshold;
+        this.minHits = minHits;
+        this.maxCoastNanos = maxCoastMillis * 1_000_000L;
+
+        filters = new float[capacity * STRIDE];
+        ids = new int[capacity];
+        labels = new String[capacity];
+        confidences = new float[capacity];
+        hits = new int[capacity];
+        lastUpdateNanos = new long[capacity];
+        matched = new boolean[capacity];
+        detectionMatched = new boolean[capacity];
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public synchronized int getTrackCount() {
+        return count;
+    }
+
+    public synchronized void clear() {
+        count = 0;
+        stateNanos = Long.MIN_VALUE;
+    }
+
+    /**
+     * Cập nhật các track bằng detection của một frame đã chạy model.
+     *
+     * @param detections kết quả sau NMS, giả định đã sắp theo điểm giảm dần
+     * @param timestampNanos thời điểm chụp frame
+     */
+    public synchronized void update(DetectionList detections, long timestampNanos) {
+        advanceTo(timestampNanos);
+
+        for (int t = 0; t < count; t++) {
+            matched[t] = false;
+        }
+
+        int detectionCount = Math.min(detections.size(), detectionMatched.length);
+        for (int d = 0; d < detectionCount; d++) {
+            detectionMatched[d] = false;
+            Detection detection = detections.get(d);
+
+            int bestTrack = -1;
+            float bestIou = iouThreshold;
+            for (int t = 0; t < count; t++) {
+                if (matched[t] || !labels[t].equals(detection.label)) continue;
+                float iou = iouWithTrack(t, detection);
+                if (iou > bestIou) {
+                    bestIou = iou;
+                    bestTrack = t;
+                }
+            }
+
+            if (bestTrack >= 0) {
+                correct(bestTrack, detection, timestampNanos);
+                matched[bestTrack] = true;
+                detectionMatched[d] = true;
+            }
+        }
+
+        // Xóa track quá lâu không được thấy trước khi tạo track mới để nhường chỗ
+        for (int t = count - 1; t >= 0; t--) {
+            if (!matched[t] && timestampNanos - lastUpdateNanos[t] > maxCoastNanos) {
+                removeTrack(t);
+            }
+        }
+
+        for (int d = 0; d < detectionCount && count < capacity; d++) {
+            if (!detectionMatched[d]) {
+                startTrack(detections.get(d), timestampNanos);
+            }
+        }
+    }
+
+    /**
+     * Ghi các track hiện tại (đã chắc chắn, hoặc vừa được cập nhật ở thời điểm này) vào out,
+     * ngoại suy tới timestampNanos. Không thay đổi trạng thái bộ lọc nên gọi được ở mọi frame.
+     */
+    public synchronized void predict(long timestampNanos, int frameWidth, DetectionList out) {
+        out.clear();
+        float dt = stateNanos == Long.MIN_VALUE ? 0f
+                : Math.max(0f, (timestampNanos - stateNanos) / NANOS_PER_SECOND);
+
+        for (int t = 0; t < count; t++) {
+            // Track mới chỉ được báo ở frame vừa thấy nó; cần đủ minHits mới được ngoại suy tiếp
+            if (hits[t] < minHits && lastUpdateNanos[t] != timestampNanos) continue;
+            if (timestampNanos - lastUpdateNanos[t] > maxCoastNanos) continue;
+
+            Detection detection = out.obtain();
+            if (detection == null) break;
+
+            int f = t * STRIDE;
+            float cx = filters[f + CX] + filters[f + CX + 1] * dt;
+            float cy = filters[f + CY] + filters[f + CY + 1] * dt;
+            float w = Math.max(0f, filters[f + W] + filters[f + W + 1] * dt);
+            float h = Math.max(0f, filters[f + H] + filters[f + H + 1] * dt);
+            float distance = Math.max(0.1f, filters[f + DIST] + filters[f + DIST + 1] * dt);
+
+            detection.set(labels[t], confidences[t],
+                    clamp01(cx - w / 2), clamp01(cy - h / 2), clamp01(cx + w / 2), clamp01(cy + h / 2),
+                    distance, DetectionDecoder.getDirection(cx * frameWidth, frameWidth));
+            detection.trackId = ids[t];
+            detection.closingSpeed = -filters[f + DIST + 1];
+        }
+    }
+
+    /** Đưa mọi bộ lọc tới thời điểm mới (bước dự đoán của Kalman). */
+    private void advanceTo(long timestampNanos) {
+        if (stateNanos != Long.MIN_VALUE && timestampNanos > stateNanos) {
+            float dt = (timestampNanos - stateNanos) / NANOS_PER_SECOND;
+            for (int t = 0; t < count; t++) {
+                int f = t * STRIDE;
+                predictFilter(f + CX, dt, BOX_PROCESS_NOISE);
+                predictFilter(f + CY, dt, BOX_PROCESS_NOISE);
+                predictFilter(f + W, dt, BOX_PROCESS_NOISE);
+                predictFilter(f + H, dt, BOX_PROCESS_NOISE);
+                predictFilter(f + DIST, dt, DISTANCE_PROCESS_NOISE);
+            }
+        }
+        if (stateNanos == Long.MIN_VALUE || timestampNanos > stateNanos) {
+            stateNanos = timestampNanos;
+        }
+    }
+
+    private void correct(int track, Detection detection, long timestampNanos) {
+        int f = track * STRIDE;
+        correctFilter(f + CX, detection.centerX(), BOX_MEASUREMENT_NOISE);
+        correctFilter(f + CY, detection.centerY(), BOX_MEASUREMENT_NOISE);
+        correctFilter(f + W, detection.width(), BOX_MEASUREMENT_NOISE);
+        correctFilter(f + H, detection.height(), BOX_MEASUREMENT_NOISE);
+        correctFilter(f + DIST, detection.distance, DISTANCE_MEASUREMENT_NOISE);
+        confidences[track] = detection.confidence;
+        hits[track]++;
+        lastUpdateNanos[track] = timestampNanos;
+    }
+
+    private void startTrack(Detection detection, long timestampNanos) {
+        int t = count++;
+        int f = t * STRIDE;
+        initFilter(f + CX, detection.centerX(), BOX_MEASUREMENT_NOISE);
+        initFilter(f + CY, detection.centerY(), BOX_MEASUREMENT_NOISE);
+        initFilter(f + W, detection.width(), BOX_MEASUREMENT_NOISE);
+        initFilter(f + H, detection.height(), BOX_MEASUREMENT_NOISE);
+        initFilter(f + DIST, detection.distance, DISTANCE_MEASUREMENT_NOISE);
+        ids[t] = nextId++;
+        labels[t] = detection.label;
+        confidences[t] = detection.confidence;
+        hits[t] = 1;
+        lastUpdateNanos[t] = timestampNanos;
+        matched[t] = true;
+    }
+
+    /** Xóa track bằng cách đưa track cuối vào chỗ của nó. */
+    private void removeTrack(int t) {
+        int last = --count;
+        if (t != last) {
+            System.arraycopy(filters, last * STRIDE, filters, t * STRIDE, STRIDE);
+            ids[t] = ids[last];
+            labels[t] = labels[last];
+            confidences[t] = confidences[last];
+            hits[t] = hits[last];
+            lastUpdateNanos[t] = lastUpdateNanos[last];
+            matched[t] = matched[last];
+        }
+        labels[last] = null;
+    }
+
+    private float iouWithTrack(int t, Detection detection) {
+        int f = t * STRIDE;
+        float halfW = filters[f + W] / 2;
+        float halfH = filters[f + H] / 2;
+        float left = filters[f + CX] - halfW;
+        float right = filters[f + CX] + halfW;
+        float top = filters[f + CY] - halfH;
+        float bottom = filters[f + CY] + halfH;
+
+        float interWidth = Math.min(right, detection.right) - Math.max(left, detection.left);
+        if (interWidth <= 0f) return 0f;
+        float interHeight = Math.min(bottom, detection.bottom) - Math.max(top, detection.top);
+        if (interHeight <= 0f) return 0f;
+
+        float inter = interWidth * interHeight;
+        float union = (right - left) * (bottom - top) + detection.width() * detection.height() - inter;
+        return union > 0f ? inter / union : 0f;
+    }
+
+    private void initFilter(int offset, float value, float measurementNoise) {
+        filters[offset] = value;
+        filters[offset + 1] = 0f;
+        filters[offset + 2] = measurementNoise;
+        filters[offset + 3] = 0f;
+        filters[offset + 4] = INITIAL_VELOCITY_VARIANCE;
+    }
+
+    /** x += v·dt, P = F·P·Fᵀ + Q với Q của mô hình gia tốc nhiễu trắng. */
+    private void predictFilter(int offset, float dt, float processNoise) {
+        float p00 = filters[offset + 2];
+        float p01 = filters[offset + 3];
+        float p11 = filters[offset + 4];
+        filters[offset] += filters[offset + 1] * dt;
+        filters[offset + 2] = p00 + dt * (2 * p01 + dt * p11) + processNoise * dt * dt * dt / 3;
+        filters[offset + 3] = p01 + dt * p11 + processNoise * dt * dt / 2;
+        filters[offset + 4] = p11 + processNoise * dt;
+    }
+
+    /** Bước hiệu chỉnh với phép đo vị trí z. */
+    private void correctFilter(int offset, float z, float measurementNoise) {
+        float p00 = filters[offset + 2];
+        float p01 = filters[offset + 3];
+        float p11 = filters[offset + 4];
+        float s = p00 + measurementNoise;
+        float k0 = p00 / s;
+        float k1 = p01 / s;
+        float innovation = z - filters[offset];
+        filters[offset] += k0 * innovation;
+        filters[offset + 1] += k1 * innovation;
+        filters[offset + 2] = (1 - k0) * p00;
+        filters[offset + 3] = (1 - k0) * p01;
+        filters[offset + 4] = p11 - k1 * p01;
+    }
+
+    private static float clamp01(float value) {
+        return Math.max(0f, Math.min(1f, value));
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.blindwayapp.ui.navigation;
+
+import java.util.Locale;
+
+/**
+ * Chọn {@link PerformanceTier} cho phiên điều hướng theo nhiệt độ, pin và độ trễ đo được.
+ *
+ * Hai giới hạn được ghép lại, mức nhẹ hơn thắng:
+ * <ul>
+ *     <li>thiết bị: trạng thái nhiệt (cùng thang với PowerManager.THERMAL_STATUS_*), pin yếu khi
+ *     không sạc, chế độ tiết kiệm pin;</li>
+ *     <li>độ trễ: EWMA độ trễ end-to-end vượt ngân sách thì bớt một mức, dưới HEADROOM ngân sách
+ *     thì thêm lại một mức. Chỉ bớt tới mức cuối còn giữ nguyên số luồng, vì bớt luồng làm mỗi
+ *     lượt suy luận chậm hơn; các mức thấp hơn chỉ do nhiệt và pin.</li>
+ * </ul>
+ * Hạ mức do thiết bị có hiệu lực ngay; mọi thay đổi khác cách nhau ít nhất dwellMillis để đo
+ * được độ trễ của mức mới và không dao động qua lại.
+ *
+ * recordLatency gọi từ luồng xử lý frame, evaluate gọi định kỳ từ một luồng khác.
+ */
+public class PerformanceGovernor {
+
+    public static final int THERMAL_NONE = 0;
+    public static final int THERMAL_LIGHT = 1;
+    public static final int THERMAL_MODERATE = 2;
+    public static final int THERMAL_SEVERE = 3;
+
+    static final int LOW_BATTERY_PERCENT = 30;
+    static final int CRITICAL_BATTERY_PERCENT = 15;
+    // Chỉ tăng mức khi độ trễ dưới tỉ lệ này của ngân sách
+    static final float HEADROOM = 0.6f;
+    private static final float EWMA_ALPHA = 0.2f;
+
+    /** Nguồn trạng thái thiết bị; bản Android đọc PowerManager và pin, test dùng bản giả. */
+    public interface DeviceStateSource {
+        int getThermalStatus();
+
+        /** 0..100, -1 nếu không biết. */
+        int getBatteryPercent();
+
+        boolean isCharging();
+
+        boolean isPowerSaveMode();
+    }
+
+    public interface Listener {
+        void onTierChanged(PerformanceTier previous, PerformanceTier tier, String reason);
+    }
+
+    private final DeviceStateSource source;
+    private final long latencyBudgetNanos;
+    private final long dwellNanos;
+    private final Listener listener;
+
+    private volatile float latencyEwmaNanos;
+
+    private PerformanceTier tier = PerformanceTier.PERFORMANCE;
+    private PerformanceTier latencyTier = PerformanceTier.PERFORMANCE;
+    private long lastChangeNanos = Long.MIN_VALUE;
+    private String reason = "khởi động";
+
+    /**
+     * @param latencyBudgetMillis độ trễ end-to-end tối đa mong muốn cho một frame
+     * @param dwellMillis         thời gian tối thiểu giữa hai lần đổi mức (trừ khi thiết bị bắt hạ)
+     */
+    public PerformanceGovernor(DeviceStateSource source, long latencyBudgetMillis, long dwellMillis,
+                               Listener listener) {
+        if (latencyBudgetMillis <= 0 || dwellMillis < 0) {
+            throw new IllegalArgumentException("Tham số governor không hợp lệ: "
+                    + latencyBudgetMillis + ", " + dwellMillis);
+        }
+        this.source = source;
+        this.latencyBudgetNanos = latencyBudgetMillis * 1_000_000L;
+        this.dwellNanos = dwellMillis * 1_000_000L;
+        this.listener = listener;
+    }
+
+    /** Độ trễ end-to-end của một frame đã xử lý. Chỉ gọi từ một luồng. */
+    public void recordLatency(long nanos) {
+        float previous = latencyEwmaNanos;
+        latencyEwmaNanos = previous == 0f ? nanos : previous + EWMA_ALPHA * (nanos - previous);
+    }
+
+    public float getLatencyMillis() {
+        return latencyEwmaNanos / 1_000_000f;
+    }
+
+    public synchronized PerformanceTier getTier() {
+        return tier;
+    }
+
+    /** Lý do của lần đổi mức gần nhất. */
+    public synchronized String getReason() {
+        return reason;
+    }
+
+    /** Đọc trạng thái thiết bị và độ trễ, đổi mức nếu cần. */
+    public synchronized PerformanceTier evaluate(long nowNanos) {
+        int thermal = source.getThermalStatus();
+        int battery = source.getBatteryPercent();
+        boolean charging = source.isCharging();
+        boolean powerSave = source.isPowerSaveMode();
+        PerformanceTier deviceTier = deviceLimit(thermal, battery, charging, powerSave);
+
+        boolean settled = lastChangeNanos == Long.MIN_VALUE || nowNanos - lastChangeNanos >= dwellNanos;
+        float latency = latencyEwmaNanos;
+        String latencyReason = null;
+        if (settled && latency > 0f) {
+            PerformanceTier lighter = tier.lighter();
+            if (latency > latencyBudgetNanos && lighter != tier && lighter.cpuThreads >= tier.cpuThreads) {
+                latencyTier = PerformanceTier.lightest(latencyTier, lighter);
+                latencyReason = String.format(Locale.US, "độ trễ %.0f ms > %d ms",
+                        latency / 1e6f, latencyBudgetNanos / 1_000_000L);
+            } else if (latency < latencyBudgetNanos * HEADROOM) {
+                latencyTier = latencyTier.richer();
+                latencyReason = String.format(Locale.US, "độ trễ %.0f ms", latency / 1e6f);
+            }
+        }
+
+        PerformanceTier target = PerformanceTier.lightest(deviceTier, latencyTier);
+        PerformanceTier next = tier;
+        if (target.ordinal() > tier.ordinal()) {
+            // Hạ mức ngay, kể cả nhảy nhiều bậc khi máy nóng đột ngột
+            next = target;
+        } else if (target.ordinal() < tier.ordinal() && settled) {
+            next = tier.richer();
+        }
+        if (next != tier) {
+            boolean byDevice = next.ordinal() > tier.ordinal()
+                    ? deviceTier.ordinal() >= next.ordinal() : latencyReason == null;
+            String why = byDevice || latencyReason == null
+                    ? describeDevice(thermal, battery, charging, powerSave) : latencyReason;
+            PerformanceTier previous = tier;
+            tier = next;
+            reason = why;
+            lastChangeNanos = nowNanos;
+            if (listener != null) {
+                listener.onTierChanged(previous, next, why);
+            }
+        }
+        return tier;
+    }
+
+    /** Mức cao nhất thiết bị cho phép. */
+    static PerformanceTier deviceLimit(int thermal, int battery, boolean charging, boolean powerSave) {
+        PerformanceTier limit = PerformanceTier.PERFORMANCE;
+        if (thermal >= THERMAL_SEVERE) {
+            return PerformanceTier.CRITICAL;
+        }
+        if (thermal == THERMAL_MODERATE) {
+            limit = PerformanceTier.SAVER;
+        } else if (thermal == THERMAL_LIGHT) {
+            limit = PerformanceTier.BALANCED;
+        }
+        if (!charging && battery >= 0) {
+            if (battery <= CRITICAL_BATTERY_PERCENT) {
+                limit = PerformanceTier.lightest(limit, PerformanceTier.SAVER);
+            } else if (battery <= LOW_BATTERY_PERCENT) {
+                limit = PerformanceTier.lightest(limit, PerformanceTier.BALANCED);
+            }
+        }
+        if (powerSave) {
+            limit = PerformanceTier.lightest(limit, PerformanceTier.BALANCED);
+        }
+        return limit;
+    }
+
+    private static String describeDevice(int thermal, int battery, boolean charging, boolean powerSave) {
+        return "nhiệt " + thermal + ", pin " + battery + "%" + (charging ? " đang sạc" : "")
+                + (powerSave ? ", tiết kiệm pin" : "");
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.blindwayapp.ui.navigation;
+
+/**
+ * Các mức hiệu năng của phiên điều hướng, xếp từ tốn năng lượng nhất tới nhẹ nhất.
+ *
+ * Mỗi mức quy định số luồng CPU cho model, có được dùng GPU/NNAPI hay không, số vùng cắt độ phân
+ * giải cao (RoiPlanner) mỗi frame, khoảng cách tối thiểu giữa hai frame được xử lý và có vẽ
+ * overlay hay không. Độ phân giải đầu vào của lượt toàn khung do model quyết định nên không đổi.
+ */
+public enum PerformanceTier {
+    PERFORMANCE("hiệu năng", 4, true, 2, 0, true),
+    BALANCED("cân bằng", 4, true, 1, 66, true),
+    SAVER("tiết kiệm", 2, true, 0, 100, false),
+    CRITICAL("quá nhiệt", 1, false, 0, 200, false);
+
+    public final String label;
+    public final int cpuThreads;
+    /** false thì chạy model trên CPU kể cả khi GPU/NNAPI nhanh hơn. */
+    public final boolean allowAccelerator;
+    public final int maxRoiCrops;
+    public final long minFrameIntervalMillis;
+    public final boolean overlayEnabled;
+
+    PerformanceTier(String label, int cpuThreads, boolean allowAccelerator, int maxRoiCrops,
+                    long minFrameIntervalMillis, boolean overlayEnabled) {
+        this.label = label;
+        this.cpuThreads = cpuThreads;
+        this.allowAccelerator = allowAccelerator;
+        this.maxRoiCrops = maxRoiCrops;
+        this.minFrameIntervalMillis = minFrameIntervalMillis;
+        this.overlayEnabled = overlayEnabled;
+    }
+
+    /** Mức nhẹ hơn kế tiếp, chính nó nếu đã là mức nhẹ nhất. */
+    public PerformanceTier lighter() {
+        PerformanceTier[] tiers = values();
+        return tiers[Math.min(ordinal() + 1, tiers.length - 1)];
+    }
+
+    /** Mức nặng hơn kế tiếp, chính nó nếu đã là mức cao nhất. */
+    public PerformanceTier richer() {
+        return values()[Math.max(ordinal() - 1, 0)];
+    }
+
+    /** Mức nhẹ hơn trong hai mức. */
+    public static PerformanceTier lightest(PerformanceTier a, PerformanceTier b) {
+        return a.ordinal() >= b.ordinal() ? a : b;
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.blindwayapp.ui.navigation;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Số đo của pipeline xử lý frame: một {@link LatencyHistogram} cho mỗi tầng và bộ đếm frame.
+ *
+ * Ghi số đo không khóa và không cấp phát nên luôn bật; chỉ phần dựng chuỗi báo cáo (bảng debug,
+ * file dump) mới cấp phát và chạy ngoài luồng xử lý frame.
+ */
+public class PipelineMetrics {
+
+    public enum Stage {
+        /** YUV sang tensor: xoay, thu nhỏ và ghi tensor trong một lượt. */
+        PREPROCESS("tiền xử lý"),
+        ROI_CROPS("cắt vùng ROI"),
+        INFERENCE("Interpreter.run"),
+        DECODE("giải mã"),
+        NMS("NMS"),
+        TRACKING("tracker"),
+        /** Từ lúc có kết quả tới lúc UI thread nhận. */
+        UI_POST("chờ UI"),
+        /** Từ lúc có kết quả tới lúc TTS bắt đầu nói. */
+        TTS_START("TTS bắt đầu nói"),
+        END_TO_END("end-to-end");
+
+        public final String label;
+
+        Stage(String label) {
+            this.label = label;
+        }
+    }
+
+    private static final Stage[] STAGES = Stage.values();
+
+    private final LatencyHistogram[] histograms = new LatencyHistogram[STAGES.length];
+    private final AtomicLong predictedFrames = new AtomicLong();
+    private final long createdNanos;
+
+    public PipelineMetrics(long nowNanos) {
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+        createdNanos = nowNanos;
+    }
+
+    public void record(Stage stage, long nanos) {
+        histograms[stage.ordinal()].recordNanos(nanos);
+    }
+
+    public LatencyHistogram get(Stage stage) {
+        return histograms[stage.ordinal()];
+    }
+
+    /** Frame không chạy model, kết quả chỉ ngoại suy từ tracker. */
+    public void countPredictedFrame() {
+        predictedFrames.incrementAndGet();
+    }
+
+    public long getPredictedFrames() {
+        return predictedFrames.get();
+    }
+
+    /**
+     * Bảng p50/p95/p99 mỗi tầng (ms), bỏ các tầng chưa có mẫu.
+     *
+     * @param droppedFrames số frame bị bỏ do pipeline đầy, lấy từ InferencePipeline
+     */
+    public String summary(long submittedFrames, long droppedFrames) {
+        StringBuilder builder = new StringBuilder(512);
+        builder.append(String.format(Locale.US, "frame: %d chạy model, %d ngoại suy, %d bị bỏ%n",
+                submittedFrames - droppedFrames, predictedFrames.get(), droppedFrames));
+        for (Stage stage : STAGES) {
+            LatencyHistogram histogram = histograms[stage.ordinal()];
+            if (histogram.getCount() == 0) {
+                continue;
+            }
+            builder.append(String.format(Locale.US, "%-16s p50 %6.1f  p95 %6.1f  p99 %6.1f  max %6.1f ms (n=%d)%n",
+                    stage.label, histogram.percentileMillis(50), histogram.percentileMillis(95),
+                    histogram.percentileMillis(99), histogram.getMaxMicros() / 1000f, histogram.getCount()));
+        }
+        return builder.toString();
+    }
+
+    /** Ghi đè file dump bằng báo cáo hiện tại. */
+    public void dump(File file, long nowNanos, long submittedFrames, long droppedFrames) throws IOException {
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+            writer.write(String.format(Locale.US, "# sau %d giây%n", (nowNanos - createdNanos) / 1_000_000_000L));
+            writer.write(summary(submittedFrames, droppedFrames));
+        }
+    }
+
+    public void reset() {
+        for (LatencyHistogram histogram : histograms) {
+            histogram.reset();
+        }
+        predictedFrames.set(0);
+    }
+}
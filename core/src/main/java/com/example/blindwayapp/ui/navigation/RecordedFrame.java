@@ -0,0 +1,71 @@
+package com.example.blindwayapp.ui.navigation;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Một frame YUV_420_888 thô đã chép ra khỏi camera: ba plane giữ nguyên stride cùng timestamp
+ * và góc xoay, đủ để chạy lại đúng đường tiền xử lý của thiết bị.
+ *
+ * Buffer được dùng lại giữa các frame và chỉ cấp lại khi frame mới lớn hơn.
+ */
+public class RecordedFrame {
+
+    public long timestampNanos;
+    public int width;
+    public int height;
+    public int rotationDegrees;
+    public int yRowStride;
+    public int uvRowStride;
+    public int uvPixelStride;
+    /** Nội dung các plane từ vị trí 0 tới limit. */
+    public ByteBuffer yPlane = ByteBuffer.allocateDirect(0);
+    public ByteBuffer uPlane = ByteBuffer.allocateDirect(0);
+    public ByteBuffer vPlane = ByteBuffer.allocateDirect(0);
+
+    /** Chép phần còn lại của các plane nguồn; vị trí của chúng không đổi. */
+    public void set(long timestampNanos, int width, int height, int rotationDegrees,
+                    ByteBuffer y, int yRowStride, ByteBuffer u, ByteBuffer v,
+                    int uvRowStride, int uvPixelStride) {
+        this.timestampNanos = timestampNanos;
+        this.width = width;
+        this.height = height;
+        this.rotationDegrees = rotationDegrees;
+        this.yRowStride = yRowStride;
+        this.uvRowStride = uvRowStride;
+        this.uvPixelStride = uvPixelStride;
+        yPlane = copy(y, yPlane);
+        uPlane = copy(u, uPlane);
+        vPlane = copy(v, vPlane);
+    }
+
+    /** Buffer cho một plane dài length byte, để đọc từ file ghi. */
+    ByteBuffer planeForLength(int plane, int length) {
+        switch (plane) {
+            case 0:
+                return yPlane = ensureCapacity(yPlane, length);
+            case 1:
+                return uPlane = ensureCapacity(uPlane, length);
+            default:
+                return vPlane = ensureCapacity(vPlane, length);
+        }
+    }
+
+    private static ByteBuffer copy(ByteBuffer source, ByteBuffer target) {
+        int length = source.remaining();
+        target = ensureCapacity(target, length);
+        int position = source.position();
+        target.put(source);
+        source.position(position);
+        target.flip();
+        return target;
+    }
+
+    private static ByteBuffer ensureCapacity(ByteBuffer buffer, int length) {
+        if (buffer.capacity() < length) {
+            buffer = ByteBuffer.allocateDirect(length);
+        }
+        buffer.clear();
+        buffer.limit(length);
+        return buffer;
+    }
+}
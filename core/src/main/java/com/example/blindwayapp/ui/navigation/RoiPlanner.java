@@ -0,0 +1,181 @@
+package com.example.blindwayapp.ui.navigation;
+
+/**
+ * Chọn các vùng cắt độ phân giải cao chạy thêm sau lượt suy luận toàn khung hình.
+ *
+ * Lượt toàn khung thu cả frame về kích thước đầu vào của model nên vật nhỏ ở xa bị mất chi
+ * tiết. Mỗi frame ta chạy thêm tối đa maxCrops lượt trên các vùng cắt: trước hết là hành lang
+ * đi bộ (dải giữa phía dưới khung hình), sau đó là vùng quanh các track nhỏ nhất mà lượt toàn
+ * khung trước đó đã tìm ra. Vùng cắt vuông theo pixel để model không bị kéo méo.
+ *
+ * Số vùng cắt do ngân sách độ trễ mỗi frame quyết định (xem {@link #cropsWithinBudget}).
+ * Tọa độ chuẩn hóa 0..1 theo frame đã xoay đúng chiều; mỗi vùng là 4 số [left, top, right, bottom].
+ */
+public class RoiPlanner {
+
+    // Hành lang đi bộ: rộng 60% khung hình, sát đáy
+    public static final float CORRIDOR_WIDTH = 0.6f;
+    // Chỉ cắt quanh vật chiếm dưới 15% cạnh ngắn của khung hình, vật lớn hơn lượt toàn khung đã đủ rõ
+    static final float SMALL_BOX_FRACTION = 0.15f;
+    // Vùng cắt rộng gấp 3 vật để còn bối cảnh, nhưng không nhỏ hơn 30% cạnh ngắn
+    static final float BOX_CONTEXT_SCALE = 3f;
+    static final float MIN_CROP_FRACTION = 0.3f;
+    // Track nằm gần hết trong vùng đã chọn thì không cần vùng riêng
+    static final float COVERED_FRACTION = 0.8f;
+
+    private final int maxCrops;
+    private final int[] order;
+
+    public RoiPlanner(int maxCrops) {
+        if (maxCrops < 0) {
+            throw new IllegalArgumentException("Số vùng cắt không hợp lệ: " + maxCrops);
+        }
+        this.maxCrops = maxCrops;
+        this.order = new int[256];
+    }
+
+    public int getMaxCrops() {
+        return maxCrops;
+    }
+
+    /**
+     * Số vùng cắt chạy được sao cho lượt toàn khung cộng các lượt cắt không vượt budgetNanos.
+     *
+     * @param passNanos thời gian đo được của một lượt suy luận, 0 nếu chưa đo
+     */
+    public int cropsWithinBudget(long budgetNanos, long passNanos) {
+        if (passNanos <= 0 || budgetNanos <= passNanos) {
+            return 0;
+        }
+        return (int) Math.min(maxCrops, (budgetNanos - passNanos) / passNanos);
+    }
+
+    /**
+     * Lập danh sách vùng cắt cho frame hiện tại.
+     *
+     * @param tracks   các track đã ngoại suy tới thời điểm frame, có thể rỗng
+     * @param limit    số vùng tối đa cho frame này (thường lấy từ cropsWithinBudget)
+     * @param outRects nhận 4 số mỗi vùng, đủ chỗ cho maxCrops vùng
+     * @return số vùng đã ghi
+     */
+    public int plan(int frameWidth, int frameHeight, DetectionList tracks, int limit, float[] outRects) {
+        int count = Math.min(limit, maxCrops);
+        if (count <= 0 || frameWidth <= 0 || frameHeight <= 0) {
+            return 0;
+        }
+        int shortSide = Math.min(frameWidth, frameHeight);
+
+        // Hành lang: vuông theo pixel, rộng CORRIDOR_WIDTH cạnh ngắn, tựa vào đáy khung hình
+        int written = 0;
+        float side = CORRIDOR_WIDTH * shortSide;
+        written = writeSquare(outRects, written, 0.5f * frameWidth, frameHeight - side / 2, side,
+                frameWidth, frameHeight);
+
+        // Track nhỏ trước (xa, dễ bị lượt toàn khung bỏ sót), mỗi lần chọn phần tử nhỏ nhất còn lại
+        int candidates = 0;
+        for (int i = 0; i < tracks.size() && candidates < order.length; i++) {
+            Detection track = tracks.get(i);
+            float size = Math.max(track.width() * frameWidth, track.height() * frameHeight);
+            if (size < SMALL_BOX_FRACTION * shortSide) {
+                order[candidates++] = i;
+            }
+        }
+        for (int c = 0; c < candidates && written < count; c++) {
+            int best = c;
+            for (int k = c + 1; k < candidates; k++) {
+                if (boxSize(tracks.get(order[k])) < boxSize(tracks.get(order[best]))) {
+                    best = k;
+                }
+            }
+            int index = order[best];
+            order[best] = order[c];
+            order[c] = index;
+
+            Detection track = tracks.get(index);
+            if (isCovered(track, outRects, written)) {
+                continue;
+            }
+            float size = Math.max(track.width() * frameWidth, track.height() * frameHeight);
+            float cropSide = Math.max(BOX_CONTEXT_SCALE * size, MIN_CROP_FRACTION * shortSide);
+            written = writeSquare(outRects, written, track.centerX() * frameWidth,
+                    track.centerY() * frameHeight, cropSide, frameWidth, frameHeight);
+        }
+        return written;
+    }
+
+    /**
+     * Gộp kết quả của một vùng cắt (đã đổi sang tọa độ toàn khung) vào danh sách chính.
+     * Detection chạm mép vùng cắt bên trong khung hình bị bỏ vì vật bị cắt cụt, lượt toàn
+     * khung đã thấy nó. Trùng nhãn với IoU trên iouThreshold thì giữ bên có điểm cao hơn.
+     */
+    public static void merge(DetectionList target, DetectionList crop, float[] rects, int rectIndex,
+                             float iouThreshold) {
+        int r = rectIndex * 4;
+        float edge = 0.01f;
+        for (int i = 0; i < crop.size(); i++) {
+            Detection candidate = crop.get(i);
+            if ((rects[r] > 0f && candidate.left - rects[r] < edge)
+                    || (rects[r + 1] > 0f && candidate.top - rects[r + 1] < edge)
+                    || (rects[r + 2] < 1f && rects[r + 2] - candidate.right < edge)
+                    || (rects[r + 3] < 1f && rects[r + 3] - candidate.bottom < edge)) {
+                continue;
+            }
+            Detection duplicate = null;
+            for (int j = 0; j < target.size(); j++) {
+                Detection existing = target.get(j);
+                if (existing.label.equals(candidate.label) && iou(existing, candidate) > iouThreshold) {
+                    duplicate = existing;
+                    break;
+                }
+            }
+            if (duplicate == null) {
+                Detection slot = target.obtain();
+                if (slot != null) {
+                    slot.copyFrom(candidate);
+                }
+            } else if (candidate.confidence > duplicate.confidence) {
+                duplicate.copyFrom(candidate);
+            }
+        }
+    }
+
+    static float iou(Detection a, Detection b) {
+        float interWidth = Math.min(a.right, b.right) - Math.max(a.left, b.left);
+        if (interWidth <= 0f) return 0f;
+        float interHeight = Math.min(a.bottom, b.bottom) - Math.max(a.top, b.top);
+        if (interHeight <= 0f) return 0f;
+        float inter = interWidth * interHeight;
+        return inter / (a.width() * a.height() + b.width() * b.height() - inter);
+    }
+
+    private static float boxSize(Detection detection) {
+        return detection.width() * detection.height();
+    }
+
+    private static boolean isCovered(Detection track, float[] rects, int count) {
+        float area = track.width() * track.height();
+        for (int i = 0; i < count; i++) {
+            int r = i * 4;
+            float interWidth = Math.min(track.right, rects[r + 2]) - Math.max(track.left, rects[r]);
+            float interHeight = Math.min(track.bottom, rects[r + 3]) - Math.max(track.top, rects[r + 1]);
+            if (interWidth > 0f && interHeight > 0f && interWidth * interHeight >= COVERED_FRACTION * area) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Ghi hình vuông cạnh side pixel quanh (cx, cy), dịch vào trong khung hình nếu tràn mép. */
+    private static int writeSquare(float[] rects, int index, float cx, float cy, float side,
+                                   int frameWidth, int frameHeight) {
+        side = Math.min(side, Math.min(frameWidth, frameHeight));
+        float left = Math.max(0f, Math.min(frameWidth - side, cx - side / 2));
+        float top = Math.max(0f, Math.min(frameHeight - side, cy - side / 2));
+        int r = index * 4;
+        rects[r] = left / frameWidth;
+        rects[r + 1] = top / frameHeight;
+        rects[r + 2] = Math.min(1f, (left + side) / frameWidth);
+        rects[r + 3] = Math.min(1f, (top + side) / frameHeight);
+        return index + 1;
+    }
+}
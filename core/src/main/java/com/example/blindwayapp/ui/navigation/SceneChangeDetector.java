@@ -0,0 +1,51 @@
+package com.example.blindwayapp.ui.navigation;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Ước lượng mức thay đổi của cảnh giữa hai frame bằng một ảnh thu nhỏ của plane Y.
+ *
+ * Chỉ đọc GRID_COLS x GRID_ROWS điểm sáng mỗi frame, không cấp phát; kết quả 0 (tĩnh) .. 1 (thay đổi mạnh).
+ */
+public class SceneChangeDetector {
+
+    private static final int GRID_COLS = 16;
+    private static final int GRID_ROWS = 12;
+    // Chênh lệch độ sáng trung bình (0..255) ứng với mức thay đổi tối đa
+    private static final float FULL_CHANGE_DIFF = 24f;
+
+    private int[] previous = new int[GRID_COLS * GRID_ROWS];
+    private int[] current = new int[GRID_COLS * GRID_ROWS];
+    private boolean hasPrevious;
+
+    public float update(ByteBuffer yPlane, int rowStride, int width, int height) {
+        int i = 0;
+        long totalDiff = 0;
+        for (int row = 0; row < GRID_ROWS; row++) {
+            int y = (2 * row + 1) * height / (2 * GRID_ROWS);
+            int rowOffset = y * rowStride;
+            for (int col = 0; col < GRID_COLS; col++) {
+                int x = (2 * col + 1) * width / (2 * GRID_COLS);
+                int luma = yPlane.get(rowOffset + x) & 0xFF;
+                current[i] = luma;
+                totalDiff += Math.abs(luma - previous[i]);
+                i++;
+            }
+        }
+
+        int[] swap = previous;
+        previous = current;
+        current = swap;
+
+        if (!hasPrevious) {
+            hasPrevious = true;
+            return 0f;
+        }
+        float meanDiff = totalDiff / (float) (GRID_COLS * GRID_ROWS);
+        return Math.min(1f, meanDiff / FULL_CHANGE_DIFF);
+    }
+
+    public void reset() {
+        hasPrevious = false;
+    }
+}
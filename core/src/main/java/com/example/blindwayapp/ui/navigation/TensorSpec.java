@@ -0,0 +1,121 @@
+package com.example.blindwayapp.ui.navigation;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Mô tả một tensor của model: kiểu dữ liệu, shape và tham số lượng tử hóa (scale, zero point).
+ *
+ * Được đọc một lần khi tải model để cấp buffer đúng kích thước và kiểm tra model khớp với
+ * cách ứng dụng đọc/ghi dữ liệu. Lớp không phụ thuộc TFLite nên dùng được trong test JVM.
+ */
+public final class TensorSpec {
+
+    public enum DataType {
+        FLOAT32(4),
+        UINT8(1),
+        INT8(1);
+
+        public final int bytesPerElement;
+
+        DataType(int bytesPerElement) {
+            this.bytesPerElement = bytesPerElement;
+        }
+    }
+
+    public final DataType dataType;
+    public final float scale;
+    public final int zeroPoint;
+    private final int[] shape;
+
+    /** Bảng giải lượng tử cho 256 giá trị byte, null với FLOAT32. */
+    private final float[] dequantizeTable;
+
+    public TensorSpec(DataType dataType, int[] shape, float scale, int zeroPoint) {
+        if (shape.length == 0) {
+            throw new IllegalArgumentException("Shape rỗng");
+        }
+        for (int dimension : shape) {
+            if (dimension <= 0) {
+                throw new IllegalArgumentException("Shape không hợp lệ: " + Arrays.toString(shape));
+            }
+        }
+        this.dataType = dataType;
+        this.shape = shape.clone();
+        // TFLite báo scale = 0 cho tensor không lượng tử hóa
+        this.scale = scale != 0f ? scale : 1f;
+        this.zeroPoint = zeroPoint;
+        this.dequantizeTable = dataType == DataType.FLOAT32 ? null : buildDequantizeTable();
+    }
+
+    public int[] getShape() {
+        return shape.clone();
+    }
+
+    public int dim(int index) {
+        return shape[index];
+    }
+
+    public int rank() {
+        return shape.length;
+    }
+
+    public boolean isQuantized() {
+        return dataType != DataType.FLOAT32;
+    }
+
+    public int numElements() {
+        int count = 1;
+        for (int dimension : shape) {
+            count *= dimension;
+        }
+        return count;
+    }
+
+    public int numBytes() {
+        return numElements() * dataType.bytesPerElement;
+    }
+
+    /**
+     * Đọc phần tử thứ index (tính theo phần tử, không theo byte) dưới dạng số thực.
+     * Tensor lượng tử hóa được giải lượng tử qua bảng tra, nên chỉ các giá trị thật sự
+     * cần dùng mới tốn công chuyển đổi.
+     */
+    public float read(ByteBuffer buffer, int index) {
+        if (dequantizeTable == null) {
+            return buffer.getFloat(index * 4);
+        }
+        return dequantizeTable[buffer.get(index) & 0xFF];
+    }
+
+    /**
+     * Kiểm tra shape, -1 nghĩa là chiều đó nhận giá trị bất kỳ.
+     *
+     * @throws IllegalArgumentException nếu shape không khớp
+     */
+    public void requireShape(String name, int... expected) {
+        boolean matches = expected.length == shape.length;
+        for (int i = 0; matches && i < expected.length; i++) {
+            matches = expected[i] == -1 || expected[i] == shape[i];
+        }
+        if (!matches) {
+            throw new IllegalArgumentException(name + " có shape " + Arrays.toString(shape)
+                    + ", cần " + Arrays.toString(expected).replace("-1", "*"));
+        }
+    }
+
+    private float[] buildDequantizeTable() {
+        float[] table = new float[256];
+        for (int i = 0; i < 256; i++) {
+            int raw = dataType == DataType.INT8 ? (byte) i : i;
+            table[i] = (raw - zeroPoint) * scale;
+        }
+        return table;
+    }
+
+    @Override
+    public String toString() {
+        String description = dataType + Arrays.toString(shape);
+        return isQuantized() ? description + " (scale " + scale + ", zero point " + zeroPoint + ")" : description;
+    }
+}
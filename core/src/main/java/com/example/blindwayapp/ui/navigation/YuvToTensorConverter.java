@@ -0,0 +1,302 @@
+package com.example.blindwayapp.ui.navigation;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Chuyển frame YUV_420_888 trực tiếp thành tensor RGB đầu vào của model.
+ *
+ * Đổi màu, cắt (crop), xoay và resize bilinear được làm trong một lượt duy nhất,
+ * đọc thẳng từ các plane Y/U/V (có tính row stride và pixel stride) và ghi vào
+ * ByteBuffer đầu vào được dùng lại giữa các frame. Không đi qua Bitmap hay JPEG.
+ *
+ * Kiểu phần tử theo tensor đầu vào của model: UINT8 ghi thẳng giá trị pixel, INT8 ghi
+ * pixel - 128 (dải 0..255 trải đều lên -128..127, đúng với model lượng tử hóa từ ảnh
+ * chuẩn hóa 0..1 hoặc -1..1), FLOAT32 ghi pixel / 255. {@link #requireInput} kiểm tra scale và
+ * zero point của model khớp với cách ghi này.
+ *
+ * Lớp này không phụ thuộc Android nên có thể kiểm thử trên JVM thường.
+ * Không thread-safe: mỗi luồng phân tích giữ một instance riêng.
+ */
+public class YuvToTensorConverter {
+
+    /** Số bit phần thập phân của trọng số nội suy (trọng số nằm trong 0..256). */
+    private static final int WEIGHT_BITS = 8;
+    private static final int WEIGHT_ONE = 1 << WEIGHT_BITS;
+
+    // Hệ số BT.601 full range (JFIF) nhân 2^16, giống màu của đường JPEG cũ
+    private static final int COEF_R_V = 91881;  // 1.402
+    private static final int COEF_G_U = 22554;  // 0.344136
+    private static final int COEF_G_V = 46802;  // 0.714136
+    private static final int COEF_B_U = 116130; // 1.772
+
+    /** Sai lệch cho phép ở hai đầu dải đầu vào sau giải lượng tử, khoảng 2,5 mức xám. */
+    private static final float QUANTIZATION_TOLERANCE = 0.01f;
+
+    private static final float[] FLOAT_TABLE = new float[256];
+
+    static {
+        for (int i = 0; i < 256; i++) {
+            FLOAT_TABLE[i] = i / 255f;
+        }
+    }
+
+    private final int outWidth;
+    private final int outHeight;
+    private final TensorSpec.DataType dataType;
+    private final byte[] rowBuffer;
+    private final float[] floatRowBuffer;
+    // Đảo bit dấu để chuyển 0..255 thành -128..127 cho INT8
+    private final int signFlip;
+
+    // Bảng tra cứu cho từng cột/hàng đầu ra: chỉ số pixel nguồn và trọng số nội suy
+    private final int[] colIndex;
+    private final int[] colWeight;
+    private final int[] rowIndex;
+    private final int[] rowWeight;
+
+    // Vùng cắt, chuẩn hóa 0..1 theo frame đã xoay đúng chiều
+    private float cropLeft = 0f;
+    private float cropTop = 0f;
+    private float cropRight = 1f;
+    private float cropBottom = 1f;
+
+    // Cấu hình ứng với bảng tra cứu hiện tại, chỉ tính lại khi thay đổi
+    private int tableWidth = -1;
+    private int tableHeight = -1;
+    private int tableRotation = -1;
+    private boolean tablesDirty = true;
+
+    public YuvToTensorConverter(int outWidth, int outHeight) {
+        this(outWidth, outHeight, TensorSpec.DataType.UINT8);
+    }
+
+    public YuvToTensorConverter(int outWidth, int outHeight, TensorSpec.DataType dataType) {
+        if (outWidth <= 0 || outHeight <= 0) {
+            throw new IllegalArgumentException("Kích thước đầu ra không hợp lệ: " + outWidth + "x" + outHeight);
+        }
+        this.outWidth = outWidth;
+        this.outHeight = outHeight;
+        this.dataType = dataType;
+        this.rowBuffer = new byte[outWidth * 3];
+        this.floatRowBuffer = dataType == TensorSpec.DataType.FLOAT32 ? new float[outWidth * 3] : null;
+        this.signFlip = dataType == TensorSpec.DataType.INT8 ? 0x80 : 0;
+        this.colIndex = new int[outWidth];
+        this.colWeight = new int[outWidth];
+        this.rowIndex = new int[outHeight];
+        this.rowWeight = new int[outHeight];
+    }
+
+    public int getOutputWidth() {
+        return outWidth;
+    }
+
+    public int getOutputHeight() {
+        return outHeight;
+    }
+
+    public TensorSpec.DataType getDataType() {
+        return dataType;
+    }
+
+    /** Số byte cần cho buffer đầu ra (RGB, mỗi kênh một phần tử kiểu dataType). */
+    public int getOutputSize() {
+        return outWidth * outHeight * 3 * dataType.bytesPerElement;
+    }
+
+    /**
+     * Kiểm tra tensor đầu vào của model nhận đúng dữ liệu lớp này ghi: cùng kiểu, cùng số byte, và
+     * với model lượng tử hóa thì pixel 0 và 255 sau giải lượng tử phải rơi vào 0..1 hoặc -1..1.
+     *
+     * @throws IllegalArgumentException nếu model được lượng tử hóa với tham số đầu vào khác
+     */
+    public void requireInput(TensorSpec spec) {
+        if (spec.dataType != dataType || spec.numBytes() != getOutputSize()) {
+            throw new IllegalArgumentException("Tensor đầu vào " + spec + " không khớp buffer "
+                    + getOutputSize() + " byte kiểu " + dataType);
+        }
+        if (!spec.isQuantized()) {
+            return;
+        }
+        // Giá trị model thấy khi nhận byte do convert() ghi cho pixel 0 và 255
+        float black = ((dataType == TensorSpec.DataType.INT8 ? -128 : 0) - spec.zeroPoint) * spec.scale;
+        float white = ((dataType == TensorSpec.DataType.INT8 ? 127 : 255) - spec.zeroPoint) * spec.scale;
+        boolean unitRange = Math.abs(black) <= QUANTIZATION_TOLERANCE;
+        boolean signedRange = Math.abs(black + 1f) <= QUANTIZATION_TOLERANCE;
+        if (Math.abs(white - 1f) > QUANTIZATION_TOLERANCE || !(unitRange || signedRange)) {
+            throw new IllegalArgumentException("Tensor đầu vào " + spec + " nhận pixel 0..255 thành "
+                    + black + ".." + white + ", cần 0..1 hoặc -1..1");
+        }
+    }
+
+    /**
+     * Đặt vùng cắt theo tọa độ chuẩn hóa (0..1) của frame đã xoay đúng chiều.
+     */
+    public void setCrop(float left, float top, float right, float bottom) {
+        if (left < 0f || top < 0f || right > 1f || bottom > 1f || left >= right || top >= bottom) {
+            throw new IllegalArgumentException("Vùng cắt không hợp lệ");
+        }
+        if (left != cropLeft || top != cropTop || right != cropRight || bottom != cropBottom) {
+            cropLeft = left;
+            cropTop = top;
+            cropRight = right;
+            cropBottom = bottom;
+            tablesDirty = true;
+        }
+    }
+
+    /**
+     * Chuyển một frame YUV_420_888 sang tensor RGB kích thước outWidth x outHeight.
+     *
+     * @param yPlane          plane Y (pixel stride luôn bằng 1 theo chuẩn YUV_420_888)
+     * @param yRowStride      row stride của plane Y
+     * @param uPlane          plane U
+     * @param vPlane          plane V
+     * @param uvRowStride     row stride chung của U và V
+     * @param uvPixelStride   pixel stride chung của U và V (1 = planar, 2 = xen kẽ)
+     * @param width           chiều rộng frame gốc
+     * @param height          chiều cao frame gốc
+     * @param rotationDegrees góc xoay theo chiều kim đồng hồ để frame đúng chiều (0/90/180/270)
+     * @param out             buffer đích (native order nếu FLOAT32), được ghi từ đầu và rewind khi xong
+     */
+    public void convert(ByteBuffer yPlane, int yRowStride,
+                        ByteBuffer uPlane, ByteBuffer vPlane,
+                        int uvRowStride, int uvPixelStride,
+                        int width, int height, int rotationDegrees,
+                        ByteBuffer out) {
+        if (width < 2 || height < 2) {
+            throw new IllegalArgumentException("Frame quá nhỏ: " + width + "x" + height);
+        }
+        if (out.capacity() < getOutputSize()) {
+            throw new IllegalArgumentException("Buffer đầu ra quá nhỏ: " + out.capacity() + " < " + getOutputSize());
+        }
+
+        int rotation = normalizeRotation(rotationDegrees);
+        if (tablesDirty || width != tableWidth || height != tableHeight || rotation != tableRotation) {
+            buildTables(width, height, rotation);
+        }
+
+        // Với góc 90/270, cột đầu ra ứng với trục dọc của frame gốc và ngược lại
+        boolean swapAxes = rotation == 90 || rotation == 270;
+        byte[] row = rowBuffer;
+        float[] floatRow = floatRowBuffer;
+        int flip = signFlip;
+
+        out.rewind();
+        for (int oy = 0; oy < outHeight; oy++) {
+            int rIndex = rowIndex[oy];
+            int rWeight = rowWeight[oy];
+            int p = 0;
+
+            for (int ox = 0; ox < outWidth; ox++) {
+                int x0, wx, y0, wy;
+                if (swapAxes) {
+                    x0 = rIndex;
+                    wx = rWeight;
+                    y0 = colIndex[ox];
+                    wy = colWeight[ox];
+                } else {
+                    x0 = colIndex[ox];
+                    wx = colWeight[ox];
+                    y0 = rIndex;
+                    wy = rWeight;
+                }
+
+                // Nội suy bilinear trên kênh sáng
+                int yOffset = y0 * yRowStride + x0;
+                int p00 = yPlane.get(yOffset) & 0xFF;
+                int p01 = yPlane.get(yOffset + 1) & 0xFF;
+                int p10 = yPlane.get(yOffset + yRowStride) & 0xFF;
+                int p11 = yPlane.get(yOffset + yRowStride + 1) & 0xFF;
+                int top = p00 * (WEIGHT_ONE - wx) + p01 * wx;
+                int bottom = p10 * (WEIGHT_ONE - wx) + p11 * wx;
+                int luma = (top * (WEIGHT_ONE - wy) + bottom * wy + (1 << (2 * WEIGHT_BITS - 1))) >> (2 * WEIGHT_BITS);
+
+                // Kênh màu lấy mẫu gần nhất (độ phân giải 1/2 mỗi chiều)
+                int cx = (wx < WEIGHT_ONE / 2 ? x0 : x0 + 1) >> 1;
+                int cy = (wy < WEIGHT_ONE / 2 ? y0 : y0 + 1) >> 1;
+                int uvOffset = cy * uvRowStride + cx * uvPixelStride;
+                int cu = (uPlane.get(uvOffset) & 0xFF) - 128;
+                int cv = (vPlane.get(uvOffset) & 0xFF) - 128;
+
+                int r = clamp(luma + ((COEF_R_V * cv) >> 16));
+                int g = clamp(luma - ((COEF_G_U * cu + COEF_G_V * cv) >> 16));
+                int b = clamp(luma + ((COEF_B_U * cu) >> 16));
+
+                if (floatRow != null) {
+                    floatRow[p++] = FLOAT_TABLE[r];
+                    floatRow[p++] = FLOAT_TABLE[g];
+                    floatRow[p++] = FLOAT_TABLE[b];
+                } else {
+                    row[p++] = (byte) (r ^ flip);
+                    row[p++] = (byte) (g ^ flip);
+                    row[p++] = (byte) (b ^ flip);
+                }
+            }
+
+            if (floatRow != null) {
+                for (int i = 0; i < p; i++) {
+                    out.putFloat(floatRow[i]);
+                }
+            } else {
+                out.put(row, 0, p);
+            }
+        }
+        out.rewind();
+    }
+
+    private void buildTables(int width, int height, int rotation) {
+        boolean swapAxes = rotation == 90 || rotation == 270;
+        int uprightWidth = swapAxes ? height : width;
+        int uprightHeight = swapAxes ? width : height;
+
+        float cropX = cropLeft * uprightWidth;
+        float cropY = cropTop * uprightHeight;
+        float scaleX = (cropRight - cropLeft) * uprightWidth / outWidth;
+        float scaleY = (cropBottom - cropTop) * uprightHeight / outHeight;
+
+        // Cột đầu ra -> trục ngang (0/180) hoặc trục dọc (90/270) của frame gốc
+        boolean colFlipped = rotation == 180 || rotation == 90;
+        int colAxisLength = swapAxes ? height : width;
+        for (int ox = 0; ox < outWidth; ox++) {
+            float upright = cropX + (ox + 0.5f) * scaleX - 0.5f;
+            float source = colFlipped ? (colAxisLength - 1) - upright : upright;
+            fillTableEntry(source, colAxisLength, colIndex, colWeight, ox);
+        }
+
+        // Hàng đầu ra -> trục dọc (0/180) hoặc trục ngang (90/270) của frame gốc
+        boolean rowFlipped = rotation == 180 || rotation == 270;
+        int rowAxisLength = swapAxes ? width : height;
+        for (int oy = 0; oy < outHeight; oy++) {
+            float upright = cropY + (oy + 0.5f) * scaleY - 0.5f;
+            float source = rowFlipped ? (rowAxisLength - 1) - upright : upright;
+            fillTableEntry(source, rowAxisLength, rowIndex, rowWeight, oy);
+        }
+
+        tableWidth = width;
+        tableHeight = height;
+        tableRotation = rotation;
+        tablesDirty = false;
+    }
+
+    private static void fillTableEntry(float source, int axisLength, int[] index, int[] weight, int i) {
+        float clamped = Math.max(0f, Math.min(axisLength - 1, source));
+        int i0 = Math.min((int) clamped, axisLength - 2);
+        index[i] = i0;
+        weight[i] = Math.round((clamped - i0) * WEIGHT_ONE);
+    }
+
+    private static int normalizeRotation(int rotationDegrees) {
+        int rotation = ((rotationDegrees % 360) + 360) % 360;
+        if (rotation % 90 != 0) {
+            throw new IllegalArgumentException("Góc xoay không hỗ trợ: " + rotationDegrees);
+        }
+        return rotation;
+    }
+
+    private static int clamp(int value) {
+        if (value < 0) {
+            return 0;
+        }
+        return value > 255 ? 255 : value;
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.blindwayapp.location;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class NearbyPlacesTrackerTest {
+
+    private static final double LAT = 21.028515;
+    private static final double LON = 105.804820;
+
+    @Test
+    public void walkingReusesCandidatesAndStaysExact() {
+        Random random = new Random(17);
+        List<Place> places = PlaceIndexTest.randomPlaces(random, 5_000, 0.05);
+        PlaceIndex index = new PlaceIndex();
+        for (Place place : places) {
+            index.put(place);
+        }
+        NearbyPlacesTracker tracker = new NearbyPlacesTracker(index::nearest, 300f, 5, 100f, 200);
+
+        int updates = 300;
+        for (int i = 0; i < updates; i++) {
+            // Đi bộ 1,2 m/s về hướng đông bắc, mỗi giây một vị trí
+            double lat = LAT + 0.85 * i / PlaceIndex.METERS_PER_DEGREE;
+            double lon = LON + 0.85 * i / PlaceIndex.METERS_PER_DEGREE;
+            List<NearbyPlace> result = tracker.update(lat, lon);
+            PlaceIndexTest.assertSameResult(PlaceIndexTest.bruteForce(places, lat, lon, 300f, 5), result);
+        }
+        assertTrue("Tìm lại " + tracker.getSearchCount() + " lần", tracker.getSearchCount() < updates / 10);
+    }
+
+    @Test
+    public void truncatedCandidatesStillGiveExactResult() {
+        Random random = new Random(19);
+        List<Place> places = PlaceIndexTest.randomPlaces(random, 5_000, 0.02);
+        PlaceIndex index = new PlaceIndex();
+        for (Place place : places) {
+            index.put(place);
+        }
+        // Ít ứng viên hơn nhiều so với số địa điểm trong bán kính mở rộng
+        NearbyPlacesTracker tracker = new NearbyPlacesTracker(index::nearest, 1000f, 3, 200f, 10);
+        for (int i = 0; i < 100; i++) {
+            double lat = LAT + 2.0 * i / PlaceIndex.METERS_PER_DEGREE;
+            List<NearbyPlace> result = tracker.update(lat, LON);
+            PlaceIndexTest.assertSameResult(PlaceIndexTest.bruteForce(places, lat, LON, 1000f, 3), result);
+        }
+    }
+
+    @Test
+    public void invalidatePicksUpNewPlaces() {
+        PlaceIndex index = new PlaceIndex();
+        NearbyPlacesTracker tracker = new NearbyPlacesTracker(index::nearest, 500f, 5, 100f, 20);
+        assertTrue(tracker.update(LAT, LON).isEmpty());
+
+        index.put(new Place(1, "Nhà riêng", "", "", LAT, LON + 0.001));
+        tracker.invalidate();
+        List<NearbyPlace> result = tracker.update(LAT, LON);
+        assertEquals(1, result.size());
+        assertEquals("Nhà riêng", result.get(0).place.name);
+    }
+
+    @Test
+    public void resultIsSnapshot() {
+        PlaceIndex index = new PlaceIndex();
+        index.put(new Place(1, "A", "", "", LAT, LON));
+        NearbyPlacesTracker tracker = new NearbyPlacesTracker(index::nearest, 500f, 5, 100f, 20);
+        List<NearbyPlace> first = tracker.update(LAT, LON);
+        float distance = first.get(0).distanceMeters;
+        tracker.update(LAT + 0.001, LON);
+        assertEquals(distance, first.get(0).distanceMeters, 0f);
+    }
+}
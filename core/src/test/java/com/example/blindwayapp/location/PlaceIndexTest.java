@@ -0,0 +1,123 @@
+package com.example.blindwayapp.location;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class PlaceIndexTest {
+
+    private static final double LAT = 21.028515;
+    private static final double LON = 105.804820;
+
+    @Test
+    public void matchesBruteForceInDenseCity() {
+        Random random = new Random(3);
+        PlaceIndex index = new PlaceIndex();
+        List<Place> places = randomPlaces(random, 20_000, 0.1);
+        for (Place place : places) {
+            index.put(place);
+        }
+        List<NearbyPlace> out = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            double lat = LAT + (random.nextDouble() - 0.5) * 0.1;
+            double lon = LON + (random.nextDouble() - 0.5) * 0.1;
+            index.nearest(lat, lon, 500f, 10, out);
+            assertSameResult(bruteForce(places, lat, lon, 500f, 10), out);
+        }
+    }
+
+    @Test
+    public void sparseDataWithLargeRadiusScansAllPlaces() {
+        Random random = new Random(5);
+        PlaceIndex index = new PlaceIndex();
+        List<Place> places = randomPlaces(random, 30, 1.0);
+        for (Place place : places) {
+            index.put(place);
+        }
+        List<NearbyPlace> out = new ArrayList<>();
+        index.nearest(LAT, LON, 100_000f, 50, out);
+        assertEquals(30, out.size());
+        assertSameResult(bruteForce(places, LAT, LON, 100_000f, 50), out);
+    }
+
+    @Test
+    public void respectsRadius() {
+        PlaceIndex index = new PlaceIndex();
+        index.put(new Place(1, "gần", "", "", LAT + 100 / PlaceIndex.METERS_PER_DEGREE, LON));
+        index.put(new Place(2, "xa", "", "", LAT + 300 / PlaceIndex.METERS_PER_DEGREE, LON));
+        List<NearbyPlace> out = new ArrayList<>();
+        assertEquals(1, index.nearest(LAT, LON, 200f, 5, out));
+        assertEquals(1, out.get(0).place.id);
+        assertEquals(100f, out.get(0).distanceMeters, 0.5f);
+    }
+
+    @Test
+    public void replaceAndRemoveUpdateCells() {
+        PlaceIndex index = new PlaceIndex();
+        index.put(new Place(1, "cũ", "", "", LAT, LON));
+        // Cùng id ở chỗ khác thì ô cũ không còn giữ bản ghi cũ
+        index.put(new Place(1, "mới", "", "", LAT + 0.05, LON));
+        List<NearbyPlace> out = new ArrayList<>();
+        assertEquals(0, index.nearest(LAT, LON, 100f, 5, out));
+        assertEquals(1, index.nearest(LAT + 0.05, LON, 100f, 5, out));
+        assertEquals("mới", out.get(0).place.name);
+
+        assertNotNull(index.remove(1));
+        assertNull(index.remove(1));
+        assertEquals(0, index.size());
+        assertEquals(0, index.nearest(LAT + 0.05, LON, 100f, 5, out));
+    }
+
+    @Test
+    public void nearestAmong100kPlaces_fillsEveryRequest() {
+        Random random = new Random(11);
+        PlaceIndex index = new PlaceIndex();
+        for (Place place : randomPlaces(random, 100_000, 0.2)) {
+            index.put(place);
+        }
+        List<NearbyPlace> out = new ArrayList<>();
+        int queries = 200;
+        int found = 0;
+        for (int i = 0; i < queries; i++) {
+            double lat = LAT + (random.nextDouble() - 0.5) * 0.2;
+            double lon = LON + (random.nextDouble() - 0.5) * 0.2;
+            found += index.nearest(lat, lon, 1000f, 10, out);
+        }
+        // Khoảng 200 địa điểm mỗi km² (22 x 22 km) nên bán kính 1 km luôn đủ 10 kết quả
+        assertEquals(queries * 10, found);
+    }
+
+    static List<Place> randomPlaces(Random random, int count, double spanDegrees) {
+        List<Place> places = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            places.add(new Place(i, "Địa điểm " + i, "", "",
+                    LAT + (random.nextDouble() - 0.5) * spanDegrees,
+                    LON + (random.nextDouble() - 0.5) * spanDegrees));
+        }
+        return places;
+    }
+
+    static List<NearbyPlace> bruteForce(List<Place> places, double lat, double lon, float radius, int maxCount) {
+        List<NearbyPlace> all = new ArrayList<>();
+        for (Place place : places) {
+            float distance = PlaceIndex.distanceMeters(lat, lon, place.latitude, place.longitude);
+            if (distance <= radius) {
+                all.add(new NearbyPlace(place, distance));
+            }
+        }
+        Collections.sort(all, (a, b) -> Float.compare(a.distanceMeters, b.distanceMeters));
+        return all.subList(0, Math.min(maxCount, all.size()));
+    }
+
+    static void assertSameResult(List<NearbyPlace> expected, List<NearbyPlace> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).distanceMeters, actual.get(i).distanceMeters, 1e-3f);
+        }
+    }
+}
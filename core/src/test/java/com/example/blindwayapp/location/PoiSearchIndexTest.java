@@ -0,0 +1,154 @@
+package com.example.blindwayapp.location;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class PoiSearchIndexTest {
+
+    private static final double LAT = 21.028515;
+    private static final double LON = 105.804820;
+    private static final String TRANSIT = "Vận chuyển & Hậu cần";
+    private static final String FOOD = "Ẩm thực & Nhà hàng";
+
+    private final List<PoiMatch> out = new ArrayList<>();
+
+    @Test
+    public void matchesWithoutDiacriticsAndByPrefix() throws IOException {
+        PoiSearchIndex index = build(writer -> {
+            writer.add("Bến xe Mỹ Đình", TRANSIT, LAT, LON);
+            writer.add("Bệnh viện Bạch Mai", "Y tế & Sức khỏe", LAT, LON);
+            writer.add("Phở Thìn", FOOD, LAT, LON);
+        });
+        assertEquals(1, index.search("ben xe", LAT, LON, 10, out));
+        assertEquals("Bến xe Mỹ Đình", out.get(0).name);
+        assertEquals(TRANSIT, out.get(0).category);
+
+        assertEquals(1, index.search("BẠCH", LAT, LON, 10, out));
+        assertEquals("Bệnh viện Bạch Mai", out.get(0).name);
+
+        // "b" là tiền tố của cả "bến" và "bệnh"
+        assertEquals(2, index.search("b", LAT, LON, 10, out));
+        assertEquals(0, index.search("pho bach", LAT, LON, 10, out));
+        assertEquals(0, index.search("xyz", LAT, LON, 10, out));
+        assertEquals(0, index.search("  ", LAT, LON, 10, out));
+    }
+
+    @Test
+    public void exactWordRanksAboveLongerWord() throws IOException {
+        PoiSearchIndex index = build(writer -> {
+            writer.add("Chợ Bến Thành", FOOD, LAT, LON);
+            writer.add("Bến xe Giáp Bát", TRANSIT, LAT, LON);
+            writer.add("Bệnh viện E", "Y tế & Sức khỏe", LAT, LON);
+        });
+        index.search("ben", LAT, LON, 10, out);
+        assertEquals(3, out.size());
+        // Khớp cả từ ở đầu tên, rồi khớp cả từ giữa tên, rồi chỉ khớp tiền tố
+        assertEquals("Bến xe Giáp Bát", out.get(0).name);
+        assertEquals("Chợ Bến Thành", out.get(1).name);
+        assertEquals("Bệnh viện E", out.get(2).name);
+    }
+
+    @Test
+    public void closerPlaceWinsForSameText() throws IOException {
+        PoiSearchIndex index = build(writer -> {
+            writer.add("Điểm dừng xe buýt", TRANSIT, LAT + 0.02, LON);
+            writer.add("Điểm dừng xe buýt", TRANSIT, LAT + 0.001, LON);
+        });
+        index.search("diem dung", LAT, LON, 10, out);
+        assertEquals(1, out.get(0).poi);
+        assertEquals(111f, out.get(0).distanceMeters, 1f);
+        assertTrue(out.get(0).score > out.get(1).score);
+
+        index.search("diem dung", Double.NaN, Double.NaN, 10, out);
+        assertEquals(2, out.size());
+        assertTrue(Float.isNaN(out.get(0).distanceMeters));
+    }
+
+    @Test
+    public void categoryWordsMatchWithLowerWeight() throws IOException {
+        PoiSearchIndex index = build(writer -> {
+            writer.add("Trạm 23", TRANSIT, LAT, LON);
+            writer.add("Nhà chờ Vận Tải", FOOD, LAT, LON);
+        });
+        index.search("van", LAT, LON, 10, out);
+        assertEquals(2, out.size());
+        assertEquals("Nhà chờ Vận Tải", out.get(0).name);
+        assertEquals("Trạm 23", out.get(1).name);
+
+        assertEquals(2, index.getCategoryCount());
+        assertEquals(TRANSIT, index.getCategoryName(0));
+    }
+
+    @Test
+    public void keepsOnlyBestResults() throws IOException {
+        PoiSearchIndex index = build(writer -> {
+            for (int i = 0; i < 50; i++) {
+                writer.add("Cà phê " + i, FOOD, LAT + i * 0.001, LON);
+            }
+        });
+        assertEquals(5, index.search("ca phe", LAT, LON, 5, out));
+        for (int i = 0; i < 5; i++) {
+            assertEquals(i, out.get(i).poi);
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsOtherFiles() throws IOException {
+        new PoiSearchIndex(ByteBuffer.wrap(new byte[64]));
+    }
+
+    @Test
+    public void searchAmong100kPlaces_findsEveryQuery() throws IOException {
+        String[] words = {"Bến", "xe", "Chợ", "Phở", "Cà", "phê", "Trường", "Bệnh", "viện", "Nhà", "sách",
+                "Ngân", "hàng", "Siêu", "thị", "Công", "viên", "Hồ", "Tây", "Lê", "Lợi", "Trần", "Hưng", "Đạo",
+                "Nguyễn", "Trãi", "Kim", "Mã", "Cầu", "Giấy", "Đống", "Đa", "Hoàn", "Kiếm", "Ba", "Đình"};
+        String[] categories = {TRANSIT, FOOD, "Y tế & Sức khỏe", "Giáo dục & Học tập", "Cửa hàng mua sắm"};
+        Random random = new Random(29);
+        PoiIndexWriter writer = new PoiIndexWriter();
+        for (int i = 0; i < 100_000; i++) {
+            StringBuilder name = new StringBuilder();
+            int length = 2 + random.nextInt(3);
+            for (int w = 0; w < length; w++) {
+                name.append(words[random.nextInt(words.length)]).append(' ');
+            }
+            name.append(i);
+            writer.add(name.toString(), categories[random.nextInt(categories.length)],
+                    LAT + (random.nextDouble() - 0.5) * 0.2, LON + (random.nextDouble() - 0.5) * 0.2);
+        }
+        PoiSearchIndex index = new PoiSearchIndex(toBuffer(writer));
+
+        String[] queries = {"ben xe", "pho", "b", "cho ha", "nguyen trai", "ca phe ho tay", "truong"};
+        for (String query : queries) {
+            int found = index.search(query, LAT, LON, 20, out);
+            assertTrue(query, found > 0 && found <= 20);
+            // Điểm giảm dần
+            for (int i = 1; i < out.size(); i++) {
+                assertTrue(query, out.get(i - 1).score >= out.get(i).score);
+            }
+        }
+    }
+
+    private interface Content {
+        void fill(PoiIndexWriter writer);
+    }
+
+    private static PoiSearchIndex build(Content content) throws IOException {
+        PoiIndexWriter writer = new PoiIndexWriter();
+        content.fill(writer);
+        return new PoiSearchIndex(toBuffer(writer));
+    }
+
+    private static ByteBuffer toBuffer(PoiIndexWriter writer) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        writer.writeTo(bytes);
+        return ByteBuffer.wrap(bytes.toByteArray());
+    }
+}
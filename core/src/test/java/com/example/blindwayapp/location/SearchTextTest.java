@@ -0,0 +1,31 @@
+package com.example.blindwayapp.location;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class SearchTextTest {
+
+    @Test
+    public void removesVietnameseDiacritics() {
+        assertEquals("ben xe my dinh", SearchText.fold("Bến xe Mỹ Đình"));
+        assertEquals("duong tran hung dao", SearchText.fold("Đường Trần Hưng Đạo"));
+        assertEquals("nguyen trai", SearchText.fold("NGUYỄN TRÃI"));
+    }
+
+    @Test
+    public void punctuationBecomesSingleSpace() {
+        assertEquals("cong cong hanh chinh", SearchText.fold("  Công cộng & Hành chính!! "));
+        assertEquals("so 12 le loi", SearchText.fold("Số 12, Lê Lợi"));
+        assertEquals("", SearchText.fold(" - "));
+    }
+
+    @Test
+    public void tokensSplitOnSpaces() {
+        assertEquals(Arrays.asList("vinmart", "nguyen", "trai"),
+                SearchText.tokens(SearchText.fold("Vinmart - Nguyễn Trãi")));
+        assertTrue(SearchText.tokens("").isEmpty());
+    }
+}
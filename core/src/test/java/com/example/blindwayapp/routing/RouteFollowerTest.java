@@ -0,0 +1,155 @@
+package com.example.blindwayapp.routing;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.example.blindwayapp.routing.TurnInstructionBuilderTest.node;
+import static com.example.blindwayapp.routing.WalkGraphTest.LAT_STEP;
+import static org.junit.Assert.*;
+
+public class RouteFollowerTest {
+
+    private static final float ACCURACY = 5f;
+
+    @Test
+    public void walkingTheRoute_announcesEachTurnBeforeAndAtIt() throws IOException {
+        WalkGraph graph = TurnInstructionBuilderTest.streets();
+        Route route = new WalkRouter(graph).route(node(graph, 0, 0), node(graph, 3, 2));
+        RouteFollower follower = new RouteFollower(graph, route);
+
+        List<String> prompts = new ArrayList<>();
+        for (double[] point : walk(graph, route, 2f)) {
+            RouteFollower.Status status = follower.update(point[0], point[1], ACCURACY);
+            assertNotEquals(RouteFollower.Status.OFF_ROUTE, status);
+            if (follower.getPrompt() != null) {
+                prompts.add(follower.getPrompt());
+            }
+        }
+        assertEquals(Arrays.asList(
+                "Đi theo Phố Huế 100 mét",
+                "Sau 40 mét, rẽ phải vào Phố Lò Đúc",
+                "Rẽ phải vào Phố Lò Đúc",
+                "Sau 40 mét, rẽ trái vào Phố Lò Đúc",
+                "Rẽ trái vào Phố Lò Đúc",
+                "Đã tới nơi"), prompts);
+        assertEquals(RouteFollower.Status.ARRIVED, follower.getStatus());
+        assertNull(follower.getNextStep());
+    }
+
+    @Test
+    public void remainingDistance_followsProgress() throws IOException {
+        WalkGraph graph = TurnInstructionBuilderTest.streets();
+        Route route = new WalkRouter(graph).route(node(graph, 0, 0), node(graph, 3, 2));
+        RouteFollower follower = new RouteFollower(graph, route);
+
+        // Giữa (1, 0) và (2, 0), lệch 3 m khỏi tuyến
+        int a = route.node(1);
+        int b = route.node(2);
+        double latitude = (graph.latitude(a) + graph.latitude(b)) / 2;
+        double longitude = graph.longitude(a) + 3 / (111_320.0 * Math.cos(Math.toRadians(latitude)));
+        follower.update(latitude, longitude, ACCURACY);
+        assertEquals(175f, follower.getRemainingMeters(), 1f);
+        assertEquals(25f, follower.getDistanceToNextStep(), 1f);
+        assertEquals(3f, follower.getOffRouteMeters(), 0.5f);
+        assertEquals(RouteStep.Turn.RIGHT, follower.getNextStep().turn);
+        assertEquals(2, follower.getRejoinIndex());
+    }
+
+    @Test
+    public void deviation_isConfirmedAfterConsecutiveFixes() throws IOException {
+        WalkGraph graph = TurnInstructionBuilderTest.streets();
+        Route route = new WalkRouter(graph).route(node(graph, 0, 0), node(graph, 3, 2));
+        RouteFollower follower = new RouteFollower(graph, route);
+        int start = route.node(0);
+
+        assertEquals(RouteFollower.Status.ON_ROUTE,
+                follower.update(graph.latitude(start), graph.longitude(start), ACCURACY));
+        double farLongitude = graph.longitude(start) - 0.0004; // khoảng 40 m về phía tây
+        assertEquals("Một lần GPS nhảy chưa tính là đi lệch", RouteFollower.Status.ON_ROUTE,
+                follower.update(graph.latitude(start) + LAT_STEP / 2, farLongitude, ACCURACY));
+        assertEquals(RouteFollower.Status.OFF_ROUTE,
+                follower.update(graph.latitude(start) + LAT_STEP / 2, farLongitude, ACCURACY));
+        assertNull(follower.getPrompt());
+
+        // Vị trí kém chính xác thì phải lệch xa hơn sai số
+        RouteFollower coarse = new RouteFollower(graph, route);
+        coarse.update(graph.latitude(start) + LAT_STEP / 2, farLongitude, 60f);
+        assertEquals(RouteFollower.Status.ON_ROUTE,
+                coarse.update(graph.latitude(start) + LAT_STEP / 2, farLongitude, 60f));
+
+        assertEquals(RouteFollower.Status.ON_ROUTE,
+                follower.update(graph.latitude(start) + LAT_STEP / 2, graph.longitude(start), ACCURACY));
+    }
+
+    @Test
+    public void startFix60MetersFromGraph_approachesWithoutReroute() throws IOException {
+        WalkGraph graph = TurnInstructionBuilderTest.streets();
+        Route route = new WalkRouter(graph).route(node(graph, 0, 0), node(graph, 3, 2));
+        RouteFollower follower = new RouteFollower(graph, route);
+        int start = route.node(0);
+
+        // Từ 60 m phía nam nút đầu đi thẳng lên tuyến, GPS lệch qua lại vài mét
+        List<String> prompts = new ArrayList<>();
+        for (int meters = 60; meters > 30; meters -= 5) {
+            double jitter = meters % 10 == 0 ? 4 : -4;
+            assertEquals(RouteFollower.Status.ON_ROUTE, follower.update(
+                    graph.latitude(start) - (meters + jitter) / 111_320.0, graph.longitude(start), ACCURACY));
+            assertTrue(follower.isApproaching());
+            if (follower.getPrompt() != null) {
+                prompts.add(follower.getPrompt());
+            }
+        }
+        assertEquals(route.getLengthMeters() + 31f, follower.getRemainingMeters(), 1f);
+        for (double[] point : walk(graph, route, 2f)) {
+            assertNotEquals(RouteFollower.Status.OFF_ROUTE, follower.update(point[0], point[1], ACCURACY));
+            if (follower.getPrompt() != null) {
+                prompts.add(follower.getPrompt());
+            }
+        }
+        assertFalse(follower.isApproaching());
+        assertEquals("Đi tới Phố Huế, cách 60 mét", prompts.get(0));
+        assertEquals("Đi theo Phố Huế 100 mét", prompts.get(1));
+        assertEquals(RouteFollower.Status.ARRIVED, follower.getStatus());
+
+        // Đi ra xa tuyến hơn lúc gần nhất quá ngưỡng thì vẫn là đi lệch
+        RouteFollower away = new RouteFollower(graph, route);
+        away.update(graph.latitude(start) - 60 / 111_320.0, graph.longitude(start), ACCURACY);
+        assertEquals(RouteFollower.Status.ON_ROUTE,
+                away.update(graph.latitude(start) - 90 / 111_320.0, graph.longitude(start), ACCURACY));
+        assertEquals(RouteFollower.Status.OFF_ROUTE,
+                away.update(graph.latitude(start) - 90 / 111_320.0, graph.longitude(start), ACCURACY));
+    }
+
+    @Test
+    public void formatMeters_roundsForSpeech() {
+        assertEquals("7 mét", RouteFollower.formatMeters(7.4f));
+        assertEquals("40 mét", RouteFollower.formatMeters(38.2f));
+        assertEquals("350 mét", RouteFollower.formatMeters(347f));
+    }
+
+    /** Các điểm cách nhau stepMeters dọc theo tuyến, kể cả điểm cuối. */
+    static List<double[]> walk(WalkGraph graph, Route route, float stepMeters) {
+        List<double[]> points = new ArrayList<>();
+        for (float along = 0f; ; along += stepMeters) {
+            float clamped = Math.min(along, route.getLengthMeters());
+            int i = 0;
+            while (i < route.size() - 2 && route.distanceAt(i + 1) < clamped) {
+                i++;
+            }
+            int a = route.node(i);
+            int b = route.node(Math.min(i + 1, route.size() - 1));
+            float segment = route.distanceAt(Math.min(i + 1, route.size() - 1)) - route.distanceAt(i);
+            double t = segment > 0 ? (clamped - route.distanceAt(i)) / segment : 0;
+            points.add(new double[]{
+                    graph.latitude(a) + t * (graph.latitude(b) - graph.latitude(a)),
+                    graph.longitude(a) + t * (graph.longitude(b) - graph.longitude(a))});
+            if (clamped >= route.getLengthMeters()) {
+                return points;
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.blindwayapp.routing;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static com.example.blindwayapp.routing.WalkGraphTest.LAT;
+import static com.example.blindwayapp.routing.WalkGraphTest.LAT_STEP;
+import static com.example.blindwayapp.routing.WalkGraphTest.LON;
+import static com.example.blindwayapp.routing.WalkGraphTest.LON_STEP;
+import static org.junit.Assert.*;
+
+public class TurnInstructionBuilderTest {
+
+    @Test
+    public void turnsAtJunctionAndBend_straightThroughSameStreetIsSilent() throws IOException {
+        WalkGraph graph = streets();
+        Route route = new WalkRouter(graph).route(node(graph, 0, 0), node(graph, 3, 2));
+        List<RouteStep> steps = TurnInstructionBuilder.build(graph, route);
+
+        assertEquals(4, steps.size());
+        assertEquals(RouteStep.Turn.DEPART, steps.get(0).turn);
+        assertEquals("Đi theo Phố Huế", steps.get(0).instruction());
+        assertEquals(100f, steps.get(0).lengthMeters, 1f);
+
+        assertEquals(RouteStep.Turn.RIGHT, steps.get(1).turn);
+        assertEquals("Rẽ phải vào Phố Lò Đúc", steps.get(1).instruction());
+        assertEquals(100f, steps.get(1).distanceMeters, 1f);
+
+        // Khúc cua giữa đường, không phải ngã rẽ
+        assertEquals(RouteStep.Turn.LEFT, steps.get(2).turn);
+        assertEquals(200f, steps.get(2).distanceMeters, 1f);
+
+        assertEquals(RouteStep.Turn.ARRIVE, steps.get(3).turn);
+        assertEquals("Đã tới nơi", steps.get(3).instruction());
+        assertEquals(route.getLengthMeters(), steps.get(3).distanceMeters, 0);
+    }
+
+    @Test
+    public void turnFromAngle() {
+        assertEquals(RouteStep.Turn.STRAIGHT, RouteStep.Turn.fromAngle(10f));
+        assertEquals(RouteStep.Turn.SLIGHT_LEFT, RouteStep.Turn.fromAngle(-30f));
+        assertEquals(RouteStep.Turn.RIGHT, RouteStep.Turn.fromAngle(90f));
+        assertEquals(RouteStep.Turn.SHARP_LEFT, RouteStep.Turn.fromAngle(-135f));
+        assertEquals(RouteStep.Turn.U_TURN, RouteStep.Turn.fromAngle(175f));
+    }
+
+    @Test
+    public void bearingAndAngle() throws IOException {
+        WalkGraph graph = streets();
+        int a = node(graph, 0, 0);
+        int b = node(graph, 1, 0);
+        int c = node(graph, 1, 1);
+        assertEquals(0f, TurnInstructionBuilder.bearing(graph, a, b), 1f);
+        assertEquals(90f, TurnInstructionBuilder.bearing(graph, b, c), 1f);
+        assertEquals(90f, TurnInstructionBuilder.turnAngle(graph, a, b, c), 1f);
+        assertEquals(-90f, TurnInstructionBuilder.turnAngle(graph, c, b, a), 1f);
+    }
+
+    /**
+     * Phố Huế đi lên phía bắc từ (0, 0) tới (2, 0), có ngõ rẽ ở (1, 0); Phố Lò Đúc đi sang phía đông
+     * từ (2, -1) qua (2, 0) tới (2, 2) rồi cua lên bắc tới (3, 2). Toạ độ là (hàng, cột) cách nhau 50 m.
+     */
+    static WalkGraph streets() throws IOException {
+        WalkGraphWriter writer = new WalkGraphWriter();
+        int[][] ids = new int[4][4];
+        int[][] cells = {{0, 0}, {1, 0}, {2, 0}, {1, 1}, {2, -1}, {2, 1}, {2, 2}, {3, 2}};
+        for (int[] cell : cells) {
+            ids[cell[0]][cell[1] + 1] = writer.addNode(LAT + cell[0] * LAT_STEP, LON + cell[1] * LON_STEP);
+        }
+        writer.addEdge(ids[0][1], ids[1][1], "Phố Huế");
+        writer.addEdge(ids[1][1], ids[2][1], "Phố Huế");
+        writer.addEdge(ids[1][1], ids[1][2], "Ngõ 5");
+        writer.addEdge(ids[2][0], ids[2][1], "Phố Lò Đúc");
+        writer.addEdge(ids[2][1], ids[2][2], "Phố Lò Đúc");
+        writer.addEdge(ids[2][2], ids[2][3], "Phố Lò Đúc");
+        writer.addEdge(ids[2][3], ids[3][3], "Phố Lò Đúc");
+        return WalkGraphTest.toGraph(writer);
+    }
+
+    static int node(WalkGraph graph, int row, int column) {
+        return graph.nearestNode(LAT + row * LAT_STEP, LON + column * LON_STEP, 1f);
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.blindwayapp.routing;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class WalkGraphTest {
+
+    static final double LAT = 21.028515;
+    static final double LON = 105.804820;
+    // Khoảng 50 m giữa hai nút liền nhau theo cả hai chiều ở vĩ độ Hà Nội
+    static final double LAT_STEP = 0.00045;
+    static final double LON_STEP = 0.00048;
+
+    @Test
+    public void roundTrip_keepsNodesEdgesAndNames() throws IOException {
+        WalkGraphWriter writer = new WalkGraphWriter();
+        int a = writer.addNode(LAT, LON);
+        int b = writer.addNode(LAT + LAT_STEP, LON);
+        int c = writer.addNode(LAT + LAT_STEP, LON + LON_STEP);
+        writer.addEdge(a, b, "Phố Huế");
+        writer.addEdge(b, c, "");
+        writer.addEdge(c, c, "Bỏ qua");
+        WalkGraph graph = toGraph(writer);
+
+        assertEquals(3, graph.getNodeCount());
+        assertEquals(4, graph.getEdgeCount());
+        int nodeA = graph.nearestNode(LAT, LON, 1f);
+        int nodeB = graph.nearestNode(LAT + LAT_STEP, LON, 1f);
+        int nodeC = graph.nearestNode(LAT + LAT_STEP, LON + LON_STEP, 1f);
+        assertEquals(LAT + LAT_STEP, graph.latitude(nodeB), 1e-7);
+        assertEquals(LON + LON_STEP, graph.longitude(nodeC), 1e-7);
+        assertEquals(1, graph.degree(nodeA));
+        assertEquals(2, graph.degree(nodeB));
+
+        int ab = graph.findEdge(nodeA, nodeB);
+        int ba = graph.findEdge(nodeB, nodeA);
+        assertTrue(ab >= 0 && ba >= 0);
+        assertEquals("Phố Huế", graph.edgeName(ab));
+        assertEquals("Phố Huế", graph.edgeName(ba));
+        assertEquals(50.0, graph.edgeLengthMeters(ab), 0.5);
+        assertEquals("", graph.edgeName(graph.findEdge(nodeB, nodeC)));
+        assertFalse(graph.sameName(ab, graph.findEdge(nodeB, nodeC)));
+        assertEquals(-1, graph.findEdge(nodeA, nodeC));
+    }
+
+    @Test
+    public void nearestNode_matchesBruteForce() throws IOException {
+        Random random = new Random(25);
+        WalkGraphWriter writer = new WalkGraphWriter();
+        for (int i = 0; i < 5000; i++) {
+            writer.addNode(LAT + (random.nextDouble() - 0.5) * 0.05, LON + (random.nextDouble() - 0.5) * 0.05);
+        }
+        WalkGraph graph = toGraph(writer);
+
+        for (int q = 0; q < 200; q++) {
+            double latitude = LAT + (random.nextDouble() - 0.5) * 0.06;
+            double longitude = LON + (random.nextDouble() - 0.5) * 0.06;
+            int expected = -1;
+            float expectedDistance = 150f;
+            for (int node = 0; node < graph.getNodeCount(); node++) {
+                float distance = graph.distanceMeters(node, latitude, longitude);
+                if (distance <= expectedDistance) {
+                    expectedDistance = distance;
+                    expected = node;
+                }
+            }
+            int found = graph.nearestNode(latitude, longitude, 150f);
+            if (expected < 0) {
+                assertEquals(-1, found);
+            } else {
+                assertEquals(expectedDistance, graph.distanceMeters(found, latitude, longitude), 1e-3);
+            }
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsOtherFiles() throws IOException {
+        new WalkGraph(ByteBuffer.wrap(new byte[64]));
+    }
+
+    /**
+     * Lưới rows x columns nút cách nhau khoảng 50 m, hàng ngang tên "Phố r", hàng dọc tên "Ngõ c".
+     * Mỗi đoạn bị bỏ với xác suất removal để có đường vòng.
+     */
+    static WalkGraph grid(int rows, int columns, double removal, long seed) throws IOException {
+        Random random = new Random(seed);
+        WalkGraphWriter writer = new WalkGraphWriter();
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < columns; c++) {
+                writer.addNode(LAT + r * LAT_STEP, LON + c * LON_STEP);
+            }
+        }
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < columns; c++) {
+                int node = r * columns + c;
+                if (c + 1 < columns && random.nextDouble() >= removal) {
+                    writer.addEdge(node, node + 1, "Phố " + r);
+                }
+                if (r + 1 < rows && random.nextDouble() >= removal) {
+                    writer.addEdge(node, node + columns, "Ngõ " + c);
+                }
+            }
+        }
+        return toGraph(writer);
+    }
+
+    /** Nút của lưới ở hàng r, cột c. */
+    static int gridNode(WalkGraph graph, int r, int c) {
+        return graph.nearestNode(LAT + r * LAT_STEP, LON + c * LON_STEP, 1f);
+    }
+
+    static WalkGraph toGraph(WalkGraphWriter writer) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        writer.writeTo(bytes);
+        return new WalkGraph(ByteBuffer.wrap(bytes.toByteArray()));
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.blindwayapp.routing;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class WalkRouterTest {
+
+    @Test
+    public void route_isShortestAndConnected() throws IOException {
+        WalkGraph graph = WalkGraphTest.grid(40, 40, 0.25, 3);
+        WalkRouter router = new WalkRouter(graph);
+        Random random = new Random(7);
+        int compared = 0;
+        for (int q = 0; q < 100; q++) {
+            int source = random.nextInt(graph.getNodeCount());
+            int target = random.nextInt(graph.getNodeCount());
+            float expected = dijkstra(graph, source, target);
+            Route route = router.route(source, target);
+            if (expected == Float.MAX_VALUE) {
+                assertNull(route);
+                continue;
+            }
+            compared++;
+            assertNotNull(route);
+            assertEquals(source, route.node(0));
+            assertEquals(target, route.getDestination());
+            assertEquals(expected, route.getLengthMeters(), 0.05);
+            assertConnected(graph, route);
+        }
+        assertTrue(compared > 50);
+    }
+
+    @Test
+    public void sourceEqualsTarget_isSingleNodeRoute() throws IOException {
+        WalkGraph graph = WalkGraphTest.grid(3, 3, 0, 1);
+        Route route = new WalkRouter(graph).route(4, 4);
+        assertEquals(1, route.size());
+        assertEquals(0f, route.getLengthMeters(), 0);
+    }
+
+    @Test
+    public void reroute_matchesFreshRouteAndSearchesLess() throws IOException {
+        WalkGraph graph = WalkGraphTest.grid(120, 120, 0.1, 11);
+        WalkRouter router = new WalkRouter(graph);
+        int source = WalkGraphTest.gridNode(graph, 5, 5);
+        int target = WalkGraphTest.gridNode(graph, 110, 100);
+        Route route = router.route(source, target);
+        assertNotNull(route);
+
+        Random random = new Random(5);
+        int checked = 0;
+        for (int q = 0; q < 30; q++) {
+            // Người dùng đi lệch sang một nút lân cận của một điểm trên tuyến
+            int index = random.nextInt(route.size() / 2) + 1;
+            int node = route.node(index);
+            int edge = graph.firstEdge(node) + random.nextInt(graph.degree(node));
+            int deviated = graph.edgeTarget(edge);
+
+            Route fresh = router.route(deviated, target);
+            int freshSettled = router.getLastSettledCount();
+            Route rerouted = router.reroute(deviated, route, index + 1);
+            int rerouteSettled = router.getLastSettledCount();
+
+            assertEquals(fresh.getLengthMeters(), rerouted.getLengthMeters(), 0.05);
+            assertEquals(deviated, rerouted.node(0));
+            assertEquals(target, rerouted.getDestination());
+            assertConnected(graph, rerouted);
+            assertTrue(rerouteSettled + " >= " + freshSettled, rerouteSettled < freshSettled);
+            checked++;
+        }
+        assertEquals(30, checked);
+    }
+
+    @Test
+    public void routeAcrossCityGraph_isConnected() throws IOException {
+        // 250.000 nút, khoảng 25 x 25 km, cỡ đồ thị đi bộ của một quận nội thành lớn
+        WalkGraph graph = WalkGraphTest.grid(500, 500, 0.15, 13);
+        WalkRouter router = new WalkRouter(graph);
+        Random random = new Random(17);
+        for (int i = 0; i < 20; i++) {
+            // Tuyến đi bộ dài khoảng 3-5 km
+            int r = 100 + random.nextInt(300);
+            int c = 100 + random.nextInt(300);
+            int source = WalkGraphTest.gridNode(graph, r, c);
+            int target = WalkGraphTest.gridNode(graph, r + 50 - random.nextInt(100), c + 60);
+            Route route = router.route(source, target);
+            assertNotNull(route);
+            assertEquals(target, route.getDestination());
+            assertConnected(graph, route);
+            // A* chỉ xét một phần nhỏ đồ thị
+            assertTrue(router.getLastSettledCount() < graph.getNodeCount() / 10);
+        }
+    }
+
+    static void assertConnected(WalkGraph graph, Route route) {
+        float length = 0f;
+        for (int i = 1; i < route.size(); i++) {
+            int edge = route.edge(i);
+            int from = route.node(i - 1);
+            assertTrue(edge >= graph.firstEdge(from) && edge < graph.firstEdge(from + 1));
+            assertEquals(route.node(i), graph.edgeTarget(edge));
+            length += graph.edgeLengthMeters(edge);
+            assertEquals(length, route.distanceAt(i), 0.05);
+        }
+    }
+
+    /** Dijkstra đơn giản làm chuẩn so sánh. */
+    static float dijkstra(WalkGraph graph, int source, int target) {
+        float[] cost = new float[graph.getNodeCount()];
+        Arrays.fill(cost, Float.MAX_VALUE);
+        cost[source] = 0f;
+        PriorityQueue<float[]> queue = new PriorityQueue<>((a, b) -> Float.compare(a[0], b[0]));
+        queue.add(new float[]{0f, source});
+        while (!queue.isEmpty()) {
+            float[] top = queue.poll();
+            int node = (int) top[1];
+            if (top[0] > cost[node]) {
+                continue;
+            }
+            if (node == target) {
+                return cost[node];
+            }
+            for (int edge = graph.firstEdge(node); edge < graph.firstEdge(node + 1); edge++) {
+                int next = graph.edgeTarget(edge);
+                float nextCost = cost[node] + graph.edgeLengthMeters(edge);
+                if (nextCost < cost[next]) {
+                    cost[next] = nextCost;
+                    queue.add(new float[]{nextCost, next});
+                }
+            }
+        }
+        return Float.MAX_VALUE;
+    }
+}
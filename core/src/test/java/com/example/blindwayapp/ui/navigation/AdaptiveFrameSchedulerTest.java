@@ -0,0 +1,107 @@
+package com.example.blindwayapp.ui.navigation;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+public class AdaptiveFrameSchedulerTest {
+
+    private static final long MS = 1_000_000L;
+
+    @Test
+    public void staticScene_processesAtSlowestRateAllowedByTargetLatency() {
+        AdaptiveFrameScheduler scheduler = new AdaptiveFrameScheduler(400, 0, 500);
+        scheduler.recordEndToEndLatency(100 * MS, 0);
+        scheduler.recordBottleneckStage(40 * MS);
+
+        // 400 ms mục tiêu - 100 ms độ trễ = lấy mẫu mỗi 300 ms
+        assertEquals(300 * MS, scheduler.currentIntervalNanos());
+    }
+
+    @Test
+    public void closeObstacle_raisesRateToPipelineCapacity() {
+        AdaptiveFrameScheduler scheduler = new AdaptiveFrameScheduler(400, 0, 500);
+        scheduler.recordEndToEndLatency(100 * MS, 0);
+        scheduler.recordBottleneckStage(40 * MS);
+
+        scheduler.updateClosestObstacle(0.8f);
+        assertEquals(40 * MS, scheduler.currentIntervalNanos());
+
+        scheduler.updateClosestObstacle(2.5f);
+        long midway = scheduler.currentIntervalNanos();
+        assertTrue(midway > 40 * MS && midway < 300 * MS);
+    }
+
+    @Test
+    public void fastSceneChange_raisesRate() {
+        AdaptiveFrameScheduler scheduler = new AdaptiveFrameScheduler(400, 0, 500);
+        scheduler.recordEndToEndLatency(100 * MS, 0);
+        scheduler.recordBottleneckStage(40 * MS);
+
+        scheduler.updateSceneChange(1f);
+        assertEquals(40 * MS, scheduler.currentIntervalNanos());
+    }
+
+    @Test
+    public void slowDevice_neverSubmitsFasterThanInference() {
+        AdaptiveFrameScheduler scheduler = new AdaptiveFrameScheduler(400, 0, 500);
+        scheduler.recordEndToEndLatency(450 * MS, 0);
+        scheduler.recordBottleneckStage(350 * MS);
+
+        assertEquals(350 * MS, scheduler.currentIntervalNanos());
+    }
+
+    @Test
+    public void shouldProcess_followsIntervalAndReportsFps() {
+        AdaptiveFrameScheduler scheduler = new AdaptiveFrameScheduler(400, 0, 500);
+        scheduler.recordEndToEndLatency(100 * MS, 0);
+        scheduler.recordBottleneckStage(40 * MS);
+        scheduler.updateClosestObstacle(0.5f);
+
+        int processed = 0;
+        long t = 0;
+        // Camera 30 fps trong 3 giây, mỗi frame nhận vào xong sau 100 ms
+        for (; t < 3000 * MS; t += 33 * MS) {
+            if (scheduler.shouldProcess(t)) {
+                processed++;
+                scheduler.recordEndToEndLatency(100 * MS, t + 100 * MS);
+            }
+        }
+
+        // Khoảng cách 40 ms trên lưới 33 ms => lấy mỗi frame thứ hai
+        assertEquals(46, processed);
+        assertEquals(15.15f, scheduler.getProcessedFps(t), 0.5f);
+
+        // Pipeline nghẽn: vẫn nhận frame nhưng không frame nào xong
+        for (long stalled = t + 1000 * MS; t < stalled; t += 33 * MS) {
+            scheduler.shouldProcess(t);
+        }
+        assertEquals(0f, scheduler.getProcessedFps(t + 100 * MS), 0f);
+    }
+
+    @Test
+    public void sceneChangeDetector_staticVersusMovingFrames() {
+        int width = 64;
+        int height = 48;
+        ByteBuffer frame = ByteBuffer.allocate(width * height);
+        SceneChangeDetector detector = new SceneChangeDetector();
+
+        fill(frame, 100);
+        assertEquals(0f, detector.update(frame, width, width, height), 0f);
+        assertEquals(0f, detector.update(frame, width, width, height), 0f);
+
+        fill(frame, 160);
+        assertEquals(1f, detector.update(frame, width, width, height), 0f);
+
+        fill(frame, 166);
+        assertEquals(0.25f, detector.update(frame, width, width, height), 0.01f);
+    }
+
+    private static void fill(ByteBuffer buffer, int value) {
+        for (int i = 0; i < buffer.capacity(); i++) {
+            buffer.put(i, (byte) value);
+        }
+    }
+}
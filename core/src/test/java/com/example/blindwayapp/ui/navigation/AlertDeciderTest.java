@@ -0,0 +1,61 @@
+package com.example.blindwayapp.ui.navigation;
+
+import org.junit.Test;
+
+import java.util.Locale;
+
+import static org.junit.Assert.*;
+
+public class AlertDeciderTest {
+
+    private static final long MS = 1_000_000L;
+
+    private final AlertDecider decider = new AlertDecider(400, Locale.US);
+    private final DetectionList detections = new DetectionList(4);
+
+    @Test
+    public void noObjects_wallCloseAhead_isAnnouncedOnce() {
+        assertTrue(decider.decide(detections, true, 0.8f, 0));
+        assertEquals(AlertPolicy.Priority.WALL, decider.getPriority());
+        assertEquals(AlertDecider.ALERT_WALL, decider.getText());
+
+        assertFalse(decider.decide(detections, true, 0.8f, 100 * MS));
+        assertNull(decider.getText());
+    }
+
+    @Test
+    public void darkFrame_isNotJudgedAsWall() {
+        assertFalse(decider.decide(detections, false, 0.5f, 0));
+    }
+
+    @Test
+    public void approachingObject_isImminentBeforeReachingThreshold() {
+        // 1.5 m nhưng tiến lại 2 m/s: sau 400 ms chỉ còn 0.7 m
+        add(0.9f, 1.5f, DetectionDecoder.DIRECTION_LEFT).closingSpeed = 2f;
+
+        assertTrue(decider.decide(detections, true, 5f, 0));
+        assertEquals(AlertPolicy.Priority.IMMINENT, decider.getPriority());
+        assertEquals(AlertDecider.ALERT_STOP_LEFT, decider.getText());
+    }
+
+    @Test
+    public void infoAlert_describesClosestObject() {
+        add(0.9f, 4f, DetectionDecoder.DIRECTION_RIGHT);
+        add(0.8f, 2.5f, DetectionDecoder.DIRECTION_AHEAD).closingSpeed = 0.5f;
+
+        assertTrue(decider.decide(detections, true, 5f, 0));
+        assertEquals(AlertPolicy.Priority.INFO, decider.getPriority());
+        assertEquals("Phát hiện 2 vật thể, gần nhất ở phía trước cách 2.5 mét, đang tới gần", decider.getText());
+    }
+
+    @Test
+    public void lowConfidence_isIgnored() {
+        add(0.5f, 0.5f, DetectionDecoder.DIRECTION_AHEAD);
+
+        assertFalse(decider.decide(detections, true, 0.5f, 0));
+    }
+
+    private Detection add(float confidence, float distance, String direction) {
+        return detections.obtain().set("người", confidence, 0.4f, 0.2f, 0.6f, 0.8f, distance, direction);
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.blindwayapp.ui.navigation;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class AlertPolicyTest {
+
+    private static final long MS = 1_000_000L;
+
+    @Test
+    public void distanceBands() {
+        assertEquals(0, AlertPolicy.distanceBand(0.5f));
+        assertEquals(1, AlertPolicy.distanceBand(1.0f));
+        assertEquals(2, AlertPolicy.distanceBand(2.9f));
+        assertEquals(4, AlertPolicy.distanceBand(12f));
+    }
+
+    @Test
+    public void sameTrackInSameBand_isNotRepeated() {
+        AlertPolicy policy = new AlertPolicy(0);
+
+        assertTrue(policy.accept(AlertPolicy.Priority.INFO, 7, 2, 0));
+        // Đi thêm vài chục cm, vẫn trong vùng 2..3 m
+        assertFalse(policy.accept(AlertPolicy.Priority.INFO, 7, 2, 500 * MS));
+        assertFalse(policy.accept(AlertPolicy.Priority.INFO, 7, 3, 1000 * MS));
+    }
+
+    @Test
+    public void closerBandOrHigherPriority_isAnnouncedImmediately() {
+        AlertPolicy policy = new AlertPolicy(0);
+        assertTrue(policy.accept(AlertPolicy.Priority.INFO, 7, 2, 0));
+
+        assertTrue(policy.accept(AlertPolicy.Priority.INFO, 7, 1, 100 * MS));
+        assertTrue(policy.accept(AlertPolicy.Priority.IMMINENT, 7, 1, 200 * MS));
+        assertFalse(policy.accept(AlertPolicy.Priority.INFO, 7, 1, 300 * MS));
+    }
+
+    @Test
+    public void repeatsAfterPriorityInterval() {
+        AlertPolicy policy = new AlertPolicy(0);
+        assertTrue(policy.accept(AlertPolicy.Priority.IMMINENT, 3, 0, 0));
+
+        assertFalse(policy.accept(AlertPolicy.Priority.IMMINENT, 3, 0, 1000 * MS));
+        assertTrue(policy.accept(AlertPolicy.Priority.IMMINENT, 3, 0, 1600 * MS));
+    }
+
+    @Test
+    public void infoAlerts_areRateLimitedAcrossTracks() {
+        AlertPolicy policy = new AlertPolicy(2000);
+        assertTrue(policy.accept(AlertPolicy.Priority.INFO, 1, 3, 0));
+
+        assertFalse(policy.accept(AlertPolicy.Priority.INFO, 2, 3, 1000 * MS));
+        assertTrue("Cảnh báo khẩn cấp không bị giới hạn",
+                policy.accept(AlertPolicy.Priority.IMMINENT, 2, 0, 1000 * MS));
+        assertTrue(policy.accept(AlertPolicy.Priority.INFO, 3, 3, 2500 * MS));
+    }
+
+    @Test
+    public void historyEvictsOldestKey() {
+        AlertPolicy policy = new AlertPolicy(0);
+        for (int key = 0; key < 17; key++) {
+            assertTrue(policy.accept(AlertPolicy.Priority.WALL, key, 0, key * MS));
+        }
+        // Khóa 0 đã bị đẩy ra nên được coi là mới
+        assertTrue(policy.accept(AlertPolicy.Priority.WALL, 0, 0, 20 * MS));
+        assertFalse(policy.accept(AlertPolicy.Priority.WALL, 16, 0, 20 * MS));
+    }
+}
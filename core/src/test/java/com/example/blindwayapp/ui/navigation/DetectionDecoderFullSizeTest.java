@@ -0,0 +1,119 @@
+package com.example.blindwayapp.ui.navigation;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Bộ giải mã YOLO và NMS ở kích thước đầu ra thật (8.400 anchor, 80 lớp): cho kết quả và không
+ * cấp phát trong vòng lặp. Thời gian chạy đo bằng DetectionDecoderBenchmark trong :benchmarks.
+ */
+public class DetectionDecoderFullSizeTest {
+
+    private static final int ANCHORS = 8400;
+    private static final int CLASSES = 80;
+    private static final int INPUT_SIZE = 640;
+    private static final int WARM_UP = 30;
+    private static final int MEASURED = 50;
+
+    @Test
+    public void decodeYolov8Output() {
+        String[] labels = new String[CLASSES];
+        for (int i = 0; i < CLASSES; i++) {
+            labels[i] = "lớp " + i;
+        }
+        TensorSpec output = new TensorSpec(TensorSpec.DataType.FLOAT32, new int[]{1, 4 + CLASSES, ANCHORS}, 0f, 0);
+        ModelSpec spec = new ModelSpec(
+                new TensorSpec(TensorSpec.DataType.UINT8, new int[]{1, INPUT_SIZE, INPUT_SIZE, 3}, 0f, 0), output);
+        DetectionDecoder decoder = new DetectionDecoder(spec, labels);
+        DetectionList result = new DetectionList(decoder.getMaxResults());
+        ByteBuffer buffer = syntheticOutput(output, new Random(11));
+
+        com.sun.management.ThreadMXBean threads = allocationCounter();
+        long threadId = Thread.currentThread().getId();
+        for (int i = 0; i < WARM_UP; i++) {
+            decoder.decode(buffer, 480, 640, result);
+        }
+        assertTrue(result.size() > 0);
+
+        int found = result.size();
+        assertTrue(found <= decoder.getMaxResults());
+
+        long allocatedBefore = threads != null ? threads.getThreadAllocatedBytes(threadId) : 0;
+        for (int i = 0; i < MEASURED; i++) {
+            decoder.decode(buffer, 480, 640, result);
+        }
+        long allocated = threads != null ? threads.getThreadAllocatedBytes(threadId) - allocatedBefore : 0;
+
+        assertTrue("Cấp phát " + allocated + " byte", allocated < MEASURED);
+        assertEquals(found, result.size());
+    }
+
+    @Test
+    public void nmsOverAllCandidates() {
+        NonMaxSuppressionTest.Candidates candidates =
+                NonMaxSuppressionTest.Candidates.clustered(new Random(13), ANCHORS, CLASSES);
+        NonMaxSuppression nms = new NonMaxSuppression(300);
+        int[] keep = new int[DetectionDecoder.MAX_RESULTS];
+
+        int kept = nms.apply(candidates.boxes, candidates.scores, candidates.classes, ANCHORS, 0.45f, keep);
+        assertTrue(kept > 0 && kept <= keep.length);
+        // Chạy lại trên cùng ứng viên (trạng thái bên trong được dùng lại) cho cùng kết quả
+        int[] again = new int[keep.length];
+        assertEquals(kept, nms.apply(candidates.boxes, candidates.scores, candidates.classes, ANCHORS, 0.45f, again));
+        for (int i = 0; i < kept; i++) {
+            assertEquals(keep[i], again[i]);
+        }
+    }
+
+    /** Phần lớn anchor có điểm thấp, vài trăm anchor quanh 12 vật thể có điểm cao. */
+    private static ByteBuffer syntheticOutput(TensorSpec spec, Random random) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(spec.numBytes()).order(ByteOrder.nativeOrder());
+        for (int i = 0; i < ANCHORS; i++) {
+            put(buffer, 0, i, INPUT_SIZE * random.nextFloat());
+            put(buffer, 1, i, INPUT_SIZE * random.nextFloat());
+            put(buffer, 2, i, 20 + 100 * random.nextFloat());
+            put(buffer, 3, i, 20 + 100 * random.nextFloat());
+            for (int c = 0; c < CLASSES; c++) {
+                put(buffer, 4 + c, i, 0.3f * random.nextFloat());
+            }
+        }
+        for (int object = 0; object < 12; object++) {
+            float cx = 60 + 520 * random.nextFloat();
+            float cy = 60 + 520 * random.nextFloat();
+            int objectClass = random.nextInt(CLASSES);
+            for (int k = 0; k < 30; k++) {
+                int anchor = random.nextInt(ANCHORS);
+                put(buffer, 0, anchor, cx + 4 * (float) random.nextGaussian());
+                put(buffer, 1, anchor, cy + 4 * (float) random.nextGaussian());
+                put(buffer, 2, anchor, 80);
+                put(buffer, 3, anchor, 120);
+                put(buffer, 4 + objectClass, anchor, 0.5f + 0.5f * random.nextFloat());
+            }
+        }
+        return buffer;
+    }
+
+    private static void put(ByteBuffer buffer, int row, int anchor, float value) {
+        buffer.putFloat((row * ANCHORS + anchor) * 4, value);
+    }
+
+    /** Bộ đếm cấp phát của luồng hiện tại, null nếu JVM không hỗ trợ. */
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+            return null;
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        if (!threads.isThreadAllocatedMemorySupported()) {
+            return null;
+        }
+        threads.setThreadAllocatedMemoryEnabled(true);
+        return threads;
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.blindwayapp.ui.navigation;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.junit.Assert.*;
+
+public class DetectionDecoderTest {
+
+    private static final String[] LABELS = {"người", "xe đạp", "ô tô"};
+    private static final int INPUT_SIZE = 320;
+    private static final TensorSpec INPUT_SPEC =
+            new TensorSpec(TensorSpec.DataType.UINT8, new int[]{1, INPUT_SIZE, INPUT_SIZE, 3}, 0f, 0);
+
+    @Test
+    public void anchorRows_useObjectnessTimesClassScore() {
+        // [1, N, 5 + C]: cx, cy, w, h, objectness, điểm từng lớp
+        float[][] rows = {
+                {0.2f, 0.5f, 0.2f, 0.4f, 0.9f, 0.1f, 0.95f, 0.2f},
+                {0.8f, 0.5f, 0.2f, 0.4f, 0.3f, 0.9f, 0.1f, 0.1f},   // objectness thấp
+                {0.5f, 0.5f, 0.2f, 0.2f, 0.9f, 0.4f, 0.4f, 0.4f},   // 0.9 * 0.4 dưới ngưỡng
+        };
+        DetectionDecoder decoder = decoder(rows.length, 5 + LABELS.length);
+        DetectionList result = new DetectionList(decoder.getMaxResults());
+
+        decoder.decode(floatRows(rows), 640, 480, result);
+
+        assertEquals(DetectionDecoder.Layout.ANCHOR_ROWS, decoder.getLayout());
+        assertEquals(1, result.size());
+        assertEquals("xe đạp", result.get(0).label);
+        assertEquals(0.9f * 0.95f, result.get(0).confidence, 1e-6f);
+        assertEquals(0.1f, result.get(0).left, 1e-6f);
+        assertEquals(0.7f, result.get(0).bottom, 1e-6f);
+        assertEquals(DetectionDecoder.DIRECTION_LEFT, result.get(0).direction);
+    }
+
+    @Test
+    public void anchorColumns_pixelCoordinatesAreNormalized() {
+        // [1, 4 + C, N]: mỗi hàng là một thuộc tính của tất cả anchor
+        float[][] columns = {
+                {160f, 288f},            // cx
+                {160f, 160f},            // cy
+                {64f, 32f},              // w
+                {128f, 32f},             // h
+                {0.05f, 0.1f},           // người
+                {0.2f, 0.1f},            // xe đạp
+                {0.8f, 0.5f},            // ô tô
+        };
+        DetectionDecoder decoder = decoder(columns.length, 2);
+        DetectionList result = new DetectionList(decoder.getMaxResults());
+
+        decoder.decode(floatRows(columns), 640, 480, result);
+
+        assertEquals(DetectionDecoder.Layout.ANCHOR_COLUMNS, decoder.getLayout());
+        assertEquals(2, result.size());
+        assertEquals("ô tô", result.get(0).label);
+        assertEquals(0.8f, result.get(0).confidence, 1e-6f);
+        assertEquals(0.4f, result.get(0).left, 1e-6f);
+        assertEquals(0.3f, result.get(0).top, 1e-6f);
+        assertEquals(0.6f, result.get(0).right, 1e-6f);
+        assertEquals(DetectionDecoder.DIRECTION_RIGHT, result.get(1).direction);
+    }
+
+    @Test
+    public void overlappingBoxesOfDifferentClasses_areBothKept() {
+        float[][] rows = {
+                {0.5f, 0.5f, 0.3f, 0.6f, 1f, 0.9f, 0f, 0f},
+                {0.5f, 0.52f, 0.3f, 0.6f, 1f, 0f, 0.8f, 0f},
+                {0.51f, 0.5f, 0.3f, 0.6f, 1f, 0.7f, 0f, 0f},
+        };
+        DetectionDecoder decoder = decoder(rows.length, 5 + LABELS.length);
+        DetectionList result = new DetectionList(decoder.getMaxResults());
+
+        decoder.decode(floatRows(rows), 640, 480, result);
+
+        assertEquals(2, result.size());
+        assertEquals("người", result.get(0).label);
+        assertEquals("xe đạp", result.get(1).label);
+    }
+
+    @Test
+    public void boxesOnlyModel_keepsLegacyBehaviour() {
+        float[][] rows = {
+                {0.5f, 0.5f, 0.4f, 0.4f},
+                {0.52f, 0.5f, 0.4f, 0.42f},
+                {0.5f, 0.5f, 0.01f, 0.01f},
+        };
+        DetectionDecoder decoder = decoder(rows.length, 4);
+        DetectionList result = new DetectionList(decoder.getMaxResults());
+
+        decoder.decode(floatRows(rows), 640, 480, result);
+
+        assertEquals(DetectionDecoder.Layout.BOXES_ONLY, decoder.getLayout());
+        assertEquals(1, result.size());
+        assertEquals(DetectionDecoder.LABEL_OBJECT, result.get(0).label);
+        assertEquals(DetectionDecoder.calculateConfidence(0.4f, 0.42f), result.get(0).confidence, 1e-6f);
+    }
+
+    @Test
+    public void cropOutput_isMappedToFullFrame() {
+        float[][] rows = {
+                {0.5f, 0.5f, 0.2f, 0.4f, 0.9f, 0.95f, 0.1f, 0.1f},
+        };
+        DetectionDecoder decoder = decoder(rows.length, 5 + LABELS.length);
+        DetectionList full = new DetectionList(decoder.getMaxResults());
+        DetectionList crop = new DetectionList(decoder.getMaxResults());
+
+        decoder.decode(floatRows(rows), 480, 640, full);
+        // Vùng cắt ở nửa phải, nửa dưới của khung hình
+        decoder.decode(floatRows(rows), 0.5f, 0.5f, 1f, 1f, 480, 640, crop);
+
+        assertEquals(1, crop.size());
+        Detection detection = crop.get(0);
+        assertEquals(0.70f, detection.left, 1e-6f);
+        assertEquals(0.80f, detection.right, 1e-6f);
+        assertEquals(0.65f, detection.top, 1e-6f);
+        assertEquals(0.85f, detection.bottom, 1e-6f);
+        assertEquals(DetectionDecoder.DIRECTION_RIGHT, detection.direction);
+        // Chân vật thấp hơn trong khung hình nên gần hơn
+        assertTrue(detection.distance < full.get(0).distance);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void outputNotMatchingLabels_isRejected() {
+        decoder(100, 5 + LABELS.length + 1);
+    }
+
+    private static DetectionDecoder decoder(int rows, int columns) {
+        TensorSpec output = new TensorSpec(TensorSpec.DataType.FLOAT32, new int[]{1, rows, columns}, 0f, 0);
+        return new DetectionDecoder(new ModelSpec(INPUT_SPEC, output), LABELS);
+    }
+
+    private static ByteBuffer floatRows(float[][] rows) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(rows.length * rows[0].length * 4).order(ByteOrder.nativeOrder());
+        for (float[] row : rows) {
+            for (float value : row) {
+                buffer.putFloat(value);
+            }
+        }
+        buffer.rewind();
+        return buffer;
+    }
+}
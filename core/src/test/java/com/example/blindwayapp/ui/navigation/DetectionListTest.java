@@ -0,0 +1,81 @@
+package com.example.blindwayapp.ui.navigation;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.*;
+
+public class DetectionListTest {
+
+    private static final float TOLERANCE = 1f / 1080;
+
+    @Test
+    public void sameAs_ignoresSubPixelJitter() {
+        DetectionList drawn = list(0.2f, 7);
+        DetectionList next = list(0.2f + TOLERANCE / 2, 7);
+
+        assertTrue(next.sameAs(drawn, TOLERANCE));
+    }
+
+    @Test
+    public void sameAs_detectsMovedBox() {
+        DetectionList drawn = list(0.2f, 7);
+        DetectionList next = list(0.2f + 3 * TOLERANCE, 7);
+
+        assertFalse(next.sameAs(drawn, TOLERANCE));
+    }
+
+    @Test
+    public void sameAs_detectsDifferentTrackOrSize() {
+        DetectionList drawn = list(0.2f, 7);
+
+        assertFalse(list(0.2f, 8).sameAs(drawn, TOLERANCE));
+        assertFalse(new DetectionList(4).sameAs(drawn, TOLERANCE));
+    }
+
+    /** Đường đi của overlay mỗi kết quả: chép vào buffer sau, so sánh, hoán đổi. */
+    @Test
+    public void overlaySnapshotSwap_allocatesNothing() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        org.junit.Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        org.junit.Assume.assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+        long threadId = Thread.currentThread().getId();
+
+        DetectionList incoming = new DetectionList(20);
+        DetectionList front = new DetectionList(20);
+        DetectionList back = new DetectionList(20);
+        int swaps = 0;
+        long before = 0;
+        for (int frame = 0; frame < 2000; frame++) {
+            if (frame == 1000) {
+                before = threads.getThreadAllocatedBytes(threadId);
+            }
+            incoming.clear();
+            for (int i = 0; i < 10; i++) {
+                float x = 0.05f * i + (frame % 4) * 0.0005f;
+                incoming.obtain().set("người", 0.9f, x, 0.2f, x + 0.1f, 0.6f, 3f, null).trackId = i;
+            }
+            back.copyFrom(incoming);
+            if (!back.sameAs(front, TOLERANCE)) {
+                DetectionList drawn = front;
+                front = back;
+                back = drawn;
+                swaps++;
+            }
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        assertTrue(swaps > 0 && swaps < 2000);
+        assertTrue("Cấp phát " + allocated + " byte", allocated < 1000);
+    }
+
+    private static DetectionList list(float left, int trackId) {
+        DetectionList list = new DetectionList(4);
+        list.obtain().set("người", 0.9f, left, 0.2f, left + 0.1f, 0.6f, 3f, null).trackId = trackId;
+        list.obtain().set("ô tô", 0.8f, 0.6f, 0.3f, 0.9f, 0.7f, 5f, null).trackId = 3;
+        return list;
+    }
+}
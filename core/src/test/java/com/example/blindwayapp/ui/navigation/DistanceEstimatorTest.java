@@ -0,0 +1,103 @@
+package com.example.blindwayapp.ui.navigation;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class DistanceEstimatorTest {
+
+    @Test
+    public void defaultIntrinsics_matchPreviousFormula() {
+        DistanceEstimator estimator = new DistanceEstimator(CameraIntrinsics.DEFAULT);
+
+        for (int i = 0; i <= 20; i++) {
+            float y = 0.5f + i * 0.025f;
+            assertEquals("y = " + y, previousFormula(y), estimator.estimate(y), 0.11f);
+        }
+    }
+
+    @Test
+    public void lookup_matchesClosedForm() {
+        CameraIntrinsics intrinsics = new CameraIntrinsics(4.25f, 6.17f, 4.55f);
+        DistanceEstimator estimator = new DistanceEstimator(intrinsics, 1.2f);
+        estimator.updatePitch((float) Math.toRadians(20));
+
+        for (int i = 0; i <= 100; i++) {
+            float y = i / 100f;
+            float expected = DistanceLookupTable.groundDistance(y, 1.2f, (float) Math.toRadians(20),
+                    intrinsics.verticalFocalNormalized());
+            // Sai số do lượng tử hóa hàng chỉ đáng kể ở gần đường chân trời
+            assertEquals("y = " + y, expected, estimator.estimate(y), Math.max(0.11f, expected * 0.02f));
+        }
+    }
+
+    @Test
+    public void aboveHorizon_isFar() {
+        DistanceEstimator estimator = new DistanceEstimator(CameraIntrinsics.DEFAULT);
+        estimator.updatePitch(0f);
+
+        assertEquals(DistanceLookupTable.MAX_DISTANCE, estimator.estimate(0.2f), 0f);
+        assertEquals(DistanceLookupTable.MAX_DISTANCE, estimator.estimate(0.5f), 0f);
+        assertTrue(estimator.estimate(0.9f) < 5f);
+    }
+
+    @Test
+    public void table_isRebuiltOnlyWhenPitchChanges() {
+        DistanceEstimator estimator = new DistanceEstimator(CameraIntrinsics.DEFAULT);
+        int initial = estimator.getRebuildCount();
+
+        assertFalse(estimator.updatePitch(DistanceEstimator.DEFAULT_PITCH_RADIANS + 0.001f));
+        assertEquals(initial, estimator.getRebuildCount());
+
+        float tilted = (float) Math.toRadians(40);
+        float before = estimator.estimate(0.8f);
+        assertTrue(estimator.updatePitch(tilted));
+        assertEquals(initial + 1, estimator.getRebuildCount());
+        assertTrue("Chúc camera xuống thì cùng hàng ảnh gần hơn", estimator.estimate(0.8f) < before);
+    }
+
+    @Test
+    public void calibration_recoversCameraHeight() {
+        CameraIntrinsics intrinsics = CameraIntrinsics.DEFAULT;
+        float pitch = (float) Math.toRadians(25);
+        float trueHeight = 1.35f;
+        // Vị trí hàng ảnh của một vật cách đúng 2 m khi camera cao 1,35 m
+        float y = (float) (0.5 + intrinsics.verticalFocalNormalized()
+                * Math.tan(Math.atan(trueHeight / 2.0) - pitch));
+
+        DistanceEstimator estimator = new DistanceEstimator(intrinsics);
+        estimator.updatePitch(pitch);
+        float height = estimator.calibrate(y, 2f);
+
+        assertEquals(trueHeight, height, 1e-3f);
+        assertEquals(2f, estimator.estimate(y), 0.1f);
+    }
+
+    @Test
+    public void calibration_isClampedToPlausibleHeight() {
+        DistanceEstimator estimator = new DistanceEstimator(CameraIntrinsics.DEFAULT);
+
+        assertEquals(DistanceEstimator.MAX_CAMERA_HEIGHT, estimator.calibrate(0.99f, 50f), 0f);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void calibration_aboveHorizon_isRejected() {
+        DistanceEstimator estimator = new DistanceEstimator(CameraIntrinsics.DEFAULT);
+        estimator.updatePitch(0f);
+
+        estimator.calibrate(0.3f, 2f);
+    }
+
+    @Test
+    public void intrinsics_fieldOfView() {
+        // Khoảng 55° cho ống kính 4,8 mm trên cạnh dài 5 mm
+        assertEquals(55.0f, new CameraIntrinsics(4.8f, 5f, 3.75f).verticalFieldOfViewDegrees(), 1f);
+    }
+
+    /** Công thức cũ trong DetectionDecoder.calculateDistance, với frame 480 px. */
+    private static float previousFormula(float normalizedY) {
+        double alpha = Math.atan((normalizedY * 480 - 240) / 1000.0);
+        double distance = 0.8 / Math.tan(Math.toRadians(30) + alpha);
+        return (float) Math.max(0.1, Math.round(distance * 10) / 10.0);
+    }
+}
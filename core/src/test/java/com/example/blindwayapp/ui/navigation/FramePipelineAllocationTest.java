@@ -0,0 +1,140 @@
+package com.example.blindwayapp.ui.navigation;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+/**
+ * Kiểm tra vòng lặp xử lý frame ở trạng thái ổn định không cấp phát bộ nhớ:
+ * lấy context từ pool, chuyển YUV -> tensor, giải mã đầu ra, NMS rồi trả context.
+ */
+public class FramePipelineAllocationTest {
+
+    private static final int INPUT_SIZE = 300;
+    private static final int NUM_DETECTIONS = 10;
+    private static final int FRAME_WIDTH = 640;
+    private static final int FRAME_HEIGHT = 480;
+    private static final int WARM_UP_FRAMES = 300;
+    private static final int MEASURED_FRAMES = 500;
+
+    private static final TensorSpec OUTPUT_SPEC =
+            new TensorSpec(TensorSpec.DataType.FLOAT32, new int[]{1, NUM_DETECTIONS, 4}, 0f, 0);
+
+    private final YuvToTensorConverter converter = new YuvToTensorConverter(INPUT_SIZE, INPUT_SIZE);
+    private final DetectionDecoder decoder = new DetectionDecoder(new ModelSpec(
+            new TensorSpec(TensorSpec.DataType.UINT8, new int[]{1, INPUT_SIZE, INPUT_SIZE, 3}, 0f, 0),
+            OUTPUT_SPEC), new String[0]);
+    private final FrameContextPool pool =
+            new FrameContextPool(3, INPUT_SIZE * INPUT_SIZE * 3, OUTPUT_SPEC.numBytes(), NUM_DETECTIONS);
+
+    private final ByteBuffer yPlane = ByteBuffer.allocateDirect(FRAME_WIDTH * FRAME_HEIGHT);
+    private final ByteBuffer uPlane = ByteBuffer.allocateDirect(FRAME_WIDTH * FRAME_HEIGHT / 4);
+    private final ByteBuffer vPlane = ByteBuffer.allocateDirect(FRAME_WIDTH * FRAME_HEIGHT / 4);
+
+    // Đầu ra giả của model: vài hộp chồng lấn nhau để NMS có việc làm
+    private static final float[][] FAKE_OUTPUT = {
+            {0.5f, 0.5f, 0.4f, 0.4f},
+            {0.52f, 0.5f, 0.4f, 0.42f},
+            {0.2f, 0.7f, 0.3f, 0.35f},
+            {0.8f, 0.6f, 0.3f, 0.3f},
+            {0.81f, 0.62f, 0.31f, 0.3f},
+            {0.5f, 0.5f, 0.01f, 0.01f},
+            {0f, 0f, 0f, 0f},
+            {0.3f, 0.3f, 0.3f, 0.3f},
+            {0.7f, 0.2f, 0.35f, 0.3f},
+            {0.4f, 0.8f, 0.5f, 0.3f},
+    };
+
+    @Test
+    public void steadyStateLoop_allocatesNothingPerFrame() {
+        com.sun.management.ThreadMXBean threads = allocationCounter();
+        long threadId = Thread.currentThread().getId();
+
+        int detected = 0;
+        for (int i = 0; i < WARM_UP_FRAMES; i++) {
+            detected += processFrame(i);
+        }
+        assertTrue(detected > 0);
+
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < MEASURED_FRAMES; i++) {
+            processFrame(i);
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        assertTrue("Cấp phát " + allocated + " byte trong " + MEASURED_FRAMES + " frame",
+                allocated < MEASURED_FRAMES);
+    }
+
+    @Test
+    public void poolDropsFramesInsteadOfGrowing() {
+        FrameContext first = pool.acquire();
+        FrameContext second = pool.acquire();
+        FrameContext third = pool.acquire();
+
+        assertNotNull(third);
+        assertNull(pool.acquire());
+
+        pool.release(second);
+        assertSame(second, pool.acquire());
+
+        pool.release(first);
+        pool.release(second);
+        pool.release(third);
+        assertEquals(3, pool.available());
+    }
+
+    @Test
+    public void nmsKeepsOneBoxPerOverlappingGroup() {
+        FrameContext frame = pool.acquire();
+        copyFakeOutput(frame);
+
+        decoder.decode(frame.outputBuffer, FRAME_WIDTH, FRAME_HEIGHT, frame.detections);
+
+        // 8 hộp hợp lệ, trong đó hai cặp chồng lấn mạnh
+        assertTrue(frame.detections.size() > 0 && frame.detections.size() < 8);
+        for (int i = 0; i < frame.detections.size(); i++) {
+            for (int j = i + 1; j < frame.detections.size(); j++) {
+                assertTrue(DetectionDecoder.calculateIOU(frame.detections.get(i), frame.detections.get(j)) <= 0.4f);
+            }
+        }
+        pool.release(frame);
+    }
+
+    private int processFrame(int index) {
+        FrameContext frame = pool.acquire();
+        converter.convert(yPlane, FRAME_WIDTH, uPlane, vPlane, FRAME_WIDTH / 2, 1,
+                FRAME_WIDTH, FRAME_HEIGHT, 90, frame.inputBuffer);
+        frame.frameWidth = FRAME_HEIGHT;
+        frame.frameHeight = FRAME_WIDTH;
+        frame.timestampNanos = index;
+
+        copyFakeOutput(frame);
+        decoder.decode(frame.outputBuffer, frame.frameWidth, frame.frameHeight, frame.detections);
+
+        int count = frame.detections.size();
+        pool.release(frame);
+        return count;
+    }
+
+    private static void copyFakeOutput(FrameContext frame) {
+        for (int i = 0; i < FAKE_OUTPUT.length; i++) {
+            for (int j = 0; j < 4; j++) {
+                frame.outputBuffer.putFloat((i * 4 + j) * 4, FAKE_OUTPUT[i][j]);
+            }
+        }
+    }
+
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        Assume.assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+        return threads;
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.blindwayapp.ui.navigation;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+public class FrameRecordingTest {
+
+    @Test
+    public void roundTrip_keepsPlanesStridesAndTimestamps() throws IOException {
+        RecordedFrame first = frame(1_000L, 64, 48, 72, 2, 90);
+        RecordedFrame second = frame(34_000_000L, 32, 24, 32, 1, 0);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (FrameRecordWriter writer = new FrameRecordWriter(bytes)) {
+            writer.write(first);
+            writer.write(second);
+            assertEquals(2, writer.getFrameCount());
+        }
+
+        RecordedFrame read = new RecordedFrame();
+        try (FrameRecordReader reader = new FrameRecordReader(new ByteArrayInputStream(bytes.toByteArray()))) {
+            assertTrue(reader.next(read));
+            assertSameFrame(first, read);
+            assertTrue(reader.next(read));
+            assertSameFrame(second, read);
+            assertFalse(reader.next(read));
+        }
+    }
+
+    @Test
+    public void set_doesNotMoveSourceBuffers() {
+        ByteBuffer y = ByteBuffer.allocateDirect(16);
+        ByteBuffer u = ByteBuffer.allocateDirect(8);
+        ByteBuffer v = ByteBuffer.allocateDirect(8);
+        y.position(4);
+
+        RecordedFrame frame = new RecordedFrame();
+        frame.set(0, 4, 3, 0, y, 4, u, v, 4, 2);
+
+        assertEquals(4, y.position());
+        assertEquals(12, frame.yPlane.remaining());
+        assertEquals(8, u.remaining());
+    }
+
+    @Test(expected = IOException.class)
+    public void otherFile_isRejected() throws IOException {
+        new FrameRecordReader(new ByteArrayInputStream(new byte[]{'P', 'K', 3, 4, 0, 0, 0, 1}));
+    }
+
+    private static RecordedFrame frame(long timestamp, int width, int height, int rowStride,
+                                       int pixelStride, int rotation) {
+        ByteBuffer y = fill(ByteBuffer.allocateDirect(rowStride * height), 1);
+        int uvRowStride = rowStride / 2 * pixelStride;
+        ByteBuffer u = fill(ByteBuffer.allocateDirect(uvRowStride * height / 2), 7);
+        ByteBuffer v = fill(ByteBuffer.allocateDirect(uvRowStride * height / 2), 13);
+        RecordedFrame frame = new RecordedFrame();
+        frame.set(timestamp, width, height, rotation, y, rowStride, u, v, uvRowStride, pixelStride);
+        return frame;
+    }
+
+    private static ByteBuffer fill(ByteBuffer buffer, int seed) {
+        for (int i = 0; i < buffer.capacity(); i++) {
+            buffer.put(i, (byte) (i * seed));
+        }
+        return buffer;
+    }
+
+    private static void assertSameFrame(RecordedFrame expected, RecordedFrame actual) {
+        assertEquals(expected.timestampNanos, actual.timestampNanos);
+        assertEquals(expected.width, actual.width);
+        assertEquals(expected.height, actual.height);
+        assertEquals(expected.rotationDegrees, actual.rotationDegrees);
+        assertEquals(expected.yRowStride, actual.yRowStride);
+        assertEquals(expected.uvRowStride, actual.uvRowStride);
+        assertEquals(expected.uvPixelStride, actual.uvPixelStride);
+        assertEquals(expected.yPlane, actual.yPlane);
+        assertEquals(expected.uPlane, actual.uPlane);
+        assertEquals(expected.vPlane, actual.vPlane);
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.blindwayapp.ui.navigation;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class FrameReplayerTest {
+
+    private static final String[] LABELS = {"người"};
+    private static final int WIDTH = 640;
+    private static final int HEIGHT = 480;
+    private static final long FRAME_NANOS = 33_000_000L;
+    private static final ModelSpec SPEC = new ModelSpec(
+            new TensorSpec(TensorSpec.DataType.UINT8, new int[]{1, 320, 320, 3}, 1f / 255, 0),
+            new TensorSpec(TensorSpec.DataType.FLOAT32, new int[]{1, 1, 5 + LABELS.length}, 0f, 0));
+
+    @Test
+    public void personAhead_runsEveryStageAndFiresOneAlert() {
+        int[] calls = new int[1];
+        // Model giả: một người ở giữa khung, chân ở gần đáy ảnh
+        FrameReplayer.Inference inference = (input, output) -> {
+            assertEquals(SPEC.input.numBytes(), input.capacity());
+            calls[0]++;
+            output.putFloat(0.5f).putFloat(0.6f).putFloat(0.3f).putFloat(0.6f).putFloat(0.95f).putFloat(0.95f);
+        };
+        FrameReplayer replayer = replayer(SPEC, inference);
+        RecordedFrame frame = frame(false);
+
+        for (int i = 0; i < 5; i++) {
+            frame.timestampNanos = i * FRAME_NANOS;
+            replayer.process(frame);
+        }
+
+        assertEquals(5, calls[0]);
+        assertEquals(5, replayer.getFrameCount());
+        assertEquals(5, replayer.getMetrics().get(PipelineMetrics.Stage.INFERENCE).getCount());
+        assertEquals(5, replayer.getMetrics().get(PipelineMetrics.Stage.END_TO_END).getCount());
+        // Cùng một track, cùng vùng khoảng cách: chỉ báo một lần
+        assertEquals(1, replayer.getAlerts().size());
+        FrameReplayer.Alert alert = replayer.getAlerts().get(0);
+        assertNotEquals(AlertPolicy.Priority.WALL, alert.priority);
+        assertTrue(replayer.getThroughputFps() > 0);
+        assertTrue(replayer.report().contains(alert.text));
+    }
+
+    @Test
+    public void withoutModel_wallIsStillDetected() {
+        // Tường trơn chỉ được nhận ra khi đường chân trời đáng lẽ nằm trong khung hình
+        FrameReplayer replayer = new FrameReplayer(null, LABELS, null,
+                new DistanceEstimator(FreeSpaceEstimatorTest.WIDE_ANGLE),
+                new ObjectTracker(8, 0.3f, 2, 1000), new AlertDecider(400, Locale.US));
+
+        replayer.process(frame(true));
+
+        assertEquals(1, replayer.getAlerts().size());
+        assertEquals(AlertPolicy.Priority.WALL, replayer.getAlerts().get(0).priority);
+        assertEquals(0, replayer.getMetrics().get(PipelineMetrics.Stage.INFERENCE).getCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void specWithoutInference_isRejected() {
+        replayer(SPEC, null);
+    }
+
+    private static FrameReplayer replayer(ModelSpec spec, FrameReplayer.Inference inference) {
+        return new FrameReplayer(spec, LABELS, inference, new DistanceEstimator(CameraIntrinsics.DEFAULT),
+                new ObjectTracker(8, 0.3f, 2, 1000), new AlertDecider(400, Locale.US));
+    }
+
+    /** Frame sáng có vân nhẹ; wall = true thì không có cạnh nào nên cả khung bị coi là tường. */
+    private static RecordedFrame frame(boolean wall) {
+        ByteBuffer y = ByteBuffer.allocateDirect(WIDTH * HEIGHT);
+        Random random = new Random(1);
+        for (int i = 0; i < y.capacity(); i++) {
+            int row = i / WIDTH;
+            y.put(i, (byte) (wall ? 150 + random.nextInt(5) : 100 + row % 2 * 80));
+        }
+        ByteBuffer uv = ByteBuffer.allocateDirect(WIDTH * HEIGHT / 4);
+        for (int i = 0; i < uv.capacity(); i++) {
+            uv.put(i, (byte) 128);
+        }
+        RecordedFrame frame = new RecordedFrame();
+        frame.set(0, WIDTH, HEIGHT, 0, y, WIDTH, uv, uv, WIDTH / 2, 1);
+        return frame;
+    }
+}
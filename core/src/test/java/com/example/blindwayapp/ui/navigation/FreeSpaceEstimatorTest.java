@@ -0,0 +1,182 @@
+package com.example.blindwayapp.ui.navigation;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class FreeSpaceEstimatorTest {
+
+    // Frame cảm biến nằm ngang, xoay 90° thành ảnh dọc 480x640
+    private static final int SENSOR_WIDTH = 640;
+    private static final int SENSOR_HEIGHT = 480;
+    private static final int ROW_STRIDE = 704;
+    private static final float PITCH = (float) Math.toRadians(10);
+    private static final float CELL = 1f / FreeSpaceEstimator.ROWS;
+    static final CameraIntrinsics WIDE_ANGLE = new CameraIntrinsics(4.8f, 6.4f, 4.8f);
+
+    private final DistanceEstimator distance = new DistanceEstimator(CameraIntrinsics.DEFAULT);
+    private final FreeSpaceEstimator estimator = new FreeSpaceEstimator(distance);
+    private final float[] profile = new float[FreeSpaceEstimator.COLUMNS];
+    private final float[] rows = new float[FreeSpaceEstimator.COLUMNS];
+
+    @Test
+    public void obstacleAhead_stopsCenterColumnsAtItsFoot() {
+        distance.updatePitch(PITCH);
+        for (int rotation : new int[]{0, 90, 180, 270}) {
+            estimator.update(render(rotation, new Scene(0.72f)), ROW_STRIDE,
+                    SENSOR_WIDTH, SENSOR_HEIGHT, rotation);
+            estimator.copyFreeRows(rows);
+            estimator.copyProfile(profile);
+
+            int center = FreeSpaceEstimator.COLUMNS / 2;
+            assertEquals("xoay " + rotation, 0.72f, rows[center], CELL);
+            assertEquals(distance.estimate(0.72f), estimator.getCenterFreeDistance(), 0.15f);
+            assertTrue("Cột bên trái nhìn thấy tới đường chân trời", profile[0] > 2 * profile[center]);
+            assertTrue(profile[FreeSpaceEstimator.COLUMNS - 1] > 2 * profile[center]);
+        }
+    }
+
+    @Test
+    public void openPath_isFar() {
+        distance.updatePitch(PITCH);
+        estimator.update(render(90, new Scene(-1f)), ROW_STRIDE, SENSOR_WIDTH, SENSOR_HEIGHT, 90);
+
+        assertTrue(estimator.isValid());
+        assertTrue(estimator.getCenterFreeDistance() > 5f);
+    }
+
+    @Test
+    public void blankWall_isBlockedAtBottom() {
+        // Camera góc rộng nghiêng 30°: đường chân trời đáng lẽ nằm trong khung hình
+        DistanceEstimator wide = new DistanceEstimator(WIDE_ANGLE);
+        FreeSpaceEstimator wallEstimator = new FreeSpaceEstimator(wide);
+        assertTrue(wide.getHorizonRow() > 0f);
+
+        wallEstimator.update(uniform(), ROW_STRIDE, SENSOR_WIDTH, SENSOR_HEIGHT, 90);
+
+        assertEquals(wide.estimate(1f), wallEstimator.getCenterFreeDistance(), 0f);
+        assertTrue(wallEstimator.getCenterFreeDistance() <= 1f);
+    }
+
+    @Test
+    public void uniformFloor_withCameraPointedDown_isFree() {
+        // Cùng độ nghiêng 30° nhưng góc nhìn hẹp: đường chân trời ở trên đỉnh khung hình, chỉ thấy sàn trơn
+        assertTrue(distance.getHorizonRow() < 0f);
+
+        estimator.update(uniform(), ROW_STRIDE, SENSOR_WIDTH, SENSOR_HEIGHT, 90);
+        estimator.copyFreeRows(rows);
+
+        assertTrue(estimator.isValid());
+        for (float row : rows) {
+            assertEquals(0f, row, 0f);
+        }
+        assertEquals(distance.estimate(0f), estimator.getCenterFreeDistance(), 0f);
+        assertTrue(estimator.getCenterFreeDistance() > 2f);
+    }
+
+    @Test
+    public void darkFrame_isNotJudged() {
+        ByteBuffer dark = ByteBuffer.allocateDirect(ROW_STRIDE * SENSOR_HEIGHT);
+
+        estimator.update(dark, ROW_STRIDE, SENSOR_WIDTH, SENSOR_HEIGHT, 90);
+
+        assertFalse(estimator.isValid());
+        assertEquals(DistanceLookupTable.MAX_DISTANCE, estimator.getCenterFreeDistance(), 0f);
+    }
+
+    @Test
+    public void everyFrame_allocatesNothing() {
+        distance.updatePitch(PITCH);
+        ByteBuffer frame = render(90, new Scene(0.6f));
+        for (int i = 0; i < 500; i++) {
+            estimator.update(frame, ROW_STRIDE, SENSOR_WIDTH, SENSOR_HEIGHT, 90);
+        }
+        float centerFree = estimator.getCenterFreeDistance();
+
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        com.sun.management.ThreadMXBean threads = bean instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()
+                ? (com.sun.management.ThreadMXBean) bean : null;
+        long threadId = Thread.currentThread().getId();
+        long before = threads != null ? threads.getThreadAllocatedBytes(threadId) : 0;
+        for (int i = 0; i < 1000; i++) {
+            estimator.update(frame, ROW_STRIDE, SENSOR_WIDTH, SENSOR_HEIGHT, 90);
+            estimator.getCenterFreeDistance();
+        }
+        long allocated = threads != null ? threads.getThreadAllocatedBytes(threadId) - before : 0;
+
+        assertTrue("Cấp phát " + allocated + " byte", allocated < 1000);
+        assertTrue(estimator.isValid());
+        assertEquals(centerFree, estimator.getCenterFreeDistance(), 0f);
+    }
+
+    /** Một mặt phẳng đồng màu có nhiễu nhỏ: tường trơn hoặc sàn trơn tùy hướng camera. */
+    private static ByteBuffer uniform() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(ROW_STRIDE * SENSOR_HEIGHT);
+        Random random = new Random(1);
+        for (int i = 0; i < buffer.capacity(); i++) {
+            buffer.put(i, (byte) (150 + random.nextInt(5)));
+        }
+        return buffer;
+    }
+
+    /** Cảnh dọc: nhà cửa sáng phía trên đường chân trời, mặt đất xám, vật cản tối ở giữa. */
+    private static final class Scene {
+        final float obstacleBottom;
+        final Random random = new Random(3);
+
+        Scene(float obstacleBottom) {
+            this.obstacleBottom = obstacleBottom;
+        }
+
+        int luma(float x, float y) {
+            int noise = random.nextInt(7) - 3;
+            if (obstacleBottom > 0 && x > 0.35f && x < 0.65f && y > 0.3f && y < obstacleBottom) {
+                return 40 + noise;
+            }
+            if (y < 0.12f) {
+                return 210 + noise;
+            }
+            return 120 + noise;
+        }
+    }
+
+    /** Vẽ cảnh theo chiều đúng rồi ghi vào buffer theo hướng cảm biến cho góc xoay đã cho. */
+    private static ByteBuffer render(int rotation, Scene scene) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(ROW_STRIDE * SENSOR_HEIGHT);
+        boolean swap = rotation == 90 || rotation == 270;
+        int uprightWidth = swap ? SENSOR_HEIGHT : SENSOR_WIDTH;
+        int uprightHeight = swap ? SENSOR_WIDTH : SENSOR_HEIGHT;
+        for (int y = 0; y < SENSOR_HEIGHT; y++) {
+            for (int x = 0; x < SENSOR_WIDTH; x++) {
+                int ux;
+                int uy;
+                switch (rotation) {
+                    case 90:
+                        ux = SENSOR_HEIGHT - 1 - y;
+                        uy = x;
+                        break;
+                    case 180:
+                        ux = SENSOR_WIDTH - 1 - x;
+                        uy = SENSOR_HEIGHT - 1 - y;
+                        break;
+                    case 270:
+                        ux = y;
+                        uy = SENSOR_WIDTH - 1 - x;
+                        break;
+                    default:
+                        ux = x;
+                        uy = y;
+                        break;
+                }
+                buffer.put(y * ROW_STRIDE + x,
+                        (byte) scene.luma((ux + 0.5f) / uprightWidth, (uy + 0.5f) / uprightHeight));
+            }
+        }
+        return buffer;
+    }
+}
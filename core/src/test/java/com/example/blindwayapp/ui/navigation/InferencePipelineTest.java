@@ -0,0 +1,126 @@
+package com.example.blindwayapp.ui.navigation;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * Đo throughput của InferencePipeline bằng frame tổng hợp và các tầng giả có thời gian cố định.
+ */
+public class InferencePipelineTest {
+
+    private static final long STAGE_MILLIS = 4;
+    private static final int FRAMES = 50;
+
+    private final FrameContextPool pool = new FrameContextPool(6, 16, 16, 4);
+    private final AtomicLong lastCompletedFrame = new AtomicLong(-1);
+    private InferencePipeline<Integer> pipeline;
+
+    @After
+    public void tearDown() {
+        if (pipeline != null) {
+            pipeline.stop();
+        }
+    }
+
+    @Test
+    public void stagesOverlap_throughputBeatsSequentialProcessing() throws Exception {
+        pipeline = newPipeline(STAGE_MILLIS, STAGE_MILLIS, STAGE_MILLIS);
+        pipeline.start();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < FRAMES; i++) {
+            pipeline.submit(i);
+        }
+        awaitDrained(pipeline, FRAMES);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        long sequentialMillis = FRAMES * 3 * STAGE_MILLIS;
+        assertTrue("Pipeline mất " + elapsedMillis + " ms, tuần tự là " + sequentialMillis + " ms",
+                elapsedMillis < sequentialMillis * 2 / 3);
+        assertTrue(pipeline.getCompletedFrames() >= FRAMES * 3 / 4);
+        assertEquals(FRAMES - 1, lastCompletedFrame.get());
+    }
+
+    @Test
+    public void slowInference_dropsOldestAndKeepsNewestFrame() throws Exception {
+        pipeline = newPipeline(1, 25, 0);
+        pipeline.start();
+
+        for (int i = 0; i < 20; i++) {
+            pipeline.submit(i);
+        }
+        awaitDrained(pipeline, 20);
+
+        assertTrue(pipeline.getDroppedFrames() > 0);
+        assertEquals(20, pipeline.getCompletedFrames() + pipeline.getDroppedFrames());
+        assertEquals(19, lastCompletedFrame.get());
+        assertEquals(6, pool.available());
+    }
+
+    @Test
+    public void failingPreprocess_returnsContextToPool() {
+        pipeline = new InferencePipeline<>(pool,
+                (frame, context) -> {
+                    throw new IllegalStateException("hỏng frame");
+                },
+                context -> { },
+                context -> { },
+                null,
+                null);
+        pipeline.start();
+
+        assertFalse(pipeline.submit(1));
+        assertEquals(1, pipeline.getDroppedFrames());
+        assertEquals(6, pool.available());
+    }
+
+    @Test
+    public void stoppedPipeline_rejectsFrames() {
+        pipeline = newPipeline(0, 0, 0);
+
+        assertFalse(pipeline.submit(1));
+        assertEquals(6, pool.available());
+    }
+
+    private InferencePipeline<Integer> newPipeline(long preprocessMillis, long inferenceMillis, long postprocessMillis) {
+        AtomicReference<InferencePipeline<Integer>> holder = new AtomicReference<>();
+        holder.set(new InferencePipeline<>(pool,
+                (frame, context) -> {
+                    sleep(preprocessMillis);
+                    context.timestampNanos = frame;
+                    return true;
+                },
+                context -> sleep(inferenceMillis),
+                context -> sleep(postprocessMillis),
+                context -> {
+                    lastCompletedFrame.set(context.timestampNanos);
+                    holder.get().recycle(context);
+                },
+                (stage, e) -> fail(stage + ": " + e)));
+        return holder.get();
+    }
+
+    private static void awaitDrained(InferencePipeline<?> pipeline, int frames) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (pipeline.getCompletedFrames() + pipeline.getDroppedFrames() < frames) {
+            assertTrue("Pipeline không xử lý xong", System.currentTimeMillis() < deadline);
+            Thread.sleep(1);
+        }
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.blindwayapp.ui.navigation;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.*;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void percentiles_areWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int ms = 1; ms <= 100; ms++) {
+            histogram.recordNanos(ms * 1_000_000L);
+        }
+
+        assertEquals(100, histogram.getCount());
+        assertEquals(50f, histogram.percentileMillis(50), 50f / 16);
+        assertEquals(95f, histogram.percentileMillis(95), 95f / 16);
+        assertEquals(99f, histogram.percentileMillis(99), 99f / 16);
+        assertEquals(100f, histogram.percentileMillis(100), 1e-3f);
+        assertEquals(100_000, histogram.getMaxMicros());
+    }
+
+    @Test
+    public void bucketIndex_isMonotonicAndBoundsAreTight() {
+        int previous = -1;
+        for (long micros = 0; micros < 200_000; micros += 7) {
+            int index = LatencyHistogram.indexOf(micros);
+            assertTrue(index >= previous);
+            long upper = LatencyHistogram.highestEquivalentValue(index);
+            assertTrue(micros <= upper);
+            assertTrue("bucket của " + micros + " rộng tới " + upper, upper - micros <= Math.max(1, micros / 16));
+            previous = index;
+        }
+    }
+
+    @Test
+    public void outOfRangeValues_areClamped() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.recordMicros(-5);
+        histogram.recordMicros(LatencyHistogram.MAX_TRACKABLE_MICROS * 10);
+
+        assertEquals(0, histogram.percentileMicros(50));
+        assertEquals(LatencyHistogram.MAX_TRACKABLE_MICROS, histogram.percentileMicros(100));
+    }
+
+    @Test
+    public void concurrentRecording_losesNothing() throws InterruptedException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            int offset = t;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 50_000; i++) {
+                    histogram.recordMicros(i % 1000 + offset);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(200_000, histogram.getCount());
+        assertEquals(1002, histogram.getMaxMicros());
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.percentileMicros(99));
+    }
+
+    @Test
+    public void record_allocatesNothing() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        org.junit.Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        org.junit.Assume.assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+        long threadId = Thread.currentThread().getId();
+
+        PipelineMetrics metrics = new PipelineMetrics(0);
+        long before = 0;
+        for (int frame = 0; frame < 20_000; frame++) {
+            if (frame == 10_000) {
+                before = threads.getThreadAllocatedBytes(threadId);
+            }
+            metrics.record(PipelineMetrics.Stage.INFERENCE, 20_000_000L + frame * 1000L);
+            metrics.record(PipelineMetrics.Stage.NMS, 30_000L + frame);
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        assertTrue("Cấp phát " + allocated + " byte", allocated < 1000);
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.blindwayapp.ui.navigation;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * So sánh NonMaxSuppression với cách làm hiển nhiên (sắp xếp toàn bộ rồi so từng cặp).
+ */
+public class NonMaxSuppressionTest {
+
+    private static final float IOU_THRESHOLD = 0.45f;
+
+    @Test
+    public void matchesReference_onRandomClusters() {
+        Random random = new Random(7);
+        for (int round = 0; round < 20; round++) {
+            int count = 50 + random.nextInt(400);
+            Candidates candidates = Candidates.clustered(random, count, 4);
+
+            NonMaxSuppression nms = new NonMaxSuppression(count);
+            int[] keep = new int[count];
+            int kept = nms.apply(candidates.boxes, candidates.scores, candidates.classes, count, IOU_THRESHOLD, keep);
+
+            int[] expected = reference(candidates, count, count, IOU_THRESHOLD);
+            assertArrayEquals(expected, Arrays.copyOf(keep, kept));
+        }
+    }
+
+    @Test
+    public void topK_onlyConsidersHighestScores() {
+        Candidates candidates = Candidates.clustered(new Random(3), 2000, 10);
+        int topK = 100;
+
+        NonMaxSuppression nms = new NonMaxSuppression(topK);
+        int[] keep = new int[topK];
+        int kept = nms.apply(candidates.boxes, candidates.scores, candidates.classes, 2000, IOU_THRESHOLD, keep);
+
+        assertArrayEquals(reference(candidates, 2000, topK, IOU_THRESHOLD), Arrays.copyOf(keep, kept));
+    }
+
+    @Test
+    public void keepLimit_stopsEarly() {
+        Candidates candidates = Candidates.clustered(new Random(5), 500, 4);
+        NonMaxSuppression nms = new NonMaxSuppression(300);
+        int[] keep = new int[3];
+
+        int kept = nms.apply(candidates.boxes, candidates.scores, candidates.classes, 500, IOU_THRESHOLD, keep);
+
+        assertEquals(3, kept);
+        assertArrayEquals(Arrays.copyOf(reference(candidates, 500, 300, IOU_THRESHOLD), 3), keep);
+    }
+
+    private static int[] reference(Candidates c, int count, int topK, float iouThreshold) {
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            order.add(i);
+        }
+        order.sort(Comparator.comparingDouble((Integer i) -> -c.scores[i]));
+        order = order.subList(0, Math.min(topK, count));
+
+        List<Integer> kept = new ArrayList<>();
+        for (int candidate : order) {
+            boolean suppressed = false;
+            for (int k : kept) {
+                if (c.classes[k] == c.classes[candidate] && iou(c.boxes, k, candidate) > iouThreshold) {
+                    suppressed = true;
+                    break;
+                }
+            }
+            if (!suppressed) {
+                kept.add(candidate);
+            }
+        }
+        return kept.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static float iou(float[] boxes, int a, int b) {
+        float interWidth = Math.min(boxes[a * 4 + 2], boxes[b * 4 + 2]) - Math.max(boxes[a * 4], boxes[b * 4]);
+        float interHeight = Math.min(boxes[a * 4 + 3], boxes[b * 4 + 3]) - Math.max(boxes[a * 4 + 1], boxes[b * 4 + 1]);
+        if (interWidth <= 0 || interHeight <= 0) {
+            return 0f;
+        }
+        float inter = interWidth * interHeight;
+        float areaA = (boxes[a * 4 + 2] - boxes[a * 4]) * (boxes[a * 4 + 3] - boxes[a * 4 + 1]);
+        float areaB = (boxes[b * 4 + 2] - boxes[b * 4]) * (boxes[b * 4 + 3] - boxes[b * 4 + 1]);
+        return inter / (areaA + areaB - inter);
+    }
+
+    /** Ứng viên tổng hợp: các cụm hộp chồng lấn quanh vài tâm, điểm khác nhau từng đôi. */
+    static final class Candidates {
+        final float[] boxes;
+        final float[] scores;
+        final int[] classes;
+
+        private Candidates(int count) {
+            boxes = new float[count * 4];
+            scores = new float[count];
+            classes = new int[count];
+        }
+
+        static Candidates clustered(Random random, int count, int numClasses) {
+            Candidates c = new Candidates(count);
+            float[] centers = new float[24];
+            for (int i = 0; i < centers.length; i++) {
+                centers[i] = 0.15f + 0.7f * random.nextFloat();
+            }
+            for (int i = 0; i < count; i++) {
+                int cluster = random.nextInt(centers.length / 2);
+                float cx = centers[cluster * 2] + 0.03f * (float) random.nextGaussian();
+                float cy = centers[cluster * 2 + 1] + 0.03f * (float) random.nextGaussian();
+                float w = 0.05f + 0.2f * random.nextFloat();
+                float h = 0.05f + 0.2f * random.nextFloat();
+                c.boxes[i * 4] = cx - w / 2;
+                c.boxes[i * 4 + 1] = cy - h / 2;
+                c.boxes[i * 4 + 2] = cx + w / 2;
+                c.boxes[i * 4 + 3] = cy + h / 2;
+                // Cộng một lượng nhỏ theo chỉ số để không có hai điểm bằng nhau
+                c.scores[i] = 0.5f * random.nextFloat() + 0.4f + i * 1e-7f;
+                c.classes[i] = random.nextInt(numClasses);
+            }
+            return c;
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.example.blindwayapp.ui.navigation;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ObjectTrackerTest {
+
+    private static final long FRAME_NANOS = 100_000_000L;
+    private static final int FRAME_WIDTH = 480;
+
+    @Test
+    public void movingObject_keepsItsTrackId() {
+        ObjectTracker tracker = new ObjectTracker(8, 0.3f, 2, 1000);
+        DetectionList detections = new DetectionList(8);
+        DetectionList out = new DetectionList(8);
+
+        int trackId = -1;
+        for (int frame = 0; frame < 10; frame++) {
+            detections.clear();
+            float x = 0.2f + frame * 0.02f;
+            detections.obtain().set("người", 0.9f, x, 0.3f, x + 0.2f, 0.8f, 3f, null);
+            tracker.update(detections, frame * FRAME_NANOS);
+            tracker.predict(frame * FRAME_NANOS, FRAME_WIDTH, out);
+
+            assertEquals(1, out.size());
+            if (frame == 0) {
+                trackId = out.get(0).trackId;
+                assertTrue(trackId > 0);
+            } else {
+                assertEquals(trackId, out.get(0).trackId);
+            }
+        }
+        assertEquals(1, tracker.getTrackCount());
+    }
+
+    @Test
+    public void differentLabels_areNotMerged() {
+        ObjectTracker tracker = new ObjectTracker(8, 0.3f, 2, 1000);
+        DetectionList detections = new DetectionList(8);
+        detections.obtain().set("người", 0.9f, 0.2f, 0.3f, 0.4f, 0.8f, 3f, null);
+        detections.obtain().set("xe đạp", 0.8f, 0.2f, 0.3f, 0.4f, 0.8f, 3f, null);
+
+        tracker.update(detections, 0);
+        DetectionList out = new DetectionList(8);
+        tracker.predict(0, FRAME_WIDTH, out);
+
+        assertEquals(2, out.size());
+        assertNotEquals(out.get(0).trackId, out.get(1).trackId);
+    }
+
+    @Test
+    public void approachingObject_hasPositiveClosingSpeed() {
+        ObjectTracker tracker = new ObjectTracker(8, 0.3f, 2, 1000);
+        DetectionList detections = new DetectionList(8);
+        DetectionList out = new DetectionList(8);
+
+        // Đi tới vật thể với 1,2 m/s: mỗi frame 100 ms gần thêm 0,12 m
+        for (int frame = 0; frame < 20; frame++) {
+            detections.clear();
+            detections.obtain().set("ô tô", 0.9f, 0.3f, 0.3f, 0.6f, 0.8f, 6f - frame * 0.12f, null);
+            tracker.update(detections, frame * FRAME_NANOS);
+        }
+        tracker.predict(19 * FRAME_NANOS, FRAME_WIDTH, out);
+
+        assertEquals(1, out.size());
+        assertEquals(1.2f, out.get(0).closingSpeed, 0.15f);
+        assertEquals(6f - 19 * 0.12f, out.get(0).distance, 0.1f);
+    }
+
+    @Test
+    public void predictBetweenFrames_extrapolatesWithoutChangingState() {
+        ObjectTracker tracker = new ObjectTracker(8, 0.3f, 2, 1000);
+        DetectionList detections = new DetectionList(8);
+        DetectionList out = new DetectionList(8);
+
+        // Hộp dịch sang phải 0,01 mỗi frame, tức 0,1/giây
+        for (int frame = 0; frame < 20; frame++) {
+            detections.clear();
+            float x = 0.1f + frame * 0.01f;
+            detections.obtain().set("người", 0.9f, x, 0.3f, x + 0.2f, 0.8f, 3f, null);
+            tracker.update(detections, frame * FRAME_NANOS);
+        }
+        long last = 19 * FRAME_NANOS;
+        tracker.predict(last, FRAME_WIDTH, out);
+        float centerNow = out.get(0).centerX();
+
+        tracker.predict(last + 3 * FRAME_NANOS, FRAME_WIDTH, out);
+        assertEquals(centerNow + 0.03f, out.get(0).centerX(), 0.005f);
+
+        // predict không làm thay đổi bộ lọc
+        tracker.predict(last, FRAME_WIDTH, out);
+        assertEquals(centerNow, out.get(0).centerX(), 1e-6f);
+    }
+
+    @Test
+    public void newTrack_isReportedOnlyOnItsOwnFrameUntilConfirmed() {
+        ObjectTracker tracker = new ObjectTracker(8, 0.3f, 2, 1000);
+        DetectionList detections = new DetectionList(8);
+        DetectionList out = new DetectionList(8);
+        detections.obtain().set("người", 0.9f, 0.2f, 0.3f, 0.4f, 0.8f, 3f, null);
+
+        tracker.update(detections, 0);
+        tracker.predict(0, FRAME_WIDTH, out);
+        assertEquals(1, out.size());
+
+        // Chưa đủ minHits: không ngoại suy ở frame giữa
+        tracker.predict(FRAME_NANOS / 2, FRAME_WIDTH, out);
+        assertEquals(0, out.size());
+
+        tracker.update(detections, FRAME_NANOS);
+        tracker.predict(FRAME_NANOS + FRAME_NANOS / 2, FRAME_WIDTH, out);
+        assertEquals(1, out.size());
+    }
+
+    @Test
+    public void lostTrack_isRemovedAfterMaxCoast() {
+        ObjectTracker tracker = new ObjectTracker(8, 0.3f, 2, 300);
+        DetectionList detections = new DetectionList(8);
+        DetectionList out = new DetectionList(8);
+        detections.obtain().set("người", 0.9f, 0.2f, 0.3f, 0.4f, 0.8f, 3f, null);
+        tracker.update(detections, 0);
+        tracker.update(detections, FRAME_NANOS);
+
+        detections.clear();
+        tracker.update(detections, 3 * FRAME_NANOS);
+        tracker.predict(3 * FRAME_NANOS, FRAME_WIDTH, out);
+        assertEquals("Track vẫn được ngoại suy khi mới mất dấu", 1, out.size());
+
+        tracker.update(detections, 5 * FRAME_NANOS);
+        tracker.predict(5 * FRAME_NANOS, FRAME_WIDTH, out);
+        assertEquals(0, out.size());
+        assertEquals(0, tracker.getTrackCount());
+    }
+
+    @Test
+    public void fullTracker_ignoresExtraDetections() {
+        ObjectTracker tracker = new ObjectTracker(2, 0.3f, 2, 1000);
+        DetectionList detections = new DetectionList(4);
+        for (int i = 0; i < 4; i++) {
+            float x = i * 0.25f;
+            detections.obtain().set("người", 0.9f, x, 0.3f, x + 0.2f, 0.8f, 3f, null);
+        }
+
+        tracker.update(detections, 0);
+
+        assertEquals(2, tracker.getTrackCount());
+    }
+
+    /**
+     * Vài trăm track cùng lúc: vòng lặp ổn định giữ đủ track và không cấp phát. Thời gian
+     * update + predict đo bằng ObjectTrackerBenchmark trong :benchmarks.
+     */
+    @Test
+    public void manyConcurrentTracks_allocateNothing() {
+        int objects = 300;
+        int frames = 200;
+        Random random = new Random(17);
+        float[] x = new float[objects];
+        float[] y = new float[objects];
+        float[] phase = new float[objects];
+        for (int i = 0; i < objects; i++) {
+            // Mỗi vật thể một ô riêng trên lưới 20x15 để không chồng lấn nhau
+            x[i] = (i % 20) / 20f + 0.005f;
+            y[i] = (i / 20) / 15f + 0.005f;
+            phase[i] = (float) (2 * Math.PI * random.nextDouble());
+        }
+
+        ObjectTracker tracker = new ObjectTracker(objects, 0.3f, 2, 1000);
+        DetectionList detections = new DetectionList(objects);
+        DetectionList out = new DetectionList(objects);
+
+        com.sun.management.ThreadMXBean threads = allocationCounter();
+        long threadId = Thread.currentThread().getId();
+        long allocatedBefore = 0;
+        for (int frame = 0; frame < frames; frame++) {
+            if (frame == frames / 2) {
+                allocatedBefore = threads != null ? threads.getThreadAllocatedBytes(threadId) : 0;
+            }
+            detections.clear();
+            for (int i = 0; i < objects; i++) {
+                // Dao động nhẹ quanh vị trí ban đầu, như người cầm máy rung tay
+                float left = x[i] + 0.005f * (float) Math.sin(0.2f * frame + phase[i]);
+                float top = y[i] + 0.005f * (float) Math.cos(0.2f * frame + phase[i]);
+                detections.obtain().set("người", 0.9f, left, top, left + 0.04f, top + 0.05f, 3f, null);
+            }
+            tracker.update(detections, frame * FRAME_NANOS);
+            tracker.predict(frame * FRAME_NANOS + FRAME_NANOS / 2, FRAME_WIDTH, out);
+        }
+        long allocated = threads != null ? threads.getThreadAllocatedBytes(threadId) - allocatedBefore : 0;
+
+        assertEquals(objects, tracker.getTrackCount());
+        assertEquals(objects, out.size());
+        assertTrue("Cấp phát " + allocated + " byte", allocated < frames);
+    }
+
+    /** Bộ đếm cấp phát của luồng hiện tại, null nếu JVM không hỗ trợ. */
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+            return null;
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        if (!threads.isThreadAllocatedMemorySupported()) {
+            return null;
+        }
+        threads.setThreadAllocatedMemoryEnabled(true);
+        return threads;
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.blindwayapp.ui.navigation;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class PerformanceGovernorTest {
+
+    private static final long MS = 1_000_000L;
+    private static final long SECOND = 1000 * MS;
+
+    private final FakeDeviceState device = new FakeDeviceState();
+    private final List<String> changes = new ArrayList<>();
+    private final PerformanceGovernor governor = new PerformanceGovernor(device, 200, 10_000,
+            (previous, tier, reason) -> changes.add(previous + "->" + tier));
+
+    @Test
+    public void coolDevice_lowLatency_staysAtFullPerformance() {
+        governor.recordLatency(80 * MS);
+
+        assertEquals(PerformanceTier.PERFORMANCE, governor.evaluate(0));
+        assertEquals(PerformanceTier.PERFORMANCE, governor.evaluate(30 * SECOND));
+        assertTrue(changes.isEmpty());
+    }
+
+    @Test
+    public void severeThermal_dropsToCriticalImmediately() {
+        governor.evaluate(0);
+        device.thermal = PerformanceGovernor.THERMAL_SEVERE;
+
+        assertEquals(PerformanceTier.CRITICAL, governor.evaluate(1 * SECOND));
+        assertEquals(1, changes.size());
+        assertTrue(governor.getReason().contains("nhiệt 3"));
+    }
+
+    @Test
+    public void coolingDown_stepsBackUpOneTierPerDwell() {
+        device.thermal = PerformanceGovernor.THERMAL_SEVERE;
+        governor.evaluate(0);
+        device.thermal = PerformanceGovernor.THERMAL_NONE;
+        governor.recordLatency(50 * MS);
+
+        assertEquals(PerformanceTier.CRITICAL, governor.evaluate(5 * SECOND));
+        assertEquals(PerformanceTier.SAVER, governor.evaluate(10 * SECOND));
+        assertEquals(PerformanceTier.SAVER, governor.evaluate(15 * SECOND));
+        assertEquals(PerformanceTier.BALANCED, governor.evaluate(20 * SECOND));
+        assertEquals(PerformanceTier.PERFORMANCE, governor.evaluate(30 * SECOND));
+    }
+
+    @Test
+    public void lowBatteryOrPowerSave_limitsTier() {
+        assertEquals(PerformanceTier.PERFORMANCE, PerformanceGovernor.deviceLimit(0, 50, false, false));
+        assertEquals(PerformanceTier.BALANCED, PerformanceGovernor.deviceLimit(0, 25, false, false));
+        assertEquals(PerformanceTier.SAVER, PerformanceGovernor.deviceLimit(0, 10, false, false));
+        assertEquals(PerformanceTier.PERFORMANCE, PerformanceGovernor.deviceLimit(0, 10, true, false));
+        assertEquals(PerformanceTier.BALANCED, PerformanceGovernor.deviceLimit(0, -1, false, true));
+        assertEquals(PerformanceTier.SAVER, PerformanceGovernor.deviceLimit(
+                PerformanceGovernor.THERMAL_MODERATE, 25, false, true));
+    }
+
+    @Test
+    public void latencyOverBudget_shedsCropsButNotThreads() {
+        governor.recordLatency(300 * MS);
+
+        assertEquals(PerformanceTier.BALANCED, governor.evaluate(0));
+        // Mức thấp hơn bớt luồng, làm mỗi lượt suy luận chậm hơn nên không hạ tiếp vì độ trễ
+        assertEquals(PerformanceTier.BALANCED, governor.evaluate(20 * SECOND));
+        assertTrue(governor.getReason().contains("300 ms"));
+    }
+
+    @Test
+    public void latencyRecovered_returnsAfterDwell() {
+        governor.recordLatency(300 * MS);
+        governor.evaluate(0);
+        for (int i = 0; i < 30; i++) {
+            governor.recordLatency(60 * MS);
+        }
+
+        assertEquals(PerformanceTier.BALANCED, governor.evaluate(5 * SECOND));
+        assertEquals(PerformanceTier.PERFORMANCE, governor.evaluate(10 * SECOND));
+        assertEquals(2, changes.size());
+    }
+
+    @Test
+    public void latencyBetweenHeadroomAndBudget_holdsTier() {
+        governor.recordLatency(300 * MS);
+        governor.evaluate(0);
+        for (int i = 0; i < 30; i++) {
+            governor.recordLatency(150 * MS);
+        }
+
+        assertEquals(PerformanceTier.BALANCED, governor.evaluate(60 * SECOND));
+    }
+
+    private static final class FakeDeviceState implements PerformanceGovernor.DeviceStateSource {
+        int thermal = PerformanceGovernor.THERMAL_NONE;
+        int battery = 80;
+        boolean charging;
+        boolean powerSave;
+
+        @Override
+        public int getThermalStatus() {
+            return thermal;
+        }
+
+        @Override
+        public int getBatteryPercent() {
+            return battery;
+        }
+
+        @Override
+        public boolean isCharging() {
+            return charging;
+        }
+
+        @Override
+        public boolean isPowerSaveMode() {
+            return powerSave;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.blindwayapp.ui.navigation;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+public class PipelineMetricsTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void summary_listsOnlyRecordedStagesAndFrameCounts() {
+        PipelineMetrics metrics = new PipelineMetrics(0);
+        for (int i = 1; i <= 100; i++) {
+            metrics.record(PipelineMetrics.Stage.INFERENCE, i * 1_000_000L);
+        }
+        metrics.countPredictedFrame();
+
+        String summary = metrics.summary(120, 20);
+
+        assertTrue(summary, summary.contains("100 chạy model, 1 ngoại suy, 20 bị bỏ"));
+        assertTrue(summary, summary.contains("Interpreter.run"));
+        assertTrue(summary, summary.contains("(n=100)"));
+        assertFalse(summary, summary.contains("NMS"));
+    }
+
+    @Test
+    public void dump_overwritesFile() throws Exception {
+        PipelineMetrics metrics = new PipelineMetrics(0);
+        metrics.record(PipelineMetrics.Stage.END_TO_END, 250_000_000L);
+        File file = folder.newFile("metrics.txt");
+
+        metrics.dump(file, 5_000_000_000L, 10, 0);
+        metrics.dump(file, 35_000_000_000L, 10, 0);
+
+        String text = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+        assertTrue(text, text.startsWith("# sau 35 giây"));
+        assertTrue(text, text.contains("end-to-end"));
+        assertEquals(text.indexOf("end-to-end"), text.lastIndexOf("end-to-end"));
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.blindwayapp.ui.navigation;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RoiPlannerTest {
+
+    private static final int WIDTH = 480;
+    private static final int HEIGHT = 640;
+    private static final long MS = 1_000_000L;
+
+    private final RoiPlanner planner = new RoiPlanner(2);
+    private final float[] rects = new float[8];
+
+    @Test
+    public void budget_limitsCropCount() {
+        assertEquals(0, planner.cropsWithinBudget(150 * MS, 0));
+        assertEquals(0, planner.cropsWithinBudget(150 * MS, 120 * MS));
+        assertEquals(1, planner.cropsWithinBudget(150 * MS, 60 * MS));
+        assertEquals(2, planner.cropsWithinBudget(150 * MS, 20 * MS));
+    }
+
+    @Test
+    public void corridor_isSquareBottomCenterBand() {
+        int count = planner.plan(WIDTH, HEIGHT, new DetectionList(4), 2, rects);
+
+        assertEquals(1, count);
+        assertEquals(0.2f, rects[0], 1e-6f);
+        assertEquals(0.8f, rects[2], 1e-6f);
+        assertEquals(1f, rects[3], 1e-6f);
+        // Vuông theo pixel: 288 x 288 trên khung 480 x 640
+        assertEquals((rects[2] - rects[0]) * WIDTH, (rects[3] - rects[1]) * HEIGHT, 1e-3f);
+    }
+
+    @Test
+    public void smallTrackOutsideCorridor_getsItsOwnCrop() {
+        DetectionList tracks = new DetectionList(4);
+        track(tracks, "ô tô", 0.05f, 0.30f, 0.10f, 0.34f);   // nhỏ, ở xa bên trái
+        track(tracks, "người", 0.3f, 0.1f, 0.9f, 0.9f);       // lớn, lượt toàn khung đã đủ
+
+        int count = planner.plan(WIDTH, HEIGHT, tracks, 2, rects);
+
+        assertEquals(2, count);
+        assertTrue(rects[4] <= 0.05f && rects[6] >= 0.10f);
+        assertTrue(rects[5] <= 0.30f && rects[7] >= 0.34f);
+        assertEquals(0f, rects[4], 1e-6f);   // bị đẩy vào trong khung hình
+    }
+
+    @Test
+    public void trackInsideCorridor_doesNotDuplicateCrop() {
+        DetectionList tracks = new DetectionList(4);
+        track(tracks, "ô tô", 0.45f, 0.8f, 0.5f, 0.85f);
+
+        assertEquals(1, planner.plan(WIDTH, HEIGHT, tracks, 2, rects));
+        assertEquals(0, planner.plan(WIDTH, HEIGHT, tracks, 0, rects));
+    }
+
+    @Test
+    public void merge_keepsBetterDuplicateAndDropsTruncatedBoxes() {
+        float[] crop = {0.2f, 0.55f, 0.8f, 1f};
+        DetectionList target = new DetectionList(8);
+        track(target, "người", 0.40f, 0.60f, 0.50f, 0.90f).confidence = 0.6f;
+
+        DetectionList cropped = new DetectionList(8);
+        track(cropped, "người", 0.41f, 0.60f, 0.50f, 0.90f).confidence = 0.8f;   // trùng, điểm cao hơn
+        track(cropped, "ô tô", 0.60f, 0.70f, 0.70f, 0.80f).confidence = 0.7f;    // vật mới
+        track(cropped, "ô tô", 0.20f, 0.70f, 0.30f, 0.80f).confidence = 0.9f;    // chạm mép trái vùng cắt
+
+        RoiPlanner.merge(target, cropped, crop, 0, 0.5f);
+
+        assertEquals(2, target.size());
+        assertEquals(0.8f, target.get(0).confidence, 1e-6f);
+        assertEquals("ô tô", target.get(1).label);
+        assertEquals(0.6f, target.get(1).left, 1e-6f);
+    }
+
+    private static Detection track(DetectionList list, String label, float left, float top, float right, float bottom) {
+        return list.obtain().set(label, 0.9f, left, top, right, bottom, 3f, DetectionDecoder.DIRECTION_AHEAD);
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.blindwayapp.ui.navigation;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.junit.Assert.*;
+
+public class TensorSpecTest {
+
+    private static final TensorSpec INPUT_SPEC =
+            new TensorSpec(TensorSpec.DataType.UINT8, new int[]{1, 300, 300, 3}, 0f, 0);
+
+    private static final float[][] BOXES = {
+            {0.5f, 0.5f, 0.4f, 0.4f},
+            {0.2f, 0.7f, 0.3f, 0.35f},
+            {0.8f, 0.6f, 0.3f, 0.3f},
+            {0.5f, 0.5f, 0.01f, 0.01f},
+    };
+
+    @Test
+    public void uint8_dequantizesWithScaleAndZeroPoint() {
+        TensorSpec spec = new TensorSpec(TensorSpec.DataType.UINT8, new int[]{1, 4}, 0.5f, 10);
+        ByteBuffer buffer = ByteBuffer.wrap(new byte[]{10, 12, (byte) 255, 0});
+
+        assertEquals(0f, spec.read(buffer, 0), 0f);
+        assertEquals(1f, spec.read(buffer, 1), 0f);
+        assertEquals(122.5f, spec.read(buffer, 2), 0f);
+        assertEquals(-5f, spec.read(buffer, 3), 0f);
+    }
+
+    @Test
+    public void int8_dequantizesSignedValues() {
+        TensorSpec spec = new TensorSpec(TensorSpec.DataType.INT8, new int[]{1, 3}, 1f / 256, -128);
+        ByteBuffer buffer = ByteBuffer.wrap(new byte[]{-128, 0, 127});
+
+        assertEquals(0f, spec.read(buffer, 0), 0f);
+        assertEquals(0.5f, spec.read(buffer, 1), 0f);
+        assertEquals(255f / 256, spec.read(buffer, 2), 1e-6f);
+    }
+
+    @Test
+    public void float32_readsNativeOrderFloats() {
+        TensorSpec spec = new TensorSpec(TensorSpec.DataType.FLOAT32, new int[]{1, 2}, 0f, 0);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(spec.numBytes()).order(ByteOrder.nativeOrder());
+        buffer.putFloat(0, 1.25f).putFloat(4, -3f);
+
+        assertEquals(8, spec.numBytes());
+        assertFalse(spec.isQuantized());
+        assertEquals(1.25f, spec.read(buffer, 0), 0f);
+        assertEquals(-3f, spec.read(buffer, 1), 0f);
+    }
+
+    @Test
+    public void modelSpec_acceptsImageInputAndBoxOutput() {
+        ModelSpec spec = new ModelSpec(
+                new TensorSpec(TensorSpec.DataType.INT8, new int[]{1, 320, 256, 3}, 1f / 255, -128),
+                new TensorSpec(TensorSpec.DataType.UINT8, new int[]{1, 10, 4}, 1f / 255, 0));
+
+        assertEquals(256, spec.getInputWidth());
+        assertEquals(320, spec.getInputHeight());
+        assertEquals(320 * 256 * 3, spec.input.numBytes());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void modelSpec_rejectsNonRgbInput() {
+        new ModelSpec(
+                new TensorSpec(TensorSpec.DataType.UINT8, new int[]{1, 300, 300, 1}, 0f, 0),
+                new TensorSpec(TensorSpec.DataType.FLOAT32, new int[]{1, 10, 4}, 0f, 0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void modelSpec_rejectsFlatOutput() {
+        new ModelSpec(INPUT_SPEC, new TensorSpec(TensorSpec.DataType.FLOAT32, new int[]{1, 40}, 0f, 0));
+    }
+
+    @Test
+    public void quantizedOutput_decodesLikeFloatOutput() {
+        TensorSpec floatSpec = new TensorSpec(TensorSpec.DataType.FLOAT32, new int[]{1, BOXES.length, 4}, 0f, 0);
+        TensorSpec quantizedSpec = new TensorSpec(TensorSpec.DataType.UINT8, new int[]{1, BOXES.length, 4}, 1f / 255, 0);
+
+        ByteBuffer floatOutput = ByteBuffer.allocateDirect(floatSpec.numBytes()).order(ByteOrder.nativeOrder());
+        ByteBuffer quantizedOutput = ByteBuffer.allocateDirect(quantizedSpec.numBytes());
+        for (int i = 0; i < BOXES.length; i++) {
+            for (int j = 0; j < 4; j++) {
+                floatOutput.putFloat((i * 4 + j) * 4, BOXES[i][j]);
+                quantizedOutput.put(i * 4 + j, (byte) Math.round(BOXES[i][j] * 255));
+            }
+        }
+
+        DetectionList expected = new DetectionList(BOXES.length);
+        DetectionList actual = new DetectionList(BOXES.length);
+        new DetectionDecoder(new ModelSpec(INPUT_SPEC, floatSpec), new String[0])
+                .decode(floatOutput, 640, 480, expected);
+        new DetectionDecoder(new ModelSpec(INPUT_SPEC, quantizedSpec), new String[0])
+                .decode(quantizedOutput, 640, 480, actual);
+
+        assertEquals(3, expected.size());
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).left, actual.get(i).left, 1f / 255);
+            assertEquals(expected.get(i).bottom, actual.get(i).bottom, 1f / 255);
+            assertEquals(expected.get(i).direction, actual.get(i).direction);
+        }
+    }
+}
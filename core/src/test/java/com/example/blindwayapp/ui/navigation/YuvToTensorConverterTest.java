@@ -0,0 +1,321 @@
+package com.example.blindwayapp.ui.navigation;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.junit.Assert.*;
+
+/**
+ * So sánh YuvToTensorConverter với cách chuyển tham chiếu chậm nhưng hiển nhiên đúng:
+ * YUV -> RGB đầy đủ độ phân giải (số thực), xoay, cắt rồi resize bilinear.
+ */
+public class YuvToTensorConverterTest {
+
+    private static final int OUT_SIZE = 48;
+    private static final int MAX_DIFF = 6;
+
+    @Test
+    public void constantGray_convertsExactly() {
+        SyntheticFrame frame = SyntheticFrame.constant(64, 48, 128, 128, 128);
+        ByteBuffer out = convert(frame, 0, OUT_SIZE);
+
+        for (int i = 0; i < OUT_SIZE * OUT_SIZE * 3; i++) {
+            assertEquals(128, out.get(i) & 0xFF);
+        }
+    }
+
+    @Test
+    public void matchesReference_allRotations() {
+        SyntheticFrame frame = SyntheticFrame.gradient(96, 64, 96, 2, 1);
+        for (int rotation = 0; rotation < 360; rotation += 90) {
+            assertMatchesReference(frame, rotation, 0f, 0f, 1f, 1f);
+        }
+    }
+
+    @Test
+    public void matchesReference_paddedRowsAndInterleavedChroma() {
+        // row stride lớn hơn chiều rộng và U/V xen kẽ (bố cục NV21 phổ biến trên máy thật)
+        SyntheticFrame frame = SyntheticFrame.gradient(80, 60, 96, 2, 2);
+        assertMatchesReference(frame, 0, 0f, 0f, 1f, 1f);
+        assertMatchesReference(frame, 90, 0f, 0f, 1f, 1f);
+    }
+
+    @Test
+    public void matchesReference_withCrop() {
+        SyntheticFrame frame = SyntheticFrame.gradient(120, 90, 128, 1, 1);
+        assertMatchesReference(frame, 0, 0.25f, 0.5f, 0.75f, 1f);
+        assertMatchesReference(frame, 270, 0.1f, 0.2f, 0.6f, 0.9f);
+    }
+
+    @Test
+    public void rotation90_movesBottomLeftToTopLeft() {
+        // Góc dưới-trái sáng, phần còn lại tối
+        SyntheticFrame frame = SyntheticFrame.constant(64, 64, 16, 128, 128);
+        for (int y = 32; y < 64; y++) {
+            for (int x = 0; x < 32; x++) {
+                frame.y[y * frame.yRowStride + x] = (byte) 235;
+            }
+        }
+
+        ByteBuffer out = convert(frame, 90, 8);
+
+        assertTrue((out.get(0) & 0xFF) > 200);
+        assertTrue((out.get((8 * 8 - 1) * 3) & 0xFF) < 40);
+    }
+
+    @Test
+    public void reusedBuffer_isRewoundAndOverwritten() {
+        YuvToTensorConverter converter = new YuvToTensorConverter(OUT_SIZE, OUT_SIZE);
+        ByteBuffer out = ByteBuffer.allocateDirect(converter.getOutputSize()).order(ByteOrder.nativeOrder());
+
+        SyntheticFrame dark = SyntheticFrame.constant(64, 48, 20, 128, 128);
+        SyntheticFrame bright = SyntheticFrame.constant(64, 48, 220, 128, 128);
+        dark.convert(converter, 0, out);
+        bright.convert(converter, 0, out);
+
+        assertEquals(0, out.position());
+        assertEquals(220, out.get(0) & 0xFF);
+        assertEquals(220, out.get(converter.getOutputSize() - 1) & 0xFF);
+    }
+
+    @Test
+    public void int8Input_shiftsPixelRangeToSignedRange() {
+        YuvToTensorConverter converter = new YuvToTensorConverter(8, 8, TensorSpec.DataType.INT8);
+        ByteBuffer out = ByteBuffer.allocateDirect(converter.getOutputSize()).order(ByteOrder.nativeOrder());
+
+        SyntheticFrame.constant(64, 48, 128, 128, 128).convert(converter, 0, out);
+        assertEquals(0, out.get(0));
+        SyntheticFrame.constant(64, 48, 255, 128, 128).convert(converter, 0, out);
+        assertEquals(127, out.get(0));
+        SyntheticFrame.constant(64, 48, 0, 128, 128).convert(converter, 0, out);
+        assertEquals(-128, out.get(converter.getOutputSize() - 1));
+    }
+
+    @Test
+    public void float32Input_isNormalizedToUnitRange() {
+        YuvToTensorConverter converter = new YuvToTensorConverter(8, 8, TensorSpec.DataType.FLOAT32);
+        ByteBuffer out = ByteBuffer.allocateDirect(converter.getOutputSize()).order(ByteOrder.nativeOrder());
+        assertEquals(8 * 8 * 3 * 4, converter.getOutputSize());
+
+        SyntheticFrame.constant(64, 48, 51, 128, 128).convert(converter, 90, out);
+
+        assertEquals(0, out.position());
+        for (int i = 0; i < 8 * 8 * 3; i++) {
+            assertEquals(0.2f, out.getFloat(i * 4), 1e-6f);
+        }
+    }
+
+    @Test
+    public void requireInput_acceptsUnitAndSignedQuantization() {
+        int[] shape = {1, 8, 8, 3};
+        new YuvToTensorConverter(8, 8, TensorSpec.DataType.UINT8)
+                .requireInput(new TensorSpec(TensorSpec.DataType.UINT8, shape, 1f / 255, 0));
+        new YuvToTensorConverter(8, 8, TensorSpec.DataType.UINT8)
+                .requireInput(new TensorSpec(TensorSpec.DataType.UINT8, shape, 0.007843138f, 128));
+        new YuvToTensorConverter(8, 8, TensorSpec.DataType.INT8)
+                .requireInput(new TensorSpec(TensorSpec.DataType.INT8, shape, 1f / 255, -128));
+        new YuvToTensorConverter(8, 8, TensorSpec.DataType.INT8)
+                .requireInput(new TensorSpec(TensorSpec.DataType.INT8, shape, 0.007843138f, -1));
+        new YuvToTensorConverter(8, 8, TensorSpec.DataType.FLOAT32)
+                .requireInput(new TensorSpec(TensorSpec.DataType.FLOAT32, shape, 0f, 0));
+    }
+
+    @Test
+    public void requireInput_rejectsOtherQuantizationAndSizes() {
+        int[] shape = {1, 8, 8, 3};
+        YuvToTensorConverter uint8 = new YuvToTensorConverter(8, 8, TensorSpec.DataType.UINT8);
+        YuvToTensorConverter int8 = new YuvToTensorConverter(8, 8, TensorSpec.DataType.INT8);
+        // Model nhận pixel thô 0..255 với scale 1
+        assertRejected(uint8, new TensorSpec(TensorSpec.DataType.UINT8, shape, 1f, 0));
+        // INT8 với zero point 0 nhưng scale 1/255: pixel đen thành -0,5
+        assertRejected(int8, new TensorSpec(TensorSpec.DataType.INT8, shape, 1f / 255, 0));
+        assertRejected(int8, new TensorSpec(TensorSpec.DataType.UINT8, shape, 1f / 255, 0));
+        assertRejected(uint8, new TensorSpec(TensorSpec.DataType.UINT8, new int[]{1, 16, 8, 3}, 1f / 255, 0));
+    }
+
+    private static void assertRejected(YuvToTensorConverter converter, TensorSpec spec) {
+        try {
+            converter.requireInput(spec);
+            fail("Phải từ chối " + spec);
+        } catch (IllegalArgumentException expected) {
+            // đúng
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void tooSmallBuffer_isRejected() {
+        YuvToTensorConverter converter = new YuvToTensorConverter(OUT_SIZE, OUT_SIZE);
+        SyntheticFrame frame = SyntheticFrame.constant(64, 48, 128, 128, 128);
+        frame.convert(converter, 0, ByteBuffer.allocateDirect(16));
+    }
+
+    private static ByteBuffer convert(SyntheticFrame frame, int rotation, int outSize) {
+        YuvToTensorConverter converter = new YuvToTensorConverter(outSize, outSize);
+        ByteBuffer out = ByteBuffer.allocateDirect(converter.getOutputSize()).order(ByteOrder.nativeOrder());
+        frame.convert(converter, rotation, out);
+        return out;
+    }
+
+    private static void assertMatchesReference(SyntheticFrame frame, int rotation,
+                                               float left, float top, float right, float bottom) {
+        YuvToTensorConverter converter = new YuvToTensorConverter(OUT_SIZE, OUT_SIZE);
+        converter.setCrop(left, top, right, bottom);
+        ByteBuffer out = ByteBuffer.allocateDirect(converter.getOutputSize()).order(ByteOrder.nativeOrder());
+        frame.convert(converter, rotation, out);
+
+        float[][] reference = referenceConvert(frame, rotation, left, top, right, bottom, OUT_SIZE);
+        for (int i = 0; i < OUT_SIZE * OUT_SIZE; i++) {
+            for (int c = 0; c < 3; c++) {
+                int actual = out.get(i * 3 + c) & 0xFF;
+                int expected = Math.round(reference[i][c]);
+                assertTrue("rotation=" + rotation + " pixel=" + i + " channel=" + c
+                                + " expected=" + expected + " actual=" + actual,
+                        Math.abs(actual - expected) <= MAX_DIFF);
+            }
+        }
+    }
+
+    /** Tham chiếu: RGB số thực -> ảnh đúng chiều -> cắt -> bilinear. */
+    private static float[][] referenceConvert(SyntheticFrame frame, int rotation,
+                                              float left, float top, float right, float bottom,
+                                              int outSize) {
+        int w = frame.width;
+        int h = frame.height;
+        float[][][] rgb = new float[h][w][];
+        for (int y = 0; y < h; y++) {
+            for (int x = 0; x < w; x++) {
+                float luma = frame.y[y * frame.yRowStride + x] & 0xFF;
+                int uvIndex = (y / 2) * frame.uvRowStride + (x / 2) * frame.uvPixelStride;
+                float u = (frame.u[uvIndex] & 0xFF) - 128f;
+                float v = (frame.v[uvIndex + (frame.uvPixelStride == 2 ? 1 : 0)] & 0xFF) - 128f;
+                rgb[y][x] = new float[]{
+                        luma + 1.402f * v,
+                        luma - 0.344136f * u - 0.714136f * v,
+                        luma + 1.772f * u
+                };
+            }
+        }
+
+        boolean swap = rotation == 90 || rotation == 270;
+        int uw = swap ? h : w;
+        int uh = swap ? w : h;
+        float[][][] upright = new float[uh][uw][];
+        for (int uy = 0; uy < uh; uy++) {
+            for (int ux = 0; ux < uw; ux++) {
+                int sx;
+                int sy;
+                if (rotation == 90) {
+                    sx = uy;
+                    sy = h - 1 - ux;
+                } else if (rotation == 180) {
+                    sx = w - 1 - ux;
+                    sy = h - 1 - uy;
+                } else if (rotation == 270) {
+                    sx = w - 1 - uy;
+                    sy = ux;
+                } else {
+                    sx = ux;
+                    sy = uy;
+                }
+                upright[uy][ux] = rgb[sy][sx];
+            }
+        }
+
+        float[][] result = new float[outSize * outSize][3];
+        float scaleX = (right - left) * uw / outSize;
+        float scaleY = (bottom - top) * uh / outSize;
+        for (int oy = 0; oy < outSize; oy++) {
+            float fy = clamp(top * uh + (oy + 0.5f) * scaleY - 0.5f, uh - 1);
+            int y0 = Math.min((int) fy, uh - 2);
+            float wy = fy - y0;
+            for (int ox = 0; ox < outSize; ox++) {
+                float fx = clamp(left * uw + (ox + 0.5f) * scaleX - 0.5f, uw - 1);
+                int x0 = Math.min((int) fx, uw - 2);
+                float wx = fx - x0;
+                for (int c = 0; c < 3; c++) {
+                    float value = upright[y0][x0][c] * (1 - wx) * (1 - wy)
+                            + upright[y0][x0 + 1][c] * wx * (1 - wy)
+                            + upright[y0 + 1][x0][c] * (1 - wx) * wy
+                            + upright[y0 + 1][x0 + 1][c] * wx * wy;
+                    result[oy * outSize + ox][c] = Math.max(0f, Math.min(255f, value));
+                }
+            }
+        }
+        return result;
+    }
+
+    private static float clamp(float value, float max) {
+        return Math.max(0f, Math.min(max, value));
+    }
+
+    /** Frame YUV_420_888 tổng hợp với stride tùy chọn. */
+    static class SyntheticFrame {
+        final int width;
+        final int height;
+        final int yRowStride;
+        final int uvRowStride;
+        final int uvPixelStride;
+        final byte[] y;
+        final byte[] u;
+        final byte[] v;
+
+        private SyntheticFrame(int width, int height, int yRowStride, int uvPixelStride) {
+            this.width = width;
+            this.height = height;
+            this.yRowStride = yRowStride;
+            this.uvPixelStride = uvPixelStride;
+            this.uvRowStride = uvPixelStride == 2 ? yRowStride : yRowStride / 2;
+            this.y = new byte[yRowStride * height];
+            int chromaSize = uvRowStride * ((height + 1) / 2);
+            if (uvPixelStride == 2) {
+                // U và V dùng chung một vùng nhớ, lệch nhau 1 byte
+                byte[] shared = new byte[chromaSize + 1];
+                this.u = shared;
+                this.v = shared;
+            } else {
+                this.u = new byte[chromaSize];
+                this.v = new byte[chromaSize];
+            }
+        }
+
+        static SyntheticFrame constant(int width, int height, int luma, int cb, int cr) {
+            SyntheticFrame frame = new SyntheticFrame(width, height, width, 1);
+            java.util.Arrays.fill(frame.y, (byte) luma);
+            java.util.Arrays.fill(frame.u, (byte) cb);
+            java.util.Arrays.fill(frame.v, (byte) cr);
+            return frame;
+        }
+
+        /** Gradient mượt trên cả ba kênh để so sánh với tham chiếu. */
+        static SyntheticFrame gradient(int width, int height, int yRowStride, int chromaScale, int uvPixelStride) {
+            SyntheticFrame frame = new SyntheticFrame(width, height, yRowStride, uvPixelStride);
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    frame.y[y * yRowStride + x] = (byte) (16 + (200 * x / width + 30 * y / height));
+                }
+            }
+            int vOffset = uvPixelStride == 2 ? 1 : 0;
+            for (int cy = 0; cy < (height + 1) / 2; cy++) {
+                for (int cx = 0; cx < (width + 1) / 2; cx++) {
+                    int index = cy * frame.uvRowStride + cx * uvPixelStride;
+                    frame.u[index] = (byte) (128 + chromaScale * (cx - width / 4) / 2);
+                    frame.v[index + vOffset] = (byte) (128 + chromaScale * (cy - height / 4) / 2);
+                }
+            }
+            return frame;
+        }
+
+        void convert(YuvToTensorConverter converter, int rotation, ByteBuffer out) {
+            ByteBuffer uBuffer = ByteBuffer.wrap(u);
+            ByteBuffer vBuffer = ByteBuffer.wrap(v);
+            if (uvPixelStride == 2) {
+                vBuffer.position(1);
+                vBuffer = vBuffer.slice();
+            }
+            converter.convert(ByteBuffer.wrap(y), yRowStride, uBuffer, vBuffer,
+                    uvRowStride, uvPixelStride, width, height, rotation, out);
+        }
+    }
+}
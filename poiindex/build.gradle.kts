@@ -0,0 +1,46 @@
+// Chuyển dữ liệu OSM thành file chỉ mục tìm kiếm địa điểm ngoại tuyến (poi_index.bin) cho màn hình Tìm kiếm.
+//
+// Xuất các điểm có tên từ bản trích OSM ra CSV bằng osmconvert, rồi build app với -PpoiSource:
+//
+//   osmconvert vietnam-latest.osm.pbf --all-to-nodes --csv-headline --csv-separator="\t" \
+//       --csv="@lat @lon name amenity shop public_transport highway railway tourism leisure healthcare office" \
+//       -o=poi.tsv
+//   ./gradlew :app:assembleDebug -PpoiSource=/path/poi.tsv
+//
+// Chỉ mục được ghi vào app/build/generated/poi và đóng gói vào assets không nén để app ánh xạ bộ nhớ.
+// Cũng chạy riêng được: ./gradlew :poiindex:run --args="poi.tsv poi_index.bin"
+
+plugins {
+    application
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+dependencies {
+    implementation(project(":core"))
+}
+
+application {
+    mainClass.set("com.example.blindwayapp.poiindex.PoiIndexMain")
+}
+
+val poiSource = findProperty("poiSource") as String?
+val poiIndexFile = rootProject.layout.projectDirectory.file("app/build/generated/poi/poi_index.bin")
+
+tasks.register<JavaExec>("poiIndex") {
+    description = "Dựng poi_index.bin cho app từ file CSV của osmconvert (-PpoiSource)"
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set(application.mainClass)
+    if (poiSource != null) {
+        inputs.file(poiSource)
+        args(poiSource, poiIndexFile.asFile.path)
+    }
+    outputs.file(poiIndexFile)
+    doFirst {
+        require(poiSource != null) { "Cần -PpoiSource=<file tsv>" }
+        poiIndexFile.asFile.parentFile.mkdirs()
+    }
+}
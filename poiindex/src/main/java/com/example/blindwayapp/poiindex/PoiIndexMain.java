@@ -0,0 +1,143 @@
+package com.example.blindwayapp.poiindex;
+
+import com.example.blindwayapp.location.PoiIndexWriter;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Đọc CSV phân tách bằng tab do osmconvert xuất (có dòng tiêu đề, cột @lat, @lon, name và các
+ * thẻ OSM), xếp mỗi điểm vào một nhóm của màn hình Tìm kiếm rồi ghi file chỉ mục.
+ *
+ * Cách dùng: PoiIndexMain &lt;poi.tsv&gt; &lt;poi_index.bin&gt;
+ */
+public final class PoiIndexMain {
+
+    // Trùng nhãn các nút nhóm trong fragment_search_location để nhấn nút là tìm theo nhóm
+    static final String SHOPPING = "Cửa hàng mua sắm";
+    static final String SERVICES = "Dịch vụ";
+    static final String PUBLIC = "Công cộng & Hành chính";
+    static final String HEALTH = "Y tế & Sức khỏe";
+    static final String EDUCATION = "Giáo dục & Học tập";
+    static final String LEISURE = "Giải trí & Thư giãn";
+    static final String TRANSPORT = "Vận chuyển & Hậu cần";
+    static final String FINANCE = "Tài chính & Ngân hàng";
+    static final String FOOD = "Ẩm thực & Nhà hàng";
+    static final String LODGING = "Khách sạn & Lưu trú";
+
+    private static final Map<String, String> AMENITIES = new HashMap<>();
+    private static final Set<String> TOURISM_LODGING = new HashSet<>(Arrays.asList(
+            "hotel", "hostel", "guest_house", "motel", "apartment"));
+
+    static {
+        put(AMENITIES, TRANSPORT, "bus_station", "taxi", "ferry_terminal", "parking", "fuel", "bicycle_rental");
+        put(AMENITIES, HEALTH, "hospital", "clinic", "doctors", "pharmacy", "dentist");
+        put(AMENITIES, EDUCATION, "school", "university", "college", "kindergarten", "library");
+        put(AMENITIES, FINANCE, "bank", "atm", "bureau_de_change");
+        put(AMENITIES, FOOD, "restaurant", "cafe", "fast_food", "food_court", "bar", "pub", "ice_cream");
+        put(AMENITIES, LEISURE, "cinema", "theatre", "arts_centre", "nightclub");
+        put(AMENITIES, PUBLIC, "townhall", "police", "post_office", "courthouse", "fire_station",
+                "community_centre", "toilets", "place_of_worship");
+        put(AMENITIES, SHOPPING, "marketplace");
+    }
+
+    private PoiIndexMain() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Cách dùng: PoiIndexMain <poi.tsv> <poi_index.bin>");
+            System.exit(2);
+        }
+        PoiIndexWriter writer = new PoiIndexWriter();
+        int skipped = 0;
+        try (BufferedReader reader = Files.newBufferedReader(new File(args[0]).toPath(), StandardCharsets.UTF_8)) {
+            String header = reader.readLine();
+            if (header == null) {
+                throw new IOException("File rỗng: " + args[0]);
+            }
+            String[] columns = header.split("\t", -1);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] values = line.split("\t", -1);
+                Map<String, String> tags = new HashMap<>();
+                for (int i = 0; i < columns.length && i < values.length; i++) {
+                    if (!values[i].isEmpty()) {
+                        tags.put(columns[i], values[i]);
+                    }
+                }
+                String name = tags.get("name");
+                String category = category(tags);
+                if (name == null || category == null || !tags.containsKey("@lat") || !tags.containsKey("@lon")) {
+                    skipped++;
+                    continue;
+                }
+                try {
+                    writer.add(name, category, Double.parseDouble(tags.get("@lat")), Double.parseDouble(tags.get("@lon")));
+                } catch (NumberFormatException e) {
+                    skipped++;
+                }
+            }
+        }
+
+        File output = new File(args[1]);
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(output))) {
+            writer.writeTo(out);
+        }
+        System.out.println("Đã ghi " + writer.size() + " địa điểm (bỏ " + skipped + " dòng) vào "
+                + output + ", " + output.length() / 1024 + " KB");
+    }
+
+    /** Nhóm của một điểm theo thẻ OSM, null nếu không thuộc nhóm nào. */
+    static String category(Map<String, String> tags) {
+        if (tags.containsKey("public_transport") || "bus_stop".equals(tags.get("highway"))
+                || isAny(tags.get("railway"), "station", "halt", "tram_stop", "subway_entrance")) {
+            return TRANSPORT;
+        }
+        if (tags.containsKey("healthcare")) {
+            return HEALTH;
+        }
+        String amenity = tags.get("amenity");
+        if (amenity != null && AMENITIES.containsKey(amenity)) {
+            return AMENITIES.get(amenity);
+        }
+        String tourism = tags.get("tourism");
+        if (tourism != null) {
+            return TOURISM_LODGING.contains(tourism) ? LODGING : LEISURE;
+        }
+        if (tags.containsKey("leisure")) {
+            return LEISURE;
+        }
+        if ("government".equals(tags.get("office"))) {
+            return PUBLIC;
+        }
+        if (tags.containsKey("shop")) {
+            return SHOPPING;
+        }
+        if (amenity != null || tags.containsKey("office")) {
+            return SERVICES;
+        }
+        return null;
+    }
+
+    private static boolean isAny(String value, String... candidates) {
+        return value != null && Arrays.asList(candidates).contains(value);
+    }
+
+    private static void put(Map<String, String> map, String category, String... values) {
+        for (String value : values) {
+            map.put(value, category);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+// Chạy lại file frame ghi trên điện thoại (.bwfr) qua đúng chuỗi xử lý của :core trên máy tính:
+//
+//   ./gradlew :replay:run --args="frames_123.bwfr"
+//   ./gradlew :replay:run -PtfliteJar=/path/tensorflow-lite.jar --args="frames_123.bwfr model.tflite labels.txt"
+//
+// Không có bản TFLite Java cho máy tính trên Maven (gói org.tensorflow:tensorflow-lite là AAR
+// Android). Cần tự build jar Java API cùng libtensorflowlite_jni cho máy đang chạy
+// (bazel build //tensorflow/lite/java:tensorflowlite và :libtensorflowlite_jni.so), truyền jar
+// qua -PtfliteJar và đặt thư viện native trong java.library.path. Không có jar thì chỉ chạy được
+// phần không cần model (khoảng trống, cảnh báo tường, tracker).
+
+plugins {
+    application
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+val tfliteJar = findProperty("tfliteJar") as String?
+
+sourceSets {
+    main {
+        if (tfliteJar != null) {
+            java.srcDir("src/tflite/java")
+        }
+    }
+}
+
+dependencies {
+    implementation(project(":core"))
+    if (tfliteJar != null) {
+        implementation(files(tfliteJar))
+    }
+}
+
+application {
+    mainClass.set("com.example.blindwayapp.replay.ReplayMain")
+}
+
+tasks.named<JavaExec>("run") {
+    (findProperty("tfliteNativeDir") as String?)?.let { jvmArgs("-Djava.library.path=$it") }
+}
@@ -0,0 +1,12 @@
+package com.example.blindwayapp.replay;
+
+import com.example.blindwayapp.ui.navigation.FrameReplayer;
+import com.example.blindwayapp.ui.navigation.ModelSpec;
+
+import java.io.Closeable;
+
+/** Model chạy trên máy tính, cài đặt bằng TFLite khi build có -PtfliteJar. */
+interface ModelRunner extends FrameReplayer.Inference, Closeable {
+
+    ModelSpec getSpec();
+}
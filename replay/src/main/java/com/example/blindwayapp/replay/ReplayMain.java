@@ -0,0 +1,97 @@
+package com.example.blindwayapp.replay;
+
+import com.example.blindwayapp.ui.navigation.AlertDecider;
+import com.example.blindwayapp.ui.navigation.CameraIntrinsics;
+import com.example.blindwayapp.ui.navigation.DistanceEstimator;
+import com.example.blindwayapp.ui.navigation.FrameRecordReader;
+import com.example.blindwayapp.ui.navigation.FrameReplayer;
+import com.example.blindwayapp.ui.navigation.ObjectTracker;
+import com.example.blindwayapp.ui.navigation.RecordedFrame;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Chạy lại một file .bwfr và in thông lượng, phân bố độ trễ từng tầng và các cảnh báo đã phát.
+ *
+ * Cách dùng: ReplayMain &lt;frames.bwfr&gt; [model.tflite [labels.txt]]
+ */
+public final class ReplayMain {
+
+    // Giống cấu hình của NavigationFragment để cảnh báo khớp với lúc chạy trên điện thoại
+    private static final long TARGET_ALERT_LATENCY_MS = 400;
+    private static final int MAX_TRACKS = 64;
+    private static final float TRACK_IOU_THRESHOLD = 0.3f;
+    private static final int TRACK_MIN_HITS = 2;
+    private static final long TRACK_MAX_COAST_MS = 1000;
+    private static final String TFLITE_RUNNER = "com.example.blindwayapp.replay.TfLiteModelRunner";
+
+    private ReplayMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Cách dùng: ReplayMain <frames.bwfr> [model.tflite [labels.txt]]");
+            System.exit(2);
+        }
+        File recording = new File(args[0]);
+        ModelRunner model = args.length > 1 ? loadModel(new File(args[1])) : null;
+        String[] labels = args.length > 2 ? readLabels(new File(args[2])) : new String[0];
+        if (model == null) {
+            System.out.println("Không có model: chỉ chạy khoảng trống, tracker và cảnh báo tường");
+        }
+
+        FrameReplayer replayer = new FrameReplayer(
+                model != null ? model.getSpec() : null, labels, model,
+                new DistanceEstimator(CameraIntrinsics.DEFAULT),
+                new ObjectTracker(MAX_TRACKS, TRACK_IOU_THRESHOLD, TRACK_MIN_HITS, TRACK_MAX_COAST_MS),
+                new AlertDecider(TARGET_ALERT_LATENCY_MS, new Locale("vi")));
+        RecordedFrame frame = new RecordedFrame();
+        try (FrameRecordReader reader = new FrameRecordReader(
+                new BufferedInputStream(new FileInputStream(recording)))) {
+            while (reader.next(frame)) {
+                replayer.process(frame);
+            }
+        } finally {
+            if (model != null) {
+                model.close();
+            }
+        }
+        System.out.print(replayer.report());
+    }
+
+    private static ModelRunner loadModel(File file) throws Exception {
+        Class<?> runnerClass;
+        try {
+            runnerClass = Class.forName(TFLITE_RUNNER);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("Bản build không có TFLite, build lại với -PtfliteJar=<jar>", e);
+        }
+        try {
+            return (ModelRunner) runnerClass.getDeclaredConstructor(File.class, int.class)
+                    .newInstance(file, Runtime.getRuntime().availableProcessors());
+        } catch (InvocationTargetException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+    }
+
+    /** Mỗi dòng một nhãn, bỏ dòng trống. */
+    private static String[] readLabels(File file) throws IOException {
+        List<String> result = new ArrayList<>();
+        for (String line : Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)) {
+            line = line.trim();
+            if (!line.isEmpty()) {
+                result.add(line);
+            }
+        }
+        return result.toArray(new String[0]);
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.blindwayapp.replay;
+
+import com.example.blindwayapp.ui.navigation.ModelSpec;
+import com.example.blindwayapp.ui.navigation.TensorSpec;
+
+import org.tensorflow.lite.Interpreter;
+import org.tensorflow.lite.Tensor;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+
+/**
+ * Chạy model bằng TFLite Java API trên CPU của máy tính. Chỉ được biên dịch khi build có
+ * -PtfliteJar, ReplayMain nạp lớp này theo tên.
+ */
+class TfLiteModelRunner implements ModelRunner {
+
+    private final Interpreter interpreter;
+    private final ModelSpec spec;
+
+    TfLiteModelRunner(File model, int threads) {
+        Interpreter.Options options = new Interpreter.Options().setNumThreads(threads);
+        interpreter = new Interpreter(model, options);
+        spec = new ModelSpec(toTensorSpec(interpreter.getInputTensor(0)),
+                toTensorSpec(interpreter.getOutputTensor(0)));
+    }
+
+    @Override
+    public ModelSpec getSpec() {
+        return spec;
+    }
+
+    @Override
+    public void run(ByteBuffer input, ByteBuffer output) {
+        interpreter.run(input, output);
+    }
+
+    @Override
+    public void close() {
+        interpreter.close();
+    }
+
+    private static TensorSpec toTensorSpec(Tensor tensor) {
+        TensorSpec.DataType dataType;
+        switch (tensor.dataType()) {
+            case FLOAT32:
+                dataType = TensorSpec.DataType.FLOAT32;
+                break;
+            case UINT8:
+                dataType = TensorSpec.DataType.UINT8;
+                break;
+            case INT8:
+                dataType = TensorSpec.DataType.INT8;
+                break;
+            default:
+                throw new IllegalArgumentException("Kiểu dữ liệu tensor không hỗ trợ: " + tensor.dataType());
+        }
+        Tensor.QuantizationParams params = tensor.quantizationParams();
+        return new TensorSpec(dataType, tensor.shape(), params.getScale(), params.getZeroPoint());
+    }
+}
@@ -21,4 +21,9 @@ dependencyResolutionManagement {
 
 rootProject.name = "BlindwayApp"
 include(":app")
+include(":core")
+include(":benchmarks")
+include(":replay")
+include(":poiindex")
+include(":walkgraph")
 include(":app:directory")
@@ -0,0 +1,46 @@
+// Chuyển dữ liệu OSM thành file đồ thị đường đi bộ (walk_graph.bin) cho dẫn đường ngoại tuyến.
+//
+// Cắt vùng thành phố và giữ các đường có thẻ highway bằng osmconvert và osmfilter, rồi build app
+// với -PwalkGraphSource:
+//
+//   osmconvert vietnam-latest.osm.pbf -b=105.70,20.95,105.95,21.10 --drop-author --drop-relations -o=hanoi.o5m
+//   osmfilter hanoi.o5m --keep="highway=" --drop-tags="created_by=" -o=hanoi-walk.osm
+//   ./gradlew :app:assembleDebug -PwalkGraphSource=/path/hanoi-walk.osm
+//
+// Đồ thị được ghi vào app/build/generated/routing và đóng gói vào assets không nén để app ánh xạ bộ nhớ.
+// Cũng chạy riêng được: ./gradlew :walkgraph:run --args="hanoi-walk.osm walk_graph.bin"
+
+plugins {
+    application
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+dependencies {
+    implementation(project(":core"))
+}
+
+application {
+    mainClass.set("com.example.blindwayapp.walkgraph.WalkGraphMain")
+}
+
+val walkGraphSource = findProperty("walkGraphSource") as String?
+val walkGraphFile = rootProject.layout.projectDirectory.file("app/build/generated/routing/walk_graph.bin")
+
+tasks.register<JavaExec>("walkGraph") {
+    description = "Dựng walk_graph.bin cho app từ file OSM XML (-PwalkGraphSource)"
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set(application.mainClass)
+    if (walkGraphSource != null) {
+        inputs.file(walkGraphSource)
+        args(walkGraphSource, walkGraphFile.asFile.path)
+    }
+    outputs.file(walkGraphFile)
+    doFirst {
+        require(walkGraphSource != null) { "Cần -PwalkGraphSource=<file osm>" }
+        walkGraphFile.asFile.parentFile.mkdirs()
+    }
+}
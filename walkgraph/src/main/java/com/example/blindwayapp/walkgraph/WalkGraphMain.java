@@ -0,0 +1,172 @@
+package com.example.blindwayapp.walkgraph;
+
+import com.example.blindwayapp.routing.WalkGraphWriter;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Đọc file OSM XML (đã lọc còn các đường highway, xem build.gradle.kts), giữ các đường người đi bộ
+ * dùng được rồi ghi file đồ thị đường đi bộ.
+ *
+ * Đọc file hai lượt để không phải giữ toạ độ mọi nút trong file: lượt đầu lấy các đường và tập nút
+ * chúng dùng, lượt sau chỉ lấy toạ độ của các nút đó. Chỉ dùng StAX của JDK, không cần thư viện OSM.
+ *
+ * Cách dùng: WalkGraphMain &lt;walk.osm&gt; &lt;walk_graph.bin&gt;
+ */
+public final class WalkGraphMain {
+
+    private static final Set<String> WALKABLE = new HashSet<>(Arrays.asList(
+            "footway", "pedestrian", "path", "steps", "living_street", "residential", "service",
+            "unclassified", "road", "track", "corridor", "cycleway",
+            "tertiary", "tertiary_link", "secondary", "secondary_link", "primary", "primary_link"));
+    private static final Set<String> FOOT_ALLOWED = new HashSet<>(Arrays.asList(
+            "yes", "designated", "permissive"));
+    private static final Set<String> NO_ACCESS = new HashSet<>(Arrays.asList("no", "private"));
+
+    private WalkGraphMain() {
+    }
+
+    public static void main(String[] args) throws IOException, XMLStreamException {
+        if (args.length < 2) {
+            System.err.println("Cách dùng: WalkGraphMain <walk.osm> <walk_graph.bin>");
+            System.exit(2);
+        }
+        File input = new File(args[0]);
+        List<long[]> wayNodes = new ArrayList<>();
+        List<String> wayNames = new ArrayList<>();
+        Map<Long, Integer> nodeIds = new HashMap<>();
+        readWays(input, wayNodes, wayNames, nodeIds);
+
+        WalkGraphWriter writer = new WalkGraphWriter();
+        readNodes(input, nodeIds, writer);
+
+        int missing = 0;
+        for (int w = 0; w < wayNodes.size(); w++) {
+            long[] refs = wayNodes.get(w);
+            for (int i = 1; i < refs.length; i++) {
+                Integer from = nodeIds.get(refs[i - 1]);
+                Integer to = nodeIds.get(refs[i]);
+                // Nút nằm ngoài vùng cắt không có toạ độ (-1)
+                if (from == null || to == null || from < 0 || to < 0) {
+                    missing++;
+                    continue;
+                }
+                writer.addEdge(from, to, wayNames.get(w));
+            }
+        }
+
+        File output = new File(args[1]);
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(output))) {
+            writer.writeTo(out);
+        }
+        System.out.println("Đã ghi " + writer.getNodeCount() + " nút, " + writer.getEdgeCount() + " đoạn đường từ "
+                + wayNodes.size() + " đường (bỏ " + missing + " đoạn thiếu nút) vào "
+                + output + ", " + output.length() / 1024 + " KB");
+    }
+
+    private static void readWays(File input, List<long[]> wayNodes, List<String> wayNames,
+                                 Map<Long, Integer> nodeIds) throws IOException, XMLStreamException {
+        try (InputStream stream = new BufferedInputStream(new FileInputStream(input))) {
+            XMLStreamReader reader = XMLInputFactory.newInstance().createXMLStreamReader(stream);
+            List<Long> refs = new ArrayList<>();
+            Map<String, String> tags = new HashMap<>();
+            boolean inWay = false;
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    String element = reader.getLocalName();
+                    if ("way".equals(element)) {
+                        inWay = true;
+                        refs.clear();
+                        tags.clear();
+                    } else if (inWay && "nd".equals(element)) {
+                        refs.add(Long.parseLong(reader.getAttributeValue(null, "ref")));
+                    } else if (inWay && "tag".equals(element)) {
+                        tags.put(reader.getAttributeValue(null, "k"), reader.getAttributeValue(null, "v"));
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT && "way".equals(reader.getLocalName())) {
+                    inWay = false;
+                    if (refs.size() < 2 || !isWalkable(tags)) {
+                        continue;
+                    }
+                    long[] way = new long[refs.size()];
+                    for (int i = 0; i < way.length; i++) {
+                        way[i] = refs.get(i);
+                        nodeIds.put(way[i], -1);
+                    }
+                    wayNodes.add(way);
+                    wayNames.add(name(tags));
+                }
+            }
+            reader.close();
+        }
+    }
+
+    private static void readNodes(File input, Map<Long, Integer> nodeIds, WalkGraphWriter writer)
+            throws IOException, XMLStreamException {
+        try (InputStream stream = new BufferedInputStream(new FileInputStream(input))) {
+            XMLStreamReader reader = XMLInputFactory.newInstance().createXMLStreamReader(stream);
+            while (reader.hasNext()) {
+                if (reader.next() != XMLStreamConstants.START_ELEMENT || !"node".equals(reader.getLocalName())) {
+                    continue;
+                }
+                long id = Long.parseLong(reader.getAttributeValue(null, "id"));
+                if (nodeIds.containsKey(id)) {
+                    nodeIds.put(id, writer.addNode(Double.parseDouble(reader.getAttributeValue(null, "lat")),
+                            Double.parseDouble(reader.getAttributeValue(null, "lon"))));
+                }
+            }
+            reader.close();
+        }
+    }
+
+    /**
+     * Người đi bộ dùng được đường này không, theo thẻ highway, foot và access. Đường cao tốc và
+     * đường trục (không có trong WALKABLE) chỉ dùng khi được ghi rõ cho phép đi bộ.
+     */
+    static boolean isWalkable(Map<String, String> tags) {
+        String highway = tags.get("highway");
+        String foot = tags.get("foot");
+        if (highway == null || NO_ACCESS.contains(foot)) {
+            return false;
+        }
+        if (FOOT_ALLOWED.contains(foot)) {
+            return true;
+        }
+        return !NO_ACCESS.contains(tags.get("access")) && WALKABLE.contains(highway);
+    }
+
+    /** Tên đọc cho người dùng; cầu thang và vạch qua đường không tên vẫn được gọi tên vì cần chú ý. */
+    static String name(Map<String, String> tags) {
+        String name = tags.get("name");
+        if (name != null && !name.isEmpty()) {
+            return name;
+        }
+        if ("steps".equals(tags.get("highway"))) {
+            return "cầu thang";
+        }
+        if ("crossing".equals(tags.get("footway"))) {
+            return "vạch qua đường";
+        }
+        return "";
+    }
+}